@@ -15,13 +15,13 @@ package edu.mayo.kmdp.ops.tranx.bpm;
 
 import static java.util.Arrays.asList;
 import static org.omg.spec.api4kp._20200801.AbstractCarrier.rep;
-import static org.omg.spec.api4kp._20200801.AbstractCompositeCarrier.ofMixedAnonymousComposite;
 import static org.omg.spec.api4kp._20200801.services.transrepresentation.ModelMIMECoder.encode;
 import static org.omg.spec.api4kp._20200801.taxonomy.krlanguage.KnowledgeRepresentationLanguageSeries.DMN_1_2;
 import static org.omg.spec.api4kp._20200801.taxonomy.krlanguage.KnowledgeRepresentationLanguageSeries.FHIR_STU3;
 import static org.omg.spec.api4kp._20200801.taxonomy.parsinglevel.ParsingLevelSeries.Abstract_Knowledge_Expression;
 
 import edu.mayo.kmdp.knowledgebase.KnowledgeBaseProvider;
+import edu.mayo.kmdp.knowledgebase.KnowledgeCarriers;
 import edu.mayo.kmdp.knowledgebase.binders.fhir.stu3.PlanDefDataShapeBinder;
 import edu.mayo.kmdp.knowledgebase.flatteners.dmn.v1_2.DMN12ModelFlattener;
 import edu.mayo.kmdp.knowledgebase.flatteners.fhir.stu3.PlanDefinitionFlattener;
@@ -39,8 +39,16 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import org.apache.jena.vocabulary.SKOS;
 import org.omg.spec.api4kp._20200801.Answer;
 import org.omg.spec.api4kp._20200801.api.inference.v4.server.ReasoningApiInternal._askQuery;
@@ -52,7 +60,6 @@ import org.omg.spec.api4kp._20200801.api.repository.asset.v4.KnowledgeAssetRepos
 import org.omg.spec.api4kp._20200801.api.transrepresentation.v4.server.DeserializeApiInternal;
 import org.omg.spec.api4kp._20200801.api.transrepresentation.v4.server.TransxionApiInternal;
 import org.omg.spec.api4kp._20200801.id.Pointer;
-import org.omg.spec.api4kp._20200801.id.ResourceIdentifier;
 import org.omg.spec.api4kp._20200801.services.CompositeKnowledgeCarrier;
 import org.omg.spec.api4kp._20200801.services.KnowledgeCarrier;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -79,7 +86,7 @@ public abstract class CcpmToPlanDefPipeline implements _applyNamedTransform, _in
 
   protected _flattenArtifact flattener;
 
-  protected _flattenArtifact dmnFlattener;
+  protected DMN12ModelFlattener dmnFlattener;
 
   protected KnowledgeBaseProvider kbManager;
 
@@ -88,6 +95,10 @@ public abstract class CcpmToPlanDefPipeline implements _applyNamedTransform, _in
 
   protected Map<Integer, Consumer<Answer<KnowledgeCarrier>>> injectors = new HashMap<>();
 
+  private ExecutorService executor;
+
+  private Semaphore permits;
+
   protected CcpmToPlanDefPipeline(
       @Autowired KnowledgeAssetCatalogApi cat,
       @Autowired KnowledgeAssetRepositoryApi repo,
@@ -151,32 +162,22 @@ public abstract class CcpmToPlanDefPipeline implements _applyNamedTransform, _in
         kbManager.getKnowledgeBaseManifestation(kbaseId, versionTag);
     UUID rootId = composite.get().mainComponent().getAssetId().getUuid();
 
+    // The lexica do not depend on the models: fetch them while the models are processed
+    CompletableFuture<Answer<KnowledgeCarrier>> lexica = async(() ->
+        PlanDefTerminologyWeaver.getLexica(annotationVocabularies, cat, repo));
+
     Answer<KnowledgeCarrier> struct = composite
         .map(CompositeKnowledgeCarrier.class::cast)
         .map(CompositeKnowledgeCarrier::getStruct);
     injector(0).accept(struct);
 
-    // Parse
-    Answer<KnowledgeCarrier> parsedComposite =
-        composite.flatMap(kc -> parser.applyLift(kc, Abstract_Knowledge_Expression.getTag()));
-    injector(1).accept(parsedComposite);
-
-    Answer<KnowledgeCarrier> wovenComposite = flattenDecisions(parsedComposite);
-
-    injector(2).accept(wovenComposite);
-
-    // Translate into PlanDefinition
-    Answer<KnowledgeCarrier> planDefinitions =
-        wovenComposite.flatMap(kc ->
-            translator.applyTransrepresent(kc, encode(rep(FHIR_STU3)), null));
-    injector(3).accept(planDefinitions);
-
-    // Flatten the composite, which at this point is homogeneous FHIR PlanDef
-    Answer<KnowledgeCarrier> planDefinition = planDefinitions
-        .reduce(kc -> flattener.flattenArtifact((CompositeKnowledgeCarrier) kc, rootId, null));
-    injector(4).accept(planDefinition);
+    // Parse, flatten and translate the components into (a single) PlanDefinition
+    Answer<KnowledgeCarrier> planDefinition = composite
+        .map(CompositeKnowledgeCarrier.class::cast)
+        .flatMap(ckc -> transrepresent(ckc, rootId));
 
-    // TODO FIXME Need to think about 'GC' for the kbManager.. when are KB released, vs overwritten?
+    // Replace the KB of any previous translation of the same model: the versions derived
+    // from the new KB (selection, binding, weaving) are released by the kbManager's lifecycle
     planDefinition.map(kc -> kbManager.deleteKnowledgeBase(kc.getAssetId().getUuid()));
 
     // prepare for the binding of the data shapes
@@ -197,7 +198,7 @@ public abstract class CcpmToPlanDefPipeline implements _applyNamedTransform, _in
                     planDefKB.flatMap(
                         pd -> kbManager.bind(pd.getUuid(), pd.getVersionTag(), bindings.get(0))))
                 .flatMap(ptr ->
-                    PlanDefTerminologyWeaver.getLexica(annotationVocabularies, cat, repo)
+                    lexica.join()
                         .flatMap(lex -> kbManager.namedWeave(ptr.getUuid(), ptr.getVersionTag(),
                             PlanDefTerminologyWeaver.id, lex, SKOS.altLabel.getLocalName())))
                 .flatMap(ptr -> kbManager
@@ -209,40 +210,170 @@ public abstract class CcpmToPlanDefPipeline implements _applyNamedTransform, _in
     return shapedPlanDef;
   }
 
-  private Answer<KnowledgeCarrier> flattenDecisions(Answer<KnowledgeCarrier> parsedComposite) {
-    // TODO - see if/how to improve this whole method
-    CompositeKnowledgeCarrier ckc = (CompositeKnowledgeCarrier) parsedComposite.get();
-    List<KnowledgeCarrier> allComps = ckc.componentList();
-    List<KnowledgeCarrier> flatComps = new ArrayList<>(allComps.size());
-
-    for (KnowledgeCarrier kc : allComps) {
-      if (DMN_1_2.sameAs(kc.getRepresentation().getLanguage())) {
-        ResourceIdentifier rootId = kc.getAssetId();
-        Answer<KnowledgeCarrier> flat = dmnFlattener
-            .flattenArtifact(
-                ofMixedAnonymousComposite(rootId, allComps),
-                rootId.getUuid(),
-                null);
-        if (flat.isFailure()) {
-          return flat;
-        } else {
-          flatComps.add(flat.get());
-        }
-      } else {
-        flatComps.add(kc);
+  /**
+   * Parses, flattens (DMN) and translates the components of a cCPM, then flattens the
+   * PlanDefinitions into the PlanDefinition of the root component.
+   * <p>
+   * The stages form a DAG, where each component is processed as soon as its own dependencies
+   * are available: a Case Model is translated right after it has been parsed, while a Decision
+   * Model is flattened (and then translated) once all the components have been parsed. The
+   * injectors 1 to 4 observe the composite as a whole, after each stage has been completed for
+   * all the components, in order.
+   *
+   * @param ckc    the cCPM composite
+   * @param rootId the id of the root (main) component
+   * @return the flat PlanDefinition
+   */
+  protected Answer<KnowledgeCarrier> transrepresent(CompositeKnowledgeCarrier ckc, UUID rootId) {
+    Answer<KnowledgeCarrier> source = Answer.of(ckc);
+    List<CompletableFuture<Answer<KnowledgeCarrier>>> parsed = ckc.componentList().stream()
+        .map(comp -> async(() -> parser.applyLift(comp, Abstract_Knowledge_Expression.getTag())))
+        .collect(Collectors.toList());
+    CompletableFuture<Answer<KnowledgeCarrier>> parsedComposite =
+        stage(1, CompletableFuture.completedFuture(source), ckc, parsed);
+
+    // The Decision Models are flattened all at once, sharing the resolution of common dependencies
+    CompletableFuture<Answer<Map<UUID, KnowledgeCarrier>>> flatDecisions =
+        parsedComposite.thenCompose(all -> async(() -> all
+            .flatMap(pc -> dmnFlattener.flattenAll((CompositeKnowledgeCarrier) pc))));
+    List<CompletableFuture<Answer<KnowledgeCarrier>>> flat = parsed.stream()
+        .map(comp -> comp.thenCompose(kc -> isDecisionModel(kc)
+            ? flatDecisions.thenApply(flatModels -> kc.flatMap(dmn -> flatModels
+                .flatOpt(m -> Optional.ofNullable(m.get(dmn.getAssetId().getUuid())))
+                .map(flatDmn -> KnowledgeCarriers.withExpression(dmn, flatDmn.getExpression()))))
+            : comp))
+        .collect(Collectors.toList());
+    CompletableFuture<Answer<KnowledgeCarrier>> wovenComposite =
+        stage(2, parsedComposite, ckc, flat);
+
+    List<CompletableFuture<Answer<KnowledgeCarrier>>> translated = flat.stream()
+        .map(comp -> comp.thenCompose(kc -> async(() -> kc.flatMap(c ->
+            translator.applyTransrepresent(c, encode(rep(FHIR_STU3)), null)))))
+        .collect(Collectors.toList());
+    CompletableFuture<Answer<KnowledgeCarrier>> planDefinitions =
+        stage(3, wovenComposite, ckc, translated);
+
+    // Flatten the composite, which at this point is homogeneous FHIR PlanDef
+    Answer<KnowledgeCarrier> planDefinition = planDefinitions
+        .exceptionally(CcpmToPlanDefPipeline::failed)
+        .join()
+        .reduce(kc -> flattener.flattenArtifact((CompositeKnowledgeCarrier) kc, rootId, null));
+    injector(4).accept(planDefinition);
+    return planDefinition;
+  }
+
+  private boolean isDecisionModel(Answer<KnowledgeCarrier> comp) {
+    return comp.isSuccess()
+        && comp.get().getRepresentation() != null
+        && DMN_1_2.sameAs(comp.get().getRepresentation().getLanguage());
+  }
+
+  /**
+   * Maps an unchecked exception, thrown by one of the stages of the DAG (and wrapped by the
+   * dependent futures), to a failed Answer
+   */
+  private static Answer<KnowledgeCarrier> failed(Throwable t) {
+    Throwable cause = t instanceof CompletionException && t.getCause() != null
+        ? t.getCause()
+        : t;
+    return Answer.failed(cause instanceof Exception
+        ? (Exception) cause
+        : new CompletionException(cause));
+  }
+
+  /**
+   * Completes a stage of the DAG, re-assembling the components into a copy of the composite,
+   * once the previous stage and all the components are complete, then notifies the injector.
+   *
+   * @return the composite, or the first failed component
+   */
+  private CompletableFuture<Answer<KnowledgeCarrier>> stage(int index,
+      CompletableFuture<Answer<KnowledgeCarrier>> previous,
+      CompositeKnowledgeCarrier ckc,
+      List<CompletableFuture<Answer<KnowledgeCarrier>>> components) {
+    return previous
+        .thenCombine(CompletableFuture.allOf(components.toArray(new CompletableFuture<?>[0])),
+            (prev, done) -> prev.flatMap(p -> recompose(ckc, components)))
+        .thenApply(ans -> {
+          injector(index).accept(ans);
+          return ans;
+        });
+  }
+
+  private static Answer<KnowledgeCarrier> recompose(CompositeKnowledgeCarrier ckc,
+      List<CompletableFuture<Answer<KnowledgeCarrier>>> components) {
+    List<KnowledgeCarrier> comps = new ArrayList<>(components.size());
+    for (CompletableFuture<Answer<KnowledgeCarrier>> comp : components) {
+      Answer<KnowledgeCarrier> ans = comp.join();
+      if (ans.isFailure()) {
+        return ans;
       }
+      comps.add(ans.get());
     }
+    CompositeKnowledgeCarrier copy = KnowledgeCarriers.shallowCopy(ckc);
+    copy.getComponent().clear();
+    copy.getComponent().addAll(comps);
+    return Answer.of(copy);
+  }
+
+  /**
+   * Runs a task on the executor, within the concurrency bounds (if any). Failures, including
+   * unchecked exceptions, are returned as failed Answers.
+   */
+  private <T> CompletableFuture<Answer<T>> async(Supplier<Answer<T>> task) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        if (permits != null) {
+          permits.acquire();
+        }
+        try {
+          return task.get();
+        } finally {
+          if (permits != null) {
+            permits.release();
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return Answer.failed(e);
+      } catch (RuntimeException e) {
+        return Answer.failed(e);
+      }
+    }, getExecutor());
+  }
+
+  /**
+   * Sets the executor that runs the (per-component) stages of the pipeline, and the maximum
+   * number of stages that can run at the same time. The executor itself can be unbounded (e.g.
+   * one virtual thread per task). Defaults to a pool shared by all the pipelines, with one thread
+   * per processor.
+   *
+   * @param executor       the executor
+   * @param maxConcurrency the maximum number of concurrent tasks
+   */
+  public CcpmToPlanDefPipeline withExecutor(ExecutorService executor, int maxConcurrency) {
+    this.executor = executor;
+    this.permits = new Semaphore(maxConcurrency);
+    return this;
+  }
 
-    ckc.components()
-        .forEach(comp -> {
-          KnowledgeCarrier flatComp = flatComps.stream()
-              .filter(f -> comp.getAssetId().asKey().equals(f.getAssetId().asKey()))
-//              .filter(f -> allComps.indexOf(comp) == flatComps.indexOf(f))
-              .findFirst()
-              .orElseThrow();
-          comp.setExpression(flatComp.getExpression());
+  private ExecutorService getExecutor() {
+    return executor != null ? executor : DefaultExecutor.INSTANCE;
+  }
+
+  private static final class DefaultExecutor {
+
+    private static final ExecutorService INSTANCE = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(),
+        r -> {
+          var t = new Thread(r, "ccpm-pipeline");
+          t.setDaemon(true);
+          return t;
         });
-    return Answer.of(ckc);
+
+    private DefaultExecutor() {
+      // holder
+    }
   }
 
 }
@@ -2,8 +2,13 @@ package edu.mayo.kmdp.ops.tranx.owl2;
 
 import static java.util.stream.Collectors.toSet;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import org.coode.owlapi.manchesterowlsyntax.ManchesterOWLSyntaxEditorParser;
 import org.semanticweb.owlapi.expression.OWLEntityChecker;
 import org.semanticweb.owlapi.expression.ShortFormEntityChecker;
@@ -20,22 +25,62 @@ import org.semanticweb.owlapi.util.BidirectionalShortFormProvider;
 import org.semanticweb.owlapi.util.BidirectionalShortFormProviderAdapter;
 import org.semanticweb.owlapi.util.ShortFormProvider;
 
+/**
+ * Answers "DL queries" (Manchester syntax class expressions) against an ontology, using a
+ * reasoner.
+ * <p>
+ * If a cache size is set, the parsed class expressions, and the answers, are cached (LRU), under
+ * the assumption that the ontology does not change for the lifetime of the engine. Engines that
+ * cache their answers are usually obtained from a {@link DLReasonerSessions}. The engine can be
+ * shared: cached answers are read concurrently, while the reasoner, which is not assumed to be
+ * thread-safe, is only queried by one thread at a time. Answers are unmodifiable.
+ *
+ * @see DLReasonerSessions
+ */
 public class DLQueryEngine {
 
+  public static final int DEFAULT_CACHE_SIZE = 1024;
+
+  private enum QueryType {
+    SUPER_CLASSES, EQUIVALENT_CLASSES, SUB_CLASSES, INSTANCES
+  }
+
   private final OWLReasoner reasoner;
   private final DLQueryParser parser;
 
+  private final LruCache<String, OWLClassExpression> expressions;
+  private final LruCache<QueryKey, Set<?>> answers;
+
   /**
    * Constructs a DLQueryEngine. This will answer "DL queries" using the specified reasoner. A short
-   * form provider specifies how entities are rendered.
+   * form provider specifies how entities are rendered. Neither the class expressions, nor the
+   * answers, are cached. Like the cached ones, the answers are unmodifiable sets: callers that
+   * need to change them must copy them first.
    *
    * @param reasoner          The reasoner to be used for answering the queries.
    * @param shortFormProvider A short form provider.
    */
   public DLQueryEngine(OWLReasoner reasoner, ShortFormProvider shortFormProvider) {
+    this(reasoner, shortFormProvider, 0);
+  }
+
+  /**
+   * @param reasoner          The reasoner to be used for answering the queries.
+   * @param shortFormProvider A short form provider.
+   * @param cacheSize         The max number of class expressions, and of answers, to be cached
+   *                          (0 disables the caches)
+   */
+  public DLQueryEngine(OWLReasoner reasoner, ShortFormProvider shortFormProvider,
+      int cacheSize) {
     this.reasoner = reasoner;
     OWLOntology rootOntology = reasoner.getRootOntology();
     parser = new DLQueryParser(rootOntology, shortFormProvider);
+    expressions = new LruCache<>(cacheSize);
+    answers = new LruCache<>(cacheSize);
+  }
+
+  public OWLReasoner getReasoner() {
+    return reasoner;
   }
 
   /**
@@ -46,14 +91,11 @@ public class DLQueryEngine {
    * @return The superclasses of the specified class expression
    */
   public Set<OWLClass> getSuperClasses(String classExpressionString, boolean direct) {
-    if (classExpressionString.trim().length() == 0) {
-      return Collections.emptySet();
-    }
-    OWLClassExpression classExpression = parser
-        .parseClassExpression(classExpressionString);
-    NodeSet<OWLClass> superClasses = reasoner
-        .getSuperClasses(classExpression, direct);
-    return superClasses.entities().collect(toSet());
+    return query(QueryType.SUPER_CLASSES, classExpressionString, direct, classExpression -> {
+      NodeSet<OWLClass> superClasses = reasoner
+          .getSuperClasses(classExpression, direct);
+      return superClasses.entities().collect(toSet());
+    });
   }
 
   /**
@@ -63,19 +105,16 @@ public class DLQueryEngine {
    * @return The equivalent classes of the specified class expression
    */
   public Set<OWLClass> getEquivalentClasses(String classExpressionString) {
-    if (classExpressionString.trim().length() == 0) {
-      return Collections.emptySet();
-    }
-    OWLClassExpression classExpression = parser
-        .parseClassExpression(classExpressionString);
-    Node<OWLClass> equivalentClasses = reasoner.getEquivalentClasses(classExpression);
-    Set<OWLClass> result;
-    if (classExpression.isAnonymous()) {
-      result = equivalentClasses.entities().collect(toSet());
-    } else {
-      result = equivalentClasses.getEntitiesMinus(classExpression.asOWLClass());
-    }
-    return result;
+    return query(QueryType.EQUIVALENT_CLASSES, classExpressionString, false, classExpression -> {
+      Node<OWLClass> equivalentClasses = reasoner.getEquivalentClasses(classExpression);
+      Set<OWLClass> result;
+      if (classExpression.isAnonymous()) {
+        result = equivalentClasses.entities().collect(toSet());
+      } else {
+        result = equivalentClasses.getEntitiesMinus(classExpression.asOWLClass());
+      }
+      return result;
+    });
   }
 
   /**
@@ -86,13 +125,10 @@ public class DLQueryEngine {
    * @return The subclasses of the specified class expression
    */
   public Set<OWLClass> getSubClasses(String classExpressionString, boolean direct) {
-    if (classExpressionString.trim().length() == 0) {
-      return Collections.emptySet();
-    }
-    OWLClassExpression classExpression = parser
-        .parseClassExpression(classExpressionString);
-    NodeSet<OWLClass> subClasses = reasoner.getSubClasses(classExpression, direct);
-    return subClasses.entities().collect(toSet());
+    return query(QueryType.SUB_CLASSES, classExpressionString, direct, classExpression -> {
+      NodeSet<OWLClass> subClasses = reasoner.getSubClasses(classExpression, direct);
+      return subClasses.entities().collect(toSet());
+    });
   }
 
   /**
@@ -105,14 +141,100 @@ public class DLQueryEngine {
   public Set<OWLNamedIndividual> getInstances(
       String classExpressionString,
       boolean direct)  {
+    return query(QueryType.INSTANCES, classExpressionString, direct, classExpression -> {
+      NodeSet<OWLNamedIndividual> individuals = reasoner.getInstances(classExpression,
+          direct);
+      return individuals.entities().collect(toSet());
+    });
+  }
+
+  /**
+   * Batch version of {@link #getSuperClasses(String, boolean)}
+   *
+   * @return The superclasses of each class expression, in the order of the expressions
+   */
+  public Map<String, Set<OWLClass>> getSuperClasses(
+      Collection<String> classExpressionStrings, boolean direct) {
+    return batch(classExpressionStrings, expr -> getSuperClasses(expr, direct));
+  }
+
+  /**
+   * Batch version of {@link #getEquivalentClasses(String)}
+   *
+   * @return The equivalent classes of each class expression, in the order of the expressions
+   */
+  public Map<String, Set<OWLClass>> getEquivalentClasses(
+      Collection<String> classExpressionStrings) {
+    return batch(classExpressionStrings, this::getEquivalentClasses);
+  }
+
+  /**
+   * Batch version of {@link #getSubClasses(String, boolean)}
+   *
+   * @return The subclasses of each class expression, in the order of the expressions
+   */
+  public Map<String, Set<OWLClass>> getSubClasses(
+      Collection<String> classExpressionStrings, boolean direct) {
+    return batch(classExpressionStrings, expr -> getSubClasses(expr, direct));
+  }
+
+  /**
+   * Batch version of {@link #getInstances(String, boolean)}
+   *
+   * @return The instances of each class expression, in the order of the expressions
+   */
+  public Map<String, Set<OWLNamedIndividual>> getInstances(
+      Collection<String> classExpressionStrings, boolean direct) {
+    return batch(classExpressionStrings, expr -> getInstances(expr, direct));
+  }
+
+  /**
+   * Discards the cached class expressions and answers, e.g. after the ontology has changed
+   */
+  public void clear() {
+    expressions.clear();
+    answers.clear();
+  }
+
+  private <T> Map<String, Set<T>> batch(
+      Collection<String> classExpressionStrings, Function<String, Set<T>> query) {
+    Map<String, Set<T>> results = new LinkedHashMap<>();
+    // the answers that are not cached are computed in one go, without yielding the reasoner
+    synchronized (reasoner) {
+      for (String classExpressionString : classExpressionStrings) {
+        results.computeIfAbsent(classExpressionString, query);
+      }
+    }
+    return results;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> Set<T> query(QueryType type, String classExpressionString, boolean direct,
+      Function<OWLClassExpression, Set<T>> reason) {
     if (classExpressionString.trim().length() == 0) {
       return Collections.emptySet();
     }
-    OWLClassExpression classExpression = parser
-        .parseClassExpression(classExpressionString);
-    NodeSet<OWLNamedIndividual> individuals = reasoner.getInstances(classExpression,
-        direct);
-    return individuals.entities().collect(toSet());
+    QueryKey key = new QueryKey(type, classExpressionString, direct);
+    Set<?> cached = answers.get(key);
+    if (cached != null) {
+      return (Set<T>) cached;
+    }
+    OWLClassExpression classExpression = parse(classExpressionString);
+    Set<T> result;
+    synchronized (reasoner) {
+      result = Collections.unmodifiableSet(reason.apply(classExpression));
+    }
+    answers.put(key, result);
+    return result;
+  }
+
+  private OWLClassExpression parse(String classExpressionString) {
+    OWLClassExpression classExpression = expressions.get(classExpressionString);
+    if (classExpression == null) {
+      classExpression = parser.parseClassExpression(classExpressionString);
+      expressions.put(classExpressionString, classExpression);
+    }
+    return classExpression;
   }
 
 
@@ -159,6 +281,69 @@ public class DLQueryEngine {
       return parser.parseClassExpression();
     }
   }
-}
 
+  private static final class QueryKey {
+
+    private final QueryType type;
+    private final String classExpressionString;
+    private final boolean direct;
 
+    QueryKey(QueryType type, String classExpressionString, boolean direct) {
+      this.type = type;
+      this.classExpressionString = classExpressionString;
+      this.direct = direct;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof QueryKey)) {
+        return false;
+      }
+      QueryKey key = (QueryKey) o;
+      return type == key.type
+          && direct == key.direct
+          && classExpressionString.equals(key.classExpressionString);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(type, classExpressionString, direct);
+    }
+  }
+
+  /**
+   * Size-bounded, thread-safe, LRU map. A map of size 0 (or less) never retains an entry
+   */
+  private static final class LruCache<K, V> {
+
+    private final int maxEntries;
+    private final Map<K, V> entries;
+
+    LruCache(int maxEntries) {
+      this.maxEntries = maxEntries;
+      this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+          return size() > maxEntries;
+        }
+      };
+    }
+
+    synchronized V get(K key) {
+      return entries.get(key);
+    }
+
+    synchronized void put(K key, V value) {
+      if (maxEntries > 0) {
+        entries.put(key, value);
+      }
+    }
+
+    synchronized void clear() {
+      entries.clear();
+    }
+  }
+}
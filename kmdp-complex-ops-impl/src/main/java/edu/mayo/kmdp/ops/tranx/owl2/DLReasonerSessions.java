@@ -0,0 +1,118 @@
+package edu.mayo.kmdp.ops.tranx.owl2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+import org.semanticweb.owlapi.util.ShortFormProvider;
+
+/**
+ * Registry of shareable {@link DLQueryEngine}s (reasoner 'sessions'), one per ontology version.
+ * <p>
+ * The reasoner of a session is created, and the class hierarchy (and class assertions, if
+ * supported) precomputed, the first time a version of an ontology is queried. Later requests for
+ * the same version reuse the classified ontology, and the cached class expressions and answers.
+ * <p>
+ * Ontology versions are identified by their {@link OWLOntologyID} (ontology IRI + version IRI),
+ * and assumed immutable: a session must be released if an ontology changes without a new version
+ * IRI. A session is only reused for the same ontology (object) it was opened for: a different
+ * ontology with the same ID replaces the previous session, whose reasoner is disposed.
+ */
+public class DLReasonerSessions {
+
+  private static final InferenceType[] PRECOMPUTED = {
+      InferenceType.CLASS_HIERARCHY, InferenceType.CLASS_ASSERTIONS};
+
+  private final OWLReasonerFactory reasonerFactory;
+  private final ShortFormProvider shortFormProvider;
+  private final int cacheSize;
+
+  private final Map<OWLOntologyID, DLQueryEngine> sessions = new ConcurrentHashMap<>();
+
+  public DLReasonerSessions(OWLReasonerFactory reasonerFactory,
+      ShortFormProvider shortFormProvider) {
+    this(reasonerFactory, shortFormProvider, DLQueryEngine.DEFAULT_CACHE_SIZE);
+  }
+
+  /**
+   * @param reasonerFactory   The factory of the reasoners used by the sessions
+   * @param shortFormProvider The short form provider used to parse the class expressions
+   * @param cacheSize         The max number of class expressions, and of answers, cached by each
+   *                          session
+   */
+  public DLReasonerSessions(OWLReasonerFactory reasonerFactory,
+      ShortFormProvider shortFormProvider, int cacheSize) {
+    this.reasonerFactory = reasonerFactory;
+    this.shortFormProvider = shortFormProvider;
+    this.cacheSize = cacheSize;
+  }
+
+  /**
+   * @param ontology The ontology to be queried
+   * @return the (shared) session for the version of the ontology, opened if needed
+   */
+  public DLQueryEngine getSession(OWLOntology ontology) {
+    OWLOntologyID ontologyId = ontology.getOntologyID();
+    DLQueryEngine session = sessions.get(ontologyId);
+    if (session != null && isSessionOf(session, ontology)) {
+      return session;
+    }
+
+    // the ontology is classified outside of the map, which is only updated if no other
+    // thread has opened a session for the same ontology in the meantime
+    DLQueryEngine opened = open(ontology);
+    List<DLQueryEngine> replaced = new ArrayList<>(1);
+    DLQueryEngine current = sessions.compute(ontologyId, (id, prev) -> {
+      if (prev != null && isSessionOf(prev, ontology)) {
+        return prev;
+      }
+      if (prev != null) {
+        replaced.add(prev);
+      }
+      return opened;
+    });
+    if (current != opened) {
+      opened.getReasoner().dispose();
+    }
+    replaced.forEach(stale -> stale.getReasoner().dispose());
+    return current;
+  }
+
+  /**
+   * Closes the session of a version of an ontology, if any, disposing of its reasoner
+   */
+  public void release(OWLOntologyID ontologyId) {
+    DLQueryEngine session = sessions.remove(ontologyId);
+    if (session != null) {
+      session.getReasoner().dispose();
+    }
+  }
+
+  /**
+   * Closes all the sessions
+   */
+  public void releaseAll() {
+    new ArrayList<>(sessions.keySet()).forEach(this::release);
+  }
+
+  public List<OWLOntologyID> getOpenSessions() {
+    return new ArrayList<>(sessions.keySet());
+  }
+
+  private static boolean isSessionOf(DLQueryEngine session, OWLOntology ontology) {
+    return session.getReasoner().getRootOntology() == ontology;
+  }
+
+  private DLQueryEngine open(OWLOntology ontology) {
+    OWLReasoner reasoner = reasonerFactory.createReasoner(ontology);
+    // types the reasoner cannot precompute are ignored
+    reasoner.precomputeInferences(PRECOMPUTED);
+    return new DLQueryEngine(reasoner, shortFormProvider, cacheSize);
+  }
+
+}
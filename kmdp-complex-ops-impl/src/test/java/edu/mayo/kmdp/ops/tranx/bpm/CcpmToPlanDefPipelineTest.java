@@ -0,0 +1,204 @@
+package edu.mayo.kmdp.ops.tranx.bpm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.omg.spec.api4kp._20200801.AbstractCarrier.ofAst;
+import static org.omg.spec.api4kp._20200801.AbstractCarrier.rep;
+import static org.omg.spec.api4kp._20200801.AbstractCompositeCarrier.ofMixedAnonymousComposite;
+import static org.omg.spec.api4kp._20200801.taxonomy.krformat.SerializationFormatSeries.XML_1_1;
+import static org.omg.spec.api4kp._20200801.taxonomy.krlanguage.KnowledgeRepresentationLanguageSeries.DMN_1_2;
+import static org.omg.spec.api4kp._20200801.taxonomy.parsinglevel.ParsingLevelSeries.Serialized_Knowledge_Expression;
+
+import edu.mayo.kmdp.language.parsers.dmn.v1_2.DMN12Parser;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import org.hl7.fhir.dstu3.model.PlanDefinition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.omg.spec.api4kp._20200801.Answer;
+import org.omg.spec.api4kp._20200801.id.ResourceIdentifier;
+import org.omg.spec.api4kp._20200801.id.SemanticIdentifier;
+import org.omg.spec.api4kp._20200801.services.CompositeKnowledgeCarrier;
+import org.omg.spec.api4kp._20200801.services.KnowledgeCarrier;
+import org.omg.spec.dmn._20180521.model.ObjectFactory;
+import org.omg.spec.dmn._20180521.model.TDMNElementReference;
+import org.omg.spec.dmn._20180521.model.TDecision;
+import org.omg.spec.dmn._20180521.model.TDefinitions;
+import org.omg.spec.dmn._20180521.model.TInformationRequirement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class CcpmToPlanDefPipelineTest {
+
+  private static final Logger logger = LoggerFactory.getLogger(CcpmToPlanDefPipelineTest.class);
+
+  private static final String NS = "http://test.foo/dmn/";
+
+  @Test
+  void testStagesInOrder() {
+    CompositeKnowledgeCarrier ccpm = ccpm(5);
+    List<Integer> stages = new CopyOnWriteArrayList<>();
+    List<Integer> sizes = new CopyOnWriteArrayList<>();
+
+    CcpmToPlanDefPipeline pipeline = pipeline();
+    for (int j = 1; j <= 3; j++) {
+      int stage = j;
+      pipeline.addInjector(stage, ans -> {
+        stages.add(stage);
+        sizes.add(ans.map(CompositeKnowledgeCarrier.class::cast)
+            .map(ckc -> ckc.componentList().size())
+            .orElse(-1));
+      });
+    }
+    pipeline.addInjector(4, ans -> stages.add(4));
+
+    Answer<PlanDefinition> planDef = pipeline
+        .transrepresent(ccpm, ccpm.getRootId().getUuid())
+        .flatOpt(kc -> kc.as(PlanDefinition.class));
+
+    assertTrue(planDef.isSuccess());
+    assertEquals(List.of(1, 2, 3, 4), stages);
+    assertEquals(List.of(5, 5, 5), sizes);
+    // the source composite is not modified
+    assertTrue(ccpm.components().allMatch(kc -> kc.getExpression() instanceof String));
+  }
+
+  @Test
+  void testFailedComponent() {
+    CompositeKnowledgeCarrier ccpm = ccpm(3);
+    ccpm.componentList().get(1).setExpression("not DMN");
+
+    Answer<KnowledgeCarrier> ans = pipeline()
+        .transrepresent(ccpm, ccpm.getRootId().getUuid());
+    assertTrue(ans.isFailure());
+  }
+
+  @Test
+  void testUncheckedExceptionsAsFailures() {
+    CompositeKnowledgeCarrier ccpm = ccpm(3);
+    ccpm.componentList().get(1).setRepresentation(null);
+    assertTrue(pipeline()
+        .transrepresent(ccpm, ccpm.getRootId().getUuid())
+        .isFailure());
+
+    CcpmToPlanDefPipeline pipeline = pipeline();
+    pipeline.addInjector(2, ans -> {
+      throw new IllegalStateException("Injector failure");
+    });
+    CompositeKnowledgeCarrier ccpm2 = ccpm(3);
+    assertTrue(pipeline
+        .transrepresent(ccpm2, ccpm2.getRootId().getUuid())
+        .isFailure());
+  }
+
+  /**
+   * Measures the latency of the parse/flatten/translate/flatten stages on a cCPM of 50 Decision
+   * Models, each one depending on the previous one, with 1 to N concurrent stages.
+   * <p>
+   * Run on demand, with -Dkmdp.benchmark=true
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "kmdp.benchmark", matches = "true")
+  void benchmarkPipeline() {
+    int processors = Runtime.getRuntime().availableProcessors();
+    for (int threads : new int[]{1, 2, 4, processors}) {
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      try {
+        report("fixed pool", threads, time(() -> pipeline().withExecutor(executor, threads)));
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+    // one thread per task, bounded by the number of permits
+    ExecutorService executor = Executors.newCachedThreadPool();
+    try {
+      report("thread per task", processors,
+          time(() -> pipeline().withExecutor(executor, processors)));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void report(String label, int threads, long nanos) {
+    logger.info("cCPM (50 models) {} with {} threads : {} ms",
+        label, threads, nanos / 1_000_000);
+  }
+
+  private static long time(Supplier<CcpmToPlanDefPipeline> pipeline) {
+    // warm up
+    run(pipeline.get(), ccpm(50));
+    int runs = 5;
+    long total = 0;
+    for (int j = 0; j < runs; j++) {
+      CompositeKnowledgeCarrier ccpm = ccpm(50);
+      long start = System.nanoTime();
+      run(pipeline.get(), ccpm);
+      total += System.nanoTime() - start;
+    }
+    return total / runs;
+  }
+
+  private static void run(CcpmToPlanDefPipeline pipeline, CompositeKnowledgeCarrier ccpm) {
+    List<Integer> stages = new CopyOnWriteArrayList<>();
+    for (int j = 1; j <= 4; j++) {
+      int stage = j;
+      pipeline.addInjector(stage, ans -> stages.add(stage));
+    }
+    assertTrue(pipeline.transrepresent(ccpm, ccpm.getRootId().getUuid())
+        .flatOpt(kc -> kc.as(PlanDefinition.class))
+        .isSuccess());
+    assertEquals(List.of(1, 2, 3, 4), stages);
+  }
+
+  private static CcpmToPlanDefPipeline pipeline() {
+    return new PreConstructedCcpmToPlanDefPipeline(null, null, null);
+  }
+
+  /**
+   * @return a cCPM of (serialized) Decision Models, where the decision of each model requires
+   * the decision of the previous one
+   */
+  private static CompositeKnowledgeCarrier ccpm(int size) {
+    DMN12Parser parser = new DMN12Parser();
+    List<KnowledgeCarrier> comps = new ArrayList<>(size);
+    for (int j = 0; j < size; j++) {
+      String dmn = parser
+          .applyLower(ofAst(dmn(j)).withRepresentation(rep(DMN_1_2)),
+              Serialized_Knowledge_Expression, null, null)
+          .flatOpt(KnowledgeCarrier::asString)
+          .orElseGet(Assertions::fail);
+      comps.add(new KnowledgeCarrier()
+          .withExpression(dmn)
+          .withLevel(Serialized_Knowledge_Expression)
+          .withRepresentation(rep(DMN_1_2, XML_1_1))
+          .withAssetId(SemanticIdentifier.newId(UUID.randomUUID(), "1.0.0"))
+          .withArtifactId(SemanticIdentifier.newId(UUID.randomUUID(), "1.0.0"))
+          .withLabel("Model " + j));
+    }
+    ResourceIdentifier rootId = comps.get(0).getAssetId();
+    return ofMixedAnonymousComposite(rootId, comps);
+  }
+
+  private static TDefinitions dmn(int j) {
+    TDecision decision = new TDecision()
+        .withId("d" + j)
+        .withName("Decision " + j);
+    if (j > 0) {
+      decision.withInformationRequirement(new TInformationRequirement()
+          .withRequiredDecision(new TDMNElementReference()
+              .withHref(NS + (j - 1) + "#d" + (j - 1))));
+    }
+    return new TDefinitions()
+        .withId("m" + j)
+        .withName("Model " + j)
+        .withNamespace(NS + j)
+        .withDrgElement(new ObjectFactory().createDecision(decision));
+  }
+
+}
@@ -0,0 +1,247 @@
+package edu.mayo.kmdp.ops.tranx.owl2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.semanticweb.HermiT.ReasonerFactory;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.util.SimpleShortFormProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class DLQueryEngineTest {
+
+  private static final String NS = "http://test.foo/onto";
+
+  private static final Logger logger = LoggerFactory.getLogger(DLQueryEngineTest.class);
+
+  @Test
+  void testCachedQueries() throws OWLOntologyCreationException {
+    DLQueryEngine engine = cachingEngine(chain(3, "1"));
+
+    Set<OWLClass> subs = engine.getSubClasses("C0", false);
+    assertEquals(Set.of(cls(1), cls(2)), without(subs, "Nothing"));
+    assertSame(subs, engine.getSubClasses("C0", false));
+    assertNotSame(subs, engine.getSubClasses("C0", true));
+    assertEquals(Set.of(cls(1)), without(engine.getSubClasses("C0", true), "Nothing"));
+
+    assertEquals(Set.of(ind(2)), engine.getInstances("C0", false));
+    assertEquals(Set.of(cls(2)), engine.getEquivalentClasses("C1 and r2 some Thing"));
+    assertTrue(engine.getSuperClasses(" ", true).isEmpty());
+
+    engine.clear();
+    assertNotSame(subs, engine.getSubClasses("C0", false));
+  }
+
+  @Test
+  void testUncachedQueries() throws OWLOntologyCreationException {
+    DLQueryEngine engine = engine(chain(3, "1"));
+
+    Set<OWLClass> subs = engine.getSubClasses("C0", false);
+    assertEquals(Set.of(cls(1), cls(2)), without(subs, "Nothing"));
+    assertNotSame(subs, engine.getSubClasses("C0", false));
+    assertEquals(subs, engine.getSubClasses("C0", false));
+  }
+
+  @Test
+  void testBatch() throws OWLOntologyCreationException {
+    DLQueryEngine engine = cachingEngine(chain(3, "1"));
+
+    Map<String, Set<OWLClass>> supers =
+        engine.getSuperClasses(List.of("C2", "C1", "C2"), true);
+    assertEquals(List.of("C2", "C1"), new ArrayList<>(supers.keySet()));
+    assertEquals(Set.of(cls(1)), supers.get("C2"));
+    assertEquals(Set.of(cls(0)), supers.get("C1"));
+    assertSame(supers.get("C2"), engine.getSuperClasses("C2", true));
+
+    Map<String, Set<OWLNamedIndividual>> instances =
+        engine.getInstances(List.of("C0", "C2"), true);
+    assertTrue(instances.get("C0").isEmpty());
+    assertEquals(Set.of(ind(2)), instances.get("C2"));
+  }
+
+  @Test
+  void testUnknownClass() throws OWLOntologyCreationException {
+    DLQueryEngine engine = engine(chain(3, "1"));
+    assertThrows(RuntimeException.class, () -> engine.getSubClasses("Foo", true));
+  }
+
+  @Test
+  void testSessions() throws OWLOntologyCreationException {
+    DLReasonerSessions sessions =
+        new DLReasonerSessions(new ReasonerFactory(), new SimpleShortFormProvider());
+    OWLOntology v1 = chain(3, "1");
+    OWLOntology v2 = chain(4, "2");
+
+    DLQueryEngine s1 = sessions.getSession(v1);
+    assertSame(s1, sessions.getSession(v1));
+    DLQueryEngine s2 = sessions.getSession(v2);
+    assertNotSame(s1, s2);
+    assertEquals(Set.of(cls(3)), without(s2.getSubClasses("C2", true), "Nothing"));
+    assertEquals(2, sessions.getOpenSessions().size());
+
+    sessions.release(v1.getOntologyID());
+    assertEquals(List.of(v2.getOntologyID()), sessions.getOpenSessions());
+    assertNotSame(s1, sessions.getSession(v1));
+
+    sessions.releaseAll();
+    assertTrue(sessions.getOpenSessions().isEmpty());
+  }
+
+  @Test
+  void testSessionsByOntology() throws OWLOntologyCreationException {
+    DLReasonerSessions sessions =
+        new DLReasonerSessions(new ReasonerFactory(), new SimpleShortFormProvider());
+    // same ontology ID, different content
+    OWLOntology o1 = chain(3, "1");
+    OWLOntology o2 = chain(4, "1");
+    assertEquals(o1.getOntologyID(), o2.getOntologyID());
+
+    DLQueryEngine s1 = sessions.getSession(o1);
+    DLQueryEngine s2 = sessions.getSession(o2);
+    assertNotSame(s1, s2);
+    assertSame(o2, s2.getReasoner().getRootOntology());
+    assertEquals(Set.of(cls(3)), without(s2.getSubClasses("C2", true), "Nothing"));
+    assertSame(s2, sessions.getSession(o2));
+    assertEquals(1, sessions.getOpenSessions().size());
+
+    DLQueryEngine s3 = sessions.getSession(o1);
+    assertNotSame(s1, s3);
+    assertSame(o1, s3.getReasoner().getRootOntology());
+    assertTrue(without(s3.getSubClasses("C2", true), "Nothing").isEmpty());
+
+    sessions.releaseAll();
+  }
+
+  @Test
+  void testConcurrentQueries() throws Exception {
+    DLQueryEngine engine = engine(chain(20, "1"));
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Integer>> results = new ArrayList<>();
+      for (int j = 0; j < 200; j++) {
+        int k = j % 20;
+        results.add(executor.submit(() ->
+            without(engine.getSuperClasses("C" + k, false), "Thing").size()));
+      }
+      for (int j = 0; j < results.size(); j++) {
+        assertEquals(j % 20, results.get(j).get(30, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Compares the latency of answering a batch of queries with a new engine (parse + reason each
+   * time), or with a shared session (precomputed hierarchy, cached expressions and answers).
+   * <p>
+   * Run on demand, with -Dkmdp.benchmark=true
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "kmdp.benchmark", matches = "true")
+  void benchmarkSessions() throws OWLOntologyCreationException {
+    for (int size : new int[]{100, 1000}) {
+      OWLOntology onto = chain(size, "1");
+      List<String> queries = new ArrayList<>();
+      for (int j = 0; j < size; j += 10) {
+        queries.add("C" + j);
+        queries.add("C" + j + " and r" + (j + 1) + " some Thing");
+      }
+      DLReasonerSessions sessions =
+          new DLReasonerSessions(new ReasonerFactory(), new SimpleShortFormProvider());
+      for (int run = 0; run < 3; run++) {
+        long start = System.nanoTime();
+        DLQueryEngine fresh = engine(onto);
+        Map<String, Set<OWLClass>> expected = new HashMap<>();
+        queries.forEach(q -> expected.put(q, fresh.getSubClasses(q, false)));
+        long uncached = System.nanoTime() - start;
+        fresh.getReasoner().dispose();
+
+        start = System.nanoTime();
+        Map<String, Set<OWLClass>> actual = sessions.getSession(onto).getSubClasses(queries, false);
+        long session = System.nanoTime() - start;
+
+        logger.info("DL queries ({} classes, {} queries, run {}) : new {} ms, session {} ms",
+            size, queries.size(), run, uncached / 1_000_000, session / 1_000_000);
+        assertEquals(expected, actual);
+      }
+      assertEquals(List.of(onto.getOntologyID()), sessions.getOpenSessions());
+      sessions.releaseAll();
+    }
+  }
+
+  private static DLQueryEngine engine(OWLOntology onto) {
+    return new DLQueryEngine(new ReasonerFactory().createReasoner(onto),
+        new SimpleShortFormProvider());
+  }
+
+  private static DLQueryEngine cachingEngine(OWLOntology onto) {
+    return new DLQueryEngine(new ReasonerFactory().createReasoner(onto),
+        new SimpleShortFormProvider(), DLQueryEngine.DEFAULT_CACHE_SIZE);
+  }
+
+  /**
+   * @return an ontology where each class Cj is equivalent to C(j-1) and (rj some Thing); with an
+   * individual asserted to be an instance of the last class
+   */
+  private static OWLOntology chain(int size, String version)
+      throws OWLOntologyCreationException {
+    OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+    OWLDataFactory df = manager.getOWLDataFactory();
+    OWLOntology onto = manager.createOntology(new OWLOntologyID(
+        Optional.of(IRI.create(NS)), Optional.of(IRI.create(NS + "/" + version))));
+    for (int j = 0; j < size; j++) {
+      manager.addAxiom(onto, df.getOWLDeclarationAxiom(cls(j)));
+      if (j > 0) {
+        OWLObjectProperty r = df.getOWLObjectProperty(IRI.create(NS + "#r" + j));
+        manager.addAxiom(onto, df.getOWLDeclarationAxiom(r));
+        manager.addAxiom(onto, df.getOWLEquivalentClassesAxiom(cls(j),
+            df.getOWLObjectIntersectionOf(cls(j - 1),
+                df.getOWLObjectSomeValuesFrom(r, df.getOWLThing()))));
+      }
+    }
+    manager.addAxiom(onto, df.getOWLClassAssertionAxiom(cls(size - 1), ind(size - 1)));
+    return onto;
+  }
+
+  private static OWLClass cls(int j) {
+    return OWLManager.getOWLDataFactory().getOWLClass(IRI.create(NS + "#C" + j));
+  }
+
+  private static OWLNamedIndividual ind(int j) {
+    return OWLManager.getOWLDataFactory().getOWLNamedIndividual(IRI.create(NS + "#i" + j));
+  }
+
+  private static Set<OWLClass> without(Set<OWLClass> classes, String shortForm) {
+    Set<OWLClass> result = new HashSet<>(classes);
+    result.removeIf(c -> c.getIRI().getShortForm().equals(shortForm));
+    return result;
+  }
+
+}
@@ -27,6 +27,7 @@ import edu.mayo.kmdp.repository.artifact.exceptions.DaoRuntimeException;
 import edu.mayo.kmdp.repository.artifact.exceptions.RepositoryNotFoundException;
 import edu.mayo.kmdp.repository.artifact.exceptions.ResourceNotFoundException;
 import edu.mayo.ontology.taxonomies.ws.responsecodes.ResponseCodeSeries;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.Collections;
 import java.util.List;
@@ -157,8 +158,10 @@ public abstract class KnowledgeArtifactRepositoryCore implements DisposableBean,
   @Loggable(beforeCode = "KART-032.A", level = LogLevel.INFO)
   public Answer<List<Pointer>> listKnowledgeArtifacts(String repositoryId, Integer offset,
       Integer limit, Boolean deleted) {
+    int first = offset != null ? Math.max(offset, 0) : 0;
+    int max = limit != null ? limit : -1;
     try (DaoResult<List<Artifact>> result = dao
-        .listResources(repositoryId, deleted)) {
+        .listResources(repositoryId, deleted, first, max)) {
       List<Artifact> nodes = result.getValue();
 
       List<Pointer> pointers = nodes.stream()
@@ -169,6 +172,33 @@ public abstract class KnowledgeArtifactRepositoryCore implements DisposableBean,
     }
   }
 
+  /**
+   * Keyset-paginated variant of {@link #listKnowledgeArtifacts(String, Integer, Integer, Boolean)}
+   * <p>
+   * Series are listed in order of artifactId: each page starts after the last artifactId of the
+   * previous page, so that deep pages do not require scanning the preceding ones.
+   *
+   * @param repositoryId
+   * @param after        the last artifactId of the previous page, or null for the first page
+   * @param limit        the max number of series in the page, or null for all
+   * @param deleted
+   * @return
+   */
+  @Failsafe(traces = {@Track(value = LogLevel.WARN, throwable = RepositoryNotFoundException.class)})
+  @Loggable(beforeCode = "KART-032.A", level = LogLevel.INFO)
+  public Answer<List<Pointer>> listKnowledgeArtifactsAfter(String repositoryId, UUID after,
+      Integer limit, Boolean deleted) {
+    int max = limit != null ? limit : -1;
+    try (DaoResult<List<Artifact>> result = dao
+        .listResourcesAfter(repositoryId, deleted, after, max)) {
+      List<Pointer> pointers = result.getValue().stream()
+          .map(node -> artifactToPointer(node, repositoryId))
+          .collect(Collectors.toList());
+
+      return Answer.of(pointers);
+    }
+  }
+
   @Override
   @Failsafe
   @Loggable(beforeCode = "KART-034.A")
@@ -200,6 +230,22 @@ public abstract class KnowledgeArtifactRepositoryCore implements DisposableBean,
     }
   }
 
+  /**
+   * Streaming variant of {@link #getLatestKnowledgeArtifact(String, UUID, Boolean)}
+   * <p>
+   * The caller is responsible for closing the returned stream
+   */
+  @Failsafe(traces = @Track(throwable = ResourceNotFoundException.class, value = LogLevel.DEBUG))
+  @Loggable(beforeCode = "KART-042.A")
+  public Answer<InputStream> getLatestKnowledgeArtifactStream(String repositoryId,
+      UUID artifactId, Boolean deleted) {
+    try (DaoResult<ArtifactVersion> result = dao
+        .getLatestResourceVersion(repositoryId, artifactId, deleted)) {
+      ArtifactVersion version = result.getValue();
+      return Answer.of(getDataStream(repositoryId, version));
+    }
+  }
+
   @Override
   @Failsafe
   @Loggable(beforeCode = "KART-041.A")
@@ -248,7 +294,7 @@ public abstract class KnowledgeArtifactRepositoryCore implements DisposableBean,
       UUID artifactId, Boolean deleted, Integer offset, Integer limit,
       String beforeTag, String afterTag, String sort) {
     try (DaoResult<List<ArtifactVersion>> result = dao
-        .getResourceVersions(repositoryId, artifactId, deleted)) {
+        .getResourceVersionsMetadata(repositoryId, artifactId, deleted)) {
       List<ArtifactVersion> versions = result.getValue();
 
       return versions.isEmpty()
@@ -273,6 +319,26 @@ public abstract class KnowledgeArtifactRepositoryCore implements DisposableBean,
     }
   }
 
+  /**
+   * Streaming variant of {@link #addKnowledgeArtifactVersion(String, UUID, byte[])}
+   * <p>
+   * The document is piped to the underlying store, and is not closed by this method
+   *
+   * @param length the number of bytes in the document, or -1 if unknown
+   */
+  @Failsafe(traces = @Track(throwable = ResourceNotFoundException.class, value = LogLevel.WARN))
+  @Loggable(beforeCode = "KART-054.A")
+  public Answer<Void> addKnowledgeArtifactVersion(String repositoryId, UUID artifactId,
+      InputStream document, long length) {
+    var versionId = UUID.randomUUID().toString();
+
+    try (DaoResult<ArtifactVersion> result = dao
+        .saveResource(repositoryId, artifactId, versionId, document, length, emptyMap())) {
+      URI location = versionToPointer(result.getValue(), repositoryId).getHref();
+      return Answer.referTo(location, true);
+    }
+  }
+
   //*********************************************************************************************/
   //* Knowledge Artifact - Management APIs */
   //*********************************************************************************************/
@@ -290,6 +356,60 @@ public abstract class KnowledgeArtifactRepositoryCore implements DisposableBean,
     }
   }
 
+  /**
+   * Conditional variant of {@link #getKnowledgeArtifactVersion(String, UUID, String, Boolean)}
+   * <p>
+   * Returns NotModified, without loading the content, if the given entity tag matches the tag
+   * derived from the digest of the stored content
+   *
+   * @param ifNoneMatch the entity tag of the content already held by the client, if any
+   */
+  @Failsafe(traces = @Track(throwable = ResourceNotFoundException.class, value = LogLevel.TRACE))
+  @Loggable(beforeCode = "KART-062.A")
+  public Answer<byte[]> getKnowledgeArtifactVersion(String repositoryId, UUID artifactId,
+      String versionTag, Boolean deleted, String ifNoneMatch) {
+    try (DaoResult<ArtifactVersion> result = dao
+        .getResourceVersion(repositoryId, artifactId, versionTag, deleted)) {
+      ArtifactVersion version = result.getValue();
+
+      if (ifNoneMatch != null
+          && version.getContentTag().filter(ifNoneMatch::equals).isPresent()) {
+        return Answer.of(ResponseCodeSeries.NotModified, (byte[]) null);
+      }
+      return Answer.of(getData(repositoryId, version));
+    }
+  }
+
+  /**
+   * Returns the strong entity tag of the content of an Artifact version, if available
+   */
+  @Failsafe(traces = @Track(throwable = ResourceNotFoundException.class, value = LogLevel.TRACE))
+  @Loggable(beforeCode = "KART-061.A")
+  public Answer<String> getKnowledgeArtifactVersionETag(String repositoryId, UUID artifactId,
+      String versionTag, Boolean deleted) {
+    try (DaoResult<ArtifactVersion> result = dao
+        .getResourceVersion(repositoryId, artifactId, versionTag, deleted)) {
+      return Answer.of(result.getValue().getContentTag());
+    }
+  }
+
+  /**
+   * Streaming variant of {@link #getKnowledgeArtifactVersion(String, UUID, String, Boolean)}
+   * <p>
+   * The caller is responsible for closing the returned stream
+   */
+  @Failsafe(traces = @Track(throwable = ResourceNotFoundException.class, value = LogLevel.TRACE))
+  @Loggable(beforeCode = "KART-062.A")
+  public Answer<InputStream> getKnowledgeArtifactVersionStream(String repositoryId,
+      UUID artifactId, String versionTag, Boolean deleted) {
+    try (DaoResult<ArtifactVersion> result = dao
+        .getResourceVersion(repositoryId, artifactId, versionTag, deleted)) {
+      ArtifactVersion version = result.getValue();
+
+      return Answer.of(getDataStream(repositoryId, version));
+    }
+  }
+
   @Override
   @Failsafe
   @Loggable(beforeCode = "KART-061.A")
@@ -322,6 +442,22 @@ public abstract class KnowledgeArtifactRepositoryCore implements DisposableBean,
     }
   }
 
+  /**
+   * Streaming variant of {@link #setKnowledgeArtifactVersion(String, UUID, String, byte[])}
+   *
+   * @param length the number of bytes in the document, or -1 if unknown
+   */
+  @Failsafe
+  @Loggable(beforeCode = "KART-063.A")
+  public Answer<Void> setKnowledgeArtifactVersion(String repositoryId, UUID artifactId,
+      String versionTag, InputStream document, long length) {
+    try (DaoResult<ArtifactVersion> ignored = dao
+        .saveResource(repositoryId, artifactId, versionTag, document, length, emptyMap())) {
+
+      return Answer.of(NoContent);
+    }
+  }
+
   @Override
   @Failsafe(traces = @Track(throwable = ResourceNotFoundException.class, value = LogLevel.DEBUG))
   @Loggable(beforeCode = "KART-065.A")
@@ -371,6 +507,10 @@ public abstract class KnowledgeArtifactRepositoryCore implements DisposableBean,
     return dao.getData(repositoryId, version);
   }
 
+  protected InputStream getDataStream(String repositoryId, ArtifactVersion version) {
+    return dao.getDataStream(repositoryId, version);
+  }
+
   @Override
   public void clear() {
     this.dao.clear();
@@ -78,11 +78,30 @@ public class KnowledgeArtifactRepositoryServerProperties extends
             File.class,
             false)),
 
+    STORE(
+        Opt.of("edu.mayo.kmdp.repository.artifact.store",
+            "jpa",
+            "Persistence backend of the artifact repository (jpa | filesystem)",
+            String.class,
+            false)),
+
     BASE_NAMESPACE(
         Opt.of("edu.mayo.kmdp.repository.artifact.namespace",
             null,
             "Base namespace",
             String.class,
+            false)),
+
+    /**
+     * The cache is only invalidated by the writes of the node that holds it: enable it (size > 0)
+     * only when a single node reads and writes the underlying store
+     */
+    CACHE_SIZE_MB(
+        Opt.of("edu.mayo.kmdp.repository.artifact.cache.size",
+            "0",
+            "Max size (in MB) of the Artifact content held by caching DAOs, 0 to disable. "
+                + "Assumes a single node: writes by other nodes do not invalidate the cache",
+            Integer.class,
             false));
 
 
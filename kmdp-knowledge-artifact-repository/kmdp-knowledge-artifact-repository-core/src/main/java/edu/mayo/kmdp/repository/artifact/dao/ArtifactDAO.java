@@ -1,10 +1,16 @@
 package edu.mayo.kmdp.repository.artifact.dao;
 
 import edu.mayo.kmdp.repository.artifact.exceptions.DaoRuntimeException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public interface ArtifactDAO {
 
@@ -17,6 +23,74 @@ public interface ArtifactDAO {
     return listResources(repositoryId, deleted, Collections.emptyMap());
   }
 
+  /**
+   * Lists one page of the Artifact series in a repository, ordered by artifactId (in its string
+   * form, consistently with the way artifactIds are persisted)
+   * <p>
+   * Implementations should push the ordering and the paging down to the store. The default
+   * implementation pages the full listing in memory.
+   *
+   * @param repositoryId
+   * @param deleted
+   * @param offset       the number of series to skip
+   * @param limit        the max number of series in the page, or a negative number for all
+   * @return
+   */
+  default DaoResult<List<Artifact>> listResources(String repositoryId, Boolean deleted,
+      int offset, int limit) {
+    List<Artifact> page = listResources(repositoryId, deleted).getValue().stream()
+        .sorted(Comparator.comparing(Artifact::getArtifactTag))
+        .skip(Math.max(offset, 0))
+        .limit(limit >= 0 ? limit : Long.MAX_VALUE)
+        .collect(Collectors.toList());
+    return () -> page;
+  }
+
+  /**
+   * Lists one page of the Artifact series in a repository, ordered by artifactId, starting after
+   * the last artifactId of the previous page (keyset pagination)
+   *
+   * @param repositoryId
+   * @param deleted
+   * @param after        the last artifactId of the previous page, or null for the first page
+   * @param limit        the max number of series in the page, or a negative number for all
+   * @return
+   */
+  default DaoResult<List<Artifact>> listResourcesAfter(String repositoryId, Boolean deleted,
+      UUID after, int limit) {
+    List<Artifact> page = listResources(repositoryId, deleted).getValue().stream()
+        .filter(a -> after == null || a.getArtifactTag().compareTo(after.toString()) > 0)
+        .sorted(Comparator.comparing(Artifact::getArtifactTag))
+        .limit(limit >= 0 ? limit : Long.MAX_VALUE)
+        .collect(Collectors.toList());
+    return () -> page;
+  }
+
+  /**
+   * Streams the Artifact series in a repository, ordered by artifactId
+   * <p>
+   * The stream may hold resources of the underlying store: closing the result closes the stream.
+   * The stream can be consumed after the call returns, within or outside a transaction
+   *
+   * @param repositoryId
+   * @param deleted
+   * @return
+   */
+  default DaoResult<Stream<Artifact>> streamResources(String repositoryId, Boolean deleted) {
+    Stream<Artifact> stream = listResources(repositoryId, deleted, 0, -1).getValue().stream();
+    return new DaoResult<>() {
+      @Override
+      public Stream<Artifact> getValue() {
+        return stream;
+      }
+
+      @Override
+      public void close() {
+        stream.close();
+      }
+    };
+  }
+
   DaoResult<ArtifactVersion> getResourceVersion(String repositoryId, UUID artifactId,
       String versionTag, Boolean deleted);
 
@@ -45,6 +119,24 @@ public interface ArtifactDAO {
   DaoResult<List<ArtifactVersion>> getResourceVersions(String repositoryId, UUID artifactId,
       Boolean deleted);
 
+  /**
+   * Metadata-only variant of {@link #getResourceVersions(String, UUID, Boolean)}, for clients that
+   * only need the identifiers and the status flags of the versions
+   * <p>
+   * Implementations may return versions that do not carry any content, and whose
+   * {@link ArtifactVersion#getDataStream()} fails. The default implementation returns the full
+   * versions.
+   *
+   * @param repositoryId
+   * @param artifactId
+   * @param deleted
+   * @return
+   */
+  default DaoResult<List<ArtifactVersion>> getResourceVersionsMetadata(String repositoryId,
+      UUID artifactId, Boolean deleted) {
+    return getResourceVersions(repositoryId, artifactId, deleted);
+  }
+
   DaoResult<ArtifactVersion> getLatestResourceVersion(String repositoryId, UUID artifactId,
       Boolean deleted);
 
@@ -93,7 +185,81 @@ public interface ArtifactDAO {
     return saveResource(repositoryId, artifactId, versionTag, document, Collections.emptyMap());
   }
 
+  /**
+   * Streaming variant of {@link #saveResource(String, UUID, String, byte[], Map)}
+   * <p>
+   * The document is consumed from the stream while it is being persisted, and is never fully
+   * buffered in memory. The stream is not closed by this method.
+   *
+   * @param repositoryId
+   * @param artifactId
+   * @param versionTag
+   * @param document     the content of the Artifact version
+   * @param length       the number of bytes in the stream, or -1 if unknown
+   * @param config
+   * @return
+   */
+  DaoResult<ArtifactVersion> saveResource(
+      String repositoryId,
+      UUID artifactId, String versionTag,
+      InputStream document, long length,
+      Map<String, String> config);
+
+  default DaoResult<ArtifactVersion> saveResource(
+      String repositoryId,
+      UUID artifactId, String versionTag,
+      InputStream document, long length) {
+    return saveResource(repositoryId, artifactId, versionTag, document, length,
+        Collections.emptyMap());
+  }
+
   DaoResult<Artifact> saveResource(String repositoryId, UUID artifactId);
 
+  /**
+   * Saves a batch of Artifact versions, (re)activating their series as needed
+   * <p>
+   * Implementations should persist the whole batch as a unit of work. The default implementation
+   * saves the versions one at a time.
+   *
+   * @param repositoryId
+   * @param documents    the versions to be saved
+   * @return the saved versions
+   */
+  default DaoResult<List<ArtifactVersion>> saveResources(
+      String repositoryId,
+      List<ArtifactVersionDocument> documents) {
+    List<ArtifactVersion> saved = documents.stream()
+        .map(doc -> saveResource(repositoryId,
+            doc.getArtifactId(), doc.getVersionTag(), doc.getDocument()).getValue())
+        .collect(Collectors.toList());
+    return () -> saved;
+  }
+
   byte[] getData(String repositoryId, ArtifactVersion version);
+
+  /**
+   * Streaming variant of {@link #getData(String, ArtifactVersion)}
+   * <p>
+   * The caller is responsible for closing the returned stream
+   *
+   * @param repositoryId
+   * @param version
+   * @return
+   */
+  default InputStream getDataStream(String repositoryId, ArtifactVersion version) {
+    return version.getDataStream();
+  }
+
+  /**
+   * Channel-based variant of {@link #getDataStream(String, ArtifactVersion)}
+   * <p>
+   * The caller is responsible for closing the returned channel
+   *
+   * @param repositoryId
+   * @param version
+   * @return
+   */
+  default ReadableByteChannel getDataChannel(String repositoryId, ArtifactVersion version) {
+    return Channels.newChannel(getDataStream(repositoryId, version));
+  }
 }
@@ -2,6 +2,7 @@ package edu.mayo.kmdp.repository.artifact.dao;
 
 import edu.mayo.kmdp.repository.artifact.exceptions.DaoRuntimeException;
 import java.io.InputStream;
+import java.util.Optional;
 import org.omg.spec.api4kp._20200801.id.ResourceIdentifier;
 
 public interface ArtifactVersion {
@@ -13,4 +14,11 @@ public interface ArtifactVersion {
   boolean isAvailable();
 
   InputStream getDataStream() throws DaoRuntimeException;
+
+  /**
+   * @return a strong entity tag, derived from a digest of the content, if available
+   */
+  default Optional<String> getContentTag() {
+    return Optional.empty();
+  }
 }
@@ -0,0 +1,42 @@
+package edu.mayo.kmdp.repository.artifact.dao;
+
+import java.util.UUID;
+
+/**
+ * An Artifact version, with its content, to be saved as part of a batch
+ *
+ * @see ArtifactDAO#saveResources(String, java.util.List)
+ */
+public class ArtifactVersionDocument {
+
+  private final UUID artifactId;
+  private final String versionTag;
+  private final byte[] document;
+
+  public ArtifactVersionDocument(UUID artifactId, String versionTag, byte[] document) {
+    this.artifactId = artifactId;
+    this.versionTag = versionTag;
+    this.document = document;
+  }
+
+  public static ArtifactVersionDocument of(UUID artifactId, String versionTag, byte[] document) {
+    return new ArtifactVersionDocument(artifactId, versionTag, document);
+  }
+
+  public UUID getArtifactId() {
+    return artifactId;
+  }
+
+  public String getVersionTag() {
+    return versionTag;
+  }
+
+  public byte[] getDocument() {
+    return document;
+  }
+
+  @Override
+  public String toString() {
+    return "ArtifactVersionDocument{" + artifactId + ":" + versionTag + "}";
+  }
+}
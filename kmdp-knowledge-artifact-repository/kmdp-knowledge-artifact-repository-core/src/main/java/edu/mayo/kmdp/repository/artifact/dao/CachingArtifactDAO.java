@@ -0,0 +1,500 @@
+package edu.mayo.kmdp.repository.artifact.dao;
+
+import edu.mayo.kmdp.repository.artifact.KnowledgeArtifactRepositoryServerProperties;
+import edu.mayo.kmdp.repository.artifact.KnowledgeArtifactRepositoryServerProperties.KnowledgeArtifactRepositoryOptions;
+import edu.mayo.kmdp.repository.artifact.exceptions.DaoRuntimeException;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.omg.spec.api4kp._20200801.id.ResourceIdentifier;
+
+/**
+ * Read-through {@link ArtifactDAO} decorator, which keeps the content of recently read Artifact
+ * versions in memory.
+ * <p>
+ * Entries are keyed by (repositoryId, artifactId, versionTag), and evicted in LRU order when the
+ * total size of the cached content exceeds a budget (in bytes). Every operation that can alter a
+ * version, or its availability, invalidates the affected entries, both before and after being
+ * delegated.
+ * <p>
+ * Only the operations that go through this DAO invalidate the cache: the underlying store must
+ * not be written by other processes (e.g. other nodes sharing the same database).
+ */
+public class CachingArtifactDAO implements ArtifactDAO {
+
+  private static final long MB = 1024L * 1024L;
+
+  private final ArtifactDAO delegate;
+
+  private final long maxBytes;
+
+  private long currentBytes = 0;
+
+  /**
+   * Incremented on every invalidation, so that content read concurrently with a write is not
+   * cached after the write has completed
+   */
+  private long generation = 0;
+
+  private final LinkedHashMap<CacheKey, CachedArtifactVersion> cache =
+      new LinkedHashMap<>(64, 0.75f, true);
+
+  private final Map<String, CacheStats> stats = new ConcurrentHashMap<>();
+
+  public CachingArtifactDAO(ArtifactDAO delegate,
+      KnowledgeArtifactRepositoryServerProperties cfg) {
+    this(delegate, maxBytes(cfg));
+  }
+
+  public CachingArtifactDAO(ArtifactDAO delegate, long maxBytes) {
+    this.delegate = delegate;
+    this.maxBytes = maxBytes;
+  }
+
+  private static long maxBytes(KnowledgeArtifactRepositoryServerProperties cfg) {
+    Integer sizeMB = cfg.getTyped(KnowledgeArtifactRepositoryOptions.CACHE_SIZE_MB);
+    return sizeMB != null ? MB * sizeMB : 0;
+  }
+
+  public ArtifactDAO getDelegate() {
+    return delegate;
+  }
+
+  /**
+   * @param repositoryId the repository
+   * @return the hit/miss/eviction counters for the given repository
+   */
+  public CacheStats getStats(String repositoryId) {
+    return stats.computeIfAbsent(repositoryId, id -> new CacheStats());
+  }
+
+  public synchronized long getCachedBytes() {
+    return currentBytes;
+  }
+
+  public synchronized int getCachedEntries() {
+    return cache.size();
+  }
+
+  /***********************************************************************************/
+
+  @Override
+  public void shutdown() throws DaoRuntimeException {
+    invalidateAll();
+    delegate.shutdown();
+  }
+
+  @Override
+  public DaoResult<List<Artifact>> listResources(String repositoryId, Boolean deleted,
+      Map<String, String> config) {
+    return delegate.listResources(repositoryId, deleted, config);
+  }
+
+  @Override
+  public DaoResult<List<Artifact>> listResources(String repositoryId, Boolean deleted,
+      int offset, int limit) {
+    return delegate.listResources(repositoryId, deleted, offset, limit);
+  }
+
+  @Override
+  public DaoResult<List<Artifact>> listResourcesAfter(String repositoryId, Boolean deleted,
+      UUID after, int limit) {
+    return delegate.listResourcesAfter(repositoryId, deleted, after, limit);
+  }
+
+  @Override
+  public DaoResult<Stream<Artifact>> streamResources(String repositoryId, Boolean deleted) {
+    return delegate.streamResources(repositoryId, deleted);
+  }
+
+  @Override
+  public DaoResult<ArtifactVersion> getResourceVersion(String repositoryId, UUID artifactId,
+      String versionTag, Boolean deleted) {
+    // hits and misses are accounted for when the content is requested
+    CachedArtifactVersion cached = peek(new CacheKey(repositoryId, artifactId, versionTag));
+    if (cached != null && (Boolean.TRUE.equals(deleted) || cached.isAvailable())) {
+      return () -> cached;
+    }
+    // misses, and soft-deleted versions, are resolved by the delegate,
+    // which is responsible for the proper error handling
+    return delegate.getResourceVersion(repositoryId, artifactId, versionTag, deleted);
+  }
+
+  @Override
+  public DaoResult<Artifact> getResourceSeries(String repositoryId, UUID artifactId) {
+    return delegate.getResourceSeries(repositoryId, artifactId);
+  }
+
+  @Override
+  public DaoResult<Boolean> hasResourceSeries(String repositoryId, UUID artifactId) {
+    return delegate.hasResourceSeries(repositoryId, artifactId);
+  }
+
+  @Override
+  public DaoResult<Boolean> hasResourceVersions(String repositoryId, UUID artifactId,
+      Boolean deleted) {
+    return delegate.hasResourceVersions(repositoryId, artifactId, deleted);
+  }
+
+  @Override
+  public DaoResult<List<ArtifactVersion>> getResourceVersions(String repositoryId,
+      UUID artifactId, Boolean deleted) {
+    return delegate.getResourceVersions(repositoryId, artifactId, deleted);
+  }
+
+  @Override
+  public DaoResult<List<ArtifactVersion>> getResourceVersionsMetadata(String repositoryId,
+      UUID artifactId, Boolean deleted) {
+    return delegate.getResourceVersionsMetadata(repositoryId, artifactId, deleted);
+  }
+
+  @Override
+  public DaoResult<ArtifactVersion> getLatestResourceVersion(String repositoryId,
+      UUID artifactId, Boolean deleted) {
+    // 'latest' is not a stable key: resolve the version, then serve the content from the cache
+    return delegate.getLatestResourceVersion(repositoryId, artifactId, deleted);
+  }
+
+  @Override
+  public void clear() {
+    invalidateAll();
+    try {
+      delegate.clear();
+    } finally {
+      invalidateAll();
+    }
+  }
+
+  @Override
+  public void deleteResourceVersion(String repositoryId, UUID artifactId, String versionTag) {
+    var key = new CacheKey(repositoryId, artifactId, versionTag);
+    invalidate(key);
+    try {
+      delegate.deleteResourceVersion(repositoryId, artifactId, versionTag);
+    } finally {
+      invalidate(key);
+    }
+  }
+
+  @Override
+  public void removeResourceVersion(String repositoryId, UUID artifactId, String versionTag) {
+    var key = new CacheKey(repositoryId, artifactId, versionTag);
+    invalidate(key);
+    try {
+      delegate.removeResourceVersion(repositoryId, artifactId, versionTag);
+    } finally {
+      invalidate(key);
+    }
+  }
+
+  @Override
+  public void deleteResourceSeries(String repositoryId, UUID artifactId) {
+    invalidateSeries(repositoryId, artifactId);
+    try {
+      delegate.deleteResourceSeries(repositoryId, artifactId);
+    } finally {
+      invalidateSeries(repositoryId, artifactId);
+    }
+  }
+
+  @Override
+  public void removeResourceSeries(String repositoryId, UUID artifactId) {
+    invalidateSeries(repositoryId, artifactId);
+    try {
+      delegate.removeResourceSeries(repositoryId, artifactId);
+    } finally {
+      invalidateSeries(repositoryId, artifactId);
+    }
+  }
+
+  @Override
+  public void enableResourceVersion(String repositoryId, UUID artifactId, String versionTag) {
+    var key = new CacheKey(repositoryId, artifactId, versionTag);
+    invalidate(key);
+    try {
+      delegate.enableResourceVersion(repositoryId, artifactId, versionTag);
+    } finally {
+      invalidate(key);
+    }
+  }
+
+  @Override
+  public void enableResourceSeries(String repositoryId, UUID artifactId) {
+    invalidateSeries(repositoryId, artifactId);
+    try {
+      delegate.enableResourceSeries(repositoryId, artifactId);
+    } finally {
+      invalidateSeries(repositoryId, artifactId);
+    }
+  }
+
+  @Override
+  public DaoResult<ArtifactVersion> saveResource(String repositoryId, UUID artifactId,
+      String versionTag, byte[] document, Map<String, String> config) {
+    var key = new CacheKey(repositoryId, artifactId, versionTag);
+    invalidate(key);
+    try {
+      return delegate.saveResource(repositoryId, artifactId, versionTag, document, config);
+    } finally {
+      invalidate(key);
+    }
+  }
+
+  @Override
+  public DaoResult<ArtifactVersion> saveResource(String repositoryId, UUID artifactId,
+      String versionTag, InputStream document, long length, Map<String, String> config) {
+    var key = new CacheKey(repositoryId, artifactId, versionTag);
+    invalidate(key);
+    try {
+      return delegate.saveResource(repositoryId, artifactId, versionTag, document, length, config);
+    } finally {
+      invalidate(key);
+    }
+  }
+
+  @Override
+  public DaoResult<List<ArtifactVersion>> saveResources(String repositoryId,
+      List<ArtifactVersionDocument> documents) {
+    List<CacheKey> keys = documents.stream()
+        .map(doc -> new CacheKey(repositoryId, doc.getArtifactId(), doc.getVersionTag()))
+        .collect(Collectors.toList());
+    keys.forEach(this::invalidate);
+    try {
+      return delegate.saveResources(repositoryId, documents);
+    } finally {
+      keys.forEach(this::invalidate);
+    }
+  }
+
+  @Override
+  public DaoResult<Artifact> saveResource(String repositoryId, UUID artifactId) {
+    return delegate.saveResource(repositoryId, artifactId);
+  }
+
+  @Override
+  public byte[] getData(String repositoryId, ArtifactVersion version) {
+    CachedArtifactVersion cached = lookup(repositoryId, version);
+    if (cached == null) {
+      long gen = currentGeneration();
+      byte[] data = delegate.getData(repositoryId, version);
+      cached = new CachedArtifactVersion(version, data);
+      if (!store(new CacheKey(repositoryId, version.getResourceIdentifier()), cached, gen)) {
+        return data;
+      }
+    }
+    // cached content is shared, and must not be exposed to mutations
+    return cached.data.clone();
+  }
+
+  @Override
+  public InputStream getDataStream(String repositoryId, ArtifactVersion version) {
+    CachedArtifactVersion cached = lookup(repositoryId, version);
+    if (cached != null) {
+      return cached.getDataStream();
+    }
+    // streamed content is not buffered, to preserve the constant memory footprint
+    return delegate.getDataStream(repositoryId, version);
+  }
+
+  /***********************************************************************************/
+
+  private CachedArtifactVersion lookup(String repositoryId, ArtifactVersion version) {
+    CachedArtifactVersion cached = version instanceof CachedArtifactVersion
+        ? (CachedArtifactVersion) version
+        : peek(new CacheKey(repositoryId, version.getResourceIdentifier()));
+    if (cached != null) {
+      getStats(repositoryId).hits.increment();
+    } else {
+      getStats(repositoryId).misses.increment();
+    }
+    return cached;
+  }
+
+  private synchronized CachedArtifactVersion peek(CacheKey key) {
+    return cache.get(key);
+  }
+
+  private synchronized long currentGeneration() {
+    return generation;
+  }
+
+  /**
+   * @return true if the entry has been cached, i.e. its content is shared
+   */
+  private synchronized boolean store(CacheKey key, CachedArtifactVersion entry, long gen) {
+    long size = entry.data.length;
+    if (size > maxBytes || gen != generation) {
+      return false;
+    }
+    CachedArtifactVersion previous = cache.put(key, entry);
+    if (previous != null) {
+      currentBytes -= previous.data.length;
+    }
+    currentBytes += size;
+
+    Iterator<Map.Entry<CacheKey, CachedArtifactVersion>> lru = cache.entrySet().iterator();
+    while (currentBytes > maxBytes && lru.hasNext()) {
+      Map.Entry<CacheKey, CachedArtifactVersion> eldest = lru.next();
+      currentBytes -= eldest.getValue().data.length;
+      lru.remove();
+      getStats(eldest.getKey().repositoryId).evictions.increment();
+    }
+    return true;
+  }
+
+  private synchronized void invalidate(CacheKey key) {
+    generation++;
+    CachedArtifactVersion previous = cache.remove(key);
+    if (previous != null) {
+      currentBytes -= previous.data.length;
+    }
+  }
+
+  private synchronized void invalidateSeries(String repositoryId, UUID artifactId) {
+    generation++;
+    String artifactTag = artifactId.toString();
+    Iterator<Map.Entry<CacheKey, CachedArtifactVersion>> it = cache.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<CacheKey, CachedArtifactVersion> e = it.next();
+      if (e.getKey().repositoryId.equals(repositoryId)
+          && e.getKey().artifactTag.equals(artifactTag)) {
+        currentBytes -= e.getValue().data.length;
+        it.remove();
+      }
+    }
+  }
+
+  private synchronized void invalidateAll() {
+    generation++;
+    cache.clear();
+    currentBytes = 0;
+  }
+
+  /***********************************************************************************/
+
+  /**
+   * Hit/miss/eviction counters, tracked per Artifact Repository
+   */
+  public static class CacheStats {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public long getHits() {
+      return hits.sum();
+    }
+
+    public long getMisses() {
+      return misses.sum();
+    }
+
+    public long getEvictions() {
+      return evictions.sum();
+    }
+
+    public double getHitRate() {
+      long h = getHits();
+      long total = h + getMisses();
+      return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+      return "CacheStats{hits=" + getHits()
+          + ", misses=" + getMisses()
+          + ", evictions=" + getEvictions() + "}";
+    }
+  }
+
+  private static final class CacheKey {
+
+    private final String repositoryId;
+    private final String artifactTag;
+    private final String versionTag;
+
+    CacheKey(String repositoryId, UUID artifactId, String versionTag) {
+      this.repositoryId = repositoryId;
+      this.artifactTag = artifactId.toString();
+      this.versionTag = versionTag;
+    }
+
+    CacheKey(String repositoryId, ResourceIdentifier versionId) {
+      this.repositoryId = repositoryId;
+      this.artifactTag = versionId.getTag();
+      this.versionTag = versionId.getVersionTag();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      CacheKey cacheKey = (CacheKey) o;
+      return repositoryId.equals(cacheKey.repositoryId)
+          && artifactTag.equals(cacheKey.artifactTag)
+          && Objects.equals(versionTag, cacheKey.versionTag);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(repositoryId, artifactTag, versionTag);
+    }
+  }
+
+  /**
+   * Detached snapshot of an Artifact version, with its content
+   */
+  private static final class CachedArtifactVersion implements ArtifactVersion {
+
+    private final ResourceIdentifier resourceIdentifier;
+    private final boolean available;
+    private final String contentTag;
+    private final byte[] data;
+
+    CachedArtifactVersion(ArtifactVersion version, byte[] data) {
+      this.resourceIdentifier = version.getResourceIdentifier();
+      this.available = version.isAvailable();
+      this.contentTag = version.getContentTag().orElse(null);
+      this.data = data;
+    }
+
+    @Override
+    public ResourceIdentifier getResourceIdentifier() {
+      return resourceIdentifier;
+    }
+
+    @Override
+    public boolean isUnavailable() {
+      return !available;
+    }
+
+    @Override
+    public boolean isAvailable() {
+      return available;
+    }
+
+    @Override
+    public InputStream getDataStream() {
+      return new ByteArrayInputStream(data);
+    }
+
+    @Override
+    public Optional<String> getContentTag() {
+      return Optional.ofNullable(contentTag);
+    }
+  }
+}
@@ -0,0 +1,420 @@
+package edu.mayo.kmdp.repository.artifact.fs;
+
+import static org.omg.spec.api4kp._20200801.id.SemanticIdentifier.newId;
+
+import edu.mayo.kmdp.repository.artifact.dao.Artifact;
+import edu.mayo.kmdp.repository.artifact.dao.ArtifactVersion;
+import edu.mayo.kmdp.repository.artifact.exceptions.DaoRuntimeException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.omg.spec.api4kp._20200801.id.ResourceIdentifier;
+
+/**
+ * On-disk index of the series and versions of one Artifact repository
+ * <p>
+ * The index is an append-only journal of (upsert or drop) records, which is replayed in memory when
+ * the repository is opened, and compacted (on open, or as records are appended) when the
+ * superseded records outnumber the live ones.
+ * Not thread safe: access is serialized by the {@link FileSystemArtifactDAO}.
+ */
+final class ArtifactIndex implements Closeable {
+
+  static final String INDEX_FILE = ".index";
+
+  private static final byte SERIES = 1;
+  private static final byte VERSION = 2;
+  private static final byte DROP_SERIES = 3;
+  private static final byte DROP_VERSION = 4;
+
+  private static final int COMPACTION_THRESHOLD = 1024;
+
+  private final Path root;
+
+  private final Map<UUID, SeriesEntry> series = new LinkedHashMap<>();
+
+  private final Map<UUID, Map<String, VersionEntry>> versions = new HashMap<>();
+
+  private DataOutputStream journal;
+
+  private long records;
+
+  private ArtifactIndex(Path root) {
+    this.root = root;
+  }
+
+  /**
+   * Opens (or creates) the index of the repository rooted at the given directory
+   *
+   * @param root the repository directory
+   * @return the index
+   */
+  static ArtifactIndex open(Path root) {
+    var index = new ArtifactIndex(root);
+    try {
+      Files.createDirectories(root);
+      Path file = root.resolve(INDEX_FILE);
+      boolean complete = !Files.exists(file) || index.replay(file);
+      if (!complete || index.needsCompaction()) {
+        index.compact();
+      } else {
+        index.openJournal();
+      }
+      return index;
+    } catch (IOException e) {
+      throw new DaoRuntimeException("Unable to open Artifact index at " + root, e);
+    }
+  }
+
+  Path getRoot() {
+    return root;
+  }
+
+  boolean isEmpty() {
+    return series.isEmpty() && versions.isEmpty();
+  }
+
+  Optional<SeriesEntry> getSeries(UUID artifactId) {
+    return Optional.ofNullable(series.get(artifactId));
+  }
+
+  Collection<SeriesEntry> getAllSeries() {
+    return series.values();
+  }
+
+  Optional<VersionEntry> getVersion(UUID artifactId, String versionTag) {
+    return Optional.ofNullable(versions.getOrDefault(artifactId, Collections.emptyMap())
+        .get(versionTag));
+  }
+
+  /**
+   * @param artifactId
+   * @return the versions of a series, in order of creation
+   */
+  Collection<VersionEntry> getVersions(UUID artifactId) {
+    return versions.getOrDefault(artifactId, Collections.emptyMap()).values();
+  }
+
+  void putSeries(SeriesEntry entry) {
+    series.put(entry.getArtifactId(), entry);
+    append(out -> writeSeries(out, entry));
+  }
+
+  void putVersion(VersionEntry entry) {
+    versions.computeIfAbsent(entry.getArtifactId(), k -> new LinkedHashMap<>())
+        .put(entry.getVersionTag(), entry);
+    append(out -> writeVersion(out, entry));
+  }
+
+  void dropSeries(UUID artifactId) {
+    series.remove(artifactId);
+    versions.remove(artifactId);
+    append(out -> {
+      out.writeByte(DROP_SERIES);
+      writeUUID(out, artifactId);
+    });
+  }
+
+  void dropVersion(UUID artifactId, String versionTag) {
+    Map<String, VersionEntry> vers = versions.get(artifactId);
+    if (vers != null) {
+      vers.remove(versionTag);
+      if (vers.isEmpty()) {
+        versions.remove(artifactId);
+      }
+    }
+    append(out -> {
+      out.writeByte(DROP_VERSION);
+      writeUUID(out, artifactId);
+      out.writeUTF(versionTag);
+    });
+  }
+
+  /**
+   * @param artifactId
+   * @param versionTag
+   * @return the (immutable) file that holds the content of a version
+   */
+  Path contentPath(UUID artifactId, String versionTag) {
+    return root.resolve(artifactId.toString())
+        .resolve("v_" + URLEncoder.encode(versionTag, StandardCharsets.UTF_8));
+  }
+
+  @Override
+  public void close() {
+    try {
+      if (journal != null) {
+        journal.close();
+        journal = null;
+      }
+    } catch (IOException e) {
+      throw new DaoRuntimeException(e);
+    }
+  }
+
+  /***********************************************************************************/
+
+  private int size() {
+    return series.size() + versions.values().stream().mapToInt(Map::size).sum();
+  }
+
+  private boolean needsCompaction() {
+    // cheap test first: size() is at least the number of series
+    return records > COMPACTION_THRESHOLD + 2L * series.size()
+        && records > COMPACTION_THRESHOLD + 2L * size();
+  }
+
+  /**
+   * @return false if the journal ends with a partial record (e.g. after a crash)
+   */
+  private boolean replay(Path file) throws IOException {
+    try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      while (true) {
+        int op = in.read();
+        if (op < 0) {
+          return true;
+        }
+        replay((byte) op, in);
+        records++;
+      }
+    } catch (EOFException truncated) {
+      return false;
+    }
+  }
+
+  private void replay(byte op, DataInputStream in) throws IOException {
+    switch (op) {
+      case SERIES:
+        var s = new SeriesEntry(readUUID(in), in.readLong(), in.readBoolean());
+        series.put(s.getArtifactId(), s);
+        break;
+      case VERSION:
+        UUID artifactId = readUUID(in);
+        String versionTag = in.readUTF();
+        var v = new VersionEntry(artifactId, versionTag, in.readLong(), in.readBoolean(),
+            contentPath(artifactId, versionTag));
+        versions.computeIfAbsent(artifactId, k -> new LinkedHashMap<>()).put(versionTag, v);
+        break;
+      case DROP_SERIES:
+        UUID dropped = readUUID(in);
+        series.remove(dropped);
+        versions.remove(dropped);
+        break;
+      case DROP_VERSION:
+        UUID owner = readUUID(in);
+        String tag = in.readUTF();
+        Map<String, VersionEntry> vers = versions.get(owner);
+        if (vers != null && vers.remove(tag) != null && vers.isEmpty()) {
+          versions.remove(owner);
+        }
+        break;
+      default:
+        throw new IOException("Corrupted Artifact index at " + root + " : unknown record " + op);
+    }
+  }
+
+  /**
+   * Rewrites the journal with one record per live series and version
+   */
+  private void compact() throws IOException {
+    close();
+    Path tmp = root.resolve(INDEX_FILE + ".tmp");
+    try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+      for (SeriesEntry s : series.values()) {
+        writeSeries(out, s);
+      }
+      for (Map<String, VersionEntry> vers : versions.values()) {
+        for (VersionEntry v : vers.values()) {
+          writeVersion(out, v);
+        }
+      }
+    }
+    Files.move(tmp, root.resolve(INDEX_FILE),
+        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    records = size();
+    openJournal();
+  }
+
+  private void openJournal() throws IOException {
+    journal = new DataOutputStream(new BufferedOutputStream(
+        Files.newOutputStream(root.resolve(INDEX_FILE),
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+  }
+
+  private void append(JournalWriter writer) {
+    try {
+      writer.write(journal);
+      journal.flush();
+      records++;
+      if (needsCompaction()) {
+        compact();
+      }
+    } catch (IOException e) {
+      throw new DaoRuntimeException("Unable to update Artifact index at " + root, e);
+    }
+  }
+
+  private static void writeSeries(DataOutputStream out, SeriesEntry entry) throws IOException {
+    out.writeByte(SERIES);
+    writeUUID(out, entry.getArtifactId());
+    out.writeLong(entry.getCreated());
+    out.writeBoolean(entry.isUnavailable());
+  }
+
+  private static void writeVersion(DataOutputStream out, VersionEntry entry) throws IOException {
+    out.writeByte(VERSION);
+    writeUUID(out, entry.getArtifactId());
+    out.writeUTF(entry.getVersionTag());
+    out.writeLong(entry.getCreated());
+    out.writeBoolean(entry.isUnavailable());
+  }
+
+  private static void writeUUID(DataOutputStream out, UUID uuid) throws IOException {
+    out.writeLong(uuid.getMostSignificantBits());
+    out.writeLong(uuid.getLeastSignificantBits());
+  }
+
+  private static UUID readUUID(DataInputStream in) throws IOException {
+    return new UUID(in.readLong(), in.readLong());
+  }
+
+  @FunctionalInterface
+  private interface JournalWriter {
+
+    void write(DataOutputStream out) throws IOException;
+  }
+
+  /***********************************************************************************/
+
+  /**
+   * Immutable snapshot of an Artifact series
+   */
+  static final class SeriesEntry implements Artifact {
+
+    private final UUID artifactId;
+    private final long created;
+    private final boolean deleted;
+
+    SeriesEntry(UUID artifactId, long created, boolean deleted) {
+      this.artifactId = artifactId;
+      this.created = created;
+      this.deleted = deleted;
+    }
+
+    SeriesEntry withDeleted(boolean deleted) {
+      return new SeriesEntry(artifactId, created, deleted);
+    }
+
+    @Override
+    public UUID getArtifactId() {
+      return artifactId;
+    }
+
+    long getCreated() {
+      return created;
+    }
+
+    @Override
+    public boolean isUnavailable() {
+      return deleted;
+    }
+
+    @Override
+    public boolean isAvailable() {
+      return !deleted;
+    }
+
+    @Override
+    public String toString() {
+      return "SeriesEntry{" + artifactId + (deleted ? " (deleted)" : "") + "}";
+    }
+  }
+
+  /**
+   * Immutable snapshot of an Artifact version, and of the file that holds its content
+   */
+  static final class VersionEntry implements ArtifactVersion {
+
+    private final UUID artifactId;
+    private final String versionTag;
+    private final long created;
+    private final boolean deleted;
+    private final Path file;
+
+    VersionEntry(UUID artifactId, String versionTag, long created, boolean deleted, Path file) {
+      this.artifactId = artifactId;
+      this.versionTag = versionTag;
+      this.created = created;
+      this.deleted = deleted;
+      this.file = file;
+    }
+
+    VersionEntry withDeleted(boolean deleted) {
+      return new VersionEntry(artifactId, versionTag, created, deleted, file);
+    }
+
+    UUID getArtifactId() {
+      return artifactId;
+    }
+
+    String getVersionTag() {
+      return versionTag;
+    }
+
+    long getCreated() {
+      return created;
+    }
+
+    Path getFile() {
+      return file;
+    }
+
+    @Override
+    public ResourceIdentifier getResourceIdentifier() {
+      return newId(artifactId, versionTag);
+    }
+
+    @Override
+    public boolean isUnavailable() {
+      return deleted;
+    }
+
+    @Override
+    public boolean isAvailable() {
+      return !deleted;
+    }
+
+    @Override
+    public InputStream getDataStream() {
+      try {
+        return Files.newInputStream(file);
+      } catch (IOException e) {
+        throw new DaoRuntimeException("Unable to load binary for " + this, e);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return "VersionEntry{" + artifactId + ":" + versionTag + (deleted ? " (deleted)" : "")
+          + "}";
+    }
+  }
+}
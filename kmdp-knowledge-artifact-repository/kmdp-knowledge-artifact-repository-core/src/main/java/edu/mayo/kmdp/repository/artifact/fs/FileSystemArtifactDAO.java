@@ -0,0 +1,684 @@
+package edu.mayo.kmdp.repository.artifact.fs;
+
+import edu.mayo.kmdp.repository.artifact.KnowledgeArtifactRepositoryServerProperties;
+import edu.mayo.kmdp.repository.artifact.KnowledgeArtifactRepositoryServerProperties.KnowledgeArtifactRepositoryOptions;
+import edu.mayo.kmdp.repository.artifact.dao.Artifact;
+import edu.mayo.kmdp.repository.artifact.dao.ArtifactDAO;
+import edu.mayo.kmdp.repository.artifact.dao.ArtifactVersion;
+import edu.mayo.kmdp.repository.artifact.dao.DaoResult;
+import edu.mayo.kmdp.repository.artifact.exceptions.DaoRuntimeException;
+import edu.mayo.kmdp.repository.artifact.exceptions.RepositoryNotFoundException;
+import edu.mayo.kmdp.repository.artifact.exceptions.ResourceNoContentException;
+import edu.mayo.kmdp.repository.artifact.exceptions.ResourceNotFoundException;
+import edu.mayo.kmdp.repository.artifact.fs.ArtifactIndex.SeriesEntry;
+import edu.mayo.kmdp.repository.artifact.fs.ArtifactIndex.VersionEntry;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * File-backed {@link ArtifactDAO}, meant for read-mostly deployments
+ * <p>
+ * Each repository is a directory under the configured base directory, where the content of each
+ * version is stored in an immutable file (under repository/artifact/version), which is replaced
+ * atomically when the version is updated. Series, versions and soft-deletion flags are tracked by
+ * a compact on-disk {@link ArtifactIndex}, which is also held in memory.
+ * <p>
+ * Content is served through {@link FileChannel}s: large files are memory-mapped, so that streams
+ * and buffers read directly from the page cache.
+ */
+public class FileSystemArtifactDAO implements ArtifactDAO {
+
+  /**
+   * Value of {@link KnowledgeArtifactRepositoryOptions#STORE} that selects this DAO
+   */
+  public static final String STORE_TYPE = "filesystem";
+
+  private static final String REPOSITORY_PREFIX = "r_";
+
+  /**
+   * Files smaller than this are read, rather than mapped, since mapping has a fixed setup cost
+   */
+  private static final long MAPPING_THRESHOLD = 64L * 1024L;
+
+  private final Path baseDir;
+
+  private final String defaultRepositoryId;
+
+  private final Map<String, ArtifactIndex> indexes = new HashMap<>();
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  public FileSystemArtifactDAO(KnowledgeArtifactRepositoryServerProperties cfg) {
+    this(baseDir(cfg), cfg);
+  }
+
+  public FileSystemArtifactDAO(File baseDir, KnowledgeArtifactRepositoryServerProperties cfg) {
+    this.baseDir = baseDir.toPath();
+    this.defaultRepositoryId =
+        cfg.getTyped(KnowledgeArtifactRepositoryOptions.DEFAULT_REPOSITORY_ID);
+    open();
+  }
+
+  private static File baseDir(KnowledgeArtifactRepositoryServerProperties cfg) {
+    File dir = cfg.getTyped(KnowledgeArtifactRepositoryOptions.BASE_DIR);
+    if (dir != null) {
+      return dir;
+    }
+    try {
+      return Files.createTempDirectory("kart").toFile();
+    } catch (IOException e) {
+      throw new DaoRuntimeException(e);
+    }
+  }
+
+  private void open() {
+    try {
+      Files.createDirectories(baseDir);
+      try (DirectoryStream<Path> repos = Files.newDirectoryStream(baseDir,
+          p -> p.getFileName().toString().startsWith(REPOSITORY_PREFIX)
+              && Files.exists(p.resolve(ArtifactIndex.INDEX_FILE)))) {
+        for (Path repo : repos) {
+          String repositoryId = URLDecoder.decode(
+              repo.getFileName().toString().substring(REPOSITORY_PREFIX.length()),
+              StandardCharsets.UTF_8);
+          indexes.put(repositoryId, ArtifactIndex.open(repo));
+        }
+      }
+    } catch (IOException e) {
+      throw new DaoRuntimeException("Unable to open Artifact repositories at " + baseDir, e);
+    }
+  }
+
+  public Path getBaseDir() {
+    return baseDir;
+  }
+
+  @Override
+  public void shutdown() throws DaoRuntimeException {
+    write(() -> {
+      indexes.values().forEach(ArtifactIndex::close);
+      indexes.clear();
+      return null;
+    });
+  }
+
+  @Override
+  public void clear() {
+    write(() -> {
+      for (ArtifactIndex index : indexes.values()) {
+        index.close();
+        deleteRecursively(index.getRoot());
+      }
+      indexes.clear();
+      return null;
+    });
+  }
+
+  /***********************************************************************************/
+
+  @Override
+  public DaoResult<List<Artifact>> listResources(String repositoryId, Boolean deleted,
+      Map<String, String> config) {
+    return listResources(repositoryId, deleted, 0, -1);
+  }
+
+  @Override
+  public DaoResult<List<Artifact>> listResources(String repositoryId, Boolean deleted,
+      int offset, int limit) {
+    List<Artifact> page = read(() -> sortedSeries(repositoryId, deleted)
+        .skip(Math.max(offset, 0))
+        .limit(limit >= 0 ? limit : Long.MAX_VALUE)
+        .collect(Collectors.toList()));
+    return () -> page;
+  }
+
+  @Override
+  public DaoResult<List<Artifact>> listResourcesAfter(String repositoryId, Boolean deleted,
+      UUID after, int limit) {
+    List<Artifact> page = read(() -> sortedSeries(repositoryId, deleted)
+        .filter(a -> after == null || a.getArtifactTag().compareTo(after.toString()) > 0)
+        .limit(limit >= 0 ? limit : Long.MAX_VALUE)
+        .collect(Collectors.toList()));
+    return () -> page;
+  }
+
+  @Override
+  public DaoResult<ArtifactVersion> getResourceVersion(String repositoryId, UUID artifactId,
+      String versionTag, Boolean deleted) {
+    ArtifactVersion version = read(() -> fetchVersion(repositoryId, artifactId, versionTag,
+        Boolean.TRUE.equals(deleted)));
+    return () -> version;
+  }
+
+  @Override
+  public DaoResult<Artifact> getResourceSeries(String repositoryId, UUID artifactId) {
+    Artifact series = read(() -> fetchSeries(repositoryId, artifactId));
+    return () -> series;
+  }
+
+  @Override
+  public DaoResult<Boolean> hasResourceSeries(String repositoryId, UUID artifactId) {
+    boolean exists = read(() -> index(repositoryId)
+        .flatMap(index -> index.getSeries(artifactId))
+        .isPresent());
+    return () -> exists;
+  }
+
+  @Override
+  public DaoResult<Boolean> hasResourceVersions(String repositoryId, UUID artifactId,
+      Boolean deleted) {
+    // consistent with the JPA DAO: matches the versions whose deletion flag equals 'deleted'
+    boolean exists = read(() -> index(repositoryId).stream()
+        .flatMap(index -> index.getVersions(artifactId).stream())
+        .anyMatch(v -> v.isUnavailable() == Boolean.TRUE.equals(deleted)));
+    return () -> exists;
+  }
+
+  @Override
+  public DaoResult<List<ArtifactVersion>> getResourceVersions(String repositoryId,
+      UUID artifactId, Boolean deleted) {
+    List<ArtifactVersion> versions = read(() -> {
+      List<ArtifactVersion> vers = sortedVersions(repositoryId, artifactId, deleted)
+          .collect(Collectors.toList());
+      if (vers.isEmpty()) {
+        checkSeries(repositoryId, artifactId, false);
+      }
+      return vers;
+    });
+    return () -> versions;
+  }
+
+  @Override
+  public DaoResult<ArtifactVersion> getLatestResourceVersion(String repositoryId,
+      UUID artifactId, Boolean deleted) {
+    ArtifactVersion latest = read(() -> {
+      Optional<ArtifactVersion> version = sortedVersions(repositoryId, artifactId, deleted)
+          .findFirst();
+      if (version.isEmpty()) {
+        checkSeries(repositoryId, artifactId, true);
+        if (!hasAvailableVersions(repositoryId, artifactId)) {
+          throw new ResourceNoContentException(artifactId, repositoryId);
+        }
+      }
+      return version
+          .orElseThrow(() -> new ResourceNotFoundException(artifactId, null, repositoryId));
+    });
+    return () -> latest;
+  }
+
+  /***********************************************************************************/
+
+  @Override
+  public void deleteResourceVersion(String repositoryId, UUID artifactId, String versionTag) {
+    write(() -> {
+      VersionEntry version = fetchVersion(repositoryId, artifactId, versionTag, true);
+      indexFor(repositoryId).putVersion(version.withDeleted(true));
+      return null;
+    });
+  }
+
+  @Override
+  public void removeResourceVersion(String repositoryId, UUID artifactId, String versionTag) {
+    write(() -> {
+      index(repositoryId).ifPresent(index ->
+          index.getVersion(artifactId, versionTag).ifPresent(version -> {
+            index.dropVersion(artifactId, versionTag);
+            deleteQuietly(version.getFile());
+          }));
+      return null;
+    });
+  }
+
+  @Override
+  public void deleteResourceSeries(String repositoryId, UUID artifactId) {
+    write(() -> {
+      SeriesEntry series = fetchSeries(repositoryId, artifactId);
+      setDeleted(indexFor(repositoryId), series, true);
+      return null;
+    });
+  }
+
+  @Override
+  public void removeResourceSeries(String repositoryId, UUID artifactId) {
+    write(() -> {
+      index(repositoryId).ifPresent(index -> {
+        if (index.getSeries(artifactId).isPresent()) {
+          index.dropSeries(artifactId);
+          deleteRecursively(index.getRoot().resolve(artifactId.toString()));
+        }
+      });
+      return null;
+    });
+  }
+
+  @Override
+  public void enableResourceVersion(String repositoryId, UUID artifactId, String versionTag) {
+    write(() -> {
+      VersionEntry version = fetchVersion(repositoryId, artifactId, versionTag, true);
+      if (version.isUnavailable()) {
+        indexFor(repositoryId).putVersion(version.withDeleted(false));
+      }
+      return null;
+    });
+  }
+
+  @Override
+  public void enableResourceSeries(String repositoryId, UUID artifactId) {
+    write(() -> {
+      // enable should not activate a repository
+      checkHasRepository(repositoryId);
+      ArtifactIndex index = indexFor(repositoryId);
+      SeriesEntry series = index.getSeries(artifactId)
+          .orElseGet(() -> new SeriesEntry(artifactId, System.currentTimeMillis(), true));
+      setDeleted(index, series, false);
+      return null;
+    });
+  }
+
+  @Override
+  public DaoResult<ArtifactVersion> saveResource(String repositoryId, UUID artifactId,
+      String versionTag, byte[] document, Map<String, String> config) {
+    return saveResource(repositoryId, artifactId, versionTag,
+        out -> out.write(document));
+  }
+
+  /**
+   * Streaming variant of
+   * {@link #saveResource(String, UUID, String, byte[], Map)}. The stream is copied in full to the
+   * version file: the length is only used as a hint.
+   */
+  @Override
+  public DaoResult<ArtifactVersion> saveResource(String repositoryId, UUID artifactId,
+      String versionTag, InputStream document, long length, Map<String, String> config) {
+    return saveResource(repositoryId, artifactId, versionTag,
+        out -> document.transferTo(out));
+  }
+
+  @Override
+  public DaoResult<Artifact> saveResource(String repositoryId, UUID artifactId) {
+    Artifact series = write(() -> activateSeries(indexFor(repositoryId), artifactId));
+    return () -> series;
+  }
+
+  private DaoResult<ArtifactVersion> saveResource(String repositoryId, UUID artifactId,
+      String versionTag, ContentWriter content) {
+    // the (potentially large) content is written outside of the lock,
+    // and published atomically, together with the index entry
+    Path file = write(() -> indexFor(repositoryId).contentPath(artifactId, versionTag));
+    Path tmp = writeContent(file, content);
+
+    ArtifactVersion saved = write(() -> {
+      ArtifactIndex index = indexFor(repositoryId);
+      activateSeries(index, artifactId);
+      publish(tmp, file);
+      long created = index.getVersion(artifactId, versionTag)
+          .map(VersionEntry::getCreated)
+          .orElseGet(System::currentTimeMillis);
+      var version = new VersionEntry(artifactId, versionTag, created, false, file);
+      index.putVersion(version);
+      return version;
+    });
+    return () -> saved;
+  }
+
+  /***********************************************************************************/
+
+  @Override
+  public byte[] getData(String repositoryId, ArtifactVersion version) {
+    Path file = resolveFile(repositoryId, version);
+    try (FileChannel channel = FileChannel.open(file)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new DaoRuntimeException("Artifact too large to be loaded in memory: " + version);
+      }
+      // single, exact-size copy out of the file
+      var data = ByteBuffer.allocate((int) size);
+      while (data.hasRemaining() && channel.read(data) >= 0) {
+        // keep reading
+      }
+      return data.array();
+    } catch (NoSuchFileException e) {
+      throw new ResourceNoContentException("Unable to load binary for " + version);
+    } catch (IOException e) {
+      throw new DaoRuntimeException(e);
+    }
+  }
+
+  @Override
+  public InputStream getDataStream(String repositoryId, ArtifactVersion version) {
+    Path file = resolveFile(repositoryId, version);
+    try {
+      if (Files.size(file) >= MAPPING_THRESHOLD) {
+        return new ByteBufferInputStream(map(file));
+      }
+      return Files.newInputStream(file);
+    } catch (NoSuchFileException e) {
+      throw new ResourceNoContentException("Unable to load binary for " + version);
+    } catch (IOException e) {
+      throw new DaoRuntimeException(e);
+    }
+  }
+
+  @Override
+  public ReadableByteChannel getDataChannel(String repositoryId, ArtifactVersion version) {
+    try {
+      // supports zero-copy transfers, e.g. FileChannel.transferTo a socket
+      return FileChannel.open(resolveFile(repositoryId, version));
+    } catch (NoSuchFileException e) {
+      throw new ResourceNoContentException("Unable to load binary for " + version);
+    } catch (IOException e) {
+      throw new DaoRuntimeException(e);
+    }
+  }
+
+  /**
+   * Maps the content of a version in memory, without copying it
+   *
+   * @param repositoryId
+   * @param version
+   * @return a read-only buffer over the content of the version
+   */
+  public ByteBuffer getDataBuffer(String repositoryId, ArtifactVersion version) {
+    try {
+      return map(resolveFile(repositoryId, version));
+    } catch (NoSuchFileException e) {
+      throw new ResourceNoContentException("Unable to load binary for " + version);
+    } catch (IOException e) {
+      throw new DaoRuntimeException(e);
+    }
+  }
+
+  private ByteBuffer map(Path file) throws IOException {
+    // the mapping remains valid after the channel is closed
+    try (FileChannel channel = FileChannel.open(file)) {
+      return channel.map(MapMode.READ_ONLY, 0, channel.size()).asReadOnlyBuffer();
+    }
+  }
+
+  private Path resolveFile(String repositoryId, ArtifactVersion version) {
+    if (version instanceof VersionEntry) {
+      return ((VersionEntry) version).getFile();
+    }
+    var id = version.getResourceIdentifier();
+    return read(() -> fetchVersion(repositoryId, UUID.fromString(id.getTag()),
+        id.getVersionTag(), true).getFile());
+  }
+
+  /***********************************************************************************/
+
+  private Stream<Artifact> sortedSeries(String repositoryId, Boolean deleted) {
+    Optional<ArtifactIndex> index = index(repositoryId);
+    if (index.isEmpty() || index.get().getAllSeries().isEmpty()) {
+      checkHasRepository(repositoryId);
+      return Stream.empty();
+    }
+    // consistently with the other DAOs, series are sorted by the string form of their id
+    return index.get().getAllSeries().stream()
+        .filter(s -> Boolean.TRUE.equals(deleted) || s.isAvailable())
+        .sorted(Comparator.comparing(Artifact::getArtifactTag))
+        .map(Artifact.class::cast);
+  }
+
+  /**
+   * @return the versions of a series, most recent first
+   */
+  private Stream<ArtifactVersion> sortedVersions(String repositoryId, UUID artifactId,
+      Boolean deleted) {
+    List<VersionEntry> versions = index(repositoryId).stream()
+        .flatMap(index -> index.getVersions(artifactId).stream())
+        .filter(v -> Boolean.TRUE.equals(deleted) || v.isAvailable())
+        .collect(Collectors.toCollection(ArrayList::new));
+    // versions are indexed in order of creation: ties on the timestamp favor the latest
+    Collections.reverse(versions);
+    versions.sort(Comparator.comparingLong(VersionEntry::getCreated).reversed());
+    return versions.stream()
+        .map(ArtifactVersion.class::cast);
+  }
+
+  private SeriesEntry fetchSeries(String repositoryId, UUID artifactId) {
+    Optional<SeriesEntry> series = index(repositoryId)
+        .flatMap(index -> index.getSeries(artifactId));
+    if (series.isEmpty()) {
+      checkSeries(repositoryId, artifactId, false);
+    }
+    return series
+        .orElseThrow(() -> new ResourceNotFoundException(artifactId, null, repositoryId));
+  }
+
+  private VersionEntry fetchVersion(String repositoryId, UUID artifactId, String versionTag,
+      boolean includeSoftDeleted) {
+    Optional<VersionEntry> version = index(repositoryId)
+        .flatMap(index -> index.getVersion(artifactId, versionTag))
+        .filter(v -> includeSoftDeleted || v.isAvailable());
+    if (version.isEmpty()) {
+      checkHasRepository(repositoryId);
+    }
+    return version
+        .orElseThrow(() -> new ResourceNotFoundException(artifactId, versionTag, repositoryId));
+  }
+
+  private SeriesEntry activateSeries(ArtifactIndex index, UUID artifactId) {
+    Optional<SeriesEntry> series = index.getSeries(artifactId);
+    if (series.isPresent() && series.get().isAvailable()) {
+      return series.get();
+    }
+    SeriesEntry active = series
+        .map(s -> s.withDeleted(false))
+        .orElseGet(() -> new SeriesEntry(artifactId, System.currentTimeMillis(), false));
+    index.putSeries(active);
+    return active;
+  }
+
+  /**
+   * Sets the deletion flag on a series and all its versions
+   */
+  private void setDeleted(ArtifactIndex index, SeriesEntry series, boolean deleted) {
+    if (series.isUnavailable() != deleted || index.getSeries(series.getArtifactId()).isEmpty()) {
+      index.putSeries(series.withDeleted(deleted));
+    }
+    List<VersionEntry> versions = new ArrayList<>(index.getVersions(series.getArtifactId()));
+    for (VersionEntry version : versions) {
+      if (version.isUnavailable() != deleted) {
+        index.putVersion(version.withDeleted(deleted));
+      }
+    }
+  }
+
+  /**
+   * Classifies a failed lookup on a series
+   */
+  private void checkSeries(String repositoryId, UUID artifactId, boolean checkRepository) {
+    Optional<ArtifactIndex> index = index(repositoryId);
+    Optional<SeriesEntry> series = index.flatMap(i -> i.getSeries(artifactId));
+    Collection<VersionEntry> versions = index
+        .map(i -> i.getVersions(artifactId))
+        .orElseGet(List::of);
+    if (series.isEmpty() && versions.isEmpty()) {
+      if (checkRepository) {
+        checkHasRepository(repositoryId);
+      }
+      throw new ResourceNotFoundException(artifactId, repositoryId);
+    }
+    boolean available = series.map(Artifact::isAvailable).orElse(false)
+        || versions.stream().anyMatch(VersionEntry::isAvailable);
+    if (!available) {
+      throw new ResourceNoContentException(artifactId, repositoryId);
+    }
+  }
+
+  private boolean hasAvailableVersions(String repositoryId, UUID artifactId) {
+    return index(repositoryId).stream()
+        .flatMap(index -> index.getVersions(artifactId).stream())
+        .anyMatch(VersionEntry::isAvailable);
+  }
+
+  private void checkHasRepository(String repositoryId) {
+    if (!hasRepository(repositoryId)) {
+      throw new RepositoryNotFoundException("Unknown Artifact Repository " + repositoryId);
+    }
+  }
+
+  public boolean hasRepository(String repositoryId) {
+    if (repositoryId.equals(defaultRepositoryId)) {
+      return true;
+    }
+    return read(() -> index(repositoryId)
+        .map(index -> !index.isEmpty())
+        .orElse(false));
+  }
+
+  /***********************************************************************************/
+
+  private Optional<ArtifactIndex> index(String repositoryId) {
+    return Optional.ofNullable(indexes.get(repositoryId));
+  }
+
+  /**
+   * Opens the index of a repository, creating the repository if needed. Requires the write lock.
+   */
+  private ArtifactIndex indexFor(String repositoryId) {
+    return indexes.computeIfAbsent(repositoryId, id -> ArtifactIndex.open(
+        baseDir.resolve(REPOSITORY_PREFIX + URLEncoder.encode(id, StandardCharsets.UTF_8))));
+  }
+
+  private <T> T read(Supplier<T> op) {
+    lock.readLock().lock();
+    try {
+      return op.get();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private <T> T write(Supplier<T> op) {
+    lock.writeLock().lock();
+    try {
+      return op.get();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private static Path writeContent(Path file, ContentWriter content) {
+    try {
+      Files.createDirectories(file.getParent());
+      Path tmp = Files.createTempFile(file.getParent(), ".", ".tmp");
+      try (OutputStream out = Files.newOutputStream(tmp)) {
+        content.write(out);
+      } catch (IOException | RuntimeException e) {
+        deleteQuietly(tmp);
+        throw e;
+      }
+      return tmp;
+    } catch (IOException e) {
+      throw new DaoRuntimeException("Unable to write " + file, e);
+    }
+  }
+
+  private static void publish(Path tmp, Path file) {
+    try {
+      // readers holding (or mapping) the previous file are not affected
+      Files.move(tmp, file,
+          StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      deleteQuietly(tmp);
+      throw new DaoRuntimeException("Unable to write " + file, e);
+    }
+  }
+
+  private static void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      // best effort: the file is no longer indexed
+    }
+  }
+
+  private static void deleteRecursively(Path dir) {
+    if (!Files.exists(dir)) {
+      return;
+    }
+    try (Stream<Path> files = Files.walk(dir)) {
+      files.sorted(Comparator.reverseOrder())
+          .forEach(FileSystemArtifactDAO::deleteQuietly);
+    } catch (IOException e) {
+      throw new DaoRuntimeException(e);
+    }
+  }
+
+  @FunctionalInterface
+  private interface ContentWriter {
+
+    void write(OutputStream out) throws IOException;
+  }
+
+  /**
+   * InputStream over a (memory-mapped) buffer
+   */
+  private static final class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int n = Math.min(len, buffer.remaining());
+      buffer.get(b, off, n);
+      return n;
+    }
+
+    @Override
+    public long skip(long n) {
+      int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+      buffer.position(buffer.position() + skipped);
+      return skipped;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
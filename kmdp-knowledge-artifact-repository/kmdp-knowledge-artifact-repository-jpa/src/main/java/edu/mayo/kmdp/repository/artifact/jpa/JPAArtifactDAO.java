@@ -7,44 +7,86 @@ import edu.mayo.kmdp.repository.artifact.KnowledgeArtifactRepositoryServerProper
 import edu.mayo.kmdp.repository.artifact.dao.Artifact;
 import edu.mayo.kmdp.repository.artifact.dao.ArtifactDAO;
 import edu.mayo.kmdp.repository.artifact.dao.ArtifactVersion;
+import edu.mayo.kmdp.repository.artifact.dao.ArtifactVersionDocument;
 import edu.mayo.kmdp.repository.artifact.dao.DaoResult;
 import edu.mayo.kmdp.repository.artifact.exceptions.DaoRuntimeException;
 import edu.mayo.kmdp.repository.artifact.exceptions.RepositoryNotFoundException;
 import edu.mayo.kmdp.repository.artifact.exceptions.ResourceNoContentException;
 import edu.mayo.kmdp.repository.artifact.exceptions.ResourceNotFoundException;
+import edu.mayo.kmdp.repository.artifact.jpa.entities.ArtifactContentEntity;
 import edu.mayo.kmdp.repository.artifact.jpa.entities.ArtifactVersionEntity;
 import edu.mayo.kmdp.repository.artifact.jpa.entities.KeyId;
+import edu.mayo.kmdp.repository.artifact.jpa.stores.ArtifactContentRepository;
 import edu.mayo.kmdp.repository.artifact.jpa.stores.ArtifactVersionRepository;
+import edu.mayo.kmdp.repository.artifact.jpa.stores.SeriesStatus;
+import edu.mayo.kmdp.repository.artifact.jpa.stores.simple.SimpleArtifactContentRepository;
 import edu.mayo.kmdp.repository.artifact.jpa.stores.simple.SimpleArtifactVersionRepository;
 import edu.mayo.kmdp.util.FileUtil;
-import edu.mayo.kmdp.util.StreamUtil;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.sql.Blob;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.annotation.PostConstruct;
+import javax.persistence.EntityExistsException;
+import javax.persistence.OptimisticLockException;
 import javax.sql.DataSource;
+import org.hibernate.StaleStateException;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Component
 public class JPAArtifactDAO implements ArtifactDAO {
 
+  /**
+   * Max number of values bound to a single IN clause
+   */
+  static final int MAX_IN_PARAMETERS = 500;
+
+  /**
+   * Max number of attempts of a write that conflicts with a concurrent write of the same content
+   */
+  static final int MAX_ATTEMPTS = 10;
+
   @Autowired
   private DataSource dataSource;
 
   @Autowired
   private ArtifactVersionRepository versionRepo;
 
+  @Autowired
+  private ArtifactContentRepository contentRepo;
+
   @Autowired
   private KnowledgeArtifactRepositoryServerProperties cfg;
 
+  @Autowired(required = false)
+  private PlatformTransactionManager transactionManager;
+
+  private TransactionOperations txTemplate;
+
   private String defaultRepositoryId;
 
   public JPAArtifactDAO() {
@@ -60,7 +102,9 @@ public class JPAArtifactDAO implements ArtifactDAO {
   public JPAArtifactDAO(DataSource source, KnowledgeArtifactRepositoryServerProperties cfg) {
     this.dataSource = source;
     this.cfg = cfg;
-    this.versionRepo = SimpleArtifactVersionRepository.simpleRepo(source, cfg);
+    var simpleRepo = SimpleArtifactVersionRepository.simpleRepo(source, cfg);
+    this.versionRepo = simpleRepo;
+    this.contentRepo = SimpleArtifactContentRepository.simpleContentRepo(simpleRepo);
     ensureInit();
   }
 
@@ -69,6 +113,9 @@ public class JPAArtifactDAO implements ArtifactDAO {
     if (defaultRepositoryId == null) {
       defaultRepositoryId = cfg.getTyped(KnowledgeArtifactRepositoryOptions.DEFAULT_REPOSITORY_ID);
     }
+    if (txTemplate == null && transactionManager != null) {
+      txTemplate = new TransactionTemplate(transactionManager);
+    }
   }
 
   @Override
@@ -86,13 +133,21 @@ public class JPAArtifactDAO implements ArtifactDAO {
   @Override
   @Transactional
   public void clear() {
-    versionRepo.deleteAll();
+    inUnitOfWork(() -> {
+      versionRepo.deleteAll();
+      contentRepo.deleteAll();
+      return null;
+    });
   }
 
   ArtifactVersionRepository getPersistenceAdapter() {
     return versionRepo;
   }
 
+  ArtifactContentRepository getContentAdapter() {
+    return contentRepo;
+  }
+
   /***********************************************************************************/
 
 
@@ -113,6 +168,36 @@ public class JPAArtifactDAO implements ArtifactDAO {
     return ofJPA(artifacts);
   }
 
+  @Override
+  public DaoResult<List<Artifact>> listResources(String repositoryId, Boolean includeSoftDeleted,
+      int offset, int limit) {
+    List<Artifact> artifacts = versionRepo.listSeries(
+        repositoryId, Boolean.TRUE.equals(includeSoftDeleted), offset, limit);
+    if (artifacts.isEmpty()) {
+      checkHasRepository(repositoryId);
+    }
+    return ofJPA(artifacts);
+  }
+
+  @Override
+  public DaoResult<List<Artifact>> listResourcesAfter(String repositoryId,
+      Boolean includeSoftDeleted, UUID after, int limit) {
+    List<Artifact> artifacts = versionRepo.listSeriesAfter(
+        repositoryId, Boolean.TRUE.equals(includeSoftDeleted), after, limit);
+    if (artifacts.isEmpty() && after == null) {
+      checkHasRepository(repositoryId);
+    }
+    return ofJPA(artifacts);
+  }
+
+  @Override
+  public DaoResult<Stream<Artifact>> streamResources(String repositoryId,
+      Boolean includeSoftDeleted) {
+    checkHasRepository(repositoryId);
+    return ofJPA(
+        versionRepo.streamSeries(repositoryId, Boolean.TRUE.equals(includeSoftDeleted)));
+  }
+
 
   @Override
   public DaoResult<ArtifactVersion> getResourceVersion(String repositoryId, UUID artifactId,
@@ -142,6 +227,17 @@ public class JPAArtifactDAO implements ArtifactDAO {
         fetchAllArtifactVersions(repositoryId, artifactId, includeSoftDeleted));
   }
 
+  @Override
+  public DaoResult<List<ArtifactVersion>> getResourceVersionsMetadata(String repositoryId,
+      UUID artifactId, Boolean includeSoftDeleted) {
+    List<ArtifactVersion> versions = versionRepo.listVersionSummaries(
+        repositoryId, artifactId, Boolean.TRUE.equals(includeSoftDeleted));
+    if (versions.isEmpty()) {
+      checkSeries(repositoryId, artifactId, false);
+    }
+    return ofJPA(versions);
+  }
+
   @Override
   public DaoResult<Boolean> hasResourceVersions(String repositoryId, UUID artifactId,
       Boolean includeSoftDeleted) {
@@ -160,115 +256,385 @@ public class JPAArtifactDAO implements ArtifactDAO {
   @Override
   @Transactional
   public void deleteResourceVersion(String repositoryId, UUID artifactId, String versionTag) {
-    versionRepo.save(fetchArtifactVersion(repositoryId, artifactId, versionTag, true)
-        .withSoftDeleted(true));
+    inUnitOfWork(() -> {
+      versionRepo.save(fetchArtifactVersion(repositoryId, artifactId, versionTag, true)
+          .withSoftDeleted(true));
+      return null;
+    });
   }
 
   @Override
   @Transactional
   public void removeResourceVersion(String repositoryId, UUID artifactId, String versionTag) {
-    if (versionRepo.existsByKey_RepositoryIdAndKey_ArtifactIdAndKey_VersionTag(
-        repositoryId, artifactId, versionTag)) {
-      versionRepo.deleteById(new KeyId(repositoryId, artifactId, versionTag));
-    }
+    inUnitOfWork(() -> {
+      var key = new KeyId(repositoryId, artifactId, versionTag);
+      versionRepo.findById(key).ifPresent(version -> {
+        ArtifactContentEntity content = version.getContent();
+        versionRepo.deleteById(key);
+        release(content);
+      });
+      return null;
+    });
   }
 
   @Override
   @Transactional
   public void deleteResourceSeries(String repositoryId, UUID artifactId) {
-    List<ArtifactVersionEntity> versions =
-        fetchAllArtifactVersions(repositoryId, artifactId, true).stream()
-            .flatMap(StreamUtil.filterAs(ArtifactVersionEntity.class))
-            .collect(Collectors.toList());
+    inUnitOfWork(() -> {
+      // throws if the series does not exist
+      fetchArtifactSeries(repositoryId, artifactId);
 
-    // soft-deleting a series...
-    versionRepo.save(fetchArtifactSeries(repositoryId, artifactId).withSoftDeleted(true));
-    // ...soft-deletes all versions
-    versions.forEach(version -> versionRepo.save(version.withSoftDeleted(true)));
+      // soft-deleting a series soft-deletes all versions
+      versionRepo.updateSoftDeletedByKey_RepositoryIdAndKey_ArtifactId(
+          repositoryId, artifactId, true);
+      return null;
+    });
   }
 
   @Override
   @Transactional
   public void removeResourceSeries(String repositoryId, UUID artifactId) {
-    if (versionRepo.existsByKey_RepositoryIdAndKey_ArtifactIdAndSeries(
-        repositoryId, artifactId, true)) {
-      versionRepo.deleteById(new KeyId(repositoryId, artifactId, artifactId.toString()));
-    }
+    inUnitOfWork(() -> {
+      if (versionRepo.existsByKey_RepositoryIdAndKey_ArtifactIdAndSeries(
+          repositoryId, artifactId, true)) {
+        versionRepo.deleteById(new KeyId(repositoryId, artifactId, artifactId.toString()));
+      }
+      return null;
+    });
   }
 
   @Override
   @Transactional
   public void enableResourceVersion(String repositoryId, UUID artifactId, String versionTag) {
-    ArtifactVersionEntity version = fetchArtifactVersion(repositoryId, artifactId, versionTag,
-        true);
-    if (version.isUnavailable()) {
-      versionRepo.save(version.withSoftDeleted(false));
-    }
+    inUnitOfWork(() -> {
+      ArtifactVersionEntity version = fetchArtifactVersion(repositoryId, artifactId, versionTag,
+          true);
+      if (version.isUnavailable()) {
+        versionRepo.save(version.withSoftDeleted(false));
+      }
+      return null;
+    });
   }
 
   @Override
   @Transactional
   public void enableResourceSeries(String repositoryId, UUID artifactId) {
-    Optional<ArtifactVersionEntity> series = tryFetchArtifactSeries(repositoryId, artifactId);
-    if (series.isPresent() && series.get().isUnavailable()) {
-      versionRepo.save(series.get().withSoftDeleted(false));
-    } else if (series.isEmpty()) {
-      // save would activate the repository, but enable should not
-      checkHasRepository(repositoryId);
-      versionRepo.save(new ArtifactVersionEntity(repositoryId, artifactId));
-    }
+    inUnitOfWork(() -> {
+      if (tryFetchArtifactSeries(repositoryId, artifactId).isEmpty()) {
+        // save would activate the repository, but enable should not
+        checkHasRepository(repositoryId);
+        versionRepo.save(new ArtifactVersionEntity(repositoryId, artifactId));
+      }
 
-    List<ArtifactVersionEntity> disabledVersions =
-        fetchAllArtifactVersions(repositoryId, artifactId, true).stream()
-            .flatMap(StreamUtil.filterAs(ArtifactVersionEntity.class))
-            .filter(ArtifactVersionEntity::isUnavailable)
-            .collect(Collectors.toList());
-    disabledVersions.forEach(version -> versionRepo.save(version.withSoftDeleted(false)));
+      // enabling a series enables all versions
+      versionRepo.updateSoftDeletedByKey_RepositoryIdAndKey_ArtifactId(
+          repositoryId, artifactId, false);
+      return null;
+    });
   }
 
   @Override
-  @Transactional
   public DaoResult<ArtifactVersion> saveResource(String repositoryId, UUID artifactId,
       String versionTag, byte[] document, Map<String, String> config) {
+    String hash = ArtifactContentEntity.digest(document);
+    return inRetryableUnitOfWork(() -> {
+      saveResource(repositoryId, artifactId);
+
+      ArtifactVersionEntity entity = tryFetchArtifactVersion(repositoryId, artifactId, versionTag,
+          true)
+          .orElseGet(() -> new ArtifactVersionEntity(repositoryId, artifactId, versionTag));
 
-    saveResource(repositoryId, artifactId);
+      Map<String, ArtifactContentEntity> contents = new HashMap<>();
+      ArtifactContentEntity previous =
+          bindContent(entity, hash, document, findContents(List.of(hash)), contents);
+      entity.setSoftDeleted(false);
+
+      contentRepo.saveAll(contents.values());
+      ArtifactVersionEntity saved = versionRepo.save(entity);
+      release(previous);
+      return ofJPA(saved);
+    });
+  }
+
+  @Override
+  @Transactional
+  public DaoResult<ArtifactVersion> saveResource(String repositoryId, UUID artifactId,
+      String versionTag, InputStream document, long length, Map<String, String> config) {
+    return inUnitOfWork(() -> {
+      saveResource(repositoryId, artifactId);
 
-    ArtifactVersionEntity entity = tryFetchArtifactVersion(repositoryId, artifactId, versionTag,
-        true)
-        .orElseGet(() -> new ArtifactVersionEntity(repositoryId, artifactId, versionTag));
+      ArtifactVersionEntity entity = tryFetchArtifactVersion(repositoryId, artifactId, versionTag,
+          true)
+          .orElseGet(() -> new ArtifactVersionEntity(repositoryId, artifactId, versionTag));
 
-    entity.setBinaryData(document);
-    entity.setSoftDeleted(false);
+      // streamed content is stored inline, since its digest is not known before it is consumed
+      ArtifactContentEntity previous = entity.getContent();
+      entity.setBinaryData(document, length);
+      entity.setSoftDeleted(false);
 
-    return ofJPA(versionRepo.save(entity));
+      ArtifactVersionEntity saved = versionRepo.save(entity);
+      release(previous);
+      return ofJPA(saved);
+    });
   }
 
   @Override
   @Transactional
   public DaoResult<Artifact> saveResource(String repositoryId, UUID artifactId) {
+    return inUnitOfWork(() -> {
+      Optional<ArtifactVersionEntity> seriesOpt = tryFetchArtifactSeries(repositoryId, artifactId);
+
+      ArtifactVersionEntity series = seriesOpt
+          .orElseGet(() -> new ArtifactVersionEntity(repositoryId, artifactId));
+      if (seriesOpt.isEmpty() || series.isSoftDeleted()) {
+        series.setSoftDeleted(false);
+        versionRepo.save(series);
+      }
 
-    Optional<ArtifactVersionEntity> seriesOpt = tryFetchArtifactSeries(repositoryId, artifactId);
+      return ofJPA(series);
+    });
+  }
 
-    ArtifactVersionEntity series = seriesOpt
-        .orElseGet(() -> new ArtifactVersionEntity(repositoryId, artifactId));
-    if (seriesOpt.isEmpty() || series.isSoftDeleted()) {
-      series.setSoftDeleted(false);
-      versionRepo.save(series);
-    }
 
-    return ofJPA(series);
-  }
+  @Override
+  public DaoResult<List<ArtifactVersion>> saveResources(String repositoryId,
+      List<ArtifactVersionDocument> documents) {
+    List<String> hashes = documents.stream()
+        .map(doc -> ArtifactContentEntity.digest(doc.getDocument()))
+        .collect(Collectors.toList());
+    return inRetryableUnitOfWork(() -> {
+      Set<UUID> artifactIds = documents.stream()
+          .map(ArtifactVersionDocument::getArtifactId)
+          .collect(Collectors.toCollection(LinkedHashSet::new));
+
+      // key-only lookup of the known series and versions, then load only the records to update:
+      // the versions being overwritten, and the soft-deleted series to be restored
+      Set<KeyId> existing = new HashSet<>();
+      Set<KeyId> toLoad = new LinkedHashSet<>();
+      for (List<UUID> chunk : chunks(artifactIds)) {
+        versionRepo.listKeys(repositoryId, chunk).forEach(k -> {
+          var key = new KeyId(repositoryId, k.getArtifactId(), k.getVersionTag());
+          existing.add(key);
+          if (k.isSoftDeleted() && k.getArtifactId().toString().equals(k.getVersionTag())) {
+            toLoad.add(key);
+          }
+        });
+      }
+      documents.stream()
+          .map(doc -> new KeyId(repositoryId, doc.getArtifactId(), doc.getVersionTag()))
+          .filter(existing::contains)
+          .forEach(toLoad::add);
+      Map<KeyId, ArtifactVersionEntity> known = new HashMap<>();
+      for (List<KeyId> chunk : chunks(toLoad)) {
+        versionRepo.findAllByKeys(repositoryId, chunk)
+            .forEach(entity -> known.put(entity.getKey(), entity));
+      }
 
+      Map<KeyId, ArtifactVersionEntity> batch = new LinkedHashMap<>();
+      for (UUID artifactId : artifactIds) {
+        var seriesKey = new KeyId(repositoryId, artifactId, artifactId.toString());
+        if (!existing.contains(seriesKey)) {
+          batch.put(seriesKey, new ArtifactVersionEntity(repositoryId, artifactId));
+        } else if (known.containsKey(seriesKey)) {
+          // soft-deleted
+          batch.put(seriesKey, known.get(seriesKey).withSoftDeleted(false));
+        }
+      }
+      Map<String, ArtifactContentEntity> stored = findContents(new LinkedHashSet<>(hashes));
+      Map<String, ArtifactContentEntity> contents = new HashMap<>();
+      List<ArtifactContentEntity> released = new ArrayList<>();
+      for (int j = 0; j < documents.size(); j++) {
+        ArtifactVersionDocument doc = documents.get(j);
+        var key = new KeyId(repositoryId, doc.getArtifactId(), doc.getVersionTag());
+        ArtifactVersionEntity version = batch.computeIfAbsent(key,
+            k -> known.containsKey(k)
+                ? known.get(k)
+                : new ArtifactVersionEntity(repositoryId, doc.getArtifactId(), doc.getVersionTag()));
+        Optional.ofNullable(
+                bindContent(version, hashes.get(j), doc.getDocument(), stored, contents))
+            .ifPresent(released::add);
+        version.setSoftDeleted(false);
+      }
+
+      contentRepo.saveAll(contents.values());
+      List<ArtifactVersion> saved = new ArrayList<>();
+      versionRepo.saveAll(batch.values()).forEach(entity -> {
+        if (!Boolean.TRUE.equals(entity.isSeries())) {
+          saved.add(entity);
+        }
+      });
+      released.forEach(this::release);
+      return ofJPA(saved);
+    });
+  }
 
   @Override
   public byte[] getData(String repositoryId, ArtifactVersion version) {
+    Blob blob = ((ArtifactVersionEntity) version).getContentBlob();
+    if (blob == null) {
+      throw new ResourceNoContentException("Unable to load binary for " + version);
+    }
+    try {
+      long length = blob.length();
+      if (length >= 0 && length <= Integer.MAX_VALUE) {
+        // single, exact-size copy out of the Blob
+        return blob.getBytes(1, (int) length);
+      }
+    } catch (SQLException e) {
+      throw new DaoRuntimeException(e);
+    }
 
-    InputStream is = ((ArtifactVersionEntity) version).getDataStream();
+    InputStream is = version.getDataStream();
     return FileUtil.readBytes(is)
         .orElseThrow(() -> new ResourceNoContentException(
             "Unable to load binary for " + version));
   }
 
+  @Override
+  public InputStream getDataStream(String repositoryId, ArtifactVersion version) {
+    return ((ArtifactVersionEntity) version).getDataStream();
+  }
+
+  /***********************************************************************************/
+
+  /**
+   * Splits a collection in lists of at most {@link #MAX_IN_PARAMETERS} elements, so that each list
+   * can be bound to one IN clause, within the limits of the supported databases (e.g. 2100
+   * parameters per statement on SQL Server)
+   */
+  static <T> List<List<T>> chunks(Collection<T> items) {
+    List<List<T>> chunks = new ArrayList<>();
+    List<T> chunk = new ArrayList<>(Math.min(items.size(), MAX_IN_PARAMETERS));
+    for (T item : items) {
+      if (chunk.size() == MAX_IN_PARAMETERS) {
+        chunks.add(chunk);
+        chunk = new ArrayList<>(MAX_IN_PARAMETERS);
+      }
+      chunk.add(item);
+    }
+    if (!chunk.isEmpty()) {
+      chunks.add(chunk);
+    }
+    return chunks;
+  }
+
+  /**
+   * Runs an operation as one unit of work, so that all the entities it touches share the same
+   * persistence context. Spring-managed repositories join the transaction started by {@link
+   * Transactional}, if any, or a transaction started by the transaction manager, while the simple
+   * (test) repositories need to start one explicitly.
+   */
+  private <T> T inUnitOfWork(Supplier<T> op) {
+    if (versionRepo instanceof SimpleArtifactVersionRepository) {
+      return ((SimpleArtifactVersionRepository) versionRepo).inTransaction(op);
+    }
+    if (txTemplate != null) {
+      return txTemplate.execute(status -> op.get());
+    }
+    return op.get();
+  }
+
+  /**
+   * Runs a write as one unit of work, which is retried (in a new transaction, re-reading the
+   * stored records) if it conflicts with a concurrent write, i.e. if another transaction inserted
+   * the same shared content first, or updated its reference count in the meantime.
+   * <p>
+   * A write that joins a transaction started by the caller is not retried here, since only the
+   * caller can roll back and retry the whole transaction.
+   */
+  private <T> T inRetryableUnitOfWork(Supplier<T> op) {
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      return inUnitOfWork(op);
+    }
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return inUnitOfWork(op);
+      } catch (RuntimeException e) {
+        if (attempt >= MAX_ATTEMPTS || !isWriteConflict(e)) {
+          throw e;
+        }
+      }
+    }
+  }
+
+  /**
+   * @return true if the exception (or one of its causes) reports a duplicate key, or a stale
+   * (optimistically locked) record, whether or not translated into a Spring DataAccessException
+   */
+  static boolean isWriteConflict(Throwable t) {
+    for (Throwable e = t; e != null; e = e.getCause()) {
+      if (e instanceof DataIntegrityViolationException
+          || e instanceof ConcurrencyFailureException
+          || e instanceof EntityExistsException
+          || e instanceof OptimisticLockException
+          || e instanceof ConstraintViolationException
+          || e instanceof StaleStateException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Loads the stored contents with the given digests, one query per chunk of digests
+   *
+   * @param hashes the digests
+   * @return the contents already stored, indexed by digest
+   */
+  private Map<String, ArtifactContentEntity> findContents(Collection<String> hashes) {
+    Map<String, ArtifactContentEntity> stored = new HashMap<>();
+    for (List<String> chunk : chunks(hashes)) {
+      contentRepo.findAllById(chunk)
+          .forEach(content -> stored.put(content.getContentHash(), content));
+    }
+    return stored;
+  }
+
+  /**
+   * Points a version to the shared content with the same digest as the document, creating the
+   * content if needed. Contents created or retained are collected in the given map, and need to
+   * be saved before the version.
+   *
+   * @param version  the version
+   * @param hash     the digest of the document
+   * @param document the new content of the version
+   * @param stored   the contents already stored, indexed by digest (see {@link #findContents})
+   * @param contents the contents affected by the current operation, indexed by digest
+   * @return the content previously associated to the version, which needs to be released after
+   * the version has been saved, or null if none, or if unchanged
+   */
+  private ArtifactContentEntity bindContent(ArtifactVersionEntity version, String hash,
+      byte[] document, Map<String, ArtifactContentEntity> stored,
+      Map<String, ArtifactContentEntity> contents) {
+    ArtifactContentEntity previous = version.getContent();
+    if (previous != null && hash.equals(previous.getContentHash())) {
+      return null;
+    }
+    ArtifactContentEntity content = contents.computeIfAbsent(hash,
+        h -> Optional.ofNullable(stored.get(h))
+            .orElseGet(() -> new ArtifactContentEntity(h, document)));
+    content.retain();
+    version.setContent(content);
+    return previous;
+  }
+
+  /**
+   * Decrements the reference count of a shared content, deleting the content once unreferenced
+   *
+   * @param content the content, if any
+   */
+  private void release(ArtifactContentEntity content) {
+    if (content == null) {
+      return;
+    }
+    content.release();
+    if (content.getRefCount() <= 0) {
+      contentRepo.delete(content);
+    } else {
+      contentRepo.save(content);
+    }
+  }
+
   /***********************************************************************************/
 
 
@@ -277,8 +643,7 @@ public class JPAArtifactDAO implements ArtifactDAO {
         tryFetchArtifactSeries(repositoryId, artifactId);
 
     if (series.isEmpty()) {
-      checkSeries(repositoryId, artifactId);
-      checkHasRepository(repositoryId);
+      checkSeries(repositoryId, artifactId, false);
     }
     return series
         .orElseThrow(() -> new ResourceNotFoundException(artifactId, null, repositoryId));
@@ -328,8 +693,7 @@ public class JPAArtifactDAO implements ArtifactDAO {
               repositoryId, artifactId, false, false);
     }
     if (a.isEmpty()) {
-      checkSeries(repositoryId, artifactId);
-      checkHasRepository(repositoryId);
+      checkSeries(repositoryId, artifactId, false);
     }
     return a;
   }
@@ -355,41 +719,34 @@ public class JPAArtifactDAO implements ArtifactDAO {
 
 
   private void checkAll(String repositoryId, UUID artifactId) {
-    // throws when neither series nor version associated to the repository (unless default repository)
-    checkHasRepository(repositoryId);
-    // throws when (series or version) and not deleted exists
-    // (version implies series)
-    checkSeriesExist(repositoryId, artifactId);
-    // throws when (series or version) exists
-    checkSeriesHistory(repositoryId, artifactId);
+    SeriesStatus status = checkSeries(repositoryId, artifactId, true);
     // throws when (no version that is not deleted) exists
-    checkSeriesEmpty(repositoryId, artifactId);
-  }
-
-  private void checkSeries(String repositoryId, UUID artifactId) {
-    checkSeriesExist(repositoryId, artifactId);
-    checkSeriesHistory(repositoryId, artifactId);
-  }
-
-  private void checkSeriesHistory(String repositoryId, UUID artifactId) {
-    if (!hasResourceSeries(repositoryId, artifactId, false)) {
+    if (!status.hasAvailableVersions()) {
       throw new ResourceNoContentException(artifactId, repositoryId);
     }
   }
 
-  private void checkSeriesExist(String repositoryId, UUID artifactId) {
-    if (!hasResourceSeries(repositoryId, artifactId, true)) {
+  /**
+   * Classifies a failed lookup using one aggregate query on the series, falling back to a check
+   * on the repository (if requested) only when the series is unknown
+   */
+  private SeriesStatus checkSeries(String repositoryId, UUID artifactId,
+      boolean checkRepository) {
+    SeriesStatus status = versionRepo.getSeriesStatus(repositoryId, artifactId);
+    if (!status.exists()) {
+      if (checkRepository) {
+        // throws when neither series nor version associated to the repository (unless default repository)
+        checkHasRepository(repositoryId);
+      }
       throw new ResourceNotFoundException(artifactId, repositoryId);
     }
-  }
-
-  private void checkSeriesEmpty(String repositoryId, UUID artifactId) {
-    if (!hasVersions(repositoryId, artifactId, false)) {
+    // throws when (series or version) exists, but all have been deleted
+    if (!status.hasAvailableRecords()) {
       throw new ResourceNoContentException(artifactId, repositoryId);
     }
+    return status;
   }
 
-
   private void checkHasRepository(String repositoryId) {
     if (!hasRepository(repositoryId)) {
       throw new RepositoryNotFoundException("Unknown Artifact Repository " + repositoryId);
@@ -404,12 +761,6 @@ public class JPAArtifactDAO implements ArtifactDAO {
   }
 
 
-  private boolean hasVersions(String repositoryId, UUID artifactId,
-      boolean includeSoftDeleted) {
-    return versionRepo.existsByKey_RepositoryIdAndKey_ArtifactIdAndSeriesAndSoftDeleted(
-        repositoryId, artifactId, false, includeSoftDeleted);
-  }
-
   public boolean hasResourceSeries(String repositoryId, UUID artifactId,
       boolean includeSoftDeleted) {
     if (includeSoftDeleted) {
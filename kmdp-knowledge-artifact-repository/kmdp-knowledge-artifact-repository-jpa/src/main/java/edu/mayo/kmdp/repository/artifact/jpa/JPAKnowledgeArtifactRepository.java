@@ -16,8 +16,12 @@ package edu.mayo.kmdp.repository.artifact.jpa;
 
 import edu.mayo.kmdp.repository.artifact.KnowledgeArtifactRepositoryCore;
 import edu.mayo.kmdp.repository.artifact.KnowledgeArtifactRepositoryServerProperties;
+import edu.mayo.kmdp.repository.artifact.KnowledgeArtifactRepositoryServerProperties.KnowledgeArtifactRepositoryOptions;
 import edu.mayo.kmdp.repository.artifact.dao.ArtifactDAO;
+import edu.mayo.kmdp.repository.artifact.dao.CachingArtifactDAO;
+import edu.mayo.kmdp.repository.artifact.fs.FileSystemArtifactDAO;
 import edu.mayo.kmdp.repository.artifact.jpa.stores.ArtifactVersionRepository;
+import java.util.function.Supplier;
 import javax.sql.DataSource;
 import org.omg.spec.api4kp._20200801.services.KPServer;
 
@@ -25,23 +29,55 @@ import org.omg.spec.api4kp._20200801.services.KPServer;
 public class JPAKnowledgeArtifactRepository extends KnowledgeArtifactRepositoryCore
     implements JPAKnowledgeArtifactRepositoryService {
 
+  /**
+   * The injected DAO is ignored if the configuration selects the filesystem store
+   *
+   * @param dao the (JPA) DAO
+   * @param cfg the Config properties
+   */
   public JPAKnowledgeArtifactRepository(ArtifactDAO dao,
       KnowledgeArtifactRepositoryServerProperties cfg) {
-    super(dao, cfg);
+    super(newArtifactDAO(() -> dao, cfg), cfg);
   }
 
   /**
    * Test Constructor
+   * <p>
+   * The DataSource is ignored if the configuration selects the filesystem store
+   *
    * @param dao the DataSource DAO
    * @param cfg the Config properties
    */
   public JPAKnowledgeArtifactRepository(DataSource dao,
       KnowledgeArtifactRepositoryServerProperties cfg) {
-    super(new JPAArtifactDAO(dao, cfg), cfg);
+    super(newArtifactDAO(() -> new JPAArtifactDAO(dao, cfg), cfg), cfg);
+  }
+
+  /**
+   * Selects the DAO for the configured STORE, wrapped in a {@link CachingArtifactDAO} if a
+   * CACHE_SIZE_MB is configured (single node deployments only)
+   */
+  private static ArtifactDAO newArtifactDAO(Supplier<ArtifactDAO> jpaDAO,
+      KnowledgeArtifactRepositoryServerProperties cfg) {
+    String store = cfg.getTyped(KnowledgeArtifactRepositoryOptions.STORE);
+    ArtifactDAO artifactDAO = FileSystemArtifactDAO.STORE_TYPE.equalsIgnoreCase(store)
+        ? new FileSystemArtifactDAO(cfg)
+        : jpaDAO.get();
+    Integer cacheSizeMB = cfg.getTyped(KnowledgeArtifactRepositoryOptions.CACHE_SIZE_MB);
+    return cacheSizeMB != null && cacheSizeMB > 0
+        ? new CachingArtifactDAO(artifactDAO, cfg)
+        : artifactDAO;
+  }
+
+  ArtifactDAO getArtifactDAO() {
+    return dao;
   }
 
   ArtifactVersionRepository getPersistenceLayer() {
-    return ((JPAArtifactDAO) dao).getPersistenceAdapter();
+    ArtifactDAO artifactDAO = dao instanceof CachingArtifactDAO
+        ? ((CachingArtifactDAO) dao).getDelegate()
+        : dao;
+    return ((JPAArtifactDAO) artifactDAO).getPersistenceAdapter();
   }
 
 }
@@ -1,6 +1,7 @@
 package edu.mayo.kmdp.repository.artifact.jpa;
 
 import edu.mayo.kmdp.repository.artifact.dao.DaoResult;
+import java.util.stream.BaseStream;
 
 public class JPAResult<T> implements DaoResult<T> {
 
@@ -12,7 +13,9 @@ public class JPAResult<T> implements DaoResult<T> {
 
   @Override
   public void close() {
-    // nothing to close
+    if (value instanceof BaseStream) {
+      ((BaseStream<?, ?>) value).close();
+    }
   }
 
   public T getValue() {
@@ -0,0 +1,136 @@
+package edu.mayo.kmdp.repository.artifact.jpa.entities;
+
+import edu.mayo.kmdp.repository.artifact.exceptions.DaoRuntimeException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Blob;
+import java.sql.SQLException;
+import java.util.Objects;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.Version;
+import org.hibernate.engine.jdbc.BlobProxy;
+
+/**
+ * Content-addressed binary of one or more Artifact versions
+ * <p>
+ * Byte-identical versions share the same record, keyed by the (hex-encoded) SHA-256 digest of the
+ * content, which keeps track of the number of versions referencing it.
+ */
+@Entity(name = "KnowledgeArtifactContents")
+public class ArtifactContentEntity {
+
+  public static final String DIGEST_ALGORITHM = "SHA-256";
+
+  @Id
+  @Column(length = 64)
+  private String contentHash;
+
+  @Version
+  private Long recordVersion;
+
+  private Long size;
+
+  private Long refCount;
+
+  @Lob
+  private Blob binaryData;
+
+  public ArtifactContentEntity() {
+    // empty constructor
+  }
+
+  public ArtifactContentEntity(String contentHash, byte[] binaryData) {
+    this.contentHash = contentHash;
+    this.size = (long) binaryData.length;
+    this.refCount = 0L;
+    this.binaryData = BlobProxy.generateProxy(binaryData);
+  }
+
+  /**
+   * @param document the content
+   * @return the hex-encoded SHA-256 digest of the content
+   */
+  public static String digest(byte[] document) {
+    try {
+      byte[] hash = MessageDigest.getInstance(DIGEST_ALGORITHM).digest(document);
+      return String.format("%064x", new BigInteger(1, hash));
+    } catch (NoSuchAlgorithmException e) {
+      throw new DaoRuntimeException(e);
+    }
+  }
+
+  public String getContentHash() {
+    return contentHash;
+  }
+
+  public Long getSize() {
+    return size;
+  }
+
+  public long getRefCount() {
+    return refCount != null ? refCount : 0;
+  }
+
+  public void retain() {
+    this.refCount = getRefCount() + 1;
+  }
+
+  public void release() {
+    this.refCount = getRefCount() - 1;
+  }
+
+  public Blob getBinaryData() {
+    return binaryData;
+  }
+
+  /**
+   * Replaces the Blob, which may be bound to the connection it was read from, with an in-memory
+   * copy, so that the content can still be read once the entity is detached.
+   * <p>
+   * Only to be used on entities that will not be flushed again.
+   */
+  public void materialize() {
+    this.binaryData = materialized(binaryData);
+  }
+
+  static Blob materialized(Blob blob) {
+    if (blob == null) {
+      return null;
+    }
+    try {
+      return BlobProxy.generateProxy(blob.getBytes(1, (int) blob.length()));
+    } catch (SQLException sqle) {
+      throw new DaoRuntimeException(sqle);
+    }
+  }
+
+  public InputStream getDataStream() {
+    try {
+      return binaryData.getBinaryStream();
+    } catch (SQLException sqle) {
+      throw new DaoRuntimeException(sqle);
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    ArtifactContentEntity that = (ArtifactContentEntity) o;
+    return Objects.equals(contentHash, that.contentHash);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(contentHash);
+  }
+}
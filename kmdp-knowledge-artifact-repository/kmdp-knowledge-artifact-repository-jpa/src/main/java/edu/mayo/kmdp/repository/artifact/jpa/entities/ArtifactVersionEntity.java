@@ -11,18 +11,27 @@ import java.sql.Blob;
 import java.sql.SQLException;
 import java.util.Date;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 import javax.persistence.Column;
 import javax.persistence.EmbeddedId;
 import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
 import javax.persistence.Lob;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.Transient;
 import javax.persistence.Version;
-import javax.sql.rowset.serial.SerialBlob;
+import org.hibernate.engine.jdbc.BlobProxy;
 import org.omg.spec.api4kp._20200801.id.ResourceIdentifier;
 
 @Entity(name = "KnowledgeArtifacts")
+@Table(indexes = {
+    @Index(name = "IDX_KA_SERIES_STATUS",
+        columnList = "repositoryId, artifactId, series, softDeleted, created")
+})
 public class ArtifactVersionEntity implements Artifact, ArtifactVersion,
     DaoResult<ArtifactVersionEntity> {
 
@@ -40,9 +49,26 @@ public class ArtifactVersionEntity implements Artifact, ArtifactVersion,
 
   private Boolean series;
 
+  /**
+   * Inline content, for versions that are not content-addressed
+   */
   @Lob
   private Blob binaryData;
 
+  /**
+   * Shared, content-addressed content
+   */
+  @ManyToOne
+  @JoinColumn(name = "contentHash")
+  private ArtifactContentEntity content;
+
+  /**
+   * True if the binaryData is backed by a (non-resettable) client stream, which can only be read
+   * once, when the entity is flushed
+   */
+  @Transient
+  private boolean streamed;
+
 
   public ArtifactVersionEntity() {
     // empty constructor
@@ -62,6 +88,10 @@ public class ArtifactVersionEntity implements Artifact, ArtifactVersion,
     this.created = new Date();
   }
 
+  public KeyId getKey() {
+    return key;
+  }
+
   public static ArtifactVersionEntity pattern() {
     return new ArtifactVersionEntity();
   }
@@ -117,13 +147,60 @@ public class ArtifactVersionEntity implements Artifact, ArtifactVersion,
     return this;
   }
 
+  public ArtifactContentEntity getContent() {
+    return content;
+  }
+
+  /**
+   * Binds this version to a shared, content-addressed content, dropping any inline content
+   *
+   * @param content
+   */
+  public void setContent(ArtifactContentEntity content) {
+    this.content = content;
+    this.binaryData = null;
+    this.streamed = false;
+  }
+
+  /**
+   * @return the Blob holding the content of this version, whether shared or inline
+   */
+  @Transient
+  public Blob getContentBlob() {
+    return content != null ? content.getBinaryData() : binaryData;
+  }
+
+  @Override
+  @Transient
+  public Optional<String> getContentTag() {
+    return Optional.ofNullable(content)
+        .map(c -> "\"" + c.getContentHash() + "\"");
+  }
+
   @Transient
   public void setBinaryData(byte[] binaryData) {
-    try {
-      this.binaryData = new SerialBlob(binaryData);
-    } catch (SQLException sqle) {
-      throw new DaoRuntimeException(sqle);
-    }
+    // wraps, rather than copies, the document
+    this.binaryData = BlobProxy.generateProxy(binaryData);
+    this.content = null;
+    this.streamed = false;
+  }
+
+  /**
+   * Binds the binaryData to a stream, which will be piped to the database on flush
+   *
+   * @param binaryStream the content
+   * @param length       the number of bytes in the stream, or -1 if unknown
+   */
+  @Transient
+  public void setBinaryData(InputStream binaryStream, long length) {
+    this.binaryData = BlobProxy.generateProxy(binaryStream, length);
+    this.content = null;
+    this.streamed = true;
+  }
+
+  @Transient
+  public boolean isStreamed() {
+    return streamed;
   }
 
   @Transient
@@ -132,10 +209,23 @@ public class ArtifactVersionEntity implements Artifact, ArtifactVersion,
     return this;
   }
 
+  /**
+   * Replaces the Blob(s) holding the content of this version, whether shared or inline, with
+   * in-memory copies, so that the content can still be read once the entity is detached.
+   * <p>
+   * Only to be used on entities that will not be flushed again.
+   */
+  public void materialize() {
+    this.binaryData = ArtifactContentEntity.materialized(binaryData);
+    if (content != null) {
+      content.materialize();
+    }
+  }
+
   @Override
   public InputStream getDataStream() {
     try {
-      return getBinaryData().getBinaryStream();
+      return getContentBlob().getBinaryStream();
     } catch (SQLException sqle) {
       throw new DaoRuntimeException(sqle);
     }
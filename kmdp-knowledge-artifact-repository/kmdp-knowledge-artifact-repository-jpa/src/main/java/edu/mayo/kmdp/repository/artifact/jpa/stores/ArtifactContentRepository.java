@@ -0,0 +1,13 @@
+package edu.mayo.kmdp.repository.artifact.jpa.stores;
+
+import edu.mayo.kmdp.repository.artifact.jpa.entities.ArtifactContentEntity;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+@Transactional
+public interface ArtifactContentRepository
+    extends CrudRepository<ArtifactContentEntity, String> {
+
+}
@@ -0,0 +1,37 @@
+package edu.mayo.kmdp.repository.artifact.jpa.stores;
+
+import java.util.UUID;
+
+/**
+ * Key-only projection of an Artifact record (series or version), with its deletion flag
+ */
+public class ArtifactKeySummary {
+
+  private final UUID artifactId;
+  private final String versionTag;
+  private final boolean softDeleted;
+
+  public ArtifactKeySummary(UUID artifactId, String versionTag, Boolean softDeleted) {
+    this.artifactId = artifactId;
+    this.versionTag = versionTag;
+    this.softDeleted = Boolean.TRUE.equals(softDeleted);
+  }
+
+  public UUID getArtifactId() {
+    return artifactId;
+  }
+
+  public String getVersionTag() {
+    return versionTag;
+  }
+
+  public boolean isSoftDeleted() {
+    return softDeleted;
+  }
+
+  @Override
+  public String toString() {
+    return "ArtifactKeySummary{" + artifactId + ":" + versionTag
+        + (softDeleted ? " (deleted)" : "") + "}";
+  }
+}
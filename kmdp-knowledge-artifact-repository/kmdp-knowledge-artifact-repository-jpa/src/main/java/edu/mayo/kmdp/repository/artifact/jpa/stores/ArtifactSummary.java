@@ -0,0 +1,38 @@
+package edu.mayo.kmdp.repository.artifact.jpa.stores;
+
+import edu.mayo.kmdp.repository.artifact.dao.Artifact;
+import java.util.UUID;
+
+/**
+ * Projection of an Artifact series record, which does not carry (nor load) any binary content
+ */
+public class ArtifactSummary implements Artifact {
+
+  private final UUID artifactId;
+  private final boolean softDeleted;
+
+  public ArtifactSummary(UUID artifactId, Boolean softDeleted) {
+    this.artifactId = artifactId;
+    this.softDeleted = Boolean.TRUE.equals(softDeleted);
+  }
+
+  @Override
+  public UUID getArtifactId() {
+    return artifactId;
+  }
+
+  @Override
+  public boolean isUnavailable() {
+    return softDeleted;
+  }
+
+  @Override
+  public boolean isAvailable() {
+    return !softDeleted;
+  }
+
+  @Override
+  public String toString() {
+    return "ArtifactSummary{" + artifactId + (softDeleted ? " (deleted)" : "") + "}";
+  }
+}
@@ -0,0 +1,87 @@
+package edu.mayo.kmdp.repository.artifact.jpa.stores;
+
+import edu.mayo.kmdp.repository.artifact.dao.Artifact;
+import edu.mayo.kmdp.repository.artifact.dao.ArtifactVersion;
+import edu.mayo.kmdp.repository.artifact.jpa.entities.ArtifactVersionEntity;
+import edu.mayo.kmdp.repository.artifact.jpa.entities.KeyId;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Custom queries on the Artifact records, which project the records (i.e. never load the binary
+ * content) and push ordering and paging down to the database
+ */
+public interface ArtifactVersionQueries {
+
+  /**
+   * Lists the Artifact series in a repository, ordered by artifactId
+   *
+   * @param repositoryId
+   * @param includeSoftDeleted
+   * @param offset             the number of series to skip
+   * @param limit              the max number of series to return, or a negative number for all
+   * @return
+   */
+  List<Artifact> listSeries(String repositoryId, boolean includeSoftDeleted,
+      int offset, int limit);
+
+  /**
+   * Lists the Artifact series in a repository, ordered by artifactId, starting after a given
+   * artifactId (keyset pagination)
+   *
+   * @param repositoryId
+   * @param includeSoftDeleted
+   * @param after              the last artifactId of the previous page, or null for the first page
+   * @param limit              the max number of series to return, or a negative number for all
+   * @return
+   */
+  List<Artifact> listSeriesAfter(String repositoryId, boolean includeSoftDeleted,
+      UUID after, int limit);
+
+  /**
+   * Streams the Artifact series in a repository, ordered by artifactId. The stream holds database
+   * resources (a dedicated EntityManager and transaction, independent of the caller's), and must
+   * be closed
+   *
+   * @param repositoryId
+   * @param includeSoftDeleted
+   * @return
+   */
+  Stream<Artifact> streamSeries(String repositoryId, boolean includeSoftDeleted);
+
+  /**
+   * Lists the versions of an Artifact series, most recent first, as metadata-only projections
+   * (the binary content is neither selected nor joined)
+   *
+   * @param repositoryId
+   * @param artifactId
+   * @param includeSoftDeleted
+   * @return
+   */
+  List<ArtifactVersion> listVersionSummaries(String repositoryId, UUID artifactId,
+      boolean includeSoftDeleted);
+
+  /**
+   * Lists the keys of the records (series and versions) of the given Artifacts, as key-only
+   * projections. Callers are responsible for bounding the number of artifactIds, which are bound
+   * to one IN clause
+   *
+   * @param repositoryId
+   * @param artifactIds
+   * @return
+   */
+  List<ArtifactKeySummary> listKeys(String repositoryId, Collection<UUID> artifactIds);
+
+  /**
+   * Loads the records with the given keys, in one query. Callers are responsible for bounding the
+   * number of keys, whose artifactIds and versionTags are bound to two IN clauses
+   *
+   * @param repositoryId
+   * @param keys         the keys of the records, in the given repository
+   * @return the records that exist, in no particular order
+   */
+  List<ArtifactVersionEntity> findAllByKeys(String repositoryId, Collection<KeyId> keys);
+
+}
@@ -0,0 +1,186 @@
+package edu.mayo.kmdp.repository.artifact.jpa.stores;
+
+import edu.mayo.kmdp.repository.artifact.dao.Artifact;
+import edu.mayo.kmdp.repository.artifact.dao.ArtifactVersion;
+import edu.mayo.kmdp.repository.artifact.jpa.entities.ArtifactVersionEntity;
+import edu.mayo.kmdp.repository.artifact.jpa.entities.KeyId;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceUnit;
+import javax.persistence.TypedQuery;
+
+/**
+ * JPQL implementation of {@link ArtifactVersionQueries}, used as a Spring Data repository fragment
+ */
+public class ArtifactVersionQueriesImpl implements ArtifactVersionQueries {
+
+  private static final int STREAM_FETCH_SIZE = 256;
+
+  @PersistenceContext
+  private EntityManager em;
+
+  @PersistenceUnit
+  private EntityManagerFactory emf;
+
+  public ArtifactVersionQueriesImpl() {
+    // injected by Spring
+  }
+
+  public ArtifactVersionQueriesImpl(EntityManager em) {
+    this.em = em;
+  }
+
+  @Override
+  public List<Artifact> listSeries(String repositoryId, boolean includeSoftDeleted,
+      int offset, int limit) {
+    TypedQuery<ArtifactSummary> query = seriesQuery(em, repositoryId, includeSoftDeleted, null);
+    if (offset > 0) {
+      query.setFirstResult(offset);
+    }
+    if (limit >= 0) {
+      query.setMaxResults(limit);
+    }
+    return query.getResultStream()
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public List<Artifact> listSeriesAfter(String repositoryId, boolean includeSoftDeleted,
+      UUID after, int limit) {
+    TypedQuery<ArtifactSummary> query = seriesQuery(em, repositoryId, includeSoftDeleted, after);
+    if (limit >= 0) {
+      query.setMaxResults(limit);
+    }
+    return query.getResultStream()
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * The stream outlives the operation (and the transaction, if any) that opens it, so it gets its
+   * own EntityManager and (never committed) transaction, both closed with the stream
+   */
+  @Override
+  public Stream<Artifact> streamSeries(String repositoryId, boolean includeSoftDeleted) {
+    EntityManager streamEm = (emf != null ? emf : em.getEntityManagerFactory())
+        .createEntityManager();
+    try {
+      EntityTransaction tx = streamEm.getTransaction();
+      tx.begin();
+      return seriesQuery(streamEm, repositoryId, includeSoftDeleted, null)
+          .setHint("org.hibernate.fetchSize", STREAM_FETCH_SIZE)
+          .setHint("org.hibernate.readOnly", true)
+          .getResultStream()
+          .map(Artifact.class::cast)
+          .onClose(() -> close(streamEm));
+    } catch (RuntimeException e) {
+      close(streamEm);
+      throw e;
+    }
+  }
+
+  private static void close(EntityManager streamEm) {
+    try {
+      if (streamEm.getTransaction().isActive()) {
+        streamEm.getTransaction().rollback();
+      }
+    } finally {
+      streamEm.close();
+    }
+  }
+
+  @Override
+  public List<ArtifactVersion> listVersionSummaries(String repositoryId, UUID artifactId,
+      boolean includeSoftDeleted) {
+    // outer join: versions with inline (e.g. streamed) content have no shared content record
+    var jpql = new StringBuilder("SELECT new ")
+        .append(ArtifactVersionSummary.class.getName())
+        .append("(e.key.artifactId, e.key.versionTag, e.created, e.softDeleted,")
+        .append(" c.contentHash)")
+        .append(" FROM KnowledgeArtifacts e LEFT JOIN e.content c")
+        .append(" WHERE e.key.repositoryId = :repositoryId AND e.key.artifactId = :artifactId")
+        .append(" AND e.series = false");
+    if (!includeSoftDeleted) {
+      jpql.append(" AND e.softDeleted = false");
+    }
+    jpql.append(" ORDER BY e.created DESC");
+
+    return em.createQuery(jpql.toString(), ArtifactVersionSummary.class)
+        .setParameter("repositoryId", repositoryId)
+        .setParameter("artifactId", artifactId)
+        .getResultStream()
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public List<ArtifactKeySummary> listKeys(String repositoryId, Collection<UUID> artifactIds) {
+    if (artifactIds.isEmpty()) {
+      return List.of();
+    }
+    var jpql = "SELECT new " + ArtifactKeySummary.class.getName()
+        + "(e.key.artifactId, e.key.versionTag, e.softDeleted)"
+        + " FROM KnowledgeArtifacts e"
+        + " WHERE e.key.repositoryId = :repositoryId AND e.key.artifactId IN :artifactIds";
+    return em.createQuery(jpql, ArtifactKeySummary.class)
+        .setParameter("repositoryId", repositoryId)
+        .setParameter("artifactIds", artifactIds)
+        .getResultList();
+  }
+
+  @Override
+  public List<ArtifactVersionEntity> findAllByKeys(String repositoryId, Collection<KeyId> keys) {
+    if (keys.isEmpty()) {
+      return List.of();
+    }
+    // composite keys can't be portably bound to an IN clause: the candidates are narrowed down
+    // by artifactId and versionTag, and then matched exactly
+    Set<UUID> artifactIds = new HashSet<>();
+    Set<String> versionTags = new HashSet<>();
+    keys.forEach(key -> {
+      artifactIds.add(key.getArtifactId());
+      versionTags.add(key.getVersionTag());
+    });
+    var jpql = "SELECT e FROM KnowledgeArtifacts e"
+        + " WHERE e.key.repositoryId = :repositoryId AND e.key.artifactId IN :artifactIds"
+        + " AND e.key.versionTag IN :versionTags";
+    Set<KeyId> wanted = new HashSet<>(keys);
+    return em.createQuery(jpql, ArtifactVersionEntity.class)
+        .setParameter("repositoryId", repositoryId)
+        .setParameter("artifactIds", artifactIds)
+        .setParameter("versionTags", versionTags)
+        .getResultStream()
+        .filter(e -> wanted.contains(e.getKey()))
+        .collect(Collectors.toList());
+  }
+
+  private static TypedQuery<ArtifactSummary> seriesQuery(EntityManager em, String repositoryId,
+      boolean includeSoftDeleted, UUID after) {
+    var jpql = new StringBuilder("SELECT new ")
+        .append(ArtifactSummary.class.getName())
+        .append("(e.key.artifactId, e.softDeleted)")
+        .append(" FROM KnowledgeArtifacts e")
+        .append(" WHERE e.key.repositoryId = :repositoryId AND e.series = true");
+    if (!includeSoftDeleted) {
+      jpql.append(" AND e.softDeleted = false");
+    }
+    if (after != null) {
+      jpql.append(" AND e.key.artifactId > :after");
+    }
+    jpql.append(" ORDER BY e.key.artifactId");
+
+    TypedQuery<ArtifactSummary> query = em.createQuery(jpql.toString(), ArtifactSummary.class)
+        .setParameter("repositoryId", repositoryId);
+    if (after != null) {
+      query.setParameter("after", after);
+    }
+    return query;
+  }
+}
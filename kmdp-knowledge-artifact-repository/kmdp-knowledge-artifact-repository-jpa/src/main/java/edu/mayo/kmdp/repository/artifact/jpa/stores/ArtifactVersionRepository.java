@@ -7,13 +7,58 @@ import edu.mayo.kmdp.repository.artifact.jpa.entities.KeyId;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 @Transactional
-public interface ArtifactVersionRepository extends CrudRepository<ArtifactVersionEntity, KeyId> {
+public interface ArtifactVersionRepository extends CrudRepository<ArtifactVersionEntity, KeyId>,
+    ArtifactVersionQueries {
+
+  String SERIES_STATUS_QUERY = "SELECT new "
+      + "edu.mayo.kmdp.repository.artifact.jpa.stores.SeriesStatus("
+      + " COUNT(e),"
+      + " SUM(CASE WHEN e.softDeleted = false THEN 1 ELSE 0 END),"
+      + " SUM(CASE WHEN e.softDeleted = false AND e.series = false THEN 1 ELSE 0 END))"
+      + " FROM KnowledgeArtifacts e"
+      + " WHERE e.key.repositoryId = :repositoryId AND e.key.artifactId = :artifactId";
+
+  /**
+   * Collects the existence, availability and content flags of an Artifact series in one query
+   *
+   * @param repositoryId
+   * @param artifactId
+   * @return
+   */
+  @Query(SERIES_STATUS_QUERY)
+  SeriesStatus getSeriesStatus(
+      @Param("repositoryId") String repositoryId, @Param("artifactId") UUID artifactId);
+
+  String SERIES_SOFT_DELETE_QUERY = "UPDATE KnowledgeArtifacts e"
+      + " SET e.softDeleted = :softDeleted, e.recordVersion = e.recordVersion + 1"
+      + " WHERE e.key.repositoryId = :repositoryId AND e.key.artifactId = :artifactId"
+      + " AND e.softDeleted <> :softDeleted";
+
+  /**
+   * Sets the soft-deleted flag on a series and all its versions, in one bulk update.
+   * <p>
+   * Bulk updates bypass the persistence context, which is flushed before, and cleared after, the
+   * update.
+   *
+   * @param repositoryId
+   * @param artifactId
+   * @param softDeleted
+   * @return the number of records that have been updated
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(SERIES_SOFT_DELETE_QUERY)
+  int updateSoftDeletedByKey_RepositoryIdAndKey_ArtifactId(
+      @Param("repositoryId") String repositoryId, @Param("artifactId") UUID artifactId,
+      @Param("softDeleted") boolean softDeleted);
 
   List<Artifact> findAllByKey_RepositoryIdAndSeries(
       String repositoryId, boolean series);
@@ -0,0 +1,70 @@
+package edu.mayo.kmdp.repository.artifact.jpa.stores;
+
+import static org.omg.spec.api4kp._20200801.id.SemanticIdentifier.newId;
+
+import edu.mayo.kmdp.repository.artifact.dao.ArtifactVersion;
+import edu.mayo.kmdp.repository.artifact.exceptions.DaoRuntimeException;
+import java.io.InputStream;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import org.omg.spec.api4kp._20200801.id.ResourceIdentifier;
+
+/**
+ * Projection of an Artifact version record, which carries the identifiers, timestamps and flags,
+ * but does not carry (nor load) the binary content
+ */
+public class ArtifactVersionSummary implements ArtifactVersion {
+
+  private final UUID artifactId;
+  private final String versionTag;
+  private final Date created;
+  private final boolean softDeleted;
+  private final String contentHash;
+
+  public ArtifactVersionSummary(UUID artifactId, String versionTag, Date created,
+      Boolean softDeleted, String contentHash) {
+    this.artifactId = artifactId;
+    this.versionTag = versionTag;
+    this.created = created;
+    this.softDeleted = Boolean.TRUE.equals(softDeleted);
+    this.contentHash = contentHash;
+  }
+
+  @Override
+  public ResourceIdentifier getResourceIdentifier() {
+    return newId(artifactId, versionTag);
+  }
+
+  public Date getCreated() {
+    return created;
+  }
+
+  @Override
+  public boolean isUnavailable() {
+    return softDeleted;
+  }
+
+  @Override
+  public boolean isAvailable() {
+    return !softDeleted;
+  }
+
+  @Override
+  public InputStream getDataStream() {
+    throw new DaoRuntimeException(
+        "Version " + artifactId + ":" + versionTag + " has been loaded without content");
+  }
+
+  @Override
+  public Optional<String> getContentTag() {
+    return Optional.ofNullable(contentHash)
+        .map(hash -> "\"" + hash + "\"");
+  }
+
+  @Override
+  public String toString() {
+    return "ArtifactVersionSummary{" + artifactId + ":" + versionTag
+        + (softDeleted ? " (deleted)" : "") + "}";
+  }
+}
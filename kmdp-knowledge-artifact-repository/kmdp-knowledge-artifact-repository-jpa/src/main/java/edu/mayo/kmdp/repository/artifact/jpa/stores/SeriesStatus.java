@@ -0,0 +1,58 @@
+package edu.mayo.kmdp.repository.artifact.jpa.stores;
+
+/**
+ * Aggregate view of the records associated to an Artifact series (the series itself and its
+ * versions), computed in a single query, which supports the classification of failed lookups.
+ */
+public class SeriesStatus {
+
+  /**
+   * Number of records (series and versions), including soft-deleted ones
+   */
+  private final long total;
+
+  /**
+   * Number of records (series and versions) that have not been soft-deleted
+   */
+  private final long available;
+
+  /**
+   * Number of versions that have not been soft-deleted
+   */
+  private final long availableVersions;
+
+  public SeriesStatus(Long total, Long available, Long availableVersions) {
+    // SUM over an empty set is NULL
+    this.total = total != null ? total : 0;
+    this.available = available != null ? available : 0;
+    this.availableVersions = availableVersions != null ? availableVersions : 0;
+  }
+
+  /**
+   * @return true if the series is known, regardless of the deletion status
+   */
+  public boolean exists() {
+    return total > 0;
+  }
+
+  /**
+   * @return true if the series, or any of its versions, has not been soft-deleted
+   */
+  public boolean hasAvailableRecords() {
+    return available > 0;
+  }
+
+  /**
+   * @return true if at least one version has not been soft-deleted
+   */
+  public boolean hasAvailableVersions() {
+    return availableVersions > 0;
+  }
+
+  @Override
+  public String toString() {
+    return "SeriesStatus{total=" + total
+        + ", available=" + available
+        + ", availableVersions=" + availableVersions + "}";
+  }
+}
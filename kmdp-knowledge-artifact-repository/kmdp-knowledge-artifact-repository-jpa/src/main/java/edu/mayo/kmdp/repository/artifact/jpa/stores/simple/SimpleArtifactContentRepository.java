@@ -0,0 +1,60 @@
+package edu.mayo.kmdp.repository.artifact.jpa.stores.simple;
+
+import static edu.mayo.kmdp.repository.artifact.jpa.stores.simple.SimpleArtifactVersionRepository.inTransaction;
+
+import edu.mayo.kmdp.repository.artifact.jpa.entities.ArtifactContentEntity;
+import edu.mayo.kmdp.repository.artifact.jpa.stores.ArtifactContentRepository;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Static implementation of the internal JPA Artifact Content Repository interface, which shares
+ * the EntityManager and the transactions of a {@link SimpleArtifactVersionRepository}. Should only be used for testing
+ * purpose.
+ */
+public class SimpleArtifactContentRepository
+    extends SimpleJpaRepository<ArtifactContentEntity, String>
+    implements ArtifactContentRepository {
+
+  private final TransactionOperations tx;
+
+  public static SimpleArtifactContentRepository simpleContentRepo(
+      SimpleArtifactVersionRepository versionRepo) {
+    return new SimpleArtifactContentRepository(
+        versionRepo.getEMRef(), versionRepo.getTransactionOperations());
+  }
+
+  private SimpleArtifactContentRepository(EntityManager em, TransactionOperations tx) {
+    super(ArtifactContentEntity.class, em);
+    this.tx = tx;
+  }
+
+  @Override
+  public <S extends ArtifactContentEntity> S save(S entity) {
+    return inTransaction(tx, () -> super.save(entity));
+  }
+
+  @Override
+  public <S extends ArtifactContentEntity> List<S> saveAll(Iterable<S> entities) {
+    return inTransaction(tx, () -> super.saveAll(entities));
+  }
+
+  @Override
+  public void delete(ArtifactContentEntity entity) {
+    inTransaction(tx, () -> {
+      super.delete(entity);
+      return null;
+    });
+  }
+
+  @Override
+  public void deleteAll() {
+    inTransaction(tx, () -> {
+      super.deleteAll();
+      return null;
+    });
+  }
+
+}
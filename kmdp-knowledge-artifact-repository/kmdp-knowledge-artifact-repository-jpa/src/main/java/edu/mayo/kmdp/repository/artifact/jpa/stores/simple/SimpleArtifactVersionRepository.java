@@ -7,78 +7,187 @@ import edu.mayo.kmdp.repository.artifact.dao.Artifact;
 import edu.mayo.kmdp.repository.artifact.dao.ArtifactVersion;
 import edu.mayo.kmdp.repository.artifact.jpa.entities.ArtifactVersionEntity;
 import edu.mayo.kmdp.repository.artifact.jpa.entities.KeyId;
+import edu.mayo.kmdp.repository.artifact.jpa.stores.ArtifactKeySummary;
+import edu.mayo.kmdp.repository.artifact.jpa.stores.ArtifactVersionQueries;
+import edu.mayo.kmdp.repository.artifact.jpa.stores.ArtifactVersionQueriesImpl;
 import edu.mayo.kmdp.repository.artifact.jpa.stores.ArtifactVersionRepository;
+import edu.mayo.kmdp.repository.artifact.jpa.stores.SeriesStatus;
 import java.io.Closeable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.UUID;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
-import javax.persistence.EntityTransaction;
 import javax.sql.DataSource;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.JpaVendorAdapter;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Static implementation of the internal JPA Artifact Repository interface Should only be used for
  * testing purpose.
  * <p>
+ * Safe for concurrent use: each thread works with its own EntityManager (one per transaction, or
+ * per operation outside of transactions), and connections are drawn from the DataSource pool.
+ * <p>
+ * Entities looked up outside of a transaction are detached as soon as the lookup completes, and
+ * their content would outlive the connection it is read from: the lookup runs in a read-only
+ * transaction, and the content of the entities is copied in memory before the EntityManager is
+ * closed. Entities looked up within a transaction stay managed, and their content is read lazily.
+ * <p>
  * https://www.baeldung.com/the-persistence-layer-with-spring-and-jpa
  */
 public class SimpleArtifactVersionRepository
     extends SimpleJpaRepository<ArtifactVersionEntity, KeyId>
     implements ArtifactVersionRepository, Closeable {
 
+  private static final String DEFAULT_BATCH_SIZE = "50";
+
+  private final EntityManagerFactory emf;
+
+  /**
+   * Thread-safe, shared EntityManager proxy, which delegates to the EntityManager bound to the
+   * current transaction, or to a new EntityManager per operation outside of transactions
+   */
   private final EntityManager emRef;
 
+  private final TransactionTemplate txTemplate;
+
+  private final TransactionTemplate readTemplate;
+
+  private final ArtifactVersionQueries queries;
+
   public static SimpleArtifactVersionRepository simpleRepo(
       DataSource ds, KnowledgeArtifactRepositoryServerProperties config) {
     EntityManagerFactory emf = emfProvider(ds, config).getObject();
     if (emf == null) {
       throw new IllegalStateException("Unable to instantiate test Artifact Repository persistence");
     }
-    var em = emf.createEntityManager();
-    return new SimpleArtifactVersionRepository(em);
+    return new SimpleArtifactVersionRepository(emf,
+        SharedEntityManagerCreator.createSharedEntityManager(emf));
   }
 
-  private SimpleArtifactVersionRepository(EntityManager em) {
+  private SimpleArtifactVersionRepository(EntityManagerFactory emf, EntityManager em) {
     super(ArtifactVersionEntity.class, em);
+    this.emf = emf;
     this.emRef = em;
+    var txManager = new JpaTransactionManager(emf);
+    this.txTemplate = new TransactionTemplate(txManager);
+    this.readTemplate = new TransactionTemplate(txManager);
+    this.readTemplate.setReadOnly(true);
+    this.queries = new ArtifactVersionQueriesImpl(em);
   }
 
   public void close() {
-    emRef.close();
+    emf.close();
   }
 
   @Override
   public <S extends ArtifactVersionEntity> S save(S entity) {
-    EntityTransaction tx = emRef.getTransaction();
-    tx.begin();
-    var s = super.save(entity);
-    tx.commit();
-    return s;
+    return inTransaction(() -> super.save(entity));
+  }
+
+  @Override
+  public <S extends ArtifactVersionEntity> List<S> saveAll(Iterable<S> entities) {
+    // one transaction, so that the inserts/updates can be batched on flush
+    return inTransaction(() -> super.saveAll(entities));
   }
 
   @Override
   public void deleteAll() {
-    EntityTransaction tx = emRef.getTransaction();
-    tx.begin();
-    super.deleteAll();
-    tx.commit();
+    inTransaction(() -> {
+      super.deleteAll();
+      return null;
+    });
+  }
+
+  @Override
+  public int updateSoftDeletedByKey_RepositoryIdAndKey_ArtifactId(
+      String repositoryId, UUID artifactId, boolean softDeleted) {
+    return inTransaction(() -> {
+      emRef.flush();
+      int n = emRef.createQuery(SERIES_SOFT_DELETE_QUERY)
+          .setParameter("repositoryId", repositoryId)
+          .setParameter("artifactId", artifactId)
+          .setParameter("softDeleted", softDeleted)
+          .executeUpdate();
+      // bulk updates bypass the persistence context
+      emRef.clear();
+      return n;
+    });
+  }
+
+  /**
+   * Runs the operation in a (resource-local) transaction, joining the current transaction if one
+   * is already active on this thread. The operations in one transaction share the same
+   * persistence context.
+   */
+  public <T> T inTransaction(Supplier<T> op) {
+    return inTransaction(txTemplate, op);
+  }
+
+  static <T> T inTransaction(TransactionOperations tx, Supplier<T> op) {
+    return tx.execute(status -> op.get());
+  }
+
+  TransactionOperations getTransactionOperations() {
+    return txTemplate;
+  }
+
+  /**
+   * Runs a lookup of entities, which are detached, with their content materialized, unless the
+   * lookup is part of a transaction
+   */
+  private <T, C extends Collection<T>> C lookupAll(Supplier<C> op) {
+    return lookup(op, result -> result.forEach(SimpleArtifactVersionRepository::materialize));
+  }
+
+  private <T> Optional<T> lookupOne(Supplier<Optional<T>> op) {
+    return lookup(op, result -> result.ifPresent(SimpleArtifactVersionRepository::materialize));
+  }
+
+  private <T> T lookup(Supplier<T> op, Consumer<T> materializer) {
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      return op.get();
+    }
+    return readTemplate.execute(status -> {
+      T result = op.get();
+      materializer.accept(result);
+      return result;
+    });
+  }
+
+  private static void materialize(Object entity) {
+    if (entity instanceof ArtifactVersionEntity) {
+      ((ArtifactVersionEntity) entity).materialize();
+    }
   }
 
   private Optional<ArtifactVersionEntity> findFirst(Specification<ArtifactVersionEntity> spec) {
     return getQuery(spec, PageRequest.of(0, 1)).getResultStream().findFirst();
   }
 
+  @Override
+  public Optional<ArtifactVersionEntity> findById(KeyId keyId) {
+    return lookupOne(() -> super.findById(keyId));
+  }
+
 
   @Override
   public List<Artifact> findAllByKey_RepositoryIdAndSeries(String repositoryId, boolean series) {
@@ -104,34 +213,34 @@ public class SimpleArtifactVersionRepository
   @Override
   public List<ArtifactVersion> findAllByKey_RepositoryIdAndKey_ArtifactIdAndSeriesAndSoftDeletedOrderByCreatedDesc(
       String repositoryId, UUID artifactId, boolean series, boolean softDeleted) {
-    return new ArrayList<>(
+    return lookupAll(() -> new ArrayList<>(
         findAll((root, cq, cb) ->
             cb.and(
                 cb.equal(root.get(AE.KEY).get(K.REPOSITORY_ID), repositoryId),
                 cb.equal(root.get(AE.KEY).get(K.ARTIFACT_ID), artifactId),
                 cb.equal(root.get(AE.SERIES), series),
-                cb.equal(root.get(AE.SOFT_DELETED), softDeleted))));
+                cb.equal(root.get(AE.SOFT_DELETED), softDeleted)))));
   }
 
 
   @Override
   public List<ArtifactVersion> findAllByKey_RepositoryIdAndKey_ArtifactIdAndSeriesOrderByCreatedDesc(
       String repositoryId, UUID artifactId, boolean series) {
-    return new ArrayList<>(
+    return lookupAll(() -> new ArrayList<>(
         findAll((root, cq, cb) -> {
           cq.orderBy(cb.desc(root.get(AE.CREATED)));
           return cb.and(
               cb.equal(root.get(AE.KEY).get(K.REPOSITORY_ID), repositoryId),
               cb.equal(root.get(AE.KEY).get(K.ARTIFACT_ID), artifactId),
               cb.equal(root.get(AE.SERIES), series));
-        }));
+        })));
   }
 
   @Override
   public Optional<ArtifactVersion> findFirstByKey_RepositoryIdAndKey_ArtifactIdAndSeriesAndSoftDeletedOrderByCreatedDesc(
       String repositoryId, UUID artifactId, boolean series, boolean softDeleted) {
 
-    return
+    return lookupOne(() ->
         findFirst((root, cq, cb) -> {
           cq.orderBy(cb.desc(root.get(AE.CREATED)));
           return cb.and(
@@ -139,46 +248,56 @@ public class SimpleArtifactVersionRepository
               cb.equal(root.get(AE.KEY).get(K.ARTIFACT_ID), artifactId),
               cb.equal(root.get(AE.SOFT_DELETED), softDeleted),
               cb.equal(root.get(AE.SERIES), series));
-        }).map(ArtifactVersion.class::cast);
+        }).map(ArtifactVersion.class::cast));
   }
 
   @Override
   public Optional<ArtifactVersion> findFirstByKey_RepositoryIdAndKey_ArtifactIdAndSeriesOrderByCreatedDesc(
       String repositoryId, UUID artifactId, boolean series) {
-    return
+    return lookupOne(() ->
         findFirst((root, cq, cb) -> {
           cq.orderBy(cb.desc(root.get(AE.CREATED)));
           return cb.and(
               cb.equal(root.get(AE.KEY).get(K.REPOSITORY_ID), repositoryId),
               cb.equal(root.get(AE.KEY).get(K.ARTIFACT_ID), artifactId),
               cb.equal(root.get(AE.SERIES), series));
-        }).map(ArtifactVersion.class::cast);
+        }).map(ArtifactVersion.class::cast));
   }
 
 
   @Override
   public List<ArtifactVersionEntity> getArtifactVersionEntityByKey_RepositoryIdAndKey_ArtifactIdAndSeriesAndSoftDeleted(
       String repositoryId, UUID artifactId, boolean series, boolean softDeleted) {
-    return
+    return lookupAll(() ->
         findAll((root, cq, cb) ->
             cb.and(
                 cb.equal(root.get(AE.KEY).get(K.REPOSITORY_ID), repositoryId),
                 cb.equal(root.get(AE.KEY).get(K.ARTIFACT_ID), artifactId),
                 cb.equal(root.get(AE.SERIES), series),
-                cb.equal(root.get(AE.SOFT_DELETED), softDeleted)));
+                cb.equal(root.get(AE.SOFT_DELETED), softDeleted))));
   }
 
   @Override
   public List<ArtifactVersionEntity> getArtifactVersionEntityByKey_RepositoryIdAndKey_ArtifactIdAndSeries(
       String repositoryId, UUID artifactId, boolean series) {
-    return
+    return lookupAll(() ->
         findAll((root, cq, cb) ->
             cb.and(
                 cb.equal(root.get(AE.KEY).get(K.REPOSITORY_ID), repositoryId),
                 cb.equal(root.get(AE.KEY).get(K.ARTIFACT_ID), artifactId),
-                cb.equal(root.get(AE.SERIES), series)));
+                cb.equal(root.get(AE.SERIES), series))));
+  }
+
+
+  @Override
+  public List<ArtifactKeySummary> listKeys(String repositoryId, Collection<UUID> artifactIds) {
+    return queries.listKeys(repositoryId, artifactIds);
   }
 
+  @Override
+  public List<ArtifactVersionEntity> findAllByKeys(String repositoryId, Collection<KeyId> keys) {
+    return queries.findAllByKeys(repositoryId, keys);
+  }
 
   @Override
   public Optional<ArtifactVersionEntity> getFirstByKey_RepositoryIdAndKey_ArtifactIdAndSeries(
@@ -192,6 +311,37 @@ public class SimpleArtifactVersionRepository
   }
 
 
+  @Override
+  public SeriesStatus getSeriesStatus(String repositoryId, UUID artifactId) {
+    return emRef.createQuery(SERIES_STATUS_QUERY, SeriesStatus.class)
+        .setParameter("repositoryId", repositoryId)
+        .setParameter("artifactId", artifactId)
+        .getSingleResult();
+  }
+
+  @Override
+  public List<Artifact> listSeries(String repositoryId, boolean includeSoftDeleted,
+      int offset, int limit) {
+    return queries.listSeries(repositoryId, includeSoftDeleted, offset, limit);
+  }
+
+  @Override
+  public List<Artifact> listSeriesAfter(String repositoryId, boolean includeSoftDeleted,
+      UUID after, int limit) {
+    return queries.listSeriesAfter(repositoryId, includeSoftDeleted, after, limit);
+  }
+
+  @Override
+  public Stream<Artifact> streamSeries(String repositoryId, boolean includeSoftDeleted) {
+    return queries.streamSeries(repositoryId, includeSoftDeleted);
+  }
+
+  @Override
+  public List<ArtifactVersion> listVersionSummaries(String repositoryId, UUID artifactId,
+      boolean includeSoftDeleted) {
+    return queries.listVersionSummaries(repositoryId, artifactId, includeSoftDeleted);
+  }
+
   @Override
   public boolean existsByKey_RepositoryId(String repositoryId) {
     return exists(
@@ -276,10 +426,10 @@ public class SimpleArtifactVersionRepository
   @Override
   public void deleteById(KeyId keyId) {
     if (this.existsById(keyId)) {
-      EntityTransaction tx = emRef.getTransaction();
-      tx.begin();
-      super.deleteById(keyId);
-      tx.commit();
+      inTransaction(() -> {
+        super.deleteById(keyId);
+        return null;
+      });
     }
   }
 
@@ -298,6 +448,10 @@ public class SimpleArtifactVersionRepository
     JpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
     emfb.setJpaVendorAdapter(vendorAdapter);
     var additionalProps = new Properties();
+    // enables JDBC batching of the statements issued by saveAll
+    additionalProps.setProperty("hibernate.jdbc.batch_size", DEFAULT_BATCH_SIZE);
+    additionalProps.setProperty("hibernate.order_inserts", "true");
+    additionalProps.setProperty("hibernate.order_updates", "true");
     if (cfg != null) {
       additionalProps.putAll(additionalProperties(cfg));
     }
@@ -322,6 +476,10 @@ public class SimpleArtifactVersionRepository
         .ifPresent(v -> properties.setProperty("hibernate.show_sql", v));
     Optional.ofNullable(setter.apply(cfg, "spring.jpa.properties.hibernate.format_sql"))
         .ifPresent(v -> properties.setProperty("hibernate.format_sql", v));
+    Optional.ofNullable(setter.apply(cfg, "spring.jpa.properties.hibernate.jdbc.batch_size"))
+        .ifPresent(v -> properties.setProperty("hibernate.jdbc.batch_size", v));
+    Optional.ofNullable(setter.apply(cfg, "spring.jpa.properties.hibernate.generate_statistics"))
+        .ifPresent(v -> properties.setProperty("hibernate.generate_statistics", v));
     return properties;
   }
 
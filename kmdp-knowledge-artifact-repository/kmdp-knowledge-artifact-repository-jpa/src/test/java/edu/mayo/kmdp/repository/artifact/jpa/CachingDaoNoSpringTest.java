@@ -0,0 +1,181 @@
+/**
+ * Copyright © 2018 Mayo Clinic (RSTKNOWLEDGEMGMT@mayo.edu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mayo.kmdp.repository.artifact.jpa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.mayo.kmdp.repository.artifact.KnowledgeArtifactRepositoryServerProperties;
+import edu.mayo.kmdp.repository.artifact.KnowledgeArtifactRepositoryServerProperties.KnowledgeArtifactRepositoryOptions;
+import edu.mayo.kmdp.repository.artifact.dao.ArtifactVersion;
+import edu.mayo.kmdp.repository.artifact.dao.CachingArtifactDAO;
+import edu.mayo.kmdp.repository.artifact.exceptions.ResourceNotFoundException;
+import java.io.IOException;
+import java.util.Properties;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CachingDaoNoSpringTest {
+
+  private CachingArtifactDAO dao;
+
+  KnowledgeArtifactRepositoryServerProperties cfg =
+      new KnowledgeArtifactRepositoryServerProperties(
+          CachingDaoNoSpringTest.class.getResourceAsStream("/application.test.properties"));
+
+  private UUID artifactUUID;
+  private String repoId;
+
+  @BeforeEach
+  void repo() {
+    artifactUUID = UUID.randomUUID();
+    repoId = cfg.getTyped(KnowledgeArtifactRepositoryOptions.DEFAULT_REPOSITORY_ID);
+    dao = new CachingArtifactDAO(
+        new JPAArtifactDAO(JPAKnowledgeArtifactRepositoryService.inMemoryDataSource(), cfg),
+        10);
+  }
+
+  @AfterEach
+  void cleanup() {
+    dao.clear();
+    dao.shutdown();
+  }
+
+  @Test
+  void testReadThrough() {
+    dao.saveResource(repoId, artifactUUID, "v1", "hi!".getBytes());
+
+    assertEquals("hi!", read("v1", false));
+    assertEquals(1, dao.getStats(repoId).getMisses());
+    assertEquals(3, dao.getCachedBytes());
+
+    assertEquals("hi!", read("v1", false));
+    assertEquals(1, dao.getStats(repoId).getHits());
+  }
+
+  @Test
+  void testCachedContentNotShared() {
+    dao.saveResource(repoId, artifactUUID, "v1", "hi!".getBytes());
+    ArtifactVersion version =
+        dao.getResourceVersion(repoId, artifactUUID, "v1", false).getValue();
+
+    // miss, then hit
+    dao.getData(repoId, version)[0] = 'X';
+    dao.getData(repoId, version)[0] = 'Y';
+    assertEquals("hi!", read("v1", false));
+    assertEquals(2, dao.getStats(repoId).getHits());
+  }
+
+  @Test
+  void testInvalidateOnSave() {
+    dao.saveResource(repoId, artifactUUID, "v1", "hi!".getBytes());
+    assertEquals("hi!", read("v1", false));
+
+    dao.saveResource(repoId, artifactUUID, "v1", "bye".getBytes());
+    assertEquals(0, dao.getCachedEntries());
+    assertEquals("bye", read("v1", false));
+  }
+
+  @Test
+  void testInvalidateOnDelete() {
+    dao.saveResource(repoId, artifactUUID, "v1", "hi!".getBytes());
+    assertEquals("hi!", read("v1", false));
+
+    dao.deleteResourceVersion(repoId, artifactUUID, "v1");
+    assertThrows(ResourceNotFoundException.class, () -> read("v1", false));
+
+    dao.enableResourceVersion(repoId, artifactUUID, "v1");
+    assertEquals("hi!", read("v1", false));
+
+    dao.deleteResourceSeries(repoId, artifactUUID);
+    assertEquals(0, dao.getCachedEntries());
+    ArtifactVersion version =
+        dao.getResourceVersion(repoId, artifactUUID, "v1", true).getValue();
+    assertTrue(version.isUnavailable());
+  }
+
+  @Test
+  void testEvictionBySize() {
+    dao.saveResource(repoId, artifactUUID, "v1", "1234".getBytes());
+    dao.saveResource(repoId, artifactUUID, "v2", "5678".getBytes());
+    dao.saveResource(repoId, artifactUUID, "v3", "9012".getBytes());
+
+    read("v1", false);
+    read("v2", false);
+    read("v3", false);
+
+    assertEquals(2, dao.getCachedEntries());
+    assertEquals(8, dao.getCachedBytes());
+    assertEquals(1, dao.getStats(repoId).getEvictions());
+  }
+
+  @Test
+  void testRepositoryCaching() throws IOException {
+    var repo = (JPAKnowledgeArtifactRepository)
+        JPAKnowledgeArtifactRepositoryService.inMemoryArtifactRepository(withCacheSize(1));
+    assertTrue(repo.getArtifactDAO() instanceof CachingArtifactDAO);
+    var cache = (CachingArtifactDAO) repo.getArtifactDAO();
+
+    repo.setKnowledgeArtifactVersion(repoId, artifactUUID, "v1", "hi!".getBytes());
+    for (int j = 0; j < 3; j++) {
+      assertEquals("hi!", repo.getKnowledgeArtifactVersion(repoId, artifactUUID, "v1", false)
+          .map(String::new).orElseGet(Assertions::fail));
+    }
+    assertEquals(1, cache.getStats(repoId).getMisses());
+    assertEquals(2, cache.getStats(repoId).getHits());
+
+    repo.setKnowledgeArtifactVersion(repoId, artifactUUID, "v1", "bye".getBytes());
+    assertEquals("bye", repo.getKnowledgeArtifactVersion(repoId, artifactUUID, "v1", false)
+        .map(String::new).orElseGet(Assertions::fail));
+    repo.getArtifactDAO().shutdown();
+  }
+
+  @Test
+  void testRepositoryWithoutCache() throws IOException {
+    var repo = (JPAKnowledgeArtifactRepository)
+        JPAKnowledgeArtifactRepositoryService.inMemoryArtifactRepository(withCacheSize(0));
+    assertTrue(repo.getArtifactDAO() instanceof JPAArtifactDAO);
+    repo.getArtifactDAO().shutdown();
+  }
+
+  @Test
+  void testRepositoryWithoutCacheByDefault() throws IOException {
+    var props = new Properties();
+    props.load(CachingDaoNoSpringTest.class.getResourceAsStream("/application.test.properties"));
+    var repo = (JPAKnowledgeArtifactRepository)
+        JPAKnowledgeArtifactRepositoryService.inMemoryArtifactRepository(props);
+    assertTrue(repo.getArtifactDAO() instanceof JPAArtifactDAO);
+    repo.getArtifactDAO().shutdown();
+  }
+
+  private static Properties withCacheSize(int sizeMB) throws IOException {
+    var props = new Properties();
+    props.load(CachingDaoNoSpringTest.class.getResourceAsStream("/application.test.properties"));
+    props.setProperty("edu.mayo.kmdp.repository.artifact.cache.size", Integer.toString(sizeMB));
+    return props;
+  }
+
+  private String read(String versionTag, boolean deleted) {
+    ArtifactVersion version =
+        dao.getResourceVersion(repoId, artifactUUID, versionTag, deleted).getValue();
+    return new String(dao.getData(repoId, version));
+  }
+
+}
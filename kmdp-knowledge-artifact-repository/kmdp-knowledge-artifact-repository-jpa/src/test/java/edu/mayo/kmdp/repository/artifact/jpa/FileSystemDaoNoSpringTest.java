@@ -0,0 +1,107 @@
+/**
+ * Copyright © 2018 Mayo Clinic (RSTKNOWLEDGEMGMT@mayo.edu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mayo.kmdp.repository.artifact.jpa;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.mayo.kmdp.repository.artifact.dao.ArtifactVersion;
+import edu.mayo.kmdp.repository.artifact.exceptions.ResourceNotFoundException;
+import edu.mayo.kmdp.repository.artifact.fs.FileSystemArtifactDAO;
+import edu.mayo.kmdp.util.FileUtil;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Runs the DAO contract against the filesystem DAO
+ */
+class FileSystemDaoNoSpringTest extends ArtifactDAOContractTest<FileSystemArtifactDAO> {
+
+  @TempDir
+  Path baseDir;
+
+  @Override
+  protected FileSystemArtifactDAO newDAO() {
+    return new FileSystemArtifactDAO(baseDir.toFile(), cfg);
+  }
+
+  @Test
+  void testReopen() {
+    dao.saveResource(repoId, artifactUUID, "new1", "hi1".getBytes());
+    dao.saveResource(repoId, artifactUUID, "new2", "hi2".getBytes());
+    dao.saveResource(repoId, artifactUUID2, "new1", "hi3".getBytes());
+    dao.deleteResourceVersion(repoId, artifactUUID, "new1");
+    dao.removeResourceSeries(repoId, artifactUUID2);
+    dao.shutdown();
+
+    dao = newDAO();
+    assertTrue(dao.hasResourceSeries(repoId, artifactUUID).getValue());
+    assertFalse(dao.hasResourceSeries(repoId, artifactUUID2).getValue());
+    assertTrue(dao.getResourceVersion(repoId, artifactUUID, "new1", true).getValue()
+        .isUnavailable());
+    assertEquals("hi2",
+        d(dao.getLatestResourceVersion(repoId, artifactUUID, false).getValue()));
+    assertThrows(ResourceNotFoundException.class,
+        () -> dao.getResourceVersion(repoId, artifactUUID2, "new1", true));
+  }
+
+  @Test
+  void testJournalCompaction() throws IOException {
+    dao.saveResource(repoId, artifactUUID, "new1", "hi1".getBytes());
+    for (int j = 0; j < 2000; j++) {
+      dao.deleteResourceVersion(repoId, artifactUUID, "new1");
+      dao.enableResourceVersion(repoId, artifactUUID, "new1");
+    }
+
+    // 4000+ records of ~30 bytes each, unless compacted while appending
+    try (Stream<Path> files = Files.walk(baseDir)) {
+      Path index = files.filter(p -> p.endsWith(".index")).findFirst().orElseThrow();
+      assertTrue(Files.size(index) < 64 * 1024);
+    }
+
+    dao.shutdown();
+    dao = newDAO();
+    assertEquals("hi1",
+        d(dao.getResourceVersion(repoId, artifactUUID, "new1", false).getValue()));
+  }
+
+  @Test
+  void testMappedContent() {
+    byte[] doc = new byte[256 * 1024];
+    new Random(42).nextBytes(doc);
+    dao.saveResource(repoId, artifactUUID, "big", doc);
+
+    ArtifactVersion version = dao.getResourceVersion(repoId, artifactUUID, "big", false)
+        .getValue();
+    ByteBuffer buffer = dao.getDataBuffer(repoId, version);
+    byte[] mapped = new byte[buffer.remaining()];
+    buffer.get(mapped);
+
+    assertArrayEquals(doc, mapped);
+    assertArrayEquals(doc, dao.getData(repoId, version));
+    assertArrayEquals(doc, FileUtil.readBytes(dao.getDataStream(repoId, version)).orElseThrow());
+  }
+
+}
@@ -0,0 +1,190 @@
+/**
+ * Copyright © 2018 Mayo Clinic (RSTKNOWLEDGEMGMT@mayo.edu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mayo.kmdp.repository.artifact.jpa;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.mayo.kmdp.repository.artifact.KnowledgeArtifactRepositoryServerProperties;
+import edu.mayo.kmdp.repository.artifact.KnowledgeArtifactRepositoryServerProperties.KnowledgeArtifactRepositoryOptions;
+import edu.mayo.kmdp.repository.artifact.dao.ArtifactVersion;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.OptimisticLockException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+
+/**
+ * Exercises the (simple, non-Spring) JPA DAO from multiple threads at once
+ */
+class JPAConcurrencyNoSpringTest {
+
+  private static final Logger logger = LoggerFactory.getLogger(JPAConcurrencyNoSpringTest.class);
+
+  private static final int THREADS = 8;
+  private static final int ARTIFACTS_PER_THREAD = 10;
+  private static final int VERSIONS = 3;
+
+  private JPAArtifactDAO dao;
+
+  KnowledgeArtifactRepositoryServerProperties cfg =
+      new KnowledgeArtifactRepositoryServerProperties(
+          JPAConcurrencyNoSpringTest.class.getResourceAsStream("/application.test.properties"));
+
+  private String repoId;
+
+  @BeforeEach
+  void repo() {
+    repoId = cfg.getTyped(KnowledgeArtifactRepositoryOptions.DEFAULT_REPOSITORY_ID);
+    dao = new JPAArtifactDAO(JPAKnowledgeArtifactRepositoryService.inMemoryDataSource(), cfg);
+  }
+
+  @AfterEach
+  void cleanup() {
+    dao.clear();
+    dao.shutdown();
+  }
+
+  @Test
+  void testConcurrentReadWrite() throws Exception {
+    List<Callable<Integer>> tasks = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      int thread = t;
+      tasks.add(() -> {
+        int reads = 0;
+        for (int a = 0; a < ARTIFACTS_PER_THREAD; a++) {
+          UUID artifactId = UUID.randomUUID();
+          for (int v = 0; v < VERSIONS; v++) {
+            dao.saveResource(repoId, artifactId, "v" + v, content(thread, a, v));
+          }
+          // read back own writes, while the other threads keep writing
+          ArtifactVersion latest = dao.getResourceVersion(repoId, artifactId, "v" + (VERSIONS - 1),
+              false).getValue();
+          assertArrayEquals(content(thread, a, VERSIONS - 1), dao.getData(repoId, latest));
+          assertEquals(VERSIONS,
+              dao.getResourceVersions(repoId, artifactId, false).getValue().size());
+          reads += dao.listResources(repoId, false).getValue().size() > 0 ? 1 : 0;
+        }
+        return reads;
+      });
+    }
+
+    assertEquals(THREADS * ARTIFACTS_PER_THREAD, runAll(tasks));
+    assertEquals(THREADS * ARTIFACTS_PER_THREAD,
+        dao.listResources(repoId, false).getValue().size());
+  }
+
+  @Test
+  void testConcurrentSharedContent() throws Exception {
+    byte[] shared = "shared".getBytes(StandardCharsets.UTF_8);
+    List<Callable<Integer>> tasks = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      tasks.add(() -> {
+        for (int a = 0; a < ARTIFACTS_PER_THREAD; a++) {
+          // all threads insert, or retain, the same content record at the same time
+          dao.saveResource(repoId, UUID.randomUUID(), "v0", shared);
+        }
+        return ARTIFACTS_PER_THREAD;
+      });
+    }
+
+    assertEquals(THREADS * ARTIFACTS_PER_THREAD, runAll(tasks));
+    assertEquals(1, dao.getContentAdapter().count());
+    assertEquals(THREADS * ARTIFACTS_PER_THREAD,
+        dao.getContentAdapter().findAll().iterator().next().getRefCount());
+  }
+
+  @Test
+  void testWriteConflicts() {
+    assertTrue(JPAArtifactDAO.isWriteConflict(
+        new RuntimeException(new OptimisticLockException())));
+    assertTrue(JPAArtifactDAO.isWriteConflict(
+        new DuplicateKeyException("dup")));
+    assertFalse(JPAArtifactDAO.isWriteConflict(new IllegalStateException()));
+  }
+
+  /**
+   * Reports the read throughput as the number of threads grows.
+   * <p>
+   * Run on demand, with -Dkmdp.benchmark=true
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "kmdp.benchmark", matches = "true")
+  void benchmarkReadScaling() throws Exception {
+    List<UUID> artifacts = new ArrayList<>();
+    for (int a = 0; a < 100; a++) {
+      UUID artifactId = UUID.randomUUID();
+      dao.saveResource(repoId, artifactId, "v0", content(0, a, 0));
+      artifacts.add(artifactId);
+    }
+
+    int cores = Runtime.getRuntime().availableProcessors();
+    for (int threads = 1; threads <= cores; threads *= 2) {
+      int rounds = 2000;
+      List<Callable<Integer>> tasks = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        tasks.add(() -> {
+          for (int j = 0; j < rounds; j++) {
+            UUID artifactId = artifacts.get(j % artifacts.size());
+            dao.getData(repoId,
+                dao.getLatestResourceVersion(repoId, artifactId, false).getValue());
+          }
+          return rounds;
+        });
+      }
+      long start = System.nanoTime();
+      int ops = runAll(tasks);
+      long elapsed = System.nanoTime() - start;
+      assertEquals(threads * rounds, ops);
+      logger.info("Reads with {} thread(s) : {} ops/s",
+          threads, ops * TimeUnit.SECONDS.toNanos(1) / elapsed);
+    }
+  }
+
+  private static byte[] content(int thread, int artifact, int version) {
+    return (thread + ":" + artifact + ":" + version).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static int runAll(List<Callable<Integer>> tasks)
+      throws InterruptedException, ExecutionException {
+    ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+    try {
+      int total = 0;
+      for (Future<Integer> f : executor.invokeAll(tasks)) {
+        total += f.get();
+      }
+      return total;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+}
@@ -15,54 +15,29 @@
  */
 package edu.mayo.kmdp.repository.artifact.jpa;
 
-import static java.util.Collections.emptyMap;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.junit.jupiter.api.Assertions.fail;
 
-import edu.mayo.kmdp.repository.artifact.KnowledgeArtifactRepositoryServerProperties;
-import edu.mayo.kmdp.repository.artifact.KnowledgeArtifactRepositoryServerProperties.KnowledgeArtifactRepositoryOptions;
 import edu.mayo.kmdp.repository.artifact.dao.Artifact;
 import edu.mayo.kmdp.repository.artifact.dao.ArtifactVersion;
-import edu.mayo.kmdp.repository.artifact.dao.DaoResult;
-import edu.mayo.kmdp.repository.artifact.exceptions.ResourceNotFoundException;
+import edu.mayo.kmdp.repository.artifact.dao.ArtifactVersionDocument;
 import edu.mayo.kmdp.util.FileUtil;
-import java.util.HashMap;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Properties;
+import java.util.Random;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
-import org.junit.jupiter.api.AfterEach;
-import org.junit.jupiter.api.BeforeEach;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
 
-class JPADaoNoSpringTest {
+class JPADaoNoSpringTest extends ArtifactDAOContractTest<JPAArtifactDAO> {
 
-  private JPAArtifactDAO dao;
-
-  KnowledgeArtifactRepositoryServerProperties cfg =
-      new KnowledgeArtifactRepositoryServerProperties(
-          JPADaoNoSpringTest.class.getResourceAsStream("/application.test.properties"));
-
-  private UUID artifactUUID;
-  private UUID artifactUUID2;
-  private String repoId;
-
-  @BeforeEach
-  void repo() {
-    artifactUUID = UUID.randomUUID();
-    artifactUUID2 = UUID.randomUUID();
-    repoId = cfg.getTyped(KnowledgeArtifactRepositoryOptions.DEFAULT_REPOSITORY_ID);
-    dao = new JPAArtifactDAO(JPAKnowledgeArtifactRepositoryService.inMemoryDataSource(),cfg);
-  }
-
-  @AfterEach
-  void cleanup() {
-    dao.clear();
-    dao.shutdown();
+  @Override
+  protected JPAArtifactDAO newDAO() {
+    return new JPAArtifactDAO(JPAKnowledgeArtifactRepositoryService.inMemoryDataSource(),cfg);
   }
 
   @Test
@@ -80,172 +55,107 @@ class JPADaoNoSpringTest {
 
 
   @Test
-  void testClear() {
-    dao.saveResource(repoId, artifactUUID, "new", "hi!".getBytes());
-
-    DaoResult<List<Artifact>> nodes = dao.listResources(repoId, false, new HashMap<>());
-
-    assertEquals(1, nodes.getValue().size());
-
-    DaoResult<ArtifactVersion> result = dao.getResourceVersion(repoId, artifactUUID, "new", false);
-
-    assertEquals("hi!", d(result.getValue()));
-
-    dao.clear();
-
-    UUID randomUuid = UUID.randomUUID();
-
-    dao.saveResource(repoId, randomUuid, "something", "new node".getBytes());
-
-    nodes = dao.listResources(repoId, false, new HashMap<>());
-
-    assertEquals(1, nodes.getValue().size());
-
-    DaoResult<ArtifactVersion> result2 = dao.getResourceVersion(repoId, randomUuid, "something", false);
-    assertEquals("new node", d(result2.getValue()));
-
-  }
-
-  @Test
-  void testLoadAndGet() {
-    dao.saveResource(repoId, artifactUUID, "new", "hi!".getBytes());
-
-    ArtifactVersion result = dao.getResourceVersion(repoId, artifactUUID, "new", false).getValue();
-
-    assertEquals("hi!", d(result));
-  }
-
-  @Test
-  void testLoadAndGetHasAvailableStatus() throws Exception {
-    dao.saveResource(repoId, artifactUUID, "new", "hi!".getBytes());
-
-    ArtifactVersion result = dao.getResourceVersion(repoId, artifactUUID, "new", false).getValue();
-
-    assertTrue(result.isAvailable());
-  }
-
-  @Test
-  void testLoadAndGetVersion() {
-    dao.saveResource(repoId, artifactUUID, "new1", "hi1".getBytes());
-    dao.saveResource(repoId, artifactUUID, "new2", "hi2".getBytes());
-
-    ArtifactVersion result1 = dao.getResourceVersion(repoId, artifactUUID, "new1", false).getValue();
-    ArtifactVersion result2 = dao.getResourceVersion(repoId, artifactUUID, "new2", false).getValue();
-
-    assertEquals("hi1", d(result1));
-    assertEquals("hi2", d(result2));
-  }
-
-  @Test
-  void testLoadAndGetVersions() {
-    dao.saveResource(repoId, artifactUUID, "new1", "hi1".getBytes());
-    dao.saveResource(repoId, artifactUUID, "new2", "hi2".getBytes());
+  void testDeduplicateContent() {
+    dao.saveResource(repoId, artifactUUID, "new1", "same".getBytes());
+    dao.saveResource(repoId, artifactUUID, "new2", "same".getBytes());
+    dao.saveResource(repoId, artifactUUID2, "new1", "same".getBytes());
+    dao.saveResource(repoId, artifactUUID2, "new2", "other".getBytes());
 
-    List<ArtifactVersion> versions = dao.getResourceVersions(repoId, artifactUUID, false).getValue();
+    assertEquals(2, dao.getContentAdapter().count());
 
-    assertEquals(2, versions.size());
-  }
+    ArtifactVersion v1 = dao.getResourceVersion(repoId, artifactUUID, "new1", false).getValue();
+    ArtifactVersion v2 = dao.getResourceVersion(repoId, artifactUUID2, "new1", false).getValue();
+    assertTrue(v1.getContentTag().isPresent());
+    assertEquals(v1.getContentTag(), v2.getContentTag());
+    assertEquals("same", d(v2));
 
-  @Test
-  void testLoadAndGetLatestVersion() throws InterruptedException {
-    dao.saveResource(repoId, artifactUUID, "new1", "hi1".getBytes());
-    TimeUnit.MILLISECONDS.sleep(5);
-    dao.saveResource(repoId, artifactUUID, "new2", "hi2".getBytes());
-    TimeUnit.MILLISECONDS.sleep(5);
-    dao.saveResource(repoId, artifactUUID, "new3", "hi3".getBytes());
-    TimeUnit.MILLISECONDS.sleep(5);
-    dao.saveResource(repoId, artifactUUID, "new4", "hi4".getBytes());
-
-    ArtifactVersion version = dao.getLatestResourceVersion(repoId, artifactUUID, false).getValue();
-
-    assertEquals("hi4", d(version));
-  }
+    dao.removeResourceVersion(repoId, artifactUUID, "new1");
+    dao.removeResourceVersion(repoId, artifactUUID, "new2");
+    assertEquals(2, dao.getContentAdapter().count());
+    dao.removeResourceVersion(repoId, artifactUUID2, "new1");
+    assertEquals(1, dao.getContentAdapter().count());
 
-  @Test
-  void testLoadAndGetLatestVersionNone() {
-    dao.saveResource(repoId, artifactUUID, "new1", "hi1".getBytes());
-    dao.saveResource(repoId, artifactUUID, "new2", "hi2".getBytes());
-
-    assertThrows(
-        ResourceNotFoundException.class,
-        () -> dao.getLatestResourceVersion(repoId, artifactUUID2, false));
+    dao.saveResource(repoId, artifactUUID2, "new2", "changed".getBytes());
+    assertEquals(1, dao.getContentAdapter().count());
+    assertEquals("changed",
+        d(dao.getResourceVersion(repoId, artifactUUID2, "new2", false).getValue()));
   }
 
   @Test
-  void testDeleteTagsVersionUnavailable() throws Exception {
-    dao.saveResource(repoId, artifactUUID, "new1", "hi1".getBytes());
-    dao.saveResource(repoId, artifactUUID, "new2", "hi2".getBytes());
-
-    dao.deleteResourceVersion(repoId, artifactUUID, "new1");
+  void testVersionMetadataWithoutContent() {
+    UUID artifactUUID = UUID.randomUUID();
+    dao.saveResource(repoId, artifactUUID, "new1", "shared".getBytes());
+    // streamed content is stored inline, with no shared content record
+    byte[] streamed = "streamed".getBytes();
+    dao.saveResource(repoId, artifactUUID, "new2", new ByteArrayInputStream(streamed),
+        streamed.length);
 
-    ArtifactVersion version = dao.getResourceVersion(repoId, artifactUUID, "new1", true).getValue();
-    ArtifactVersion version2 = dao.getResourceVersion(repoId, artifactUUID, "new2", true).getValue();
-
-    assertTrue(version.isUnavailable());
-    assertTrue(version2.isAvailable());
+    Map<String, Boolean> hasContentTag =
+        dao.getResourceVersionsMetadata(repoId, artifactUUID, false).getValue().stream()
+            .collect(Collectors.toMap(v -> v.getResourceIdentifier().getVersionTag(),
+                v -> v.getContentTag().isPresent()));
+    assertEquals(Map.of("new1", true, "new2", false), hasContentTag);
   }
 
   @Test
-  void testDeleteTagsArtifactsAndVersionsUnavailable() throws Exception {
-    dao.saveResource(repoId, artifactUUID, "new1", "hi1".getBytes());
-    dao.saveResource(repoId, artifactUUID, "new2", "hi2".getBytes());
-    dao.saveResource(repoId, artifactUUID, "new3", "hi2".getBytes());
-    dao.saveResource(repoId, artifactUUID, "new4", "hi2".getBytes());
-
-    dao.deleteResourceSeries(repoId, artifactUUID);
-
-    ArtifactVersion version = dao.getResourceVersion(repoId, artifactUUID, "new1", true).getValue();
-    ArtifactVersion version2 = dao.getResourceVersion(repoId, artifactUUID, "new2", true).getValue();
-
-    assertTrue(version.isUnavailable());
-    assertTrue(version2.isUnavailable());
+  void testReadDetachedContent() {
+    UUID artifactUUID = UUID.randomUUID();
+    // large enough not to be stored in-place with the row
+    byte[] large = new byte[1024 * 1024];
+    new Random(42).nextBytes(large);
+    dao.saveResource(repoId, artifactUUID, "new1", large);
+
+    // the entities are detached, and the connection released, before the content is read
+    ArtifactVersion version = dao.getResourceVersion(repoId, artifactUUID, "new1", false)
+        .getValue();
+    assertArrayEquals(large, dao.getData(repoId, version));
+    ArtifactVersion latest = dao.getResourceVersions(repoId, artifactUUID, false)
+        .getValue().get(0);
+    assertArrayEquals(large, FileUtil.readBytes(latest.getDataStream()).orElseThrow());
   }
 
   @Test
-  void testQueryAll() {
-    dao.saveResource(repoId, UUID.randomUUID(), "new1", "hi1".getBytes(), m("type", "foobar"));
-    dao.saveResource(repoId, UUID.randomUUID(), "new1.1", "hi1.1".getBytes(), m("type", "foo"));
-
-    dao.saveResource(repoId, UUID.randomUUID(), "new2", "hi2".getBytes(), m("type", "foobar"));
-    dao.saveResource(repoId, UUID.randomUUID(), "new2.1", "hi2.1".getBytes(), m("type", "foo"));
-
-    Map<String, String> query = emptyMap();
-
-    List<Artifact> resources = dao.listResources(repoId, false, query).getValue();
+  void testSaveResourcesInChunks() {
+    int n = 2 * JPAArtifactDAO.MAX_IN_PARAMETERS + 10;
+    List<UUID> ids = new ArrayList<>();
+    List<ArtifactVersionDocument> docs = new ArrayList<>();
+    for (int j = 0; j < n; j++) {
+      UUID id = UUID.randomUUID();
+      ids.add(id);
+      docs.add(ArtifactVersionDocument.of(id, "1", ("v1 " + j).getBytes()));
+    }
+    assertEquals(n, dao.saveResources(repoId, docs).getValue().size());
+
+    // overwrite every other version, and soft-delete the series of the others
+    List<ArtifactVersionDocument> updates = new ArrayList<>();
+    for (int j = 0; j < n; j++) {
+      if (j % 2 == 0) {
+        updates.add(ArtifactVersionDocument.of(ids.get(j), "1", ("v2 " + j).getBytes()));
+      } else {
+        dao.deleteResourceSeries(repoId, ids.get(j));
+        updates.add(ArtifactVersionDocument.of(ids.get(j), "2", ("v2 " + j).getBytes()));
+      }
+    }
+    assertEquals(n, dao.saveResources(repoId, updates).getValue().size());
 
-    assertEquals(4, resources.size());
+    assertEquals(n, dao.listResources(repoId, false).getValue().size());
+    assertEquals("v2 0", d(dao.getResourceVersion(repoId, ids.get(0), "1", false).getValue()));
+    assertEquals("v2 1", d(dao.getResourceVersion(repoId, ids.get(1), "2", false).getValue()));
+    // the other versions of the restored series are still soft-deleted
+    assertTrue(dao.getResourceVersion(repoId, ids.get(1), "1", true).getValue().isUnavailable());
   }
 
-
-
   @Test
-  void testQueryWithNumbers() {
-    dao.saveResource(repoId, artifactUUID, "new1", "hi1".getBytes());
-    dao.saveResource(repoId, artifactUUID, "new1.1", "hi1.1".getBytes());
-
-    dao.saveResource(repoId, artifactUUID2, "new2", "hi2".getBytes());
-    dao.saveResource(repoId, artifactUUID2, "new2.1", "hi2.1".getBytes());
-
-    List<Artifact> resources = dao.listResources(repoId, false, emptyMap()).getValue();
-
-    assertEquals(2, resources.size());
-  }
-
-
-  private Map<String, String> m(String k, String v) {
-    Map<String, String> m = new HashMap<>();
-    m.put(k, v);
-    return m;
-  }
-
-  String d(ArtifactVersion v) {
-    try {
-      return FileUtil.read(v.getDataStream()).orElse("");
-    } catch (Exception e) {
-      fail(e.getMessage(),e);
-      return "";
+  void testChunks() {
+    assertTrue(JPAArtifactDAO.chunks(List.of()).isEmpty());
+    List<Integer> items = new ArrayList<>();
+    for (int j = 0; j < JPAArtifactDAO.MAX_IN_PARAMETERS + 1; j++) {
+      items.add(j);
     }
+    List<List<Integer>> chunks = JPAArtifactDAO.chunks(items);
+    assertEquals(2, chunks.size());
+    assertEquals(JPAArtifactDAO.MAX_IN_PARAMETERS, chunks.get(0).size());
+    assertEquals(List.of(JPAArtifactDAO.MAX_IN_PARAMETERS), chunks.get(1));
   }
 
-
 }
@@ -30,10 +30,14 @@ import edu.mayo.kmdp.repository.artifact.dao.DaoResult;
 import edu.mayo.kmdp.repository.artifact.exceptions.ResourceNotFoundException;
 import edu.mayo.kmdp.util.FileUtil;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -43,6 +47,8 @@ import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 @ExtendWith(SpringExtension.class)
 @DataJpaTest
@@ -239,6 +245,33 @@ class JPADaoTest {
     assertEquals(2, resources.size());
   }
 
+  /**
+   * The stream is consumed after the (repository) transaction that opened it has completed, and
+   * outside of any transaction
+   */
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void testStreamResourcesOutsideTransaction() {
+    String streamRepoId = "streamed";
+    Set<UUID> ids = new HashSet<>();
+    try {
+      for (int j = 0; j < 3; j++) {
+        UUID id = UUID.randomUUID();
+        dao.saveResource(streamRepoId, id, "1", ("hi" + j).getBytes());
+        ids.add(id);
+      }
+
+      Set<UUID> streamed;
+      try (DaoResult<Stream<Artifact>> stream = dao.streamResources(streamRepoId, false)) {
+        streamed = stream.getValue()
+            .map(Artifact::getArtifactId)
+            .collect(Collectors.toSet());
+      }
+      assertEquals(ids, streamed);
+    } finally {
+      dao.clear();
+    }
+  }
 
   private Map<String, String> m(String k, String v) {
     Map<String, String> m = new HashMap<>();
@@ -0,0 +1,106 @@
+/**
+ * Copyright © 2018 Mayo Clinic (RSTKNOWLEDGEMGMT@mayo.edu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mayo.kmdp.repository.artifact.jpa;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.mayo.kmdp.repository.artifact.KnowledgeArtifactRepositoryServerProperties;
+import edu.mayo.kmdp.repository.artifact.KnowledgeArtifactRepositoryServerProperties.KnowledgeArtifactRepositoryOptions;
+import edu.mayo.kmdp.repository.artifact.exceptions.RepositoryNotFoundException;
+import edu.mayo.kmdp.repository.artifact.exceptions.ResourceNoContentException;
+import edu.mayo.kmdp.repository.artifact.exceptions.ResourceNotFoundException;
+import edu.mayo.kmdp.repository.artifact.jpa.stores.simple.SimpleArtifactVersionRepository;
+import java.util.UUID;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+/**
+ * Counts the statements issued by the DAO to classify lookups that miss
+ */
+class JPALookupQueriesNoSpringTest {
+
+  private JPAArtifactDAO dao;
+
+  private Statistics stats;
+
+  KnowledgeArtifactRepositoryServerProperties cfg =
+      new KnowledgeArtifactRepositoryServerProperties(
+          JPALookupQueriesNoSpringTest.class.getResourceAsStream("/application.test.properties"));
+
+  private String repoId;
+
+  @BeforeEach
+  void repo() {
+    repoId = cfg.getTyped(KnowledgeArtifactRepositoryOptions.DEFAULT_REPOSITORY_ID);
+    cfg.setProperty("spring.jpa.properties.hibernate.generate_statistics", "true");
+    dao = new JPAArtifactDAO(JPAKnowledgeArtifactRepositoryService.inMemoryDataSource(), cfg);
+    stats = ((SimpleArtifactVersionRepository) dao.getPersistenceAdapter()).getEMRef()
+        .getEntityManagerFactory().unwrap(SessionFactory.class)
+        .getStatistics();
+  }
+
+  @AfterEach
+  void cleanup() {
+    dao.clear();
+    dao.shutdown();
+  }
+
+  @Test
+  void testLatestOnUnknownSeries() {
+    long n = countStatements(ResourceNotFoundException.class,
+        () -> dao.getLatestResourceVersion(repoId, UUID.randomUUID(), false));
+    // version lookup + series status
+    assertTrue(n <= 2);
+  }
+
+  @Test
+  void testLatestOnUnknownRepository() {
+    long n = countStatements(RepositoryNotFoundException.class,
+        () -> dao.getLatestResourceVersion("missing", UUID.randomUUID(), false));
+    // version lookup + series status + repository check
+    assertTrue(n <= 3);
+  }
+
+  @Test
+  void testLatestOnDeletedSeries() {
+    UUID artifactId = UUID.randomUUID();
+    dao.saveResource(repoId, artifactId, "v1", "hi".getBytes());
+    dao.deleteResourceSeries(repoId, artifactId);
+
+    long n = countStatements(ResourceNoContentException.class,
+        () -> dao.getLatestResourceVersion(repoId, artifactId, false));
+    assertTrue(n <= 2);
+  }
+
+  @Test
+  void testVersionsOnUnknownSeries() {
+    long n = countStatements(ResourceNotFoundException.class,
+        () -> dao.getResourceVersions(repoId, UUID.randomUUID(), false));
+    assertTrue(n <= 2);
+  }
+
+  private long countStatements(Class<? extends Throwable> expected, Executable lookup) {
+    stats.clear();
+    assertThrows(expected, lookup);
+    return stats.getPrepareStatementCount();
+  }
+
+}
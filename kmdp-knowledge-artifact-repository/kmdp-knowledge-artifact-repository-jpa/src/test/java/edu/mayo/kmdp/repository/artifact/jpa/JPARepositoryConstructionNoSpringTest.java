@@ -1,20 +1,29 @@
 package edu.mayo.kmdp.repository.artifact.jpa;
 
 import static edu.mayo.kmdp.repository.artifact.jpa.JPAKnowledgeArtifactRepositoryService.inMemoryArtifactRepository;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import edu.mayo.kmdp.repository.artifact.KnowledgeArtifactRepositoryServerProperties;
 import edu.mayo.kmdp.repository.artifact.KnowledgeArtifactRepositoryServerProperties.KnowledgeArtifactRepositoryOptions;
 import edu.mayo.kmdp.repository.artifact.KnowledgeArtifactRepositoryService;
+import edu.mayo.kmdp.repository.artifact.fs.FileSystemArtifactDAO;
 import edu.mayo.kmdp.repository.artifact.jpa.entities.ArtifactVersionEntity;
 import edu.mayo.kmdp.repository.artifact.jpa.entities.KeyId;
 import edu.mayo.kmdp.repository.artifact.jpa.stores.simple.SimpleArtifactVersionRepository;
 import edu.mayo.kmdp.util.Util;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.stream.Stream;
 import javax.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.omg.spec.api4kp._20200801.Answer;
 import org.omg.spec.api4kp._20200801.id.Pointer;
 
@@ -40,6 +49,30 @@ class JPARepositoryConstructionNoSpringTest {
     assertTrue(ptrs.isSuccess());
   }
 
+  @Test
+  void testStoreSelection(@TempDir Path baseDir) throws IOException {
+    var props = new Properties();
+    props.load(JPADaoNoSpringTest.class.getResourceAsStream("/application.test.properties"));
+    props.setProperty("edu.mayo.kmdp.repository.artifact.store",
+        FileSystemArtifactDAO.STORE_TYPE);
+    props.setProperty("edu.mayo.kmdp.repository.artifact.filesystem.directory",
+        baseDir.toString());
+    var fsCfg = new KnowledgeArtifactRepositoryServerProperties(props);
+
+    // as injected by Spring
+    var jpaDao = new JPAArtifactDAO(JPAKnowledgeArtifactRepositoryService.inMemoryDataSource(), cfg);
+    KnowledgeArtifactRepositoryService svc = new JPAKnowledgeArtifactRepository(jpaDao, fsCfg);
+
+    UUID artifactId = UUID.randomUUID();
+    assertTrue(svc.setKnowledgeArtifactVersion(repoId, artifactId, "v1", "hi".getBytes())
+        .isSuccess());
+    try (Stream<Path> files = Files.list(baseDir)) {
+      assertTrue(files.findAny().isPresent());
+    }
+    assertFalse(jpaDao.hasResourceSeries(repoId, artifactId, true));
+    jpaDao.shutdown();
+  }
+
   @Test
   void testEntityManager() {
     JPAKnowledgeArtifactRepository jpk =
@@ -48,9 +81,12 @@ class JPARepositoryConstructionNoSpringTest {
     EntityManager emRef = repo.getEMRef();
 
     ArtifactVersionEntity x = new ArtifactVersionEntity(repoId, Util.uuid("xxx"),"1");
-    repo.save(x);
-
-    assertTrue(emRef.contains(x));
+    // the shared EntityManager is bound to the current transaction
+    repo.inTransaction(() -> {
+      repo.save(x);
+      assertTrue(emRef.contains(x));
+      return null;
+    });
     ArtifactVersionEntity y = emRef.find(ArtifactVersionEntity.class, new KeyId(repoId, Util.uuid("xxx"),"1"));
     assertNotNull(y);
   }
@@ -0,0 +1,116 @@
+/**
+ * Copyright © 2018 Mayo Clinic (RSTKNOWLEDGEMGMT@mayo.edu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mayo.kmdp.repository.artifact.jpa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.mayo.kmdp.repository.artifact.KnowledgeArtifactRepositoryServerProperties;
+import edu.mayo.kmdp.repository.artifact.KnowledgeArtifactRepositoryServerProperties.KnowledgeArtifactRepositoryOptions;
+import edu.mayo.kmdp.repository.artifact.dao.ArtifactVersion;
+import edu.mayo.kmdp.repository.artifact.jpa.stores.ArtifactVersionSummary;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the cost of the metadata-only lookups (series listing, version listing) on series with
+ * small (1 KB) and large (50 MB) artifacts, which should be comparable since the content is never
+ * loaded.
+ * <p>
+ * Run on demand, with -Dkmdp.benchmark=true
+ */
+@EnabledIfSystemProperty(named = "kmdp.benchmark", matches = "true")
+class SeriesListingBenchmarkNoSpringTest {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(SeriesListingBenchmarkNoSpringTest.class);
+
+  private static final int VERSIONS = 10;
+  private static final int WARMUP = 20;
+  private static final int ROUNDS = 200;
+
+  private JPAArtifactDAO dao;
+
+  KnowledgeArtifactRepositoryServerProperties cfg =
+      new KnowledgeArtifactRepositoryServerProperties(
+          SeriesListingBenchmarkNoSpringTest.class
+              .getResourceAsStream("/application.test.properties"));
+
+  private String repoId;
+
+  @BeforeEach
+  void repo() {
+    repoId = cfg.getTyped(KnowledgeArtifactRepositoryOptions.DEFAULT_REPOSITORY_ID);
+    dao = new JPAArtifactDAO(JPAKnowledgeArtifactRepositoryService.inMemoryDataSource(), cfg);
+  }
+
+  @AfterEach
+  void cleanup() {
+    dao.clear();
+    dao.shutdown();
+  }
+
+  @Test
+  void benchmarkVersionListing() {
+    UUID small = populate(1024);
+    UUID large = populate(50 * 1024 * 1024);
+
+    long smallNanos = time(small);
+    long largeNanos = time(large);
+
+    logger.info("Version listing : 1 KB = {} us/op, 50 MB = {} us/op",
+        smallNanos / 1000, largeNanos / 1000);
+  }
+
+  private UUID populate(int size) {
+    UUID artifactId = UUID.randomUUID();
+    var random = new Random(size);
+    for (int j = 0; j < VERSIONS; j++) {
+      byte[] data = new byte[size];
+      random.nextBytes(data);
+      dao.saveResource(repoId, artifactId, "v" + j, data);
+    }
+    return artifactId;
+  }
+
+  private long time(UUID artifactId) {
+    for (int j = 0; j < WARMUP; j++) {
+      list(artifactId);
+    }
+    long start = System.nanoTime();
+    for (int j = 0; j < ROUNDS; j++) {
+      list(artifactId);
+    }
+    return (System.nanoTime() - start) / ROUNDS;
+  }
+
+  private void list(UUID artifactId) {
+    List<ArtifactVersion> versions =
+        dao.getResourceVersionsMetadata(repoId, artifactId, false).getValue();
+    assertEquals(VERSIONS, versions.size());
+    // projections, which never load the content
+    versions.forEach(v -> assertTrue(v instanceof ArtifactVersionSummary));
+    dao.listResources(repoId, false, 0, -1).getValue();
+  }
+
+}
@@ -18,12 +18,16 @@ import static org.omg.spec.api4kp._20200801.Answer.anyDo;
 import static org.omg.spec.api4kp._20200801.taxonomy.knowledgeoperation.KnowledgeProcessingOperationSeries.Lifting_Task;
 import static org.omg.spec.api4kp._20200801.taxonomy.knowledgeoperation.KnowledgeProcessingOperationSeries.Lowering_Task;
 
+import edu.mayo.kmdp.language.ParseCache.ParseCacheMetrics;
 import edu.mayo.kmdp.language.exceptions.ParsingException;
+import edu.mayo.kmdp.util.Util;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import javax.inject.Named;
 import org.omg.spec.api4kp._20200801.Answer;
@@ -35,8 +39,10 @@ import org.omg.spec.api4kp._20200801.id.ResourceIdentifier;
 import org.omg.spec.api4kp._20200801.services.KPOperation;
 import org.omg.spec.api4kp._20200801.services.KPServer;
 import org.omg.spec.api4kp._20200801.services.KnowledgeCarrier;
+import org.omg.spec.api4kp._20200801.services.SyntacticRepresentation;
 import org.omg.spec.api4kp._20200801.services.transrepresentation.DeserializationOperator;
 import org.omg.spec.api4kp._20200801.services.transrepresentation.Deserializer;
+import org.omg.spec.api4kp._20200801.services.transrepresentation.ModelMIMECoder;
 import org.springframework.beans.factory.annotation.Autowired;
 
 @Named
@@ -47,7 +53,9 @@ public class LanguageDeSerializer implements KnowledgePlatformComponent<Deserial
   private UUID id = UUID.randomUUID();
   private Deserializer descriptor;
 
-  Map<KeyIdentifier, DeserializeApiOperator> deserializers;
+  private final OperatorIndex<DeserializeApiOperator> deserializers;
+
+  private ParseCache parseCache;
 
   @Named
   public LanguageDeSerializer(@Autowired(required = false)
@@ -55,13 +63,17 @@ public class LanguageDeSerializer implements KnowledgePlatformComponent<Deserial
   @KPOperation(Lowering_Task)
       List<DeserializeApiOperator> deserializers) {
 
-    this.deserializers = deserializers.stream()
+    Map<KeyIdentifier, DeserializeApiOperator> operators = deserializers.stream()
         .collect(Collectors.toMap(
             det -> det.getOperatorId().asKey(),
             det -> det,
             (x, y) -> y,
             LinkedHashMap::new
         ));
+    this.deserializers = new OperatorIndex<>(
+        operators.values(),
+        DeserializeApiOperator::getFrom,
+        false);
 
     this.descriptor = toKPComponent(getComponentId());
   }
@@ -76,16 +88,36 @@ public class LanguageDeSerializer implements KnowledgePlatformComponent<Deserial
     return Answer.of(singletonList(getDescriptor()));
   }
 
+  /**
+   * Enables the caching of the lifted artifacts
+   *
+   * @param parseCache the cache, or null to disable caching
+   * @return this LanguageDeSerializer
+   */
+  public LanguageDeSerializer withParseCache(ParseCache parseCache) {
+    this.parseCache = parseCache;
+    return this;
+  }
+
+  /**
+   * @return the metrics of the parse cache, if enabled
+   */
+  public Optional<ParseCacheMetrics> getParseCacheMetrics() {
+    return Optional.ofNullable(parseCache)
+        .map(ParseCache::getMetrics);
+  }
+
   @Override
   public Answer<KnowledgeCarrier> applyLift(KnowledgeCarrier sourceArtifact,
       String levelTag, String xAccept, String config) {
-    return anyDo(
-        getOperations(
-            deserializers.values(),
-            DeserializeApiOperator::can_applyLift,
-            DeserializeApiOperator::as_applyLift),
-        a -> a.applyLift(sourceArtifact, levelTag, xAccept, config),
-        () -> Answer.failed(new ParsingException(sourceArtifact)));
+    return cachedLift(null, sourceArtifact, levelTag, xAccept, config,
+        () -> anyDo(
+            getOperations(
+                getCandidates(sourceArtifact, xAccept),
+                DeserializeApiOperator::can_applyLift,
+                DeserializeApiOperator::as_applyLift),
+            a -> a.applyLift(sourceArtifact, levelTag, xAccept, config),
+            () -> Answer.failed(new ParsingException(sourceArtifact))));
   }
 
   @Override
@@ -93,7 +125,7 @@ public class LanguageDeSerializer implements KnowledgePlatformComponent<Deserial
       String levelTag, String xAccept, String config) {
     return anyDo(
         getOperations(
-            deserializers.values(),
+            getCandidates(sourceArtifact, xAccept),
             DeserializeApiOperator::can_applyLower,
             DeserializeApiOperator::as_applyLower),
         a -> a.applyLower(sourceArtifact, levelTag, xAccept, config),
@@ -103,9 +135,10 @@ public class LanguageDeSerializer implements KnowledgePlatformComponent<Deserial
   @Override
   public Answer<KnowledgeCarrier> applyNamedLift(UUID operatorId, KnowledgeCarrier sourceArtifact,
       String levelTag, String xAccept, String config) {
-    return Answer.ofTry(getDeserializer(operatorId))
-        .flatOpt(DeserializeApiOperator::as_applyNamedLift)
-        .flatMap(a -> a.applyNamedLift(operatorId, sourceArtifact, levelTag, xAccept, config));
+    return cachedLift(operatorId, sourceArtifact, levelTag, xAccept, config,
+        () -> Answer.ofTry(getDeserializer(operatorId))
+            .flatOpt(DeserializeApiOperator::as_applyNamedLift)
+            .flatMap(a -> a.applyNamedLift(operatorId, sourceArtifact, levelTag, xAccept, config)));
   }
 
   @Override
@@ -141,7 +174,7 @@ public class LanguageDeSerializer implements KnowledgePlatformComponent<Deserial
   @Override
   public Answer<List<DeserializationOperator>> listLiftOperators(String from, String into) {
     return Answer.of(
-        deserializers.values().stream()
+        deserializers.all().stream()
             .filter(op -> op instanceof _applyLift)
             .filter(op -> op.consumes(from))
             .filter(op -> op.produces(into))
@@ -152,7 +185,7 @@ public class LanguageDeSerializer implements KnowledgePlatformComponent<Deserial
   @Override
   public Answer<List<DeserializationOperator>> listLowerOperators(String from, String into) {
     return Answer.of(
-        deserializers.values().stream()
+        deserializers.all().stream()
             .filter(op -> op instanceof _applyLower)
             .filter(op -> op.consumes(from))
             .filter(op -> op.produces(into))
@@ -177,10 +210,39 @@ public class LanguageDeSerializer implements KnowledgePlatformComponent<Deserial
   }
 
   private Optional<DeserializeApiOperator> getDeserializer(UUID operatorId) {
-    return deserializers.keySet().stream()
-        .filter(key -> key.getUuid().equals(operatorId))
-        .findFirst()
-        .map(deserializers::get);
+    return deserializers.get(operatorId);
+  }
+
+  private Answer<KnowledgeCarrier> cachedLift(UUID operatorId, KnowledgeCarrier sourceArtifact,
+      String levelTag, String xAccept, String config,
+      Supplier<Answer<KnowledgeCarrier>> lift) {
+    return parseCache != null
+        ? parseCache.lift(operatorId, sourceArtifact, levelTag, xAccept, config, lift)
+        : lift.get();
+  }
+
+  /**
+   * Selects the (de)serializers that support the language of the source artifact. A parser
+   * can only lift/lower within one language, so there are no candidates if the requested
+   * representation is in a different language.
+   *
+   * @param sourceArtifact the artifact to be lifted/lowered
+   * @param xAccept        the requested representation, if any
+   * @return the candidate operators, in order of preference
+   */
+  private List<DeserializeApiOperator> getCandidates(KnowledgeCarrier sourceArtifact,
+      String xAccept) {
+    SyntacticRepresentation sourceRep = sourceArtifact.getRepresentation();
+    if (sourceRep != null && sourceRep.getLanguage() != null && !Util.isEmpty(xAccept)) {
+      boolean crossLanguage = ModelMIMECoder.decode(xAccept)
+          .map(SyntacticRepresentation::getLanguage)
+          .filter(lang -> !lang.sameAs(sourceRep.getLanguage()))
+          .isPresent();
+      if (crossLanguage) {
+        return Collections.emptyList();
+      }
+    }
+    return deserializers.lookup(sourceArtifact);
   }
 
 }
@@ -44,18 +44,22 @@ public class LanguageDetector implements KnowledgePlatformComponent<Detector>,
   private UUID id = UUID.randomUUID();
   private Detector descriptor;
 
-  Map<KeyIdentifier,DetectApiOperator> detectors;
+  private final OperatorIndex<DetectApiOperator> detectors;
 
   @Named
   public LanguageDetector(@Autowired(required = false)
   @KPOperation(KnowledgeProcessingOperationSeries.Language_Information_Detection_Task)
       List<DetectApiOperator> detectors) {
 
-    this.detectors = detectors.stream()
+    Map<KeyIdentifier, DetectApiOperator> operators = detectors.stream()
         .collect(Collectors.toMap(
             det -> det.getOperatorId().asKey(),
             det -> det
         ));
+    this.detectors = new OperatorIndex<>(
+        operators.values(),
+        DetectApiOperator::getInto,
+        false);
 
     this.descriptor = toKPComponent(getComponentId());
   }
@@ -74,7 +78,7 @@ public class LanguageDetector implements KnowledgePlatformComponent<Detector>,
   public Answer<KnowledgeCarrier> applyDetect(KnowledgeCarrier sourceArtifact, String config) {
     return anyDo(
         getOperations(
-            detectors.values(),
+            getCandidates(sourceArtifact),
             Operator::can_applyDetect,
             DetectApiOperator::as_applyDetect),
         a -> a.applyDetect(sourceArtifact, config));
@@ -96,7 +100,7 @@ public class LanguageDetector implements KnowledgePlatformComponent<Detector>,
 
   @Override
   public Answer<List<DetectionOperator>> listDetectionOperators(String into) {
-    return Answer.of(detectors.values().stream()
+    return Answer.of(detectors.all().stream()
         .filter(op -> op.produces(into))
         .map(DetectApiOperator::getDescriptor)
         .collect(Collectors.toList()));
@@ -120,9 +124,15 @@ public class LanguageDetector implements KnowledgePlatformComponent<Detector>,
   }
 
   private Optional<DetectApiOperator> getDetector(UUID operatorId) {
-    return detectors.keySet().stream()
-        .filter(key -> key.getUuid().equals(operatorId))
-        .findFirst()
-        .map(detectors::get);
+    return detectors.get(operatorId);
+  }
+
+  /**
+   * Selects the detectors that can recognize the language declared by the source artifact, if
+   * any, falling back to all the detectors otherwise
+   */
+  private List<DetectApiOperator> getCandidates(KnowledgeCarrier sourceArtifact) {
+    List<DetectApiOperator> candidates = detectors.lookup(sourceArtifact);
+    return candidates.isEmpty() ? detectors.all() : candidates;
   }
 }
@@ -0,0 +1,133 @@
+/**
+ * Copyright © 2018 Mayo Clinic (RSTKNOWLEDGEMGMT@mayo.edu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mayo.kmdp.language;
+
+import static java.util.Collections.emptyList;
+import static org.omg.spec.api4kp._20200801.contrastors.ParsingLevelContrastor.detectLevel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import org.omg.spec.api4kp._20200801.KnowledgePlatformOperator;
+import org.omg.spec.api4kp._20200801.services.KnowledgeCarrier;
+import org.omg.spec.api4kp._20200801.services.SyntacticRepresentation;
+import org.omg.spec.api4kp._20200801.taxonomy.krlanguage.KnowledgeRepresentationLanguage;
+import org.omg.spec.api4kp._20200801.taxonomy.parsinglevel.ParsingLevel;
+
+/**
+ * Immutable dispatch index over the operators of a Language Service component, built once, when
+ * the component is constructed.
+ * <p>
+ * Operators are indexed by (operator) UUID, and by the language - and optionally the parsing level
+ * - of the representations they support. Operators that declare representations without a
+ * language (e.g. format-specific operators) apply to any language.
+ *
+ * @param <T> the type of the indexed operators
+ */
+final class OperatorIndex<T extends KnowledgePlatformOperator<?>> {
+
+  private static final String ANY_LANGUAGE = "*";
+
+  private final List<T> operators;
+  private final Map<UUID, T> byId;
+  private final Map<String, List<T>> byRepresentation;
+  private final boolean byLevel;
+
+  /**
+   * @param operators       the operators, in order of preference
+   * @param representations the representations supported by an operator
+   * @param byLevel         if true, index by language and parsing level, otherwise by language
+   *                        only
+   */
+  OperatorIndex(Collection<T> operators,
+      Function<T, Collection<SyntacticRepresentation>> representations,
+      boolean byLevel) {
+    this.byLevel = byLevel;
+    this.operators = List.copyOf(operators);
+
+    Map<UUID, T> ids = new LinkedHashMap<>();
+    Map<String, List<T>> reps = new HashMap<>();
+    for (T op : this.operators) {
+      ids.putIfAbsent(op.getOperatorId().getUuid(), op);
+      Set<String> keys = new LinkedHashSet<>();
+      for (SyntacticRepresentation rep : representations.apply(op)) {
+        keys.add(key(rep.getLanguage(), byLevel ? detectLevel(rep) : null));
+      }
+      keys.forEach(k -> reps.computeIfAbsent(k, x -> new ArrayList<>()).add(op));
+    }
+    this.byId = Collections.unmodifiableMap(ids);
+    Map<String, List<T>> frozen = new HashMap<>();
+    reps.forEach((k, ops) -> frozen.put(k, List.copyOf(ops)));
+    this.byRepresentation = Collections.unmodifiableMap(frozen);
+  }
+
+  Optional<T> get(UUID operatorId) {
+    return Optional.ofNullable(byId.get(operatorId));
+  }
+
+  List<T> all() {
+    return operators;
+  }
+
+  /**
+   * @param language the language of an artifact
+   * @param level    the parsing level of the artifact (ignored unless indexed by level)
+   * @return the operators that support the language (at the level), if any
+   */
+  List<T> lookup(KnowledgeRepresentationLanguage language, ParsingLevel level) {
+    ParsingLevel lvl = byLevel ? level : null;
+    List<T> ops = byRepresentation.getOrDefault(key(language, lvl), emptyList());
+    List<T> anyLanguage = byRepresentation.getOrDefault(key(null, lvl), emptyList());
+    if (anyLanguage.isEmpty()) {
+      return ops;
+    }
+    List<T> all = new ArrayList<>(ops);
+    anyLanguage.stream()
+        .filter(op -> !all.contains(op))
+        .forEach(all::add);
+    return all;
+  }
+
+  /**
+   * @param carrier an artifact
+   * @return the operators that support the language (and parsing level) of the artifact, if
+   * known, or all the operators otherwise
+   */
+  List<T> lookup(KnowledgeCarrier carrier) {
+    SyntacticRepresentation rep = carrier.getRepresentation();
+    if (rep == null || rep.getLanguage() == null) {
+      return operators;
+    }
+    ParsingLevel level = null;
+    if (byLevel) {
+      level = carrier.getLevel() != null ? carrier.getLevel() : detectLevel(carrier);
+    }
+    return lookup(rep.getLanguage(), level);
+  }
+
+  private static String key(KnowledgeRepresentationLanguage language, ParsingLevel level) {
+    String lang = language != null ? language.getTag() : ANY_LANGUAGE;
+    return level != null ? lang + "|" + level.getTag() : lang;
+  }
+
+}
@@ -0,0 +1,316 @@
+/**
+ * Copyright © 2018 Mayo Clinic (RSTKNOWLEDGEMGMT@mayo.edu)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mayo.kmdp.language;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import edu.mayo.kmdp.language.ParseCacheConfig.ParseCacheParams;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+import javax.xml.bind.annotation.XmlType;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.omg.spec.api4kp._20200801.Answer;
+import org.omg.spec.api4kp._20200801.services.CompositeKnowledgeCarrier;
+import org.omg.spec.api4kp._20200801.services.KnowledgeCarrier;
+import org.omg.spec.api4kp._20200801.services.transrepresentation.ModelMIMECoder;
+import org.w3c.dom.Node;
+
+/**
+ * Size-bounded (LRU) cache of the artifacts lifted by a {@link LanguageDeSerializer}.
+ * <p>
+ * Lifted artifacts are keyed by the digest of the serialized/encoded source expression, the
+ * representation of the source, and the requested level, representation and configuration, so
+ * that the same content is only parsed once, regardless of the carrier it is wrapped in.
+ * Composite carriers, and carriers that are already parsed, are not cached.
+ * <p>
+ * Operators are free to modify the lifted expressions (ASTs) in place, so the cache never hands
+ * out the expression it retains: the expression is copied when the artifact is cached, and again
+ * on each hit. Only expressions of a type that can be deep-copied are cached (see
+ * {@link #copyOf(Object)}); the others are lifted every time. Likewise, carriers are never
+ * shared: a cache hit returns a new carrier, with the identifiers and label of the source carrier.
+ */
+public class ParseCache {
+
+  private static final String DIGEST_ALGORITHM = "SHA-256";
+
+  private final int maxEntries;
+
+  private final Map<Key, KnowledgeCarrier> entries;
+
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  public ParseCache() {
+    this(new ParseCacheConfig());
+  }
+
+  public ParseCache(ParseCacheConfig cfg) {
+    this.maxEntries = cfg.getTyped(ParseCacheParams.MAX_ENTRIES);
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, KnowledgeCarrier> eldest) {
+        boolean evict = size() > maxEntries;
+        if (evict) {
+          evictions++;
+        }
+        return evict;
+      }
+    };
+  }
+
+  /**
+   * Returns the cached lifted artifact, if any, or lifts the artifact and caches the result.
+   *
+   * @param operatorId     the id of the operator requested to lift the artifact, if any
+   * @param sourceArtifact the artifact to lift
+   * @param levelTag       the requested parsing level
+   * @param xAccept        the requested representation
+   * @param config         the lifting configuration
+   * @param lift           the actual lifting operation
+   * @return the lifted artifact
+   */
+  public Answer<KnowledgeCarrier> lift(UUID operatorId, KnowledgeCarrier sourceArtifact,
+      String levelTag, String xAccept, String config,
+      Supplier<Answer<KnowledgeCarrier>> lift) {
+    Optional<Key> key = digest(sourceArtifact)
+        .map(digest -> new Key(digest, sourceArtifact, operatorId, levelTag, xAccept, config));
+    if (key.isEmpty()) {
+      return lift.get();
+    }
+
+    KnowledgeCarrier cached = get(key.get());
+    if (cached != null) {
+      Optional<KnowledgeCarrier> copy = rebind(cached, sourceArtifact);
+      if (copy.isPresent()) {
+        return Answer.of(copy.get());
+      }
+    }
+
+    Answer<KnowledgeCarrier> lifted = lift.get();
+    if (lifted.isSuccess()) {
+      KnowledgeCarrier result = lifted.get();
+      if (!(result instanceof CompositeKnowledgeCarrier)
+          && result.getExpression() != sourceArtifact.getExpression()) {
+        rebind(result, result)
+            .ifPresent(copy -> put(key.get(), copy));
+      }
+    }
+    return lifted;
+  }
+
+  public synchronized ParseCacheMetrics getMetrics() {
+    return new ParseCacheMetrics(entries.size(), hits, misses, evictions);
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+  }
+
+  private synchronized KnowledgeCarrier get(Key key) {
+    KnowledgeCarrier cached = entries.get(key);
+    if (cached != null) {
+      hits++;
+    } else {
+      misses++;
+    }
+    return cached;
+  }
+
+  private synchronized void put(Key key, KnowledgeCarrier lifted) {
+    entries.put(key, lifted);
+  }
+
+  /**
+   * @return a new carrier with a copy of the expression of the lifted artifact, and the metadata
+   * of the source artifact, if the expression can be copied
+   */
+  private static Optional<KnowledgeCarrier> rebind(KnowledgeCarrier lifted,
+      KnowledgeCarrier source) {
+    return copyOf(lifted.getExpression())
+        .map(expr -> new KnowledgeCarrier()
+            .withAssetId(source.getAssetId())
+            .withArtifactId(source.getArtifactId())
+            .withLabel(source.getLabel())
+            .withHref(source.getHref())
+            .withLevel(lifted.getLevel())
+            .withRepresentation(lifted.getRepresentation())
+            .withExpression(expr));
+  }
+
+  /**
+   * Deep-copies a lifted expression: Strings (immutable), bytes, FHIR resources, DOM nodes,
+   * Jena models, JSON trees, and JAXB bound objects (which are generated with a deep clone())
+   *
+   * @param expr the expression to copy
+   * @return a copy of the expression, if its type is supported
+   */
+  public static Optional<Object> copyOf(Object expr) {
+    if (expr instanceof String) {
+      return Optional.of(expr);
+    } else if (expr instanceof byte[]) {
+      return Optional.of(((byte[]) expr).clone());
+    } else if (expr instanceof org.hl7.fhir.dstu3.model.Base) {
+      return Optional.of(((org.hl7.fhir.dstu3.model.Base) expr).copy());
+    } else if (expr instanceof org.hl7.fhir.r4.model.Base) {
+      return Optional.of(((org.hl7.fhir.r4.model.Base) expr).copy());
+    } else if (expr instanceof Node) {
+      return Optional.of(((Node) expr).cloneNode(true));
+    } else if (expr instanceof Model) {
+      Model model = (Model) expr;
+      return Optional.of(ModelFactory.createDefaultModel()
+          .setNsPrefixes(model.getNsPrefixMap())
+          .add(model));
+    } else if (expr instanceof JsonNode) {
+      return Optional.of(((JsonNode) expr).deepCopy());
+    } else if (expr instanceof Cloneable
+        && expr.getClass().isAnnotationPresent(XmlType.class)) {
+      try {
+        return Optional.ofNullable(expr.getClass().getMethod("clone").invoke(expr));
+      } catch (ReflectiveOperationException e) {
+        return Optional.empty();
+      }
+    }
+    return Optional.empty();
+  }
+
+  private static Optional<String> digest(KnowledgeCarrier carrier) {
+    if (carrier instanceof CompositeKnowledgeCarrier) {
+      return Optional.empty();
+    }
+    Object expr = carrier.getExpression();
+    byte[] content;
+    if (expr instanceof byte[]) {
+      content = (byte[]) expr;
+    } else if (expr instanceof String) {
+      content = ((String) expr).getBytes(StandardCharsets.UTF_8);
+    } else {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(Base64.getEncoder().encodeToString(
+          MessageDigest.getInstance(DIGEST_ALGORITHM).digest(content)));
+    } catch (NoSuchAlgorithmException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Snapshot of the activity of a {@link ParseCache}
+   */
+  public static class ParseCacheMetrics {
+
+    private final int entries;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+
+    ParseCacheMetrics(int entries, long hits, long misses, long evictions) {
+      this.entries = entries;
+      this.hits = hits;
+      this.misses = misses;
+      this.evictions = evictions;
+    }
+
+    public int getEntries() {
+      return entries;
+    }
+
+    public long getHits() {
+      return hits;
+    }
+
+    public long getMisses() {
+      return misses;
+    }
+
+    public long getEvictions() {
+      return evictions;
+    }
+
+    /**
+     * @return the ratio of lookups served from the cache, or 0 if there has been no lookup
+     */
+    public double getHitRate() {
+      long lookups = hits + misses;
+      return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+      return "ParseCacheMetrics{entries=" + entries
+          + ", hits=" + hits
+          + ", misses=" + misses
+          + ", evictions=" + evictions
+          + ", hitRate=" + getHitRate() + "}";
+    }
+  }
+
+  private static final class Key {
+
+    private final String digest;
+    private final String sourceRepresentation;
+    private final String sourceLevel;
+    private final UUID operatorId;
+    private final String levelTag;
+    private final String xAccept;
+    private final String config;
+
+    Key(String digest, KnowledgeCarrier source, UUID operatorId,
+        String levelTag, String xAccept, String config) {
+      this.digest = digest;
+      this.sourceRepresentation = source.getRepresentation() != null
+          ? ModelMIMECoder.encode(source.getRepresentation())
+          : null;
+      this.sourceLevel = source.getLevel() != null ? source.getLevel().getTag() : null;
+      this.operatorId = operatorId;
+      this.levelTag = levelTag;
+      this.xAccept = xAccept;
+      this.config = config;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return digest.equals(key.digest)
+          && Objects.equals(sourceRepresentation, key.sourceRepresentation)
+          && Objects.equals(sourceLevel, key.sourceLevel)
+          && Objects.equals(operatorId, key.operatorId)
+          && Objects.equals(levelTag, key.levelTag)
+          && Objects.equals(xAccept, key.xAccept)
+          && Objects.equals(config, key.config);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(digest, sourceRepresentation, sourceLevel,
+          operatorId, levelTag, xAccept, config);
+    }
+  }
+
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright © 2018 Mayo Clinic (RSTKNOWLEDGEMGMT@mayo.edu)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mayo.kmdp.language;
+
+import edu.mayo.kmdp.ConfigProperties;
+import edu.mayo.kmdp.Opt;
+import edu.mayo.kmdp.Option;
+import edu.mayo.kmdp.language.ParseCacheConfig.ParseCacheParams;
+import java.util.Properties;
+
+/**
+ * {@link ConfigProperties} for the {@link ParseCache}
+ */
+public class ParseCacheConfig extends
+    ConfigProperties<ParseCacheConfig, ParseCacheParams> {
+
+  private static final Properties DEFAULTS = defaulted(ParseCacheParams.class);
+
+  public ParseCacheConfig() {
+    super(DEFAULTS);
+  }
+
+  public ParseCacheConfig(Properties defaults) {
+    super(defaults);
+  }
+
+  public ParseCacheConfig(String cfg) {
+    super(cfg);
+  }
+
+  @Override
+  public ParseCacheParams[] properties() {
+    return ParseCacheParams.values();
+  }
+
+  public enum ParseCacheParams implements Option<ParseCacheParams> {
+
+    MAX_ENTRIES(Opt.of(
+        "edu.mayo.kmdp.language.parse.cache.size",
+        "256",
+        "Max number of lifted artifacts retained, least recently used first evicted",
+        Integer.class,
+        false));
+
+    private Opt<ParseCacheParams> opt;
+
+    ParseCacheParams(Opt<ParseCacheParams> opt) {
+      this.opt = opt;
+    }
+
+    @Override
+    public Opt<ParseCacheParams> getOption() {
+      return opt;
+    }
+
+  }
+}
@@ -46,7 +46,7 @@ public class TransrepresentationExecutor implements KnowledgePlatformComponent<T
   private final UUID id = UUID.randomUUID();
   private final Transrepresentator descriptor;
 
-  private final Map<KeyIdentifier, TransionApiOperator> translators;
+  private final OperatorIndex<TransionApiOperator> translators;
 
   @Named
   public TransrepresentationExecutor(
@@ -54,11 +54,15 @@ public class TransrepresentationExecutor implements KnowledgePlatformComponent<T
       @KPOperation(Syntactic_Translation_Task)
           List<TransionApiOperator> translators) {
 
-    this.translators = translators.stream()
+    Map<KeyIdentifier, TransionApiOperator> operators = translators.stream()
         .collect(Collectors.toMap(
             tx -> tx.getOperatorId().asKey(),
             tx -> tx
         ));
+    this.translators = new OperatorIndex<>(
+        operators.values(),
+        TransionApiOperator::getFrom,
+        true);
 
     this.descriptor = toKPComponent(getComponentId());
   }
@@ -77,7 +81,7 @@ public class TransrepresentationExecutor implements KnowledgePlatformComponent<T
   public Answer<KnowledgeCarrier> applyTransrepresent(KnowledgeCarrier sourceArtifact, String xAccept, String cfg) {
     return anyDo(
         getOperations(
-            translators.values(),
+            getCandidates(sourceArtifact, xAccept),
             TransionApiOperator::can_applyTransrepresent,
             TransionApiOperator::as_applyTransrepresent),
         a -> a.applyTransrepresent(sourceArtifact, xAccept, cfg));
@@ -99,7 +103,7 @@ public class TransrepresentationExecutor implements KnowledgePlatformComponent<T
 
   @Override
   public Answer<List<TransrepresentationOperator>> listTxionOperators(String from, String into) {
-    return Answer.of(translators.values().stream()
+    return Answer.of(translators.all().stream()
         .filter(op -> op.consumes(from))
         .filter(op -> op.produces(into))
         .map(TransionApiOperator::getDescriptor)
@@ -124,10 +128,24 @@ public class TransrepresentationExecutor implements KnowledgePlatformComponent<T
   }
 
   private Optional<TransionApiOperator> getTransrepresentator(UUID operatorId) {
-    return translators.keySet().stream()
-        .filter(key -> key.getUuid().equals(operatorId))
-        .findFirst()
-        .map(translators::get);
+    return translators.get(operatorId);
+  }
+
+  /**
+   * Selects the translators that consume the language and parsing level of the source artifact,
+   * preferring the ones that (also) produce the requested representation
+   *
+   * @param sourceArtifact the artifact to be translated
+   * @param xAccept        the requested representation, if any
+   * @return the candidate operators, in order of preference
+   */
+  private List<TransionApiOperator> getCandidates(KnowledgeCarrier sourceArtifact,
+      String xAccept) {
+    List<TransionApiOperator> candidates = translators.lookup(sourceArtifact);
+    List<TransionApiOperator> producers = candidates.stream()
+        .filter(op -> op.produces(xAccept))
+        .collect(Collectors.toList());
+    return producers.isEmpty() ? candidates : producers;
   }
 
 }
@@ -0,0 +1,242 @@
+/**
+ * Copyright © 2018 Mayo Clinic (RSTKNOWLEDGEMGMT@mayo.edu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mayo.kmdp.language.common.jaxb;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.Result;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.stream.StreamResult;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+/**
+ * Cached {@link JAXBContext} of a set of JAXB bound classes (a 'schema'), with a bounded pool of
+ * {@link Marshaller}s and {@link Unmarshaller}s.
+ * <p>
+ * Contexts are expensive to create, but thread-safe, and are shared by all the parsers and
+ * detectors that use the same classes. (Un)Marshallers are cheap(er), but not thread-safe: they
+ * are borrowed for the duration of a single operation, and returned to the pool afterwards.
+ * <p>
+ * Unlike the declared-type unmarshalling, a document is only unmarshalled if its root element is
+ * bound to the requested type. DTDs and external entities are not supported.
+ */
+public class JaxbPool {
+
+  private static final int DEFAULT_MAX_IDLE = 16;
+
+  private static final Map<Set<Class<?>>, JaxbPool> POOLS = new ConcurrentHashMap<>();
+
+  private static final XMLInputFactory XML_FACTORY = newXMLInputFactory();
+  private static final DocumentBuilderFactory DOX_FACTORY = newDocumentBuilderFactory();
+
+  private final JAXBContext context;
+
+  private final BlockingDeque<Marshaller> marshallers;
+  private final BlockingDeque<Unmarshaller> unmarshallers;
+
+  JaxbPool(Set<Class<?>> classes, int maxIdle) {
+    try {
+      this.context = JAXBContext.newInstance(classes.toArray(new Class<?>[0]));
+    } catch (JAXBException e) {
+      throw new IllegalStateException(e);
+    }
+    this.marshallers = new LinkedBlockingDeque<>(maxIdle);
+    this.unmarshallers = new LinkedBlockingDeque<>(maxIdle);
+  }
+
+  /**
+   * @param classes the JAXB bound classes
+   * @return the (shared) pool for the given classes, regardless of their order
+   */
+  public static JaxbPool forContext(Collection<Class<?>> classes) {
+    return POOLS.computeIfAbsent(new HashSet<>(classes),
+        key -> new JaxbPool(key, DEFAULT_MAX_IDLE));
+  }
+
+  /**
+   * @see #forContext(Collection)
+   */
+  public static JaxbPool forContext(Class<?> root) {
+    return forContext(Set.of(root));
+  }
+
+  public JAXBContext getContext() {
+    return context;
+  }
+
+  public <T> Optional<T> unmarshall(Class<T> type, String str) {
+    return unmarshall(type, new StringReader(str));
+  }
+
+  public <T> Optional<T> unmarshall(Class<T> type, Reader reader) {
+    try {
+      return unmarshall(type, XML_FACTORY.createXMLStreamReader(reader));
+    } catch (XMLStreamException e) {
+      return Optional.empty();
+    }
+  }
+
+  public <T> Optional<T> unmarshall(Class<T> type, InputStream is) {
+    try {
+      return unmarshall(type, XML_FACTORY.createXMLStreamReader(is));
+    } catch (XMLStreamException e) {
+      return Optional.empty();
+    }
+  }
+
+  public <T> Optional<T> unmarshall(Class<T> type, Node dox) {
+    Unmarshaller unmarshaller = borrowUnmarshaller();
+    try {
+      return cast(type, unmarshaller.unmarshal(dox));
+    } catch (JAXBException e) {
+      return Optional.empty();
+    } finally {
+      unmarshallers.offerFirst(unmarshaller);
+    }
+  }
+
+  private <T> Optional<T> unmarshall(Class<T> type, XMLStreamReader reader) {
+    Unmarshaller unmarshaller = borrowUnmarshaller();
+    try {
+      return cast(type, unmarshaller.unmarshal(reader));
+    } catch (JAXBException e) {
+      return Optional.empty();
+    } finally {
+      unmarshallers.offerFirst(unmarshaller);
+      close(reader);
+    }
+  }
+
+  /**
+   * Marshals a JAXB bound object (or element) to a stream, in the given encoding
+   *
+   * @return true if the object has been written
+   */
+  public boolean marshall(Object root, OutputStream out, Charset charset) {
+    return marshall(root, new StreamResult(out), charset);
+  }
+
+  public Optional<String> marshallToString(Object root) {
+    StringWriter writer = new StringWriter();
+    return marshall(root, new StreamResult(writer), null)
+        ? Optional.of(writer.toString())
+        : Optional.empty();
+  }
+
+  public Optional<Document> marshallDox(Object root) {
+    try {
+      Document dox;
+      synchronized (DOX_FACTORY) {
+        dox = DOX_FACTORY.newDocumentBuilder().newDocument();
+      }
+      return marshall(root, new DOMResult(dox), null)
+          ? Optional.of(dox)
+          : Optional.empty();
+    } catch (ParserConfigurationException e) {
+      return Optional.empty();
+    }
+  }
+
+  private boolean marshall(Object root, Result result, Charset charset) {
+    Marshaller marshaller = borrowMarshaller();
+    try {
+      marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+      marshaller.setProperty(Marshaller.JAXB_ENCODING,
+          charset != null ? charset.name() : "UTF-8");
+      marshaller.marshal(root, result);
+      return true;
+    } catch (JAXBException e) {
+      return false;
+    } finally {
+      marshallers.offerFirst(marshaller);
+    }
+  }
+
+  private Marshaller borrowMarshaller() {
+    Marshaller marshaller = marshallers.pollFirst();
+    if (marshaller != null) {
+      return marshaller;
+    }
+    try {
+      return context.createMarshaller();
+    } catch (JAXBException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private Unmarshaller borrowUnmarshaller() {
+    Unmarshaller unmarshaller = unmarshallers.pollFirst();
+    if (unmarshaller != null) {
+      return unmarshaller;
+    }
+    try {
+      return context.createUnmarshaller();
+    } catch (JAXBException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static <T> Optional<T> cast(Class<T> type, Object obj) {
+    Object value = obj instanceof JAXBElement ? ((JAXBElement<?>) obj).getValue() : obj;
+    return type.isInstance(value)
+        ? Optional.of(type.cast(value))
+        : Optional.empty();
+  }
+
+  private static void close(XMLStreamReader reader) {
+    try {
+      reader.close();
+    } catch (XMLStreamException e) {
+      // nothing to do
+    }
+  }
+
+  private static XMLInputFactory newXMLInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+    return factory;
+  }
+
+  private static DocumentBuilderFactory newDocumentBuilderFactory() {
+    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+    factory.setNamespaceAware(true);
+    return factory;
+  }
+
+}
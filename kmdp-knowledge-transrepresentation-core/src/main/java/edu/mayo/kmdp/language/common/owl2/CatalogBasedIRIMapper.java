@@ -33,7 +33,7 @@ public class CatalogBasedIRIMapper implements OWLOntologyIRIMapper {
         .orElse(ontologyIRI);
   }
 
-  private CatalogBasedURIResolver getResolver() {
+  private synchronized CatalogBasedURIResolver getResolver() {
     if (resolver == null) {
       resolver = new CatalogBasedURIResolver(catalogURI);
     }
@@ -0,0 +1,113 @@
+package edu.mayo.kmdp.language.common.owl2;
+
+import edu.mayo.kmdp.util.Util;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.function.Function;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.MissingImportHandlingStrategy;
+import org.semanticweb.owlapi.model.OWLOntologyIRIMapper;
+import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+/**
+ * Pool of {@link OWLOntologyManager}s, used to load ontologies that are only needed for the
+ * duration of an operation (e.g. to detect their language/profile).
+ * <p>
+ * Managers are pooled by (XML) catalog, and use a {@link CatalogBasedIRIMapper} that is cached,
+ * and shared, per catalog. Imports are not followed. A manager is cleared of all its ontologies
+ * before it is returned to the pool: ontologies loaded via {@link #withManager} must not be
+ * retained by the caller.
+ */
+public class OntologyManagerPool {
+
+  private static final int DEFAULT_MAX_IDLE = 8;
+
+  private static final String NO_CATALOG = "";
+
+  private static final OWLOntologyLoaderConfiguration IGNORE_IMPORTS =
+      new OWLOntologyLoaderConfiguration() {
+        @Override
+        public boolean isIgnoredImport(IRI iri) {
+          return true;
+        }
+
+        @Override
+        public MissingImportHandlingStrategy getMissingImportHandlingStrategy() {
+          return MissingImportHandlingStrategy.SILENT;
+        }
+      };
+
+  private final int maxIdle;
+
+  private final Map<String, BlockingDeque<OWLOntologyManager>> idle = new ConcurrentHashMap<>();
+
+  private final Map<String, OWLOntologyIRIMapper> mappers = new ConcurrentHashMap<>();
+
+  public OntologyManagerPool() {
+    this(DEFAULT_MAX_IDLE);
+  }
+
+  /**
+   * @param maxIdle the max number of idle managers retained, per catalog
+   */
+  public OntologyManagerPool(int maxIdle) {
+    this.maxIdle = maxIdle;
+  }
+
+  /**
+   * Borrows a manager, applies a function to it, and returns the manager to the pool
+   *
+   * @param catalog the URI of an XML catalog used to resolve ontology IRIs (optional)
+   * @param task    the function
+   * @param <T>     the type of the result of the function
+   * @return the result of the function
+   */
+  public <T> Optional<T> withManager(String catalog,
+      Function<OWLOntologyManager, Optional<T>> task) {
+    String key = Util.isEmpty(catalog) ? NO_CATALOG : catalog;
+    OWLOntologyManager manager = borrow(key);
+    try {
+      return task.apply(manager);
+    } finally {
+      release(key, manager);
+    }
+  }
+
+  /**
+   * @param catalog the URI of an XML catalog used to resolve ontology IRIs (optional)
+   * @return a new, un-pooled manager, configured like the pooled ones. The caller owns the
+   * manager, and the ontologies it loads.
+   */
+  public OWLOntologyManager newManager(String catalog) {
+    return newManagerFor(Util.isEmpty(catalog) ? NO_CATALOG : catalog);
+  }
+
+  private OWLOntologyManager borrow(String key) {
+    OWLOntologyManager manager = idle
+        .computeIfAbsent(key, k -> new LinkedBlockingDeque<>(maxIdle))
+        .pollFirst();
+    return manager != null ? manager : newManagerFor(key);
+  }
+
+  private void release(String key, OWLOntologyManager manager) {
+    manager.clearOntologies();
+    idle.get(key).offerFirst(manager);
+  }
+
+  private OWLOntologyManager newManagerFor(String key) {
+    OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+    manager.setOntologyLoaderConfiguration(IGNORE_IMPORTS);
+    if (!NO_CATALOG.equals(key)) {
+      manager.setIRIMappers(Collections.singleton(
+          mappers.computeIfAbsent(key, CatalogBasedIRIMapper::new)));
+    }
+    return manager;
+  }
+
+}
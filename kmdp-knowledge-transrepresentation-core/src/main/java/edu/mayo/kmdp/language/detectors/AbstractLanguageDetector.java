@@ -4,6 +4,7 @@ import static org.omg.spec.api4kp._20200801.contrastors.SyntacticRepresentationC
 import static org.omg.spec.api4kp._20200801.taxonomy.parsinglevel.ParsingLevelSeries.asEnum;
 
 import edu.mayo.kmdp.language.DetectApiOperator;
+import edu.mayo.kmdp.util.Util;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -30,7 +31,7 @@ public abstract class AbstractLanguageDetector
   public Answer<KnowledgeCarrier> applyDetect(KnowledgeCarrier sourceArtifact, String config) {
     try {
       return Answer.ofTry(
-          detect(sourceArtifact)
+          detect(sourceArtifact, readConfig(config))
               .map(rep -> applyDetectedRepresentation(rep, sourceArtifact)));
     } catch (Exception e) {
       return Answer.failed(e);
@@ -43,20 +44,31 @@ public abstract class AbstractLanguageDetector
   }
 
   protected Optional<SyntacticRepresentation> detect(KnowledgeCarrier sourceArtifact) {
+    return detect(sourceArtifact, new LanguageDetectorConfig());
+  }
+
+  protected Optional<SyntacticRepresentation> detect(KnowledgeCarrier sourceArtifact,
+      LanguageDetectorConfig cfg) {
     switch (asEnum(sourceArtifact.getLevel())) {
       case Encoded_Knowledge_Expression:
-        return sourceArtifact.asBinary().flatMap(this::detectBinary);
+        return sourceArtifact.asBinary().flatMap(bytes -> detectBinary(bytes, cfg));
       case Serialized_Knowledge_Expression:
-        return sourceArtifact.asString().flatMap(this::detectString);
+        return sourceArtifact.asString().flatMap(str -> detectString(str, cfg));
       case Concrete_Knowledge_Expression:
         return detectTree(sourceArtifact.getExpression());
       case Abstract_Knowledge_Expression:
-        return detectAST(sourceArtifact.getExpression());
+        return detectAST(sourceArtifact.getExpression(), cfg);
       default:
         return Optional.empty();
     }
   }
 
+  protected LanguageDetectorConfig readConfig(String config) {
+    return Util.isEmpty(config)
+        ? new LanguageDetectorConfig()
+        : new LanguageDetectorConfig(config);
+  }
+
   protected KnowledgeCarrier applyDetectedRepresentation(
       SyntacticRepresentation rep, KnowledgeCarrier sourceArtifact) {
     SyntacticRepresentation mergedRep = checkConsistency(rep,sourceArtifact.getRepresentation());
@@ -94,6 +106,31 @@ public abstract class AbstractLanguageDetector
 
   protected abstract Optional<SyntacticRepresentation> detectAST(Object ast);
 
+  /**
+   * Detects the representation of an encoded artifact. Detectors that support both a quick
+   * (sniffing) and a thorough (validating) detection should override this method.
+   */
+  protected Optional<SyntacticRepresentation> detectBinary(byte[] bytes,
+      LanguageDetectorConfig cfg) {
+    return detectBinary(bytes);
+  }
+
+  /**
+   * @see #detectBinary(byte[], LanguageDetectorConfig)
+   */
+  protected Optional<SyntacticRepresentation> detectString(String string,
+      LanguageDetectorConfig cfg) {
+    return detectString(string);
+  }
+
+  /**
+   * @see #detectBinary(byte[], LanguageDetectorConfig)
+   */
+  protected Optional<SyntacticRepresentation> detectAST(Object ast,
+      LanguageDetectorConfig cfg) {
+    return detectAST(ast);
+  }
+
 
   public ResourceIdentifier getOperatorId() {
     return operatorId;
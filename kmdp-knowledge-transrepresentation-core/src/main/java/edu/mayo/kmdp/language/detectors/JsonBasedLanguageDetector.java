@@ -19,6 +19,7 @@ import static org.omg.spec.api4kp._20200801.AbstractCarrier.rep;
 import static org.omg.spec.api4kp._20200801.taxonomy.krformat.SerializationFormatSeries.JSON;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import edu.mayo.kmdp.language.detectors.LanguageDetectorConfig.LanguageDetectorParams;
 import edu.mayo.kmdp.util.JSonUtil;
 import java.nio.charset.Charset;
 import java.util.Arrays;
@@ -27,6 +28,13 @@ import java.util.Optional;
 import org.omg.spec.api4kp._20200801.services.SyntacticRepresentation;
 
 
+/**
+ * Detects artifacts that can be bound to a Jackson model. By default, the language is detected
+ * from the first top-level properties of the artifact, which must all be properties of the
+ * model. The whole artifact is parsed only if {@link LanguageDetectorParams#VALIDATE} is set.
+ *
+ * @param <T> the bound class of the root object
+ */
 public abstract class JsonBasedLanguageDetector<T>
     extends AbstractLanguageDetector {
 
@@ -41,7 +49,15 @@ public abstract class JsonBasedLanguageDetector<T>
 
   @Override
   protected Optional<SyntacticRepresentation> detectBinary(byte[] bytes) {
-    if (JSonUtil.tryParseJson(new String(bytes), root).isPresent()) {
+    return detectBinary(bytes, new LanguageDetectorConfig());
+  }
+
+  @Override
+  protected Optional<SyntacticRepresentation> detectBinary(byte[] bytes,
+      LanguageDetectorConfig cfg) {
+    if (validate(cfg)
+        ? JSonUtil.tryParseJson(new String(bytes), root).isPresent()
+        : isRootObject(Sniffers.sniffTopLevelKeys(bytes))) {
       return Optional.of(rep(getSupportedLanguage(), JSON, Charset.defaultCharset()));
     } else {
       return Optional.empty();
@@ -50,7 +66,15 @@ public abstract class JsonBasedLanguageDetector<T>
 
   @Override
   protected Optional<SyntacticRepresentation> detectString(String str) {
-    if (JSonUtil.tryParseJson(str, root).isPresent()) {
+    return detectString(str, new LanguageDetectorConfig());
+  }
+
+  @Override
+  protected Optional<SyntacticRepresentation> detectString(String str,
+      LanguageDetectorConfig cfg) {
+    if (validate(cfg)
+        ? JSonUtil.tryParseJson(str, root).isPresent()
+        : isRootObject(Sniffers.sniffTopLevelKeys(str))) {
       return Optional.of(rep(getSupportedLanguage(), JSON, Charset.defaultCharset()));
     } else {
       return Optional.empty();
@@ -76,4 +100,20 @@ public abstract class JsonBasedLanguageDetector<T>
     }
   }
 
+  /**
+   * @return true if the artifact must be parsed, either because required, or because the
+   * properties of the model cannot be determined
+   */
+  private boolean validate(LanguageDetectorConfig cfg) {
+    return Boolean.TRUE.equals(cfg.getTyped(LanguageDetectorParams.VALIDATE))
+        || Sniffers.jsonProperties(root).isEmpty();
+  }
+
+  private boolean isRootObject(Optional<List<String>> sniffedKeys) {
+    return sniffedKeys
+        .filter(keys -> !keys.isEmpty())
+        .filter(keys -> Sniffers.jsonProperties(root).containsAll(keys))
+        .isPresent();
+  }
+
 }
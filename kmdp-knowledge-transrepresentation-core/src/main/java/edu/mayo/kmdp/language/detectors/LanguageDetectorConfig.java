@@ -0,0 +1,57 @@
+package edu.mayo.kmdp.language.detectors;
+
+import edu.mayo.kmdp.ConfigProperties;
+import edu.mayo.kmdp.Opt;
+import edu.mayo.kmdp.Option;
+import edu.mayo.kmdp.language.detectors.LanguageDetectorConfig.LanguageDetectorParams;
+import java.util.Properties;
+
+/**
+ * {@link ConfigProperties} for the {@link AbstractLanguageDetector}s
+ */
+public class LanguageDetectorConfig extends
+    ConfigProperties<LanguageDetectorConfig, LanguageDetectorParams> {
+
+  private static final Properties DEFAULTS = defaulted(LanguageDetectorParams.class);
+
+  public LanguageDetectorConfig() {
+    super(DEFAULTS);
+  }
+
+  public LanguageDetectorConfig(Properties defaults) {
+    super(defaults);
+  }
+
+  public LanguageDetectorConfig(String cfg) {
+    super(cfg);
+  }
+
+  @Override
+  public LanguageDetectorParams[] properties() {
+    return LanguageDetectorParams.values();
+  }
+
+  public enum LanguageDetectorParams implements Option<LanguageDetectorParams> {
+
+    VALIDATE(Opt.of(
+        "validate",
+        "false",
+        "If true, the artifact is fully parsed into the model of the detected language. "
+            + "Otherwise, the language is detected from the root element (XML), "
+            + "or the top level properties (JSON)",
+        Boolean.class,
+        false));
+
+    private Opt<LanguageDetectorParams> opt;
+
+    LanguageDetectorParams(Opt<LanguageDetectorParams> opt) {
+      this.opt = opt;
+    }
+
+    @Override
+    public Opt<LanguageDetectorParams> getOption() {
+      return opt;
+    }
+
+  }
+}
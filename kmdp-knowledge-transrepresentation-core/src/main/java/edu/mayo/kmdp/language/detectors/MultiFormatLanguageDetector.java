@@ -57,6 +57,26 @@ public abstract class MultiFormatLanguageDetector<T>
         .or(() -> jsonDetector.detectString(str));
   }
 
+  @Override
+  protected Optional<SyntacticRepresentation> detectBinary(byte[] bytes,
+      LanguageDetectorConfig cfg) {
+    return xmlDetector.detectBinary(bytes, cfg)
+        .or(() -> jsonDetector.detectBinary(bytes, cfg));
+  }
+
+  @Override
+  protected Optional<SyntacticRepresentation> detectString(String str,
+      LanguageDetectorConfig cfg) {
+    return xmlDetector.detectString(str, cfg)
+        .or(() -> jsonDetector.detectString(str, cfg));
+  }
+
+  @Override
+  protected Optional<SyntacticRepresentation> detectAST(Object ast, LanguageDetectorConfig cfg) {
+    return xmlDetector.detectAST(ast, cfg)
+        .or(() -> jsonDetector.detectAST(ast, cfg));
+  }
+
   @Override
   protected Optional<SyntacticRepresentation> detectTree(Object tree) {
     return xmlDetector.detectTree(tree)
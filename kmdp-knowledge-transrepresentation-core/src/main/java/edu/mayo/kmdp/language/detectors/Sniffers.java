@@ -0,0 +1,255 @@
+/**
+ * Copyright © 2018 Mayo Clinic (RSTKNOWLEDGEMGMT@mayo.edu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mayo.kmdp.language.detectors;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.beans.Introspector;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlElementDecl;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlSchema;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Reads just enough of a serialized artifact to tell which (JAXB/Jackson bound) model it is an
+ * instance of: the root element of an XML document, or the first top-level property names of a
+ * JSON object.
+ */
+final class Sniffers {
+
+  /**
+   * Max number of top-level JSON properties inspected
+   */
+  static final int MAX_JSON_KEYS = 8;
+
+  private static final String DEFAULT = "##default";
+
+  private static final XMLInputFactory XML_FACTORY = newXMLInputFactory();
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private static final Map<Class<?>, Set<QName>> ROOT_ELEMENTS = new ConcurrentHashMap<>();
+  private static final Map<Class<?>, Set<String>> JSON_PROPERTIES = new ConcurrentHashMap<>();
+
+  private Sniffers() {
+    // static helpers
+  }
+
+  /**
+   * @return the name of the root element of an XML document, reading only the prolog and the
+   * root start tag
+   */
+  static Optional<QName> sniffRootElement(InputStream is) {
+    try {
+      return sniffRootElement(XML_FACTORY.createXMLStreamReader(is));
+    } catch (XMLStreamException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * @see #sniffRootElement(InputStream)
+   */
+  static Optional<QName> sniffRootElement(Reader reader) {
+    try {
+      return sniffRootElement(XML_FACTORY.createXMLStreamReader(reader));
+    } catch (XMLStreamException e) {
+      return Optional.empty();
+    }
+  }
+
+  static Optional<QName> sniffRootElement(Document dox) {
+    Element root = dox.getDocumentElement();
+    if (root == null) {
+      return Optional.empty();
+    }
+    String localName = root.getLocalName() != null ? root.getLocalName() : root.getTagName();
+    return Optional.of(new QName(
+        root.getNamespaceURI() != null ? root.getNamespaceURI() : "",
+        localName));
+  }
+
+  private static Optional<QName> sniffRootElement(XMLStreamReader reader)
+      throws XMLStreamException {
+    try {
+      while (reader.hasNext()) {
+        if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+          return Optional.of(reader.getName());
+        }
+      }
+      return Optional.empty();
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * @return the names of the first (up to {@link #MAX_JSON_KEYS}) properties of a JSON object,
+   * or empty if the content is not a JSON object
+   */
+  static Optional<List<String>> sniffTopLevelKeys(byte[] bytes) {
+    try {
+      return sniffTopLevelKeys(JSON_FACTORY.createParser(bytes));
+    } catch (IOException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * @see #sniffTopLevelKeys(byte[])
+   */
+  static Optional<List<String>> sniffTopLevelKeys(String str) {
+    try {
+      return sniffTopLevelKeys(JSON_FACTORY.createParser(str));
+    } catch (IOException e) {
+      return Optional.empty();
+    }
+  }
+
+  private static Optional<List<String>> sniffTopLevelKeys(JsonParser parser) throws IOException {
+    try (parser) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return Optional.empty();
+      }
+      List<String> keys = new ArrayList<>();
+      while (keys.size() < MAX_JSON_KEYS && parser.nextToken() == JsonToken.FIELD_NAME) {
+        keys.add(parser.getCurrentName());
+        parser.nextToken();
+        parser.skipChildren();
+      }
+      return Optional.of(keys);
+    }
+  }
+
+  /**
+   * @param root a JAXB bound class
+   * @return the qualified names of the global elements of the given type, as declared by the
+   * class itself, or by the ObjectFactory of its package. Empty if none can be determined.
+   */
+  static Set<QName> rootElements(Class<?> root) {
+    return ROOT_ELEMENTS.computeIfAbsent(root, Sniffers::introspectRootElements);
+  }
+
+  /**
+   * @param root a JAXB/Jackson bound class
+   * @return the names of the properties that can appear in the JSON serialization of the class
+   */
+  static Set<String> jsonProperties(Class<?> root) {
+    return JSON_PROPERTIES.computeIfAbsent(root, Sniffers::introspectJsonProperties);
+  }
+
+  private static Set<QName> introspectRootElements(Class<?> root) {
+    Set<QName> names = new HashSet<>();
+    XmlRootElement xre = root.getAnnotation(XmlRootElement.class);
+    if (xre != null) {
+      names.add(new QName(
+          namespace(xre.namespace(), root),
+          DEFAULT.equals(xre.name())
+              ? Introspector.decapitalize(root.getSimpleName())
+              : xre.name()));
+    }
+    try {
+      Class<?> factory = Class.forName(
+          root.getPackageName() + ".ObjectFactory", false, root.getClassLoader());
+      for (Method m : factory.getMethods()) {
+        XmlElementDecl decl = m.getAnnotation(XmlElementDecl.class);
+        if (decl != null
+            && decl.scope() == XmlElementDecl.GLOBAL.class
+            && isElementOf(m.getGenericReturnType(), root)) {
+          names.add(new QName(namespace(decl.namespace(), root), decl.name()));
+        }
+      }
+    } catch (ClassNotFoundException e) {
+      // no ObjectFactory
+    }
+    return Collections.unmodifiableSet(names);
+  }
+
+  private static boolean isElementOf(Type type, Class<?> root) {
+    if (!(type instanceof ParameterizedType)) {
+      return false;
+    }
+    ParameterizedType pt = (ParameterizedType) type;
+    return pt.getRawType() == JAXBElement.class
+        && pt.getActualTypeArguments()[0] == root;
+  }
+
+  private static String namespace(String declared, Class<?> root) {
+    if (!DEFAULT.equals(declared)) {
+      return declared;
+    }
+    XmlSchema schema = root.getPackage().getAnnotation(XmlSchema.class);
+    return schema != null ? schema.namespace() : "";
+  }
+
+  private static Set<String> introspectJsonProperties(Class<?> root) {
+    Set<String> names = new HashSet<>();
+    for (Class<?> k = root; k != null && k != Object.class; k = k.getSuperclass()) {
+      for (Field f : k.getDeclaredFields()) {
+        if (Modifier.isStatic(f.getModifiers())) {
+          continue;
+        }
+        names.add(f.getName());
+        XmlElement xe = f.getAnnotation(XmlElement.class);
+        if (xe != null && !DEFAULT.equals(xe.name())) {
+          names.add(xe.name());
+        }
+        XmlAttribute xa = f.getAnnotation(XmlAttribute.class);
+        if (xa != null && !DEFAULT.equals(xa.name())) {
+          names.add(xa.name());
+        }
+        JsonProperty jp = f.getAnnotation(JsonProperty.class);
+        if (jp != null && !jp.value().isEmpty()) {
+          names.add(jp.value());
+        }
+      }
+    }
+    return Collections.unmodifiableSet(names);
+  }
+
+  private static XMLInputFactory newXMLInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+    return factory;
+  }
+
+}
@@ -16,17 +16,28 @@ package edu.mayo.kmdp.language.detectors;
 import static org.omg.spec.api4kp._20200801.AbstractCarrier.rep;
 import static org.omg.spec.api4kp._20200801.taxonomy.krformat.SerializationFormatSeries.XML_1_1;
 
-import edu.mayo.kmdp.util.JaxbUtil;
+import edu.mayo.kmdp.language.common.jaxb.JaxbPool;
+import edu.mayo.kmdp.language.detectors.LanguageDetectorConfig.LanguageDetectorParams;
 import edu.mayo.kmdp.util.Util;
 import java.io.ByteArrayInputStream;
+import java.io.StringReader;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import javax.xml.namespace.QName;
 import org.omg.spec.api4kp._20200801.services.SyntacticRepresentation;
 import org.w3c.dom.Document;
 
 
+/**
+ * Detects artifacts that can be bound to a JAXB model. By default, the language is detected from
+ * the root element of the artifact, without parsing the rest of the document. The whole artifact
+ * is unmarshalled only if {@link LanguageDetectorParams#VALIDATE} is set, or if the root element
+ * of the model cannot be determined.
+ *
+ * @param <T> the JAXB bound class of the root element
+ */
 public abstract class XMLBasedLanguageDetector<T>
     extends AbstractLanguageDetector {
 
@@ -41,8 +52,16 @@ public abstract class XMLBasedLanguageDetector<T>
 
   @Override
   protected Optional<SyntacticRepresentation> detectBinary(byte[] bytes) {
-    if (Arrays.equals("<".getBytes(), Arrays.copyOfRange(bytes, 0, 1))
-        && JaxbUtil.unmarshall(root, root, new ByteArrayInputStream(bytes)).isPresent()) {
+    return detectBinary(bytes, new LanguageDetectorConfig());
+  }
+
+  @Override
+  protected Optional<SyntacticRepresentation> detectBinary(byte[] bytes,
+      LanguageDetectorConfig cfg) {
+    if (bytes.length > 0 && bytes[0] == '<'
+        && (validate(cfg)
+        ? JaxbPool.forContext(root).unmarshall(root, new ByteArrayInputStream(bytes)).isPresent()
+        : isRootElement(Sniffers.sniffRootElement(new ByteArrayInputStream(bytes))))) {
       return Optional.of(rep(getSupportedLanguage(), XML_1_1, Charset.defaultCharset()));
     } else {
       return Optional.empty();
@@ -51,8 +70,16 @@ public abstract class XMLBasedLanguageDetector<T>
 
   @Override
   protected Optional<SyntacticRepresentation> detectString(String str) {
+    return detectString(str, new LanguageDetectorConfig());
+  }
+
+  @Override
+  protected Optional<SyntacticRepresentation> detectString(String str,
+      LanguageDetectorConfig cfg) {
     if (!Util.isEmpty(str) && str.charAt(0) == '<'
-        && JaxbUtil.unmarshall(root, root, str).isPresent()) {
+        && (validate(cfg)
+        ? JaxbPool.forContext(root).unmarshall(root, str).isPresent()
+        : isRootElement(Sniffers.sniffRootElement(new StringReader(str))))) {
       return Optional.of(rep(getSupportedLanguage(), XML_1_1, Charset.defaultCharset()));
     } else {
       return Optional.empty();
@@ -61,8 +88,16 @@ public abstract class XMLBasedLanguageDetector<T>
 
   @Override
   protected Optional<SyntacticRepresentation> detectAST(Object dox) {
+    return detectAST(dox, new LanguageDetectorConfig());
+  }
+
+  @Override
+  protected Optional<SyntacticRepresentation> detectAST(Object dox,
+      LanguageDetectorConfig cfg) {
     if (dox instanceof Document
-        && JaxbUtil.unmarshall(root, root, (Document) dox).isPresent()) {
+        && (validate(cfg)
+        ? JaxbPool.forContext(root).unmarshall(root, (Document) dox).isPresent()
+        : isRootElement(Sniffers.sniffRootElement((Document) dox)))) {
       return Optional.of(rep(getSupportedLanguage(), XML_1_1));
     } else {
       return Optional.empty();
@@ -78,4 +113,19 @@ public abstract class XMLBasedLanguageDetector<T>
     }
   }
 
-}
\ No newline at end of file
+  /**
+   * @return true if the artifact must be unmarshalled, either because required, or because the
+   * root element cannot be sniffed
+   */
+  private boolean validate(LanguageDetectorConfig cfg) {
+    return Boolean.TRUE.equals(cfg.getTyped(LanguageDetectorParams.VALIDATE))
+        || Sniffers.rootElements(root).isEmpty();
+  }
+
+  private boolean isRootElement(Optional<QName> sniffed) {
+    return sniffed
+        .filter(qName -> Sniffers.rootElements(root).contains(qName))
+        .isPresent();
+  }
+
+}
@@ -0,0 +1,480 @@
+/**
+ * Copyright © 2018 Mayo Clinic (RSTKNOWLEDGEMGMT@mayo.edu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mayo.kmdp.language.detectors.owl2;
+
+import static org.omg.spec.api4kp._20200801.taxonomy.krprofile.KnowledgeRepresentationLanguageProfileSeries.OWL2_DL;
+import static org.omg.spec.api4kp._20200801.taxonomy.krprofile.KnowledgeRepresentationLanguageProfileSeries.OWL2_EL;
+import static org.omg.spec.api4kp._20200801.taxonomy.krprofile.KnowledgeRepresentationLanguageProfileSeries.OWL2_QL;
+import static org.omg.spec.api4kp._20200801.taxonomy.krprofile.KnowledgeRepresentationLanguageProfileSeries.OWL2_RL;
+import static org.semanticweb.owlapi.vocab.OWL2Datatype.OWL_RATIONAL;
+import static org.semanticweb.owlapi.vocab.OWL2Datatype.OWL_REAL;
+import static org.semanticweb.owlapi.vocab.OWL2Datatype.RDFS_LITERAL;
+import static org.semanticweb.owlapi.vocab.OWL2Datatype.RDF_PLAIN_LITERAL;
+import static org.semanticweb.owlapi.vocab.OWL2Datatype.RDF_XML_LITERAL;
+import static org.semanticweb.owlapi.vocab.OWL2Datatype.XSD_ANY_URI;
+import static org.semanticweb.owlapi.vocab.OWL2Datatype.XSD_BASE_64_BINARY;
+import static org.semanticweb.owlapi.vocab.OWL2Datatype.XSD_DATE_TIME;
+import static org.semanticweb.owlapi.vocab.OWL2Datatype.XSD_DATE_TIME_STAMP;
+import static org.semanticweb.owlapi.vocab.OWL2Datatype.XSD_DECIMAL;
+import static org.semanticweb.owlapi.vocab.OWL2Datatype.XSD_HEX_BINARY;
+import static org.semanticweb.owlapi.vocab.OWL2Datatype.XSD_INTEGER;
+import static org.semanticweb.owlapi.vocab.OWL2Datatype.XSD_NAME;
+import static org.semanticweb.owlapi.vocab.OWL2Datatype.XSD_NCNAME;
+import static org.semanticweb.owlapi.vocab.OWL2Datatype.XSD_NMTOKEN;
+import static org.semanticweb.owlapi.vocab.OWL2Datatype.XSD_NON_NEGATIVE_INTEGER;
+import static org.semanticweb.owlapi.vocab.OWL2Datatype.XSD_NORMALIZED_STRING;
+import static org.semanticweb.owlapi.vocab.OWL2Datatype.XSD_STRING;
+import static org.semanticweb.owlapi.vocab.OWL2Datatype.XSD_TOKEN;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.omg.spec.api4kp._20200801.taxonomy.krprofile.KnowledgeRepresentationLanguageProfile;
+import org.semanticweb.owlapi.model.OWLAsymmetricObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataCardinalityRestriction;
+import org.semanticweb.owlapi.model.OWLDataHasValue;
+import org.semanticweb.owlapi.model.OWLDataOneOf;
+import org.semanticweb.owlapi.model.OWLDataPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLDataPropertyDomainAxiom;
+import org.semanticweb.owlapi.model.OWLDataPropertyRangeAxiom;
+import org.semanticweb.owlapi.model.OWLDataRange;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLDatatypeDefinitionAxiom;
+import org.semanticweb.owlapi.model.OWLDifferentIndividualsAxiom;
+import org.semanticweb.owlapi.model.OWLDisjointClassesAxiom;
+import org.semanticweb.owlapi.model.OWLDisjointDataPropertiesAxiom;
+import org.semanticweb.owlapi.model.OWLDisjointObjectPropertiesAxiom;
+import org.semanticweb.owlapi.model.OWLDisjointUnionAxiom;
+import org.semanticweb.owlapi.model.OWLEquivalentClassesAxiom;
+import org.semanticweb.owlapi.model.OWLEquivalentObjectPropertiesAxiom;
+import org.semanticweb.owlapi.model.OWLFunctionalDataPropertyAxiom;
+import org.semanticweb.owlapi.model.OWLFunctionalObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.OWLHasKeyAxiom;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLInverseFunctionalObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.OWLInverseObjectPropertiesAxiom;
+import org.semanticweb.owlapi.model.OWLIrreflexiveObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNaryBooleanClassExpression;
+import org.semanticweb.owlapi.model.OWLNaryDataRange;
+import org.semanticweb.owlapi.model.OWLNegativeDataPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLNegativeObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLObjectCardinalityRestriction;
+import org.semanticweb.owlapi.model.OWLObjectComplementOf;
+import org.semanticweb.owlapi.model.OWLObjectHasSelf;
+import org.semanticweb.owlapi.model.OWLObjectHasValue;
+import org.semanticweb.owlapi.model.OWLObjectOneOf;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLObjectPropertyDomainAxiom;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLObjectPropertyRangeAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLQuantifiedDataRestriction;
+import org.semanticweb.owlapi.model.OWLQuantifiedObjectRestriction;
+import org.semanticweb.owlapi.model.OWLReflexiveObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.OWLSameIndividualAxiom;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.model.OWLSubObjectPropertyOfAxiom;
+import org.semanticweb.owlapi.model.OWLSubPropertyChainOfAxiom;
+import org.semanticweb.owlapi.model.OWLSymmetricObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.OWLTransitiveObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.SWRLRule;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.profiles.OWL2DLProfile;
+import org.semanticweb.owlapi.vocab.OWL2Datatype;
+
+/**
+ * Determines the OWL 2 profiles an ontology belongs to, walking its axioms (imports included) only
+ * once.
+ * <p>
+ * OWL 2 EL, QL and RL are subsets of OWL 2 DL, and OWL API checks each of them by first checking
+ * DL, then walking the ontology again against the profile-specific grammar. Here, the (global) DL
+ * restrictions are checked once, with {@link OWL2DLProfile}, and the ontology is then walked in a
+ * single pass against the grammars of EL, QL and RL at the same time, as defined in
+ * <a href="https://www.w3.org/TR/owl2-profiles/">OWL 2 Web Ontology Language Profiles</a>.
+ * <p>
+ * The walk is syntactic: EL's restriction on the ranges of the properties used in property chains
+ * is not checked.
+ */
+final class OWL2ProfileScanner {
+
+  private static final Set<OWL2Datatype> EL_QL_DATATYPES = EnumSet.of(
+      RDF_PLAIN_LITERAL, RDF_XML_LITERAL, RDFS_LITERAL, OWL_REAL, OWL_RATIONAL,
+      XSD_DECIMAL, XSD_INTEGER, XSD_NON_NEGATIVE_INTEGER,
+      XSD_STRING, XSD_NORMALIZED_STRING, XSD_TOKEN, XSD_NAME, XSD_NCNAME, XSD_NMTOKEN,
+      XSD_HEX_BINARY, XSD_BASE_64_BINARY, XSD_ANY_URI, XSD_DATE_TIME, XSD_DATE_TIME_STAMP);
+
+  private static final Set<OWL2Datatype> RL_DATATYPES = rlDatatypes();
+
+  private boolean el = true;
+  private boolean ql = true;
+  private boolean rl = true;
+
+  private OWL2ProfileScanner() {
+    // use scan
+  }
+
+  /**
+   * @param o         the ontology
+   * @param earlyExit if true, stops walking the axioms as soon as EL, QL and RL have all been
+   *                  ruled out
+   * @return the profiles (among RL, QL, EL and DL, in this order) of the ontology, or an empty
+   * set if the ontology is in OWL 2 Full
+   */
+  static Set<KnowledgeRepresentationLanguageProfile> scan(OWLOntology o, boolean earlyExit) {
+    if (!new OWL2DLProfile().checkOntology(o).isInProfile()) {
+      return Collections.emptySet();
+    }
+
+    OWL2ProfileScanner scanner = new OWL2ProfileScanner();
+    Iterator<OWLAxiom> axioms = o.axioms(Imports.INCLUDED).iterator();
+    while (axioms.hasNext() && !(earlyExit && scanner.isDLOnly())) {
+      scanner.axiom(axioms.next());
+    }
+
+    Set<KnowledgeRepresentationLanguageProfile> profiles = new LinkedHashSet<>();
+    if (scanner.rl) {
+      profiles.add(OWL2_RL);
+    }
+    if (scanner.ql) {
+      profiles.add(OWL2_QL);
+    }
+    if (scanner.el) {
+      profiles.add(OWL2_EL);
+    }
+    profiles.add(OWL2_DL);
+    return profiles;
+  }
+
+  private boolean isDLOnly() {
+    return !el && !ql && !rl;
+  }
+
+  private void axiom(OWLAxiom ax) {
+    if (ax instanceof OWLSubClassOfAxiom) {
+      OWLSubClassOfAxiom sub = (OWLSubClassOfAxiom) ax;
+      el &= isEL(sub.getSubClass()) && isEL(sub.getSuperClass());
+      ql &= isQLSub(sub.getSubClass()) && isQLSuper(sub.getSuperClass());
+      rl &= isRLSub(sub.getSubClass()) && isRLSuper(sub.getSuperClass());
+    } else if (ax instanceof OWLEquivalentClassesAxiom) {
+      ((OWLEquivalentClassesAxiom) ax).classExpressions().forEach(ce -> {
+        el &= isEL(ce);
+        ql &= isQLSub(ce);
+        rl &= isRLEquivalent(ce);
+      });
+    } else if (ax instanceof OWLDisjointClassesAxiom) {
+      ((OWLDisjointClassesAxiom) ax).classExpressions().forEach(ce -> {
+        el &= isEL(ce);
+        ql &= isQLSub(ce);
+        rl &= isRLSub(ce);
+      });
+    } else if (ax instanceof OWLClassAssertionAxiom) {
+      OWLClassAssertionAxiom ca = (OWLClassAssertionAxiom) ax;
+      el &= isEL(ca.getClassExpression());
+      ql &= !ca.getClassExpression().isAnonymous() && isNamed(ca.getIndividual());
+      rl &= isRLSuper(ca.getClassExpression());
+    } else if (ax instanceof OWLObjectPropertyDomainAxiom) {
+      OWLObjectPropertyDomainAxiom dom = (OWLObjectPropertyDomainAxiom) ax;
+      el &= isELProperty(dom.getProperty()) && isEL(dom.getDomain());
+      ql &= isQLSuper(dom.getDomain());
+      rl &= isRLSuper(dom.getDomain());
+    } else if (ax instanceof OWLObjectPropertyRangeAxiom) {
+      OWLObjectPropertyRangeAxiom rng = (OWLObjectPropertyRangeAxiom) ax;
+      el &= isELProperty(rng.getProperty()) && isEL(rng.getRange());
+      ql &= isQLSuper(rng.getRange());
+      rl &= isRLSuper(rng.getRange());
+    } else if (ax instanceof OWLDataPropertyDomainAxiom) {
+      OWLClassExpression domain = ((OWLDataPropertyDomainAxiom) ax).getDomain();
+      el &= isEL(domain);
+      ql &= isQLSuper(domain);
+      rl &= isRLSuper(domain);
+    } else if (ax instanceof OWLDataPropertyRangeAxiom) {
+      dataRange(((OWLDataPropertyRangeAxiom) ax).getRange());
+    } else if (ax instanceof OWLDatatypeDefinitionAxiom) {
+      dataRange(((OWLDatatypeDefinitionAxiom) ax).getDataRange());
+    } else if (ax instanceof OWLHasKeyAxiom) {
+      OWLHasKeyAxiom key = (OWLHasKeyAxiom) ax;
+      el &= isEL(key.getClassExpression()) && allELProperties(key.objectPropertyExpressions());
+      ql = false;
+      rl &= isRLSub(key.getClassExpression());
+    } else if (ax instanceof OWLDisjointUnionAxiom || ax instanceof SWRLRule) {
+      el = false;
+      ql = false;
+      rl = false;
+    } else if (ax instanceof OWLSubPropertyChainOfAxiom) {
+      el &= allELProperties(((OWLSubPropertyChainOfAxiom) ax).getPropertyChain().stream());
+      ql = false;
+    } else if (ax instanceof OWLTransitiveObjectPropertyAxiom) {
+      el &= isELProperty(((OWLTransitiveObjectPropertyAxiom) ax).getProperty());
+      ql = false;
+    } else if (ax instanceof OWLReflexiveObjectPropertyAxiom) {
+      el &= isELProperty(((OWLReflexiveObjectPropertyAxiom) ax).getProperty());
+      rl = false;
+    } else if (ax instanceof OWLFunctionalObjectPropertyAxiom
+        || ax instanceof OWLInverseFunctionalObjectPropertyAxiom) {
+      el = false;
+      ql = false;
+    } else if (ax instanceof OWLInverseObjectPropertiesAxiom
+        || ax instanceof OWLDisjointObjectPropertiesAxiom
+        || ax instanceof OWLSymmetricObjectPropertyAxiom
+        || ax instanceof OWLAsymmetricObjectPropertyAxiom
+        || ax instanceof OWLIrreflexiveObjectPropertyAxiom
+        || ax instanceof OWLDisjointDataPropertiesAxiom) {
+      el = false;
+    } else if (ax instanceof OWLSubObjectPropertyOfAxiom) {
+      OWLSubObjectPropertyOfAxiom sub = (OWLSubObjectPropertyOfAxiom) ax;
+      el &= isELProperty(sub.getSubProperty()) && isELProperty(sub.getSuperProperty());
+    } else if (ax instanceof OWLEquivalentObjectPropertiesAxiom) {
+      el &= allELProperties(((OWLEquivalentObjectPropertiesAxiom) ax).properties());
+    } else if (ax instanceof OWLFunctionalDataPropertyAxiom
+        || ax instanceof OWLSameIndividualAxiom
+        || ax instanceof OWLNegativeObjectPropertyAssertionAxiom) {
+      ql = false;
+    } else if (ax instanceof OWLNegativeDataPropertyAssertionAxiom) {
+      ql = false;
+      literal(((OWLNegativeDataPropertyAssertionAxiom) ax).getObject());
+    } else if (ax instanceof OWLObjectPropertyAssertionAxiom) {
+      OWLObjectPropertyAssertionAxiom opa = (OWLObjectPropertyAssertionAxiom) ax;
+      el &= isELProperty(opa.getProperty());
+      ql &= isNamed(opa.getSubject()) && isNamed(opa.getObject());
+    } else if (ax instanceof OWLDataPropertyAssertionAxiom) {
+      OWLDataPropertyAssertionAxiom dpa = (OWLDataPropertyAssertionAxiom) ax;
+      ql &= isNamed(dpa.getSubject());
+      literal(dpa.getObject());
+    } else if (ax instanceof OWLDifferentIndividualsAxiom) {
+      ql &= ((OWLDifferentIndividualsAxiom) ax).individuals()
+          .allMatch(OWL2ProfileScanner::isNamed);
+    }
+    // declarations, annotations, sub- and equivalent data properties are in all the profiles
+  }
+
+  private void dataRange(OWLDataRange dr) {
+    el &= isELDataRange(dr);
+    ql &= isQLRLDataRange(dr, EL_QL_DATATYPES);
+    rl &= isQLRLDataRange(dr, RL_DATATYPES);
+  }
+
+  private void literal(OWLLiteral lit) {
+    el &= isAllowed(lit.getDatatype(), EL_QL_DATATYPES);
+    ql &= isAllowed(lit.getDatatype(), EL_QL_DATATYPES);
+    rl &= isAllowed(lit.getDatatype(), RL_DATATYPES);
+  }
+
+  /*
+   * EL
+   */
+
+  private static boolean isEL(OWLClassExpression ce) {
+    switch (ce.getClassExpressionType()) {
+      case OWL_CLASS:
+        return true;
+      case OBJECT_INTERSECTION_OF:
+        return ((OWLNaryBooleanClassExpression) ce).operands()
+            .allMatch(OWL2ProfileScanner::isEL);
+      case OBJECT_SOME_VALUES_FROM:
+        OWLQuantifiedObjectRestriction some = (OWLQuantifiedObjectRestriction) ce;
+        return isELProperty(some.getProperty()) && isEL(some.getFiller());
+      case OBJECT_HAS_VALUE:
+        return isELProperty(((OWLObjectHasValue) ce).getProperty());
+      case OBJECT_HAS_SELF:
+        return isELProperty(((OWLObjectHasSelf) ce).getProperty());
+      case OBJECT_ONE_OF:
+        return ((OWLObjectOneOf) ce).individuals().count() == 1;
+      case DATA_SOME_VALUES_FROM:
+        return isELDataRange(((OWLQuantifiedDataRestriction) ce).getFiller());
+      case DATA_HAS_VALUE:
+        return isAllowed(((OWLDataHasValue) ce).getFiller().getDatatype(), EL_QL_DATATYPES);
+      default:
+        return false;
+    }
+  }
+
+  private static boolean isELProperty(OWLObjectPropertyExpression ope) {
+    return !ope.isAnonymous();
+  }
+
+  private static boolean allELProperties(Stream<OWLObjectPropertyExpression> opes) {
+    return opes.allMatch(OWL2ProfileScanner::isELProperty);
+  }
+
+  private static boolean isELDataRange(OWLDataRange dr) {
+    switch (dr.getDataRangeType()) {
+      case DATATYPE:
+        return isAllowed(dr.asOWLDatatype(), EL_QL_DATATYPES);
+      case DATA_INTERSECTION_OF:
+        return ((OWLNaryDataRange) dr).operands()
+            .allMatch(OWL2ProfileScanner::isELDataRange);
+      case DATA_ONE_OF:
+        OWLDataOneOf oneOf = (OWLDataOneOf) dr;
+        return oneOf.values().count() == 1
+            && oneOf.values().allMatch(v -> isAllowed(v.getDatatype(), EL_QL_DATATYPES));
+      default:
+        return false;
+    }
+  }
+
+  /*
+   * QL
+   */
+
+  private static boolean isQLSub(OWLClassExpression ce) {
+    switch (ce.getClassExpressionType()) {
+      case OWL_CLASS:
+        return true;
+      case OBJECT_SOME_VALUES_FROM:
+        return ((OWLQuantifiedObjectRestriction) ce).getFiller().isOWLThing();
+      case DATA_SOME_VALUES_FROM:
+        return isQLRLDataRange(((OWLQuantifiedDataRestriction) ce).getFiller(),
+            EL_QL_DATATYPES);
+      default:
+        return false;
+    }
+  }
+
+  private static boolean isQLSuper(OWLClassExpression ce) {
+    switch (ce.getClassExpressionType()) {
+      case OWL_CLASS:
+        return true;
+      case OBJECT_INTERSECTION_OF:
+        return ((OWLNaryBooleanClassExpression) ce).operands()
+            .allMatch(OWL2ProfileScanner::isQLSuper);
+      case OBJECT_COMPLEMENT_OF:
+        return isQLSub(((OWLObjectComplementOf) ce).getOperand());
+      case OBJECT_SOME_VALUES_FROM:
+        return !((OWLQuantifiedObjectRestriction) ce).getFiller().isAnonymous();
+      case DATA_SOME_VALUES_FROM:
+        return isQLRLDataRange(((OWLQuantifiedDataRestriction) ce).getFiller(),
+            EL_QL_DATATYPES);
+      default:
+        return false;
+    }
+  }
+
+  /*
+   * RL
+   */
+
+  private static boolean isRLSub(OWLClassExpression ce) {
+    switch (ce.getClassExpressionType()) {
+      case OWL_CLASS:
+        return !ce.isOWLThing();
+      case OBJECT_INTERSECTION_OF:
+      case OBJECT_UNION_OF:
+        return ((OWLNaryBooleanClassExpression) ce).operands()
+            .allMatch(OWL2ProfileScanner::isRLSub);
+      case OBJECT_ONE_OF:
+      case OBJECT_HAS_VALUE:
+        return true;
+      case OBJECT_SOME_VALUES_FROM:
+        OWLClassExpression filler = ((OWLQuantifiedObjectRestriction) ce).getFiller();
+        return filler.isOWLThing() || isRLSub(filler);
+      case DATA_SOME_VALUES_FROM:
+        return isQLRLDataRange(((OWLQuantifiedDataRestriction) ce).getFiller(), RL_DATATYPES);
+      case DATA_HAS_VALUE:
+        return isAllowed(((OWLDataHasValue) ce).getFiller().getDatatype(), RL_DATATYPES);
+      default:
+        return false;
+    }
+  }
+
+  private static boolean isRLSuper(OWLClassExpression ce) {
+    switch (ce.getClassExpressionType()) {
+      case OWL_CLASS:
+        return !ce.isOWLThing();
+      case OBJECT_INTERSECTION_OF:
+        return ((OWLNaryBooleanClassExpression) ce).operands()
+            .allMatch(OWL2ProfileScanner::isRLSuper);
+      case OBJECT_COMPLEMENT_OF:
+        return isRLSub(((OWLObjectComplementOf) ce).getOperand());
+      case OBJECT_ALL_VALUES_FROM:
+        return isRLSuper(((OWLQuantifiedObjectRestriction) ce).getFiller());
+      case OBJECT_HAS_VALUE:
+        return true;
+      case OBJECT_MAX_CARDINALITY:
+        OWLObjectCardinalityRestriction max = (OWLObjectCardinalityRestriction) ce;
+        return max.getCardinality() <= 1
+            && (max.getFiller().isOWLThing() || isRLSub(max.getFiller()));
+      case DATA_ALL_VALUES_FROM:
+        return isQLRLDataRange(((OWLQuantifiedDataRestriction) ce).getFiller(), RL_DATATYPES);
+      case DATA_HAS_VALUE:
+        return isAllowed(((OWLDataHasValue) ce).getFiller().getDatatype(), RL_DATATYPES);
+      case DATA_MAX_CARDINALITY:
+        OWLDataCardinalityRestriction dmax = (OWLDataCardinalityRestriction) ce;
+        return dmax.getCardinality() <= 1
+            && isQLRLDataRange(dmax.getFiller(), RL_DATATYPES);
+      default:
+        return false;
+    }
+  }
+
+  private static boolean isRLEquivalent(OWLClassExpression ce) {
+    switch (ce.getClassExpressionType()) {
+      case OWL_CLASS:
+        return !ce.isOWLThing();
+      case OBJECT_INTERSECTION_OF:
+        return ((OWLNaryBooleanClassExpression) ce).operands()
+            .allMatch(OWL2ProfileScanner::isRLEquivalent);
+      case OBJECT_HAS_VALUE:
+        return true;
+      case DATA_HAS_VALUE:
+        return isAllowed(((OWLDataHasValue) ce).getFiller().getDatatype(), RL_DATATYPES);
+      default:
+        return false;
+    }
+  }
+
+  /*
+   * Common
+   */
+
+  private static boolean isQLRLDataRange(OWLDataRange dr, Set<OWL2Datatype> datatypes) {
+    switch (dr.getDataRangeType()) {
+      case DATATYPE:
+        return isAllowed(dr.asOWLDatatype(), datatypes);
+      case DATA_INTERSECTION_OF:
+        return ((OWLNaryDataRange) dr).operands()
+            .allMatch(op -> isQLRLDataRange(op, datatypes));
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Datatypes that are not built in must be defined in the ontology (which OWL 2 DL requires),
+   * and are allowed in all the profiles
+   */
+  private static boolean isAllowed(OWLDatatype dt, Set<OWL2Datatype> datatypes) {
+    return !dt.isBuiltIn() || datatypes.contains(dt.getBuiltInDatatype());
+  }
+
+  private static boolean isNamed(OWLIndividual ind) {
+    return ind.isNamed();
+  }
+
+  private static Set<OWL2Datatype> rlDatatypes() {
+    Set<OWL2Datatype> rl = EnumSet.allOf(OWL2Datatype.class);
+    rl.remove(OWL_REAL);
+    rl.remove(OWL_RATIONAL);
+    return Collections.unmodifiableSet(rl);
+  }
+
+}
@@ -20,11 +20,7 @@ import static org.omg.spec.api4kp._20200801.taxonomy.knowledgeoperation.Knowledg
 import static org.omg.spec.api4kp._20200801.taxonomy.krformat.SerializationFormatSeries.TXT;
 import static org.omg.spec.api4kp._20200801.taxonomy.krformat.SerializationFormatSeries.XML_1_1;
 import static org.omg.spec.api4kp._20200801.taxonomy.krlanguage.KnowledgeRepresentationLanguageSeries.OWL_2;
-import static org.omg.spec.api4kp._20200801.taxonomy.krprofile.KnowledgeRepresentationLanguageProfileSeries.OWL2_DL;
-import static org.omg.spec.api4kp._20200801.taxonomy.krprofile.KnowledgeRepresentationLanguageProfileSeries.OWL2_EL;
 import static org.omg.spec.api4kp._20200801.taxonomy.krprofile.KnowledgeRepresentationLanguageProfileSeries.OWL2_Full;
-import static org.omg.spec.api4kp._20200801.taxonomy.krprofile.KnowledgeRepresentationLanguageProfileSeries.OWL2_QL;
-import static org.omg.spec.api4kp._20200801.taxonomy.krprofile.KnowledgeRepresentationLanguageProfileSeries.OWL2_RL;
 import static org.omg.spec.api4kp._20200801.taxonomy.krserialization.KnowledgeRepresentationLanguageSerializationSeries.OWL_Functional_Syntax;
 import static org.omg.spec.api4kp._20200801.taxonomy.krserialization.KnowledgeRepresentationLanguageSerializationSeries.OWL_Manchester_Syntax;
 import static org.omg.spec.api4kp._20200801.taxonomy.krserialization.KnowledgeRepresentationLanguageSerializationSeries.OWL_XML_Serialization;
@@ -33,16 +29,14 @@ import static org.omg.spec.api4kp._20200801.taxonomy.krserialization.KnowledgeRe
 import static org.omg.spec.api4kp._20200801.taxonomy.parsinglevel.ParsingLevelSeries.asEnum;
 
 import edu.mayo.kmdp.language.DetectApiOperator;
-import edu.mayo.kmdp.language.common.owl2.CatalogBasedIRIMapper;
+import edu.mayo.kmdp.language.common.owl2.OntologyManagerPool;
 import edu.mayo.kmdp.language.detectors.AbstractLanguageDetector;
 import edu.mayo.kmdp.language.detectors.owl2.OWLDetectorConfig.DetectorParams;
-import edu.mayo.kmdp.util.Util;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -62,22 +56,15 @@ import org.omg.spec.api4kp._20200801.taxonomy.krprofile.KnowledgeRepresentationL
 import org.omg.spec.api4kp._20200801.taxonomy.krserialization.KnowledgeRepresentationLanguageSerialization;
 import org.omg.spec.api4kp._20200801.taxonomy.lexicon.Lexicon;
 import org.omg.spec.api4kp._20200801.taxonomy.lexicon.LexiconSeries;
-import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.formats.FunctionalSyntaxDocumentFormat;
 import org.semanticweb.owlapi.formats.ManchesterSyntaxDocumentFormat;
 import org.semanticweb.owlapi.formats.OWLXMLDocumentFormat;
 import org.semanticweb.owlapi.formats.RDFXMLDocumentFormat;
 import org.semanticweb.owlapi.formats.TurtleDocumentFormat;
 import org.semanticweb.owlapi.model.IRI;
-import org.semanticweb.owlapi.model.MissingImportHandlingStrategy;
 import org.semanticweb.owlapi.model.OWLDocumentFormat;
 import org.semanticweb.owlapi.model.OWLOntology;
-import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
 import org.semanticweb.owlapi.model.OWLOntologyManager;
-import org.semanticweb.owlapi.profiles.OWL2DLProfile;
-import org.semanticweb.owlapi.profiles.OWL2ELProfile;
-import org.semanticweb.owlapi.profiles.OWL2QLProfile;
-import org.semanticweb.owlapi.profiles.OWL2RLProfile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -93,6 +80,8 @@ public class OWLDetector
 
   protected static final Logger logger = LoggerFactory.getLogger(OWLDetector.class);
 
+  private static final OntologyManagerPool managers = new OntologyManagerPool();
+
   public OWLDetector() {
     setId(SemanticIdentifier.newId(id,version));
   }
@@ -132,15 +121,18 @@ public class OWLDetector
 
   @Override
   protected Optional<SyntacticRepresentation> detectBinary(byte[] bytes) {
-    return loadOntology(new ByteArrayInputStream(bytes))
-        .map(o -> rep(
-            OWL_2,
-            detectProfile(o),
-            detectSerialization(o),
-            detectFormat(o),
-            Charset.defaultCharset(),
-            Encodings.DEFAULT,
-            detectLexicon(o)));
+    OWLDetectorConfig params = new OWLDetectorConfig();
+    // the ontology is only needed while the representation is detected
+    return managers.withManager(params.getTyped(DetectorParams.CATALOG),
+        manager -> loadOntology(manager, new ByteArrayInputStream(bytes))
+            .map(o -> rep(
+                OWL_2,
+                detectProfile(o),
+                detectSerialization(o),
+                detectFormat(o),
+                Charset.defaultCharset(),
+                Encodings.DEFAULT,
+                detectLexicon(o))));
   }
 
   @Override
@@ -202,20 +194,14 @@ public class OWLDetector
     return lexica;
   }
 
+  /**
+   * @return the most specific profile of the ontology, among (in order of preference) RL, QL, EL,
+   * DL and Full
+   */
   protected KnowledgeRepresentationLanguageProfile detectProfile(OWLOntology o) {
-    if (new OWL2RLProfile().checkOntology(o).isInProfile()) {
-      return OWL2_RL;
-    }
-    if (new OWL2QLProfile().checkOntology(o).isInProfile()) {
-      return OWL2_QL;
-    }
-    if (new OWL2ELProfile().checkOntology(o).isInProfile()) {
-      return OWL2_EL;
-    }
-    if (new OWL2DLProfile().checkOntology(o).isInProfile()) {
-      return OWL2_DL;
-    }
-    return OWL2_Full;
+    return OWL2ProfileScanner.scan(o, true).stream()
+        .findFirst()
+        .orElse(OWL2_Full);
   }
 
   protected Optional<OWLOntology> loadOntology(InputStream is) {
@@ -223,24 +209,11 @@ public class OWLDetector
   }
 
   protected Optional<OWLOntology> loadOntology(InputStream is, OWLDetectorConfig params) {
-    try {
-      OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
-      OWLOntologyLoaderConfiguration loaderCfg = new OWLOntologyLoaderConfiguration() {
-        @Override
-        public boolean isIgnoredImport(IRI iri) {
-          return true;
-        }
-
-        @Override
-        public MissingImportHandlingStrategy getMissingImportHandlingStrategy() {
-          return MissingImportHandlingStrategy.SILENT;
-        }
-      };
-
-      manager.setOntologyLoaderConfiguration(loaderCfg);
-
-      configureCatalog(manager, params);
+    return loadOntology(managers.newManager(params.getTyped(DetectorParams.CATALOG)), is);
+  }
 
+  private Optional<OWLOntology> loadOntology(OWLOntologyManager manager, InputStream is) {
+    try {
       if (is.markSupported()) {
         is.mark(Integer.MAX_VALUE);
       }
@@ -258,16 +231,6 @@ public class OWLDetector
     }
   }
 
-  private void configureCatalog(OWLOntologyManager manager, OWLDetectorConfig params) {
-    String catalog = params.getTyped(DetectorParams.CATALOG);
-    if (!Util.isEmpty(catalog)) {
-      manager.setIRIMappers(Collections.singleton(
-          new CatalogBasedIRIMapper(catalog)
-      ));
-    }
-
-  }
-
   @Override
   public KnowledgeRepresentationLanguage getSupportedLanguage() {
     return OWL_2;
@@ -23,6 +23,10 @@ import static org.omg.spec.api4kp._20200801.taxonomy.parsinglevel.ParsingLevelSe
 
 import edu.mayo.kmdp.language.DeserializeApiOperator;
 import edu.mayo.kmdp.util.PropertiesUtil;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.Base64;
@@ -44,7 +48,7 @@ import org.omg.spec.api4kp._20200801.taxonomy.parsinglevel.ParsingLevel;
  * Language and its serializations
  */
 public abstract class AbstractDeSerializeOperator
-    implements DeserializeApiOperator, Lifter, Lowerer {
+    implements DeserializeApiOperator, Lifter, Lowerer, StreamingLowerer {
 
   private static final Charset CHARSET = Charset.defaultCharset();
 
@@ -99,6 +103,24 @@ public abstract class AbstractDeSerializeOperator
   }
 
 
+  @Override
+  public Answer<SyntacticRepresentation> applyLowerTo(KnowledgeCarrier knowledgeCarrier,
+      String into, String properties, OutputStream out) {
+    try {
+      SyntacticRepresentation tgtRep = ModelMIMECoder.decode(into)
+          .orElse(inferRepresentationForLevel(getSupportedRepresentations(),
+              Encoded_Knowledge_Expression));
+      checkLowerConsistency(knowledgeCarrier, Encoded_Knowledge_Expression, tgtRep);
+      if (!lowerTo(knowledgeCarrier, tgtRep, out, PropertiesUtil.parseProperties(properties))) {
+        return Answer.failed();
+      }
+      out.flush();
+      return Answer.of(tgtRep);
+    } catch (UnsupportedOperationException | IOException e) {
+      return Answer.failed(e);
+    }
+  }
+
   public Optional<KnowledgeCarrier> lift(KnowledgeCarrier sourceArtifact,
       ParsingLevel into, SyntacticRepresentation targetRepresentation, Properties config) {
     checkLiftConsistency(sourceArtifact, into, targetRepresentation);
@@ -166,6 +188,72 @@ public abstract class AbstractDeSerializeOperator
   }
 
 
+  /**
+   * Writes the encoded expression of an artifact to a stream, at any level. Subclasses should
+   * override {@link #writeAST} and {@link #writeDoc} to write their models directly to the stream:
+   * the default implementations serialize the model into an intermediate String.
+   *
+   * @return true if the expression has been written
+   */
+  protected boolean lowerTo(KnowledgeCarrier sourceArtifact, SyntacticRepresentation into,
+      OutputStream out, Properties config) throws IOException {
+    switch (asEnum(sourceArtifact.getLevel())) {
+      case Abstract_Knowledge_Expression:
+        return writeAST(sourceArtifact, into, out, config);
+      case Concrete_Knowledge_Expression:
+        return writeDoc(sourceArtifact, into, out, config);
+      case Serialized_Knowledge_Expression:
+        return writeSerialized(sourceArtifact, into, out);
+      case Encoded_Knowledge_Expression:
+      default:
+        Optional<byte[]> bytes = sourceArtifact.asBinary();
+        if (bytes.isPresent()) {
+          out.write(bytes.get());
+        }
+        return bytes.isPresent();
+    }
+  }
+
+  /**
+   * Writes an abstract expression to a stream
+   *
+   * @see #innerExternalize(KnowledgeCarrier, SyntacticRepresentation, Properties)
+   */
+  protected boolean writeAST(KnowledgeCarrier ast, SyntacticRepresentation into,
+      OutputStream out, Properties config) throws IOException {
+    Optional<KnowledgeCarrier> serialized = innerExternalize(ast, into, config);
+    return serialized.isPresent() && writeSerialized(serialized.get(), into, out);
+  }
+
+  /**
+   * Writes a concrete expression to a stream
+   *
+   * @see #innerSerialize(KnowledgeCarrier, SyntacticRepresentation, Properties)
+   */
+  protected boolean writeDoc(KnowledgeCarrier doc, SyntacticRepresentation into,
+      OutputStream out, Properties config) throws IOException {
+    Optional<KnowledgeCarrier> serialized = innerSerialize(doc, into, config);
+    return serialized.isPresent() && writeSerialized(serialized.get(), into, out);
+  }
+
+  private boolean writeSerialized(KnowledgeCarrier serialized, SyntacticRepresentation into,
+      OutputStream out) throws IOException {
+    Optional<String> str = serialized.asString();
+    if (str.isEmpty()) {
+      return false;
+    }
+    Writer writer = new OutputStreamWriter(out, getCharset(into));
+    writer.write(str.get());
+    writer.flush();
+    return true;
+  }
+
+  protected Charset getCharset(SyntacticRepresentation rep) {
+    return rep != null && rep.getCharset() != null
+        ? Charset.forName(rep.getCharset())
+        : getDefaultCharset();
+  }
+
   protected void checkLiftConsistency(KnowledgeCarrier sourceArtifact, ParsingLevel into,
       SyntacticRepresentation targetRepresentation) {
     checkConsistency(sourceArtifact, into, targetRepresentation,
@@ -22,11 +22,14 @@ import static org.omg.spec.api4kp._20200801.taxonomy.knowledgeoperation.Knowledg
 
 import edu.mayo.kmdp.util.StreamUtil;
 import edu.mayo.kmdp.util.TriFunction;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import javax.inject.Named;
 import org.omg.spec.api4kp._20200801.services.KPOperation;
 import org.omg.spec.api4kp._20200801.services.KnowledgeCarrier;
@@ -168,6 +171,36 @@ public abstract class MultiFormatParser<T> extends AbstractDeSerializeOperator {
         config);
   }
 
+  @Override
+  protected boolean writeAST(KnowledgeCarrier ast, SyntacticRepresentation into,
+      OutputStream out, Properties config) throws IOException {
+    for (AbstractDeSerializeOperator parser : lowerCandidates(ast, into)) {
+      if (parser.writeAST(ast, into, out, config)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  protected boolean writeDoc(KnowledgeCarrier doc, SyntacticRepresentation into,
+      OutputStream out, Properties config) throws IOException {
+    for (AbstractDeSerializeOperator parser : lowerCandidates(doc, into)) {
+      if (parser.writeDoc(doc, into, out, config)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private List<AbstractDeSerializeOperator> lowerCandidates(KnowledgeCarrier source,
+      SyntacticRepresentation into) {
+    return parserSet.stream()
+        .filter(parser -> isLowerCandidate(parser, source.getRepresentation())
+            && checkTargetCompatibility(into, parser.getDefaultFormat()))
+        .collect(Collectors.toList());
+  }
+
   @Override
   protected SerializationFormat getDefaultFormat() {
     return null;
@@ -0,0 +1,56 @@
+/**
+ * Copyright © 2018 Mayo Clinic (RSTKNOWLEDGEMGMT@mayo.edu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mayo.kmdp.language.parsers;
+
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import org.omg.spec.api4kp._20200801.Answer;
+import org.omg.spec.api4kp._20200801.services.KnowledgeCarrier;
+import org.omg.spec.api4kp._20200801.services.SyntacticRepresentation;
+
+/**
+ * Lowers artifacts straight into a caller-provided stream, at the encoded level, without
+ * materializing the intermediate serialized (String) and encoded (byte[]) expressions.
+ * <p>
+ * The stream is written to, and flushed once the expression has been written, but not closed: it
+ * is owned by the caller, and can be e.g. the body of an HTTP response, or the content of an
+ * artifact repository entry. The expression is not buffered as a whole, so a lowering that fails
+ * partway through may leave partial output in the stream, which the caller should then discard.
+ */
+public interface StreamingLowerer {
+
+  /**
+   * Lowers an artifact, writing its encoded expression to a stream
+   *
+   * @param knowledgeCarrier the artifact to be lowered
+   * @param xAccept          the requested representation (optional)
+   * @param props            the lowering configuration (optional)
+   * @param out              the stream
+   * @return the representation of the expression written to the stream
+   */
+  Answer<SyntacticRepresentation> applyLowerTo(KnowledgeCarrier knowledgeCarrier,
+      String xAccept, String props, OutputStream out);
+
+  /**
+   * @see #applyLowerTo(KnowledgeCarrier, String, String, OutputStream)
+   */
+  default Answer<SyntacticRepresentation> applyLowerTo(KnowledgeCarrier knowledgeCarrier,
+      String xAccept, String props, WritableByteChannel channel) {
+    return applyLowerTo(knowledgeCarrier, xAccept, props, Channels.newOutputStream(channel));
+  }
+
+}
@@ -20,10 +20,13 @@ import static org.omg.spec.api4kp._20200801.taxonomy.parsinglevel.ParsingLevelSe
 import static org.omg.spec.api4kp._20200801.taxonomy.parsinglevel.ParsingLevelSeries.Encoded_Knowledge_Expression;
 import static org.omg.spec.api4kp._20200801.taxonomy.parsinglevel.ParsingLevelSeries.Serialized_Knowledge_Expression;
 
+import edu.mayo.kmdp.language.common.jaxb.JaxbPool;
 import edu.mayo.kmdp.util.JaxbUtil;
 import edu.mayo.kmdp.util.Util;
 import edu.mayo.kmdp.util.XMLUtil;
 import edu.mayo.kmdp.util.properties.jaxb.JaxbConfig;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -33,7 +36,14 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.function.Function;
+import javax.xml.XMLConstants;
 import javax.xml.bind.JAXBElement;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
 import org.omg.spec.api4kp._20200801.AbstractCarrier.Encodings;
 import org.omg.spec.api4kp._20200801.services.KnowledgeCarrier;
 import org.omg.spec.api4kp._20200801.services.SyntacticRepresentation;
@@ -47,6 +57,8 @@ public abstract class XMLBasedLanguageParser<T> extends AbstractDeSerializeOpera
   private Class<T> root;
   protected Function<T, JAXBElement<? super T>> mapper;
 
+  private JaxbPool jaxbPool;
+
   protected XMLBasedLanguageParser() {
     this(Collections.emptyList());
   }
@@ -73,6 +85,16 @@ public abstract class XMLBasedLanguageParser<T> extends AbstractDeSerializeOpera
     return classContext;
   }
 
+  /**
+   * @return the (shared) JAXB context and (un)marshallers for the class context of this parser
+   */
+  protected JaxbPool getJaxbPool() {
+    if (jaxbPool == null) {
+      jaxbPool = JaxbPool.forContext(getClassContext());
+    }
+    return jaxbPool;
+  }
+
   @Override
   public Optional<KnowledgeCarrier> innerDeserialize(KnowledgeCarrier carrier, Properties config) {
     return carrier.asBinary()
@@ -83,14 +105,14 @@ public abstract class XMLBasedLanguageParser<T> extends AbstractDeSerializeOpera
   @Override
   public Optional<KnowledgeCarrier> innerParse(KnowledgeCarrier carrier, Properties config) {
     return carrier.asString()
-        .flatMap(str -> JaxbUtil.unmarshall(getClassContext(), root, str))
+        .flatMap(str -> getJaxbPool().unmarshall(root, str))
         .map(ast -> newVerticalCarrier(carrier, Abstract_Knowledge_Expression, null, ast));
   }
 
   @Override
   public Optional<KnowledgeCarrier> innerAbstract(KnowledgeCarrier carrier, Properties config) {
     return carrier.as(Document.class)
-        .flatMap(dox -> JaxbUtil.unmarshall(getClassContext(), root, dox))
+        .flatMap(dox -> getJaxbPool().unmarshall(root, dox))
         .map(ast -> newVerticalCarrier(carrier, Abstract_Knowledge_Expression, null, ast));
   }
 
@@ -107,6 +129,11 @@ public abstract class XMLBasedLanguageParser<T> extends AbstractDeSerializeOpera
     if (into.getFormat() != null && ! into.getFormat().sameAs(XML_1_1)) {
       return Optional.empty();
     }
+    if (isDefault(config)) {
+      return carrier.as(root)
+          .flatMap(obj -> getJaxbPool().marshallToString(wrap(obj)))
+          .map(str -> newVerticalCarrier(carrier, Serialized_Knowledge_Expression, into, str));
+    }
     return carrier.as(root)
         .flatMap(obj -> JaxbUtil.marshall(getClassContext(), obj, mapper, new JaxbConfig().from(config)))
         .flatMap(Util::asString)
@@ -125,12 +152,60 @@ public abstract class XMLBasedLanguageParser<T> extends AbstractDeSerializeOpera
   @Override
   public Optional<KnowledgeCarrier> innerConcretize(KnowledgeCarrier carrier,
       SyntacticRepresentation into, Properties config) {
+    if (isDefault(config)) {
+      return carrier.as(root)
+          .flatMap(obj -> getJaxbPool().marshallDox(wrap(obj)))
+          .map(dox -> newVerticalCarrier(carrier, Concrete_Knowledge_Expression, into, dox));
+    }
     return carrier.as(root)
         .flatMap(obj -> JaxbUtil.marshallDox(getClassContext(), obj, mapper, new JaxbConfig().from(config)))
         .map(dox -> newVerticalCarrier(carrier, Concrete_Knowledge_Expression, into, dox));
   }
 
 
+  @Override
+  protected boolean writeAST(KnowledgeCarrier ast, SyntacticRepresentation into,
+      OutputStream out, Properties config) throws IOException {
+    if (into.getFormat() != null && !into.getFormat().sameAs(XML_1_1)) {
+      return false;
+    }
+    Optional<T> obj = ast.as(root);
+    return obj.isPresent()
+        && getJaxbPool().marshall(wrap(obj.get()), out, getCharset(into));
+  }
+
+  private Object wrap(T obj) {
+    return mapper != null ? mapper.apply(obj) : obj;
+  }
+
+  /**
+   * @return true if no (JAXB) configuration is given, and the pooled, default-configured
+   * marshallers can be used
+   */
+  private boolean isDefault(Properties config) {
+    return config == null || config.isEmpty();
+  }
+
+  @Override
+  protected boolean writeDoc(KnowledgeCarrier doc, SyntacticRepresentation into,
+      OutputStream out, Properties config) throws IOException {
+    Optional<Document> dox = doc.as(Document.class);
+    if (dox.isEmpty()) {
+      return false;
+    }
+    try {
+      TransformerFactory factory = TransformerFactory.newInstance();
+      factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+      factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_STYLESHEET, "");
+      Transformer transformer = factory.newTransformer();
+      transformer.setOutputProperty(OutputKeys.ENCODING, getCharset(into).name());
+      transformer.transform(new DOMSource(dox.get()), new StreamResult(out));
+      return true;
+    } catch (TransformerException e) {
+      throw new IOException(e);
+    }
+  }
+
   @Override
   public List<SyntacticRepresentation> getSupportedRepresentations() {
     return Arrays.asList(
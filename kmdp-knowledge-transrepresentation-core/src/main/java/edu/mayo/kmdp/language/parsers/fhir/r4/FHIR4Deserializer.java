@@ -12,7 +12,12 @@ import static org.omg.spec.api4kp._20200801.taxonomy.parsinglevel.ParsingLevelSe
 import static org.omg.spec.api4kp._20200801.taxonomy.parsinglevel.ParsingLevelSeries.Serialized_Knowledge_Expression;
 
 import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IParser;
 import edu.mayo.kmdp.language.parsers.AbstractDeSerializeOperator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -112,6 +117,30 @@ public class FHIR4Deserializer extends AbstractDeSerializeOperator {
     }
   }
 
+  @Override
+  protected boolean writeAST(KnowledgeCarrier ast, SyntacticRepresentation into,
+      OutputStream out, Properties config) throws IOException {
+    IParser parser;
+    switch (asEnum(into.getFormat())) {
+      case JSON:
+        parser = fhirContext.newJsonParser();
+        break;
+      case XML_1_1:
+        parser = fhirContext.newXmlParser();
+        break;
+      default:
+        return false;
+    }
+    Optional<Resource> resource = ast.as(Resource.class);
+    if (resource.isEmpty()) {
+      return false;
+    }
+    Writer writer = new OutputStreamWriter(out, getCharset(into));
+    parser.encodeResourceToWriter(resource.get(), writer);
+    writer.flush();
+    return true;
+  }
+
   @Override
   public Optional<KnowledgeCarrier> innerSerialize(KnowledgeCarrier carrier,
       SyntacticRepresentation into, Properties properties) {
@@ -37,6 +37,8 @@ import edu.mayo.kmdp.language.parsers.AbstractDeSerializeOperator;
 import edu.mayo.kmdp.language.parsers.owl2.OWLParser.OWLParserConfiguration.OWLParserParams;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -155,6 +157,22 @@ public class OWLParser extends AbstractDeSerializeOperator {
     }
   }
 
+  @Override
+  protected boolean writeAST(KnowledgeCarrier ast, SyntacticRepresentation into,
+      OutputStream out, Properties config) throws IOException {
+    Optional<OWLOntology> onto = ast.as(OWLOntology.class);
+    if (onto.isEmpty()) {
+      return false;
+    }
+    try {
+      OWLManager.createOWLOntologyManager()
+          .saveOntology(onto.get(), new RDFXMLDocumentFormat(), out);
+      return true;
+    } catch (OWLOntologyStorageException e) {
+      throw new IOException(e);
+    }
+  }
+
   @Override
   public Optional<KnowledgeCarrier> innerSerialize(KnowledgeCarrier carrier,
       SyntacticRepresentation into, Properties properties) {
@@ -27,20 +27,42 @@ import static org.omg.spec.api4kp._20200801.taxonomy.parsinglevel.ParsingLevelSe
 import static org.omg.spec.api4kp._20200801.taxonomy.parsinglevel.ParsingLevelSeries.Encoded_Knowledge_Expression;
 import static org.omg.spec.api4kp._20200801.taxonomy.parsinglevel.ParsingLevelSeries.Serialized_Knowledge_Expression;
 
+import edu.mayo.kmdp.ConfigProperties;
+import edu.mayo.kmdp.Opt;
+import edu.mayo.kmdp.Option;
 import edu.mayo.kmdp.language.parsers.AbstractDeSerializeOperator;
 import edu.mayo.kmdp.language.parsers.Lifter;
+import edu.mayo.kmdp.language.parsers.rdf.JenaRdfParser.JenaRdfParserConfiguration.JenaRdfParserParams;
+import edu.mayo.kmdp.util.PropertiesUtil;
+import edu.mayo.kmdp.util.Util;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.function.Predicate;
 import javax.inject.Named;
+import org.apache.jena.graph.Triple;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.RDFParserBuilder;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFLib;
+import org.apache.jena.riot.system.StreamRDFOps;
+import org.apache.jena.riot.system.StreamRDFWrapper;
+import org.apache.jena.sparql.core.Quad;
 import org.omg.spec.api4kp._20200801.AbstractCarrier.Encodings;
+import org.omg.spec.api4kp._20200801.Answer;
 import org.omg.spec.api4kp._20200801.id.SemanticIdentifier;
 import org.omg.spec.api4kp._20200801.services.KPComponent;
 import org.omg.spec.api4kp._20200801.services.KPOperation;
@@ -67,6 +89,87 @@ public class JenaRdfParser extends AbstractDeSerializeOperator {
     setId(SemanticIdentifier.newId(id,version));
   }
 
+  /**
+   * Lifts an artifact by streaming its triples, as they are parsed, into a target Model, e.g. a
+   * persistent (TDB2) one. The source is read straight from its encoded (byte[], InputStream) or
+   * serialized (String) expression, without intermediate copies. Models are copied triple by
+   * triple.
+   *
+   * @param sourceArtifact the artifact to lift
+   * @param properties     the lifting configuration (optional)
+   * @param target         the Model the triples are added to. Transactional Models must be in a
+   *                       write transaction.
+   * @return a carrier of the target Model
+   */
+  public Answer<KnowledgeCarrier> applyLiftTo(KnowledgeCarrier sourceArtifact, String properties,
+      Model target) {
+    return applyLiftTo(sourceArtifact, properties, target, null);
+  }
+
+  /**
+   * Lifts an artifact into a target Model, keeping only the triples that pass a filter, which
+   * is applied while parsing. Can be used e.g. to project a graph onto the few predicates of
+   * interest, without ever materializing the others.
+   *
+   * @param sourceArtifact the artifact to lift
+   * @param properties     the lifting configuration (optional)
+   * @param target         the Model the triples are added to
+   * @param tripleFilter   the filter (optional)
+   * @return a carrier of the target Model
+   * @see #applyLiftTo(KnowledgeCarrier, String, Model)
+   */
+  public Answer<KnowledgeCarrier> applyLiftTo(KnowledgeCarrier sourceArtifact, String properties,
+      Model target, Predicate<Triple> tripleFilter) {
+    return applyLiftTo(sourceArtifact, properties, StreamRDFLib.graph(target.getGraph()),
+        tripleFilter)
+        .map(v -> newVerticalCarrier(sourceArtifact,
+            Abstract_Knowledge_Expression,
+            getTargetLiftRepresentation(sourceArtifact.getRepresentation(),
+                Abstract_Knowledge_Expression),
+            target));
+  }
+
+  /**
+   * Lifts an artifact by streaming its triples, as they are parsed, into a sink
+   *
+   * @param sourceArtifact the artifact to lift
+   * @param properties     the lifting configuration (optional)
+   * @param sink           the sink
+   * @see #applyLiftTo(KnowledgeCarrier, String, Model)
+   */
+  public Answer<Void> applyLiftTo(KnowledgeCarrier sourceArtifact, String properties,
+      StreamRDF sink) {
+    return applyLiftTo(sourceArtifact, properties, sink, null);
+  }
+
+  /**
+   * Lifts an artifact by streaming the triples that pass a filter, as they are parsed, into a
+   * sink
+   *
+   * @param sourceArtifact the artifact to lift
+   * @param properties     the lifting configuration (optional)
+   * @param sink           the sink
+   * @param tripleFilter   the filter (optional)
+   * @see #applyLiftTo(KnowledgeCarrier, String, Model, Predicate)
+   */
+  public Answer<Void> applyLiftTo(KnowledgeCarrier sourceArtifact, String properties,
+      StreamRDF sink, Predicate<Triple> tripleFilter) {
+    try {
+      checkLiftConsistency(sourceArtifact, Abstract_Knowledge_Expression, null);
+      Optional<Model> model = sourceArtifact.as(Model.class);
+      StreamRDF target = filtered(sink, tripleFilter);
+      if (model.isPresent()) {
+        StreamRDFOps.sendGraphToStream(model.get().getGraph(), target);
+      } else {
+        parse(openSource(sourceArtifact), sourceArtifact.getRepresentation(),
+            PropertiesUtil.parseProperties(properties), target);
+      }
+      return Answer.succeed();
+    } catch (UnsupportedOperationException | RiotException e) {
+      return Answer.failed(e);
+    }
+  }
+
   @Override
   protected List<SyntacticRepresentation> getSupportedRepresentations() {
     return Arrays.asList(
@@ -214,6 +317,28 @@ public class JenaRdfParser extends AbstractDeSerializeOperator {
    * @return A string carrier
    * @see Lifter#innerAbstract(KnowledgeCarrier, Properties)
    */
+  @Override
+  protected boolean writeAST(KnowledgeCarrier ast, SyntacticRepresentation into,
+      OutputStream out, Properties config) {
+    return writeModel(ast, into, out);
+  }
+
+  @Override
+  protected boolean writeDoc(KnowledgeCarrier doc, SyntacticRepresentation into,
+      OutputStream out, Properties config) {
+    return writeModel(doc, into, out);
+  }
+
+  private boolean writeModel(KnowledgeCarrier carrier, SyntacticRepresentation into,
+      OutputStream out) {
+    SyntacticRepresentation tgtRep =
+        getTargetLowerRepresentation(carrier.getRepresentation(), into,
+            Encoded_Knowledge_Expression);
+    Optional<Model> model = carrier.as(Model.class);
+    model.ifPresent(m -> m.write(out, toJenaLangCode(tgtRep)));
+    return model.isPresent();
+  }
+
   @Override
   public Optional<KnowledgeCarrier> innerConcretize(KnowledgeCarrier carrier,
       SyntacticRepresentation into, Properties properties) {
@@ -227,7 +352,63 @@ public class JenaRdfParser extends AbstractDeSerializeOperator {
 
   protected Model readModel(String str, SyntacticRepresentation from, Properties properties) {
     Model m = ModelFactory.createDefaultModel();
-    return m.read(new ByteArrayInputStream(str.getBytes()), null, toJenaLangCode(from));
+    parse(RDFParser.create().fromString(str), from, properties, StreamRDFLib.graph(m.getGraph()));
+    return m;
+  }
+
+  protected void parse(RDFParserBuilder source, SyntacticRepresentation from,
+      Properties properties, StreamRDF sink) {
+    source.lang(toJenaLang(from, properties))
+        .parse(sink);
+  }
+
+  private RDFParserBuilder openSource(KnowledgeCarrier carrier) {
+    Object expr = carrier.getExpression();
+    if (expr instanceof InputStream) {
+      return RDFParser.create().source((InputStream) expr);
+    } else if (expr instanceof byte[]) {
+      return RDFParser.create().source(new ByteArrayInputStream((byte[]) expr));
+    } else if (expr instanceof String) {
+      return Encoded_Knowledge_Expression.sameAs(carrier.getLevel())
+          ? RDFParser.create().source(
+          new ByteArrayInputStream(Base64.getDecoder().decode((String) expr)))
+          : RDFParser.create().fromString((String) expr);
+    }
+    throw new UnsupportedOperationException(
+        "Unable to stream expression of type " + (expr != null ? expr.getClass() : null));
+  }
+
+  private static StreamRDF filtered(StreamRDF sink, Predicate<Triple> tripleFilter) {
+    if (tripleFilter == null) {
+      return sink;
+    }
+    return new StreamRDFWrapper(sink) {
+      @Override
+      public void triple(Triple triple) {
+        if (tripleFilter.test(triple)) {
+          super.triple(triple);
+        }
+      }
+
+      @Override
+      public void quad(Quad quad) {
+        if (tripleFilter.test(quad.asTriple())) {
+          super.quad(quad);
+        }
+      }
+    };
+  }
+
+  /**
+   * @return the Jena language of a representation, unless overridden by the configuration (which
+   * is needed for the RDF serializations, like N-Triples and JSON-LD, that are not in the API4KP
+   * vocabularies)
+   */
+  protected Lang toJenaLang(SyntacticRepresentation from, Properties properties) {
+    String override = new JenaRdfParserConfiguration(properties)
+        .getTyped(JenaRdfParserParams.LANG);
+    Lang lang = Util.isEmpty(override) ? null : RDFLanguages.nameToLang(override);
+    return lang != null ? lang : RDFLanguages.nameToLang(toJenaLangCode(from));
   }
 
   protected String writeModel(Model model, SyntacticRepresentation tgtRep) {
@@ -300,4 +481,46 @@ public class JenaRdfParser extends AbstractDeSerializeOperator {
       }
     }
   }
+
+
+  public static class JenaRdfParserConfiguration
+      extends ConfigProperties<JenaRdfParserConfiguration, JenaRdfParserParams> {
+
+    private static final Properties DEFAULTS = defaulted(JenaRdfParserParams.class);
+
+    public JenaRdfParserConfiguration() {
+      super(DEFAULTS);
+    }
+
+    public JenaRdfParserConfiguration(Properties defaults) {
+      super(defaults != null ? defaults : DEFAULTS);
+    }
+
+    @Override
+    public JenaRdfParserParams[] properties() {
+      return JenaRdfParserParams.values();
+    }
+
+    public enum JenaRdfParserParams implements Option<JenaRdfParserParams> {
+
+      LANG(Opt.of(
+          "lang",
+          "",
+          "Name of the Jena (RIOT) language of the source, e.g. N-Triples or JSON-LD. "
+              + "Overrides the language inferred from the source representation.",
+          String.class,
+          false));
+
+      private Opt<JenaRdfParserParams> opt;
+
+      JenaRdfParserParams(Opt<JenaRdfParserParams> opt) {
+        this.opt = opt;
+      }
+
+      @Override
+      public Opt<JenaRdfParserParams> getOption() {
+        return opt;
+      }
+    }
+  }
 }
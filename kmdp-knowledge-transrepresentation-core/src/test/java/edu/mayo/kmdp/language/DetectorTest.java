@@ -1,17 +1,35 @@
 package edu.mayo.kmdp.language;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.omg.spec.api4kp._20200801.AbstractCarrier.of;
+import static org.omg.spec.api4kp._20200801.taxonomy.krformat.SerializationFormatSeries.JSON;
+import static org.omg.spec.api4kp._20200801.taxonomy.krlanguage.KnowledgeRepresentationLanguageSeries.DMN_1_2;
+import static org.omg.spec.api4kp._20200801.taxonomy.krlanguage.KnowledgeRepresentationLanguageSeries.Knowledge_Asset_Surrogate_2_0;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import edu.mayo.kmdp.language.detectors.JsonBasedLanguageDetector;
+import edu.mayo.kmdp.language.detectors.dmn.v1_1.DMN11Detector;
+import edu.mayo.kmdp.language.detectors.dmn.v1_2.DMN12Detector;
 import edu.mayo.kmdp.language.detectors.html.HTMLDetector;
 import edu.mayo.kmdp.language.detectors.surrogate.v2.Surrogate2Detector;
+import edu.mayo.kmdp.util.FileUtil;
+import java.util.List;
+import java.util.UUID;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.omg.spec.api4kp._20200801.Answer;
+import org.omg.spec.api4kp._20200801.id.SemanticIdentifier;
 import org.omg.spec.api4kp._20200801.services.KnowledgeCarrier;
 import org.omg.spec.api4kp._20200801.services.SyntacticRepresentation;
+import org.omg.spec.api4kp._20200801.taxonomy.krlanguage.KnowledgeRepresentationLanguage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class DetectorTest {
 
+  private static final Logger logger = LoggerFactory.getLogger(DetectorTest.class);
+
   @Test
   void testHtmlDetector() {
     String html = "<html>\n"
@@ -61,4 +79,154 @@ public class DetectorTest {
     assertTrue(rep.isSuccess());
   }
 
+  @Test
+  void testDMNDetectorByRootElement() {
+    String dmn12 = read("/dmn12example.dmn");
+    String dmn11 = read("/dmn11example.dmn");
+
+    Answer<SyntacticRepresentation> rep = new DMN12Detector().applyDetect(of(dmn12), null)
+        .map(KnowledgeCarrier::getRepresentation);
+    assertTrue(rep.isSuccess());
+    assertEquals(DMN_1_2, rep.get().getLanguage());
+
+    assertTrue(new DMN12Detector().applyDetect(of(dmn11), null).isFailure());
+    assertTrue(new DMN11Detector().applyDetect(of(dmn11), null).isSuccess());
+    assertTrue(new DMN11Detector().applyDetect(of(dmn12), null).isFailure());
+  }
+
+  @Test
+  void testDMNDetectorWithValidation() {
+    String dmn12 = read("/dmn12example.dmn");
+    // right root element, but not a valid DMN model
+    String fake = "<definitions xmlns=\"http://www.omg.org/spec/DMN/20180521/MODEL/\">"
+        + "<notADecision/></definitions>";
+
+    DMN12Detector detector = new DMN12Detector();
+    assertTrue(detector.applyDetect(of(dmn12), "validate=true").isSuccess());
+    assertTrue(detector.applyDetect(of(fake), null).isSuccess());
+    assertTrue(detector.applyDetect(of(fake), "validate=true").isFailure());
+  }
+
+  @Test
+  void testSurr2DetectorWithOtherXML() {
+    String xml = "<foo xmlns=\"https://www.omg.org/spec/API4KP/20200801/surrogate\"></foo>";
+
+    Answer<SyntacticRepresentation> rep = new Surrogate2Detector().applyDetect(of(xml), null)
+        .map(KnowledgeCarrier::getRepresentation);
+    assertTrue(rep.isFailure());
+  }
+
+  @Test
+  void testJsonDetectorByTopLevelKeys() {
+    String json = "{ \"name\" : \"foo\", \"kind\" : \"bar\", "
+        + "\"author\" : { \"unknown\" : 1 }, \"tags\" : [ \"a\", \"b\" ] }";
+
+    TestJsonDetector detector = new TestJsonDetector();
+    Answer<SyntacticRepresentation> rep = detector.applyDetect(of(json), null)
+        .map(KnowledgeCarrier::getRepresentation);
+    assertTrue(rep.isSuccess());
+    assertEquals(JSON, rep.get().getFormat());
+    assertTrue(detector.applyDetect(of(json.getBytes()), null).isSuccess());
+  }
+
+  @Test
+  void testJsonDetectorWithOtherJson() {
+    TestJsonDetector detector = new TestJsonDetector();
+    assertTrue(detector.applyDetect(of("{ \"name\" : \"foo\", \"unknown\" : 1 }"), null)
+        .isFailure());
+    assertTrue(detector.applyDetect(of("{ }"), null).isFailure());
+    assertTrue(detector.applyDetect(of("[ { \"name\" : \"foo\" } ]"), null).isFailure());
+    assertTrue(detector.applyDetect(of("<name>foo</name>"), null).isFailure());
+  }
+
+  @Test
+  void testJsonDetectorSniffWindow() {
+    // only the first 8 top-level keys are inspected
+    StringBuilder json = new StringBuilder("{ ");
+    for (String key : TestModel.PROPERTIES) {
+      json.append('"').append(key).append("\" : \"x\", ");
+    }
+    TestJsonDetector detector = new TestJsonDetector();
+    assertTrue(detector.applyDetect(of(json + "\"unknown\" : 1 }"), null).isSuccess());
+    assertTrue(detector.applyDetect(of("{ \"unknown\" : 1, " + json.substring(2) + "\"id\" : 1 }"),
+        null).isFailure());
+  }
+
+  /**
+   * Compares the latency of the detection by root element with the latency of the detection by
+   * unmarshalling, on DMN models of increasing size.
+   * <p>
+   * Run on demand, with -Dkmdp.benchmark=true
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "kmdp.benchmark", matches = "true")
+  void benchmarkDetection() {
+    String dmn12 = read("/dmn12example.dmn");
+    int start = dmn12.indexOf('>', dmn12.indexOf("<definitions")) + 1;
+    int end = dmn12.lastIndexOf("</definitions>");
+    String head = dmn12.substring(0, start);
+    String body = dmn12.substring(start, end);
+    String tail = dmn12.substring(end);
+
+    DMN12Detector detector = new DMN12Detector();
+    int runs = 50;
+    for (int copies : new int[]{1, 10, 100, 1000}) {
+      byte[] model = (head + body.repeat(copies) + tail).getBytes();
+      assertTrue(detector.applyDetect(of(model), null).isSuccess());
+      assertTrue(detector.applyDetect(of(model), "validate=true").isSuccess());
+
+      long sniff = time(runs, () -> detector.applyDetect(of(model), null));
+      long validate = time(runs, () -> detector.applyDetect(of(model), "validate=true"));
+      logger.info("DMN detection ({} KB) : sniff {} us, validate {} us",
+          model.length / 1024, sniff / runs / 1000, validate / runs / 1000);
+      if (copies == 1000) {
+        // the sniffer only reads the root element, regardless of the size of the model
+        assertTrue(sniff < validate);
+      }
+    }
+  }
+
+  private static long time(int runs, Runnable task) {
+    task.run();
+    long start = System.nanoTime();
+    for (int j = 0; j < runs; j++) {
+      task.run();
+    }
+    return System.nanoTime() - start;
+  }
+
+  private static String read(String path) {
+    return FileUtil.read(DetectorTest.class.getResourceAsStream(path))
+        .orElseThrow(IllegalStateException::new);
+  }
+
+  private static class TestJsonDetector extends JsonBasedLanguageDetector<TestModel> {
+
+    TestJsonDetector() {
+      this.root = TestModel.class;
+      setId(SemanticIdentifier.newId(UUID.randomUUID(), "1.0.0"));
+    }
+
+    @Override
+    public KnowledgeRepresentationLanguage getSupportedLanguage() {
+      return Knowledge_Asset_Surrogate_2_0;
+    }
+  }
+
+  public static class TestModel {
+
+    static final List<String> PROPERTIES = List.of(
+        "id", "name", "kind", "version", "description", "tags", "created", "author");
+
+    public String id;
+    public String name;
+    @JsonProperty("kind")
+    public String type;
+    public String version;
+    public String description;
+    public List<String> tags;
+    public String created;
+    public Object author;
+  }
+
 }
@@ -13,9 +13,14 @@ import static org.omg.spec.api4kp._20200801.taxonomy.parsinglevel.ParsingLevelSe
 
 import edu.mayo.kmdp.language.parsers.dmn.v1_2.DMN12Parser;
 import edu.mayo.kmdp.language.parsers.surrogate.v2.Surrogate2Parser;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.omg.spec.api4kp._20200801.AbstractCarrier.Encodings;
 import org.omg.spec.api4kp._20200801.Answer;
 import org.omg.spec.api4kp._20200801.services.KnowledgeCarrier;
 import org.omg.spec.api4kp._20200801.services.SyntacticRepresentation;
@@ -128,4 +133,69 @@ class LowerTest {
         .flatOpt(kc -> kc.as(org.omg.spec.api4kp._20200801.surrogate.KnowledgeAsset.class))
         .isSuccess());
   }
+
+  @Test
+  void testStreamDMN12() {
+    TDefinitions dmnModel = new TDefinitions();
+    dmnModel.withExtensionElements(new ExtensionElements()
+        .withAny(new org.omg.spec.api4kp._20200801.surrogate.resources.Annotation()));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Answer<SyntacticRepresentation> rep = new DMN12Parser()
+        .applyLowerTo(ofAst(dmnModel).withRepresentation(rep(DMN_1_2)), null, null, out);
+
+    assertTrue(rep.isSuccess());
+    assertTrue(DMN_1_2.sameAs(rep.get().getLanguage()));
+    String str = new String(out.toByteArray(), Charset.forName(rep.get().getCharset()));
+    assertTrue(str.contains("definitions"));
+    assertTrue(str.contains("annotation"));
+    assertTrue(str.contains("DMN/20180521/MODEL/"));
+  }
+
+  @Test
+  void testStreamSurrogateWithJson() throws IOException {
+    KnowledgeAsset surrogate = new KnowledgeAsset()
+        .withAnnotation(new Annotation());
+    Surrogate2Parser parser = new Surrogate2Parser();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (WritableByteChannel channel = Channels.newChannel(out)) {
+      Answer<SyntacticRepresentation> rep = parser.applyLowerTo(
+          ofAst(surrogate).withRepresentation(rep(Knowledge_Asset_Surrogate_2_0)),
+          ModelMIMECoder.encode(rep(Knowledge_Asset_Surrogate_2_0, JSON,
+              Charset.defaultCharset(), Encodings.DEFAULT)),
+          null,
+          channel);
+      assertTrue(rep.isSuccess());
+      assertTrue(JSON.sameAs(rep.get().getFormat()));
+    }
+
+    String str = new String(out.toByteArray(), Charset.defaultCharset());
+    assertTrue(str.contains("KnowledgeAsset"));
+    assertTrue(str.contains("annotation"));
+
+    // same content as the (in memory) lowering
+    String expected = parser
+        .applyLower(ofAst(surrogate).withRepresentation(rep(Knowledge_Asset_Surrogate_2_0)),
+            Serialized_Knowledge_Expression,
+            ModelMIMECoder.encode(rep(Knowledge_Asset_Surrogate_2_0, JSON,
+                Charset.defaultCharset())),
+            null)
+        .flatOpt(KnowledgeCarrier::asString)
+        .orElseGet(Assertions::fail);
+    assertEquals(expected, str);
+  }
+
+  @Test
+  void testStreamInconsistentArtifact() {
+    KnowledgeAsset surrogate = new KnowledgeAsset();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Answer<SyntacticRepresentation> rep = new DMN12Parser()
+        .applyLowerTo(ofAst(surrogate).withRepresentation(rep(Knowledge_Asset_Surrogate_2_0)),
+            null, null, out);
+
+    assertTrue(rep.isFailure());
+    assertEquals(0, out.size());
+  }
 }
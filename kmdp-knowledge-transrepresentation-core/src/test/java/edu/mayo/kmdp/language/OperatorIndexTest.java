@@ -0,0 +1,72 @@
+package edu.mayo.kmdp.language;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.omg.spec.api4kp._20200801.AbstractCarrier.codedRep;
+import static org.omg.spec.api4kp._20200801.AbstractCarrier.rep;
+import static org.omg.spec.api4kp._20200801.taxonomy.krformat.SerializationFormatSeries.XML_1_1;
+import static org.omg.spec.api4kp._20200801.taxonomy.krlanguage.KnowledgeRepresentationLanguageSeries.CMMN_1_1;
+import static org.omg.spec.api4kp._20200801.taxonomy.krlanguage.KnowledgeRepresentationLanguageSeries.DMN_1_2;
+import static org.omg.spec.api4kp._20200801.taxonomy.krlanguage.KnowledgeRepresentationLanguageSeries.OWL_2;
+import static org.omg.spec.api4kp._20200801.taxonomy.parsinglevel.ParsingLevelSeries.Abstract_Knowledge_Expression;
+import static org.omg.spec.api4kp._20200801.taxonomy.parsinglevel.ParsingLevelSeries.Serialized_Knowledge_Expression;
+
+import edu.mayo.kmdp.language.parsers.cmmn.v1_1.CMMN11Parser;
+import edu.mayo.kmdp.language.parsers.dmn.v1_2.DMN12Parser;
+import edu.mayo.kmdp.language.translators.misc.FormatBeauitifier;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.omg.spec.api4kp._20200801.AbstractCarrier;
+
+class OperatorIndexTest {
+
+  DeserializeApiOperator dmnParser = new DMN12Parser();
+  DeserializeApiOperator cmmnParser = new CMMN11Parser();
+
+  @Test
+  void testLookupByIdAndLanguage() {
+    OperatorIndex<DeserializeApiOperator> index = new OperatorIndex<>(
+        List.of(dmnParser, cmmnParser),
+        DeserializeApiOperator::getFrom,
+        false);
+
+    assertSame(dmnParser, index.get(dmnParser.getOperatorId().getUuid()).orElseThrow());
+    assertFalse(index.get(UUID.randomUUID()).isPresent());
+
+    assertEquals(List.of(dmnParser), index.lookup(DMN_1_2, null));
+    assertEquals(List.of(cmmnParser), index.lookup(CMMN_1_1, Abstract_Knowledge_Expression));
+    assertTrue(index.lookup(OWL_2, null).isEmpty());
+
+    // unknown language : all operators are candidates
+    assertEquals(2, index.lookup(AbstractCarrier.of("<x/>")).size());
+  }
+
+  @Test
+  void testLookupByLevel() {
+    TransionApiOperator beautifier = new FormatBeauitifier();
+    OperatorIndex<TransionApiOperator> index = new OperatorIndex<>(
+        List.of(beautifier),
+        TransionApiOperator::getFrom,
+        true);
+
+    // language-agnostic operators apply to any language, at the supported levels
+    assertEquals(List.of(beautifier), index.lookup(DMN_1_2, Serialized_Knowledge_Expression));
+    assertTrue(index.lookup(DMN_1_2, Abstract_Knowledge_Expression).isEmpty());
+  }
+
+  @Test
+  void testNoCrossLanguageLift() {
+    LanguageDeSerializer deserializer = new LanguageDeSerializer(List.of(dmnParser, cmmnParser));
+
+    assertTrue(deserializer.applyLift(
+        AbstractCarrier.of("<definitions/>")
+            .withRepresentation(rep(DMN_1_2, XML_1_1)),
+        Abstract_Knowledge_Expression,
+        codedRep(CMMN_1_1), null)
+        .isFailure());
+  }
+
+}
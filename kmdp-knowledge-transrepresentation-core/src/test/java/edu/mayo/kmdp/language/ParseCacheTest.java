@@ -0,0 +1,179 @@
+package edu.mayo.kmdp.language;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.omg.spec.api4kp._20200801.AbstractCarrier.rep;
+import static org.omg.spec.api4kp._20200801.id.SemanticIdentifier.randomId;
+import static org.omg.spec.api4kp._20200801.taxonomy.krformat.SerializationFormatSeries.XML_1_1;
+import static org.omg.spec.api4kp._20200801.taxonomy.krlanguage.KnowledgeRepresentationLanguageSeries.DMN_1_2;
+import static org.omg.spec.api4kp._20200801.taxonomy.parsinglevel.ParsingLevelSeries.Abstract_Knowledge_Expression;
+
+import edu.mayo.kmdp.language.ParseCache.ParseCacheMetrics;
+import edu.mayo.kmdp.language.ParseCacheConfig.ParseCacheParams;
+import edu.mayo.kmdp.language.parsers.dmn.v1_2.DMN12Parser;
+import edu.mayo.kmdp.util.FileUtil;
+import java.util.ArrayList;
+import java.util.List;
+import org.hl7.fhir.dstu3.model.PlanDefinition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.omg.spec.api4kp._20200801.AbstractCarrier;
+import org.omg.spec.api4kp._20200801.services.KnowledgeCarrier;
+import org.omg.spec.dmn._20180521.model.TDefinitions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class ParseCacheTest {
+
+  private static final Logger logger = LoggerFactory.getLogger(ParseCacheTest.class);
+
+  private final String dmn = FileUtil
+      .read(ParseCacheTest.class.getResourceAsStream("/dmn12example.dmn"))
+      .orElseThrow(IllegalStateException::new);
+
+  @Test
+  void testLiftOnce() {
+    LanguageDeSerializer deserializer = new LanguageDeSerializer(List.of(new DMN12Parser()))
+        .withParseCache(new ParseCache());
+
+    KnowledgeCarrier src1 = carrier(dmn);
+    KnowledgeCarrier src2 = carrier(dmn);
+    KnowledgeCarrier ast1 = deserializer
+        .applyLift(src1, Abstract_Knowledge_Expression, null, null)
+        .orElseGet(Assertions::fail);
+    KnowledgeCarrier ast2 = deserializer
+        .applyLift(src2, Abstract_Knowledge_Expression, null, null)
+        .orElseGet(Assertions::fail);
+
+    // equal, but distinct, ASTs, in distinct carriers, with the identity of the respective sources
+    assertNotSame(ast1.getExpression(), ast2.getExpression());
+    assertEquals(name(ast1), name(ast2));
+    assertNotSame(ast1, ast2);
+    assertEquals(src2.getAssetId(), ast2.getAssetId());
+    assertEquals(src2.getArtifactId(), ast2.getArtifactId());
+
+    ParseCacheMetrics metrics = deserializer.getParseCacheMetrics().orElseGet(Assertions::fail);
+    assertEquals(1, metrics.getEntries());
+    assertEquals(1, metrics.getHits());
+    assertEquals(1, metrics.getMisses());
+    assertEquals(0.5, metrics.getHitRate());
+  }
+
+  @Test
+  void testModifiedHit() {
+    LanguageDeSerializer deserializer = new LanguageDeSerializer(List.of(new DMN12Parser()))
+        .withParseCache(new ParseCache());
+
+    KnowledgeCarrier miss = deserializer
+        .applyLift(carrier(dmn), Abstract_Knowledge_Expression, null, null)
+        .orElseGet(Assertions::fail);
+    String original = name(miss);
+    miss.as(TDefinitions.class).orElseGet(Assertions::fail).setName("Changed on miss");
+
+    KnowledgeCarrier hit = deserializer
+        .applyLift(carrier(dmn), Abstract_Knowledge_Expression, null, null)
+        .orElseGet(Assertions::fail);
+    assertEquals(original, name(hit));
+    TDefinitions model = hit.as(TDefinitions.class).orElseGet(Assertions::fail);
+    model.setName("Changed on hit");
+    model.getDrgElement().clear();
+
+    KnowledgeCarrier again = deserializer
+        .applyLift(carrier(dmn), Abstract_Knowledge_Expression, null, null)
+        .orElseGet(Assertions::fail);
+    assertEquals(original, name(again));
+    assertFalse(again.as(TDefinitions.class).orElseGet(Assertions::fail)
+        .getDrgElement().isEmpty());
+    assertEquals(2, deserializer.getParseCacheMetrics().orElseGet(Assertions::fail).getHits());
+  }
+
+  @Test
+  void testCopyOf() {
+    byte[] bytes = {1, 2, 3};
+    assertNotSame(bytes, ParseCache.copyOf(bytes).orElseGet(Assertions::fail));
+    assertArrayEquals(bytes, (byte[]) ParseCache.copyOf(bytes).orElseGet(Assertions::fail));
+
+    PlanDefinition pd = new PlanDefinition();
+    pd.setName("foo");
+    PlanDefinition copy = (PlanDefinition) ParseCache.copyOf(pd).orElseGet(Assertions::fail);
+    assertNotSame(pd, copy);
+    assertTrue(pd.equalsDeep(copy));
+
+    // no known (deep) copy
+    assertTrue(ParseCache.copyOf(new ArrayList<>()).isEmpty());
+  }
+
+  @Test
+  void testEviction() {
+    LanguageDeSerializer deserializer = new LanguageDeSerializer(List.of(new DMN12Parser()))
+        .withParseCache(new ParseCache(
+            new ParseCacheConfig().with(ParseCacheParams.MAX_ENTRIES, 1)));
+
+    deserializer.applyLift(carrier(dmn), Abstract_Knowledge_Expression, null, null);
+    deserializer.applyLift(carrier(dmn + " "), Abstract_Knowledge_Expression, null, null);
+    deserializer.applyLift(carrier(dmn), Abstract_Knowledge_Expression, null, null);
+
+    ParseCacheMetrics metrics = deserializer.getParseCacheMetrics().orElseGet(Assertions::fail);
+    assertEquals(1, metrics.getEntries());
+    assertEquals(0, metrics.getHits());
+    assertEquals(2, metrics.getEvictions());
+  }
+
+  @Test
+  void testDisabledByDefault() {
+    LanguageDeSerializer deserializer = new LanguageDeSerializer(List.of(new DMN12Parser()));
+    assertTrue(deserializer.getParseCacheMetrics().isEmpty());
+    assertTrue(deserializer.applyLift(carrier(dmn), Abstract_Knowledge_Expression, null, null)
+        .isSuccess());
+  }
+
+  /**
+   * Compares the latency of repeated lifts of the same artifact, with and without the cache.
+   * <p>
+   * Run on demand, with -Dkmdp.benchmark=true
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "kmdp.benchmark", matches = "true")
+  void benchmarkRepeatedLift() {
+    LanguageDeSerializer plain = new LanguageDeSerializer(List.of(new DMN12Parser()));
+    LanguageDeSerializer cached = new LanguageDeSerializer(List.of(new DMN12Parser()))
+        .withParseCache(new ParseCache());
+    int runs = 200;
+
+    long noCache = time(plain, runs);
+    long withCache = time(cached, runs);
+    ParseCacheMetrics metrics = cached.getParseCacheMetrics().orElseGet(Assertions::fail);
+    logger.info("{} lifts : no cache {} ms, cache {} ms ({})",
+        runs, noCache / 1_000_000, withCache / 1_000_000, metrics);
+
+    // one parse, every other lift served (as a copy) from the cache
+    assertEquals(1, metrics.getMisses());
+    assertEquals(runs - 1, metrics.getHits());
+  }
+
+  private long time(LanguageDeSerializer deserializer, int runs) {
+    long start = System.nanoTime();
+    for (int j = 0; j < runs; j++) {
+      deserializer.applyLift(carrier(dmn), Abstract_Knowledge_Expression, null, null);
+    }
+    return System.nanoTime() - start;
+  }
+
+  private static String name(KnowledgeCarrier kc) {
+    return kc.as(TDefinitions.class)
+        .map(TDefinitions::getName)
+        .orElseGet(Assertions::fail);
+  }
+
+  private static KnowledgeCarrier carrier(String dmn) {
+    return AbstractCarrier.of(dmn)
+        .withAssetId(randomId())
+        .withArtifactId(randomId())
+        .withRepresentation(rep(DMN_1_2, XML_1_1));
+  }
+
+}
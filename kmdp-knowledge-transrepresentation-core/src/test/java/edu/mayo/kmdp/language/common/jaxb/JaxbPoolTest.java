@@ -0,0 +1,212 @@
+package edu.mayo.kmdp.language.common.jaxb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.omg.spec.api4kp._20200801.AbstractCarrier.of;
+import static org.omg.spec.api4kp._20200801.AbstractCarrier.ofAst;
+import static org.omg.spec.api4kp._20200801.AbstractCarrier.rep;
+import static org.omg.spec.api4kp._20200801.taxonomy.krformat.SerializationFormatSeries.XML_1_1;
+import static org.omg.spec.api4kp._20200801.taxonomy.krlanguage.KnowledgeRepresentationLanguageSeries.CMMN_1_1;
+import static org.omg.spec.api4kp._20200801.taxonomy.krlanguage.KnowledgeRepresentationLanguageSeries.DMN_1_2;
+import static org.omg.spec.api4kp._20200801.taxonomy.parsinglevel.ParsingLevelSeries.Abstract_Knowledge_Expression;
+import static org.omg.spec.api4kp._20200801.taxonomy.parsinglevel.ParsingLevelSeries.Serialized_Knowledge_Expression;
+
+import edu.mayo.kmdp.language.parsers.XMLBasedLanguageParser;
+import edu.mayo.kmdp.language.parsers.cmmn.v1_1.CMMN11Parser;
+import edu.mayo.kmdp.language.parsers.dmn.v1_2.DMN12Parser;
+import edu.mayo.kmdp.util.FileUtil;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.omg.spec.api4kp._20200801.services.KnowledgeCarrier;
+import org.omg.spec.api4kp._20200801.taxonomy.krlanguage.KnowledgeRepresentationLanguage;
+import org.omg.spec.cmmn._20151109.model.TCase;
+import org.omg.spec.dmn._20180521.model.ObjectFactory;
+import org.omg.spec.dmn._20180521.model.TDecision;
+import org.omg.spec.dmn._20180521.model.TDefinitions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class JaxbPoolTest {
+
+  private static final Logger logger = LoggerFactory.getLogger(JaxbPoolTest.class);
+
+  @Test
+  void testSharedContext() {
+    JaxbPool pool = JaxbPool.forContext(List.of(TDefinitions.class, TDecision.class));
+    assertSame(pool, JaxbPool.forContext(List.of(TDecision.class, TDefinitions.class)));
+    assertSame(pool.getContext(),
+        JaxbPool.forContext(List.of(TDecision.class, TDefinitions.class)).getContext());
+  }
+
+  @Test
+  void testRootElement() {
+    String dmn = FileUtil.read(JaxbPoolTest.class.getResourceAsStream("/dmn12example.dmn"))
+        .orElseGet(Assertions::fail);
+    JaxbPool pool = JaxbPool.forContext(TDefinitions.class);
+
+    assertTrue(pool.unmarshall(TDefinitions.class, dmn).isPresent());
+    // bound, but not the type of the root element
+    assertTrue(pool.unmarshall(TDecision.class, dmn).isEmpty());
+    assertTrue(pool.unmarshall(TDefinitions.class, "<foo/>").isEmpty());
+    assertTrue(pool.unmarshall(TDefinitions.class, "not xml").isEmpty());
+  }
+
+  @Test
+  void testConcurrentRoundTrips() throws Exception {
+    DMN12Parser parser = new DMN12Parser();
+    String dmn = serialize(parser, dmn(50), DMN_1_2);
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Integer>> results = new ArrayList<>();
+      for (int j = 0; j < 64; j++) {
+        results.add(executor.submit(() -> {
+          TDefinitions model = parse(parser, dmn, DMN_1_2)
+              .as(TDefinitions.class)
+              .orElseGet(Assertions::fail);
+          String str = serialize(parser, model, DMN_1_2);
+          return parse(parser, str, DMN_1_2)
+              .as(TDefinitions.class)
+              .map(defs -> defs.getDrgElement().size())
+              .orElse(-1);
+        }));
+      }
+      for (Future<Integer> result : results) {
+        assertEquals(50, result.get(30, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Measures the throughput of parsing (String to AST) and serializing (AST to String) DMN 1.2
+   * and CMMN 1.1 models of 10/100/1000 elements, with 1 to 16 concurrent threads.
+   * <p>
+   * Run on demand, with -Dkmdp.benchmark=true
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "kmdp.benchmark", matches = "true")
+  void benchmarkThroughput() throws Exception {
+    DMN12Parser dmnParser = new DMN12Parser();
+    CMMN11Parser cmmnParser = new CMMN11Parser();
+    for (int size : new int[]{10, 100, 1000}) {
+      TDefinitions dmn = dmn(size);
+      org.omg.spec.cmmn._20151109.model.TDefinitions cmmn = cmmn(size);
+      String dmnStr = serialize(dmnParser, dmn, DMN_1_2);
+      String cmmnStr = serialize(cmmnParser, cmmn, CMMN_1_1);
+      // the pooled (un)marshallers round-trip the models
+      assertEquals(size, parse(dmnParser, dmnStr, DMN_1_2).as(TDefinitions.class)
+          .map(defs -> defs.getDrgElement().size())
+          .orElse(-1));
+      assertEquals(size, parse(cmmnParser, cmmnStr, CMMN_1_1)
+          .as(org.omg.spec.cmmn._20151109.model.TDefinitions.class)
+          .map(defs -> defs.getCase().size())
+          .orElse(-1));
+      for (int threads : new int[]{1, 2, 4, 8, 16}) {
+        report("DMN 1.2 parse", size, threads,
+            throughput(threads, () -> parse(dmnParser, dmnStr, DMN_1_2)));
+        report("DMN 1.2 serialize", size, threads,
+            throughput(threads, () -> serialize(dmnParser, dmn, DMN_1_2)));
+        report("CMMN 1.1 parse", size, threads,
+            throughput(threads, () -> parse(cmmnParser, cmmnStr, CMMN_1_1)));
+        report("CMMN 1.1 serialize", size, threads,
+            throughput(threads, () -> serialize(cmmnParser, cmmn, CMMN_1_1)));
+      }
+    }
+  }
+
+  private static void report(String label, int size, int threads, double opsPerSec) {
+    logger.info("{} {} elements, {} threads : {} ops/s",
+        label, size, threads, String.format("%.1f", opsPerSec));
+    assertTrue(opsPerSec > 0);
+  }
+
+  private static double throughput(int threads, Supplier<?> op) throws Exception {
+    long millis = 2_000;
+    // warm up
+    run(1, op, 500);
+    long ops = run(threads, op, millis);
+    return ops * 1000.0 / millis;
+  }
+
+  private static long run(int threads, Supplier<?> op, long millis) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      long end = System.currentTimeMillis() + millis;
+      List<Future<Long>> counts = new ArrayList<>();
+      for (int j = 0; j < threads; j++) {
+        counts.add(executor.submit(() -> {
+          long n = 0;
+          while (System.currentTimeMillis() < end) {
+            op.get();
+            n++;
+          }
+          return n;
+        }));
+      }
+      long total = 0;
+      for (Future<Long> count : counts) {
+        total += count.get();
+      }
+      return total;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static KnowledgeCarrier parse(XMLBasedLanguageParser<?> parser, String str,
+      KnowledgeRepresentationLanguage lang) {
+    return parser
+        .applyLift(of(str).withRepresentation(rep(lang, XML_1_1)),
+            Abstract_Knowledge_Expression, null, null)
+        .orElseGet(Assertions::fail);
+  }
+
+  private static String serialize(XMLBasedLanguageParser<?> parser, Object model,
+      KnowledgeRepresentationLanguage lang) {
+    return parser
+        .applyLower(ofAst(model).withRepresentation(rep(lang)),
+            Serialized_Knowledge_Expression, null, null)
+        .flatOpt(KnowledgeCarrier::asString)
+        .orElseGet(Assertions::fail);
+  }
+
+  private static TDefinitions dmn(int size) {
+    ObjectFactory of = new ObjectFactory();
+    TDefinitions defs = new TDefinitions()
+        .withId("defs")
+        .withName("Test")
+        .withNamespace("http://test.foo");
+    for (int j = 0; j < size; j++) {
+      defs.withDrgElement(of.createDecision(new TDecision()
+          .withId("d" + j)
+          .withName("Decision " + j)));
+    }
+    return defs;
+  }
+
+  private static org.omg.spec.cmmn._20151109.model.TDefinitions cmmn(int size) {
+    org.omg.spec.cmmn._20151109.model.TDefinitions defs =
+        new org.omg.spec.cmmn._20151109.model.TDefinitions()
+            .withId("defs")
+            .withName("Test")
+            .withTargetNamespace("http://test.foo");
+    for (int j = 0; j < size; j++) {
+      defs.withCase(new TCase()
+          .withId("c" + j)
+          .withName("Case " + j));
+    }
+    return defs;
+  }
+
+}
@@ -0,0 +1,276 @@
+package edu.mayo.kmdp.language.detectors.owl2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.omg.spec.api4kp._20200801.AbstractCarrier.of;
+import static org.omg.spec.api4kp._20200801.taxonomy.krprofile.KnowledgeRepresentationLanguageProfileSeries.OWL2_DL;
+import static org.omg.spec.api4kp._20200801.taxonomy.krprofile.KnowledgeRepresentationLanguageProfileSeries.OWL2_EL;
+import static org.omg.spec.api4kp._20200801.taxonomy.krprofile.KnowledgeRepresentationLanguageProfileSeries.OWL2_Full;
+import static org.omg.spec.api4kp._20200801.taxonomy.krprofile.KnowledgeRepresentationLanguageProfileSeries.OWL2_QL;
+import static org.omg.spec.api4kp._20200801.taxonomy.krprofile.KnowledgeRepresentationLanguageProfileSeries.OWL2_RL;
+
+import edu.mayo.kmdp.util.FileUtil;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.omg.spec.api4kp._20200801.Answer;
+import org.omg.spec.api4kp._20200801.services.KnowledgeCarrier;
+import org.omg.spec.api4kp._20200801.services.SyntacticRepresentation;
+import org.omg.spec.api4kp._20200801.taxonomy.krprofile.KnowledgeRepresentationLanguageProfile;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLOntologyStorageException;
+import org.semanticweb.owlapi.profiles.OWL2DLProfile;
+import org.semanticweb.owlapi.profiles.OWL2ELProfile;
+import org.semanticweb.owlapi.profiles.OWL2QLProfile;
+import org.semanticweb.owlapi.profiles.OWL2RLProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class OWLDetectorTest {
+
+  private static final Logger logger = LoggerFactory.getLogger(OWLDetectorTest.class);
+
+  private static final String NS = "http://test.foo/onto#";
+
+  private final OWLDataFactory df = OWLManager.getOWLDataFactory();
+
+  private final OWLClass a = df.getOWLClass(IRI.create(NS + "A"));
+  private final OWLClass b = df.getOWLClass(IRI.create(NS + "B"));
+  private final OWLClass c = df.getOWLClass(IRI.create(NS + "C"));
+  private final OWLObjectProperty p = df.getOWLObjectProperty(IRI.create(NS + "p"));
+
+  @Test
+  void testRL() {
+    assertProfile(OWL2_RL, onto(
+        df.getOWLSubClassOfAxiom(a, b)));
+  }
+
+  @Test
+  void testQL() {
+    assertProfile(OWL2_QL, onto(
+        df.getOWLSubClassOfAxiom(a, df.getOWLObjectSomeValuesFrom(p, b))));
+  }
+
+  @Test
+  void testEL() {
+    assertProfile(OWL2_EL, onto(
+        df.getOWLEquivalentClassesAxiom(a,
+            df.getOWLObjectIntersectionOf(b, df.getOWLObjectSomeValuesFrom(p, c)))));
+  }
+
+  @Test
+  void testDL() {
+    assertProfile(OWL2_DL, onto(
+        df.getOWLSubClassOfAxiom(a, df.getOWLObjectUnionOf(b, c))));
+  }
+
+  @Test
+  void testFull() {
+    // transitive (non-simple) property in a cardinality restriction
+    assertProfile(OWL2_Full, onto(
+        df.getOWLTransitiveObjectPropertyAxiom(p),
+        df.getOWLSubClassOfAxiom(a, df.getOWLObjectMaxCardinality(1, p))));
+  }
+
+  @Test
+  void testMembership() {
+    OWLOntology o = onto(
+        df.getOWLSubClassOfAxiom(a, b));
+    assertEquals(List.of(OWL2_RL, OWL2_QL, OWL2_EL, OWL2_DL),
+        new ArrayList<>(OWL2ProfileScanner.scan(o, false)));
+  }
+
+  @Test
+  void testDetectSerializedProfile() {
+    byte[] bytes = serialize(onto(
+        df.getOWLSubClassOfAxiom(a, df.getOWLObjectSomeValuesFrom(p, b))));
+
+    Answer<SyntacticRepresentation> rep = new OWLDetector()
+        .applyDetect(of(bytes), null)
+        .map(KnowledgeCarrier::getRepresentation);
+    assertTrue(rep.isSuccess());
+    assertTrue(OWL2_QL.sameAs(rep.get().getProfile()));
+
+    // the pooled manager has been cleared, and can load the same ontology again
+    assertTrue(new OWLDetector().applyDetect(of(bytes), null).isSuccess());
+  }
+
+  /**
+   * The single pass scan must agree with the OWL API profile checks, on each profile (not only
+   * the most specific one): on the test ontologies, and on combinations of axioms from different
+   * profiles. The detection with pooled managers must also agree with the detection on
+   * ontologies loaded by a new, dedicated manager
+   */
+  @Test
+  void testPooledDetectionCorpus() {
+    for (String path : List.of("/owlExample.owl", "/owlExample.rdf")) {
+      byte[] bytes = FileUtil.readBytes(OWLDetectorTest.class.getResourceAsStream(path))
+          .orElseGet(Assertions::fail);
+      assertSameProfiles(load(bytes));
+      assertPooledProfile(bytes);
+      assertPooledProfile(bytes);
+    }
+
+    List<OWLAxiom> axioms = List.of(
+        df.getOWLSubClassOfAxiom(a, b),
+        df.getOWLSubClassOfAxiom(a, df.getOWLObjectSomeValuesFrom(p, b)),
+        df.getOWLSubClassOfAxiom(df.getOWLObjectSomeValuesFrom(p, b), a),
+        df.getOWLEquivalentClassesAxiom(a, df.getOWLObjectIntersectionOf(b, c)),
+        df.getOWLSubClassOfAxiom(a, df.getOWLObjectUnionOf(b, c)),
+        df.getOWLSubClassOfAxiom(a, df.getOWLObjectComplementOf(b)),
+        df.getOWLTransitiveObjectPropertyAxiom(p),
+        df.getOWLSubClassOfAxiom(a, df.getOWLObjectMaxCardinality(1, p)));
+    for (int j = 0; j < axioms.size(); j++) {
+      for (int k = j; k < axioms.size(); k++) {
+        OWLOntology o = onto(axioms.get(j), axioms.get(k));
+        assertSameProfiles(o);
+        assertPooledProfile(serialize(o));
+      }
+    }
+  }
+
+  /**
+   * Compares the latency of the sequential OWL API profile checks with the single pass scan, on
+   * an EL ontology of increasing size (the worst case for the sequential checks, since RL and QL
+   * are checked, and fail, first); and the latency of the detection when the ontology is loaded
+   * by a new manager vs a pooled one.
+   * <p>
+   * Run on demand, with -Dkmdp.benchmark=true
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "kmdp.benchmark", matches = "true")
+  void benchmarkProfileDetection() {
+    OWLDetector detector = new OWLDetector();
+    for (int size : new int[]{100, 1_000, 10_000}) {
+      OWLOntology o = chain(size);
+      long sequential = time(o, OWLDetectorTest::sequentialProfile);
+      long scan = time(o, detector::detectProfile);
+      logger.info("OWL profile detection ({} classes) : sequential {} ms, scan {} ms",
+          size, sequential / 1_000_000, scan / 1_000_000);
+      assertTrue(OWL2_EL.sameAs(sequentialProfile(o)));
+      assertTrue(OWL2_EL.sameAs(detector.detectProfile(o)));
+
+      byte[] bytes = serialize(o);
+      long fresh = time(bytes, x -> detector.detectProfile(load(x)));
+      long pooled = time(bytes, x -> detector.applyDetect(of(x), null)
+          .map(kc -> kc.getRepresentation().getProfile())
+          .orElseGet(Assertions::fail));
+      logger.info("OWL profile detection ({} classes) : new manager {} ms, pooled {} ms",
+          size, fresh / 1_000_000, pooled / 1_000_000);
+
+      assertTrue(OWL2_EL.sameAs(detector.detectProfile(load(bytes))));
+      assertPooledProfile(bytes);
+    }
+  }
+
+  private void assertProfile(KnowledgeRepresentationLanguageProfile expected, OWLOntology o) {
+    assertTrue(expected.sameAs(new OWLDetector().detectProfile(o)));
+    // consistent with the OWL API profile checks
+    assertTrue(expected.sameAs(sequentialProfile(o)));
+    assertTrue(expected.sameAs(new OWLDetector().applyDetect(of(serialize(o)), null)
+        .map(kc -> kc.getRepresentation().getProfile())
+        .orElseGet(Assertions::fail)));
+  }
+
+  private void assertPooledProfile(byte[] bytes) {
+    OWLDetector detector = new OWLDetector();
+    KnowledgeRepresentationLanguageProfile pooled = detector.applyDetect(of(bytes), null)
+        .map(kc -> kc.getRepresentation().getProfile())
+        .orElseGet(Assertions::fail);
+    assertTrue(pooled.sameAs(detector.detectProfile(load(bytes))));
+  }
+
+  private static void assertSameProfiles(OWLOntology o) {
+    Set<KnowledgeRepresentationLanguageProfile> scanned = OWL2ProfileScanner.scan(o, false);
+    assertEquals(new OWL2RLProfile().checkOntology(o).isInProfile(), scanned.contains(OWL2_RL));
+    assertEquals(new OWL2QLProfile().checkOntology(o).isInProfile(), scanned.contains(OWL2_QL));
+    assertEquals(new OWL2ELProfile().checkOntology(o).isInProfile(), scanned.contains(OWL2_EL));
+    assertEquals(new OWL2DLProfile().checkOntology(o).isInProfile(), scanned.contains(OWL2_DL));
+  }
+
+  private static KnowledgeRepresentationLanguageProfile sequentialProfile(OWLOntology o) {
+    if (new OWL2RLProfile().checkOntology(o).isInProfile()) {
+      return OWL2_RL;
+    }
+    if (new OWL2QLProfile().checkOntology(o).isInProfile()) {
+      return OWL2_QL;
+    }
+    if (new OWL2ELProfile().checkOntology(o).isInProfile()) {
+      return OWL2_EL;
+    }
+    if (new OWL2DLProfile().checkOntology(o).isInProfile()) {
+      return OWL2_DL;
+    }
+    return OWL2_Full;
+  }
+
+  private static <T> long time(T input,
+      Function<T, KnowledgeRepresentationLanguageProfile> detect) {
+    detect.apply(input);
+    long start = System.nanoTime();
+    detect.apply(input);
+    return System.nanoTime() - start;
+  }
+
+  private static OWLOntology load(byte[] bytes) {
+    try {
+      return OWLManager.createOWLOntologyManager()
+          .loadOntologyFromOntologyDocument(new ByteArrayInputStream(bytes));
+    } catch (OWLOntologyCreationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static byte[] serialize(OWLOntology o) {
+    try {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      o.saveOntology(baos);
+      return baos.toByteArray();
+    } catch (OWLOntologyStorageException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private OWLOntology chain(int size) {
+    OWLOntology o = onto();
+    OWLClass prev = a;
+    for (int j = 0; j < size; j++) {
+      OWLClass next = df.getOWLClass(IRI.create(NS + "K" + j));
+      o.addAxiom(df.getOWLDeclarationAxiom(next));
+      o.addAxiom(df.getOWLEquivalentClassesAxiom(next,
+          df.getOWLObjectIntersectionOf(prev, df.getOWLObjectSomeValuesFrom(p, b))));
+      prev = next;
+    }
+    return o;
+  }
+
+  private OWLOntology onto(OWLAxiom... axioms) {
+    try {
+      OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+      OWLOntology o = manager.createOntology(IRI.create(NS));
+      for (OWLEntity e : new OWLEntity[]{a, b, c, p}) {
+        o.addAxiom(df.getOWLDeclarationAxiom(e));
+      }
+      o.addAxioms(axioms);
+      return o;
+    } catch (OWLOntologyCreationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+}
@@ -0,0 +1,236 @@
+package edu.mayo.kmdp.language.parsers.rdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.omg.spec.api4kp._20200801.AbstractCarrier.of;
+import static org.omg.spec.api4kp._20200801.AbstractCarrier.rep;
+import static org.omg.spec.api4kp._20200801.taxonomy.krformat.SerializationFormatSeries.JSON;
+import static org.omg.spec.api4kp._20200801.taxonomy.krformat.SerializationFormatSeries.TXT;
+import static org.omg.spec.api4kp._20200801.taxonomy.krformat.SerializationFormatSeries.XML_1_1;
+import static org.omg.spec.api4kp._20200801.taxonomy.krlanguage.KnowledgeRepresentationLanguageSeries.OWL_2;
+import static org.omg.spec.api4kp._20200801.taxonomy.krserialization.KnowledgeRepresentationLanguageSerializationSeries.RDF_XML_Syntax;
+import static org.omg.spec.api4kp._20200801.taxonomy.krserialization.KnowledgeRepresentationLanguageSerializationSeries.Turtle;
+import static org.omg.spec.api4kp._20200801.taxonomy.parsinglevel.ParsingLevelSeries.Abstract_Knowledge_Expression;
+import static org.omg.spec.api4kp._20200801.taxonomy.parsinglevel.ParsingLevelSeries.Encoded_Knowledge_Expression;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.omg.spec.api4kp._20200801.Answer;
+import org.omg.spec.api4kp._20200801.services.KnowledgeCarrier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class JenaRdfStreamingTest {
+
+  private static final Logger logger = LoggerFactory.getLogger(JenaRdfStreamingTest.class);
+
+  private static final String NS = "http://test.foo/";
+
+  private static final String TTL = "@prefix ex: <" + NS + "> .\n"
+      + "@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n"
+      + "ex:a rdfs:label \"A\" ; ex:p ex:b .\n"
+      + "ex:b rdfs:label \"B\" ; ex:p ex:c .\n";
+
+  private static final String NT = "<" + NS + "a> <" + NS + "p> <" + NS + "b> .\n"
+      + "<" + NS + "b> <" + NS + "p> <" + NS + "c> .\n";
+
+  private static final String JSONLD = "{ \"@id\" : \"" + NS + "a\", "
+      + "\"" + NS + "p\" : { \"@id\" : \"" + NS + "b\" } }";
+
+  private static final String RDFXML = "<rdf:RDF "
+      + "xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\" xmlns:ex=\"" + NS + "\">"
+      + "<rdf:Description rdf:about=\"" + NS + "a\"><ex:p rdf:resource=\"" + NS + "b\"/>"
+      + "</rdf:Description></rdf:RDF>";
+
+  @Test
+  void testLiftTurtleIntoModel() {
+    Model target = ModelFactory.createDefaultModel();
+    KnowledgeCarrier kc = new JenaRdfParser()
+        .applyLiftTo(of(TTL.getBytes()).withRepresentation(rep(OWL_2, Turtle, TXT)),
+            null, target)
+        .orElseGet(Assertions::fail);
+
+    assertEquals(4, target.size());
+    assertTrue(Abstract_Knowledge_Expression.sameAs(kc.getLevel()));
+    assertTrue(kc.as(Model.class).isPresent());
+    assertEquals(NS, target.getNsPrefixURI("ex"));
+  }
+
+  @Test
+  void testLiftOtherSyntaxes() {
+    assertEquals(2, count(of(NT).withRepresentation(rep(OWL_2, Turtle, TXT)),
+        "lang=N-Triples"));
+    assertEquals(1, count(of(JSONLD).withRepresentation(rep(OWL_2, JSON)),
+        "lang=JSON-LD"));
+    assertEquals(1, count(of(RDFXML).withRepresentation(rep(OWL_2, RDF_XML_Syntax, XML_1_1)),
+        null));
+  }
+
+  @Test
+  void testFilterWhileParsing() {
+    Model target = ModelFactory.createDefaultModel();
+    JenaRdfParser parser = new JenaRdfParser();
+
+    assertTrue(parser
+        .applyLiftTo(of(TTL).withRepresentation(rep(OWL_2, Turtle, TXT)), null, target,
+            t -> RDFS.label.asNode().equals(t.getPredicate()))
+        .isSuccess());
+    assertEquals(2, target.size());
+    assertTrue(target.listStatements(null, RDFS.label, (String) null).hasNext());
+
+    // the filter only applies to the call it is passed to
+    Model lifted = parser
+        .applyLift(of(TTL).withRepresentation(rep(OWL_2, Turtle, TXT)),
+            Abstract_Knowledge_Expression, null, null)
+        .flatOpt(kc -> kc.as(Model.class))
+        .orElseGet(Assertions::fail);
+    assertEquals(4, lifted.size());
+
+    Counter counter = new Counter();
+    assertTrue(parser
+        .applyLiftTo(of(TTL).withRepresentation(rep(OWL_2, Turtle, TXT)), null, counter,
+            t -> (NS + "a").equals(t.getSubject().getURI()))
+        .isSuccess());
+    assertEquals(2, counter.triples.get());
+  }
+
+  @Test
+  void testLiftMalformed() {
+    Answer<Void> ans = new JenaRdfParser()
+        .applyLiftTo(of("ex:a ex:p .").withRepresentation(rep(OWL_2, Turtle, TXT)),
+            null, new Counter());
+    assertTrue(ans.isFailure());
+  }
+
+  /**
+   * Compares the heap and time needed to lift a large N-Triples file, via an intermediate String,
+   * or streaming it into a Model, a filtered Model or a counting sink.
+   * <p>
+   * Run on demand, with -Dkmdp.benchmark=true (and -Dkmdp.benchmark.triples=N, 5M by default)
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "kmdp.benchmark", matches = "true")
+  void benchmarkLargeGraph() throws IOException {
+    int size = Integer.getInteger("kmdp.benchmark.triples", 5_000_000);
+    Path file = Files.createTempFile("graph", ".nt");
+    try {
+      generate(file, size);
+      String props = "lang=N-Triples";
+
+      assertEquals(size, measure("String + Model", () -> new JenaRdfParser()
+          .applyLift(of(read(file)).withRepresentation(rep(OWL_2, Turtle, TXT)),
+              Abstract_Knowledge_Expression, null, props)
+          .flatOpt(kc -> kc.as(Model.class))
+          .map(Model::size)
+          .orElse(-1L)));
+      assertEquals(size, measure("stream + Model", () -> {
+        Model m = ModelFactory.createDefaultModel();
+        try (InputStream is = Files.newInputStream(file)) {
+          new JenaRdfParser().applyLiftTo(stream(is), props, m);
+        }
+        return m.size();
+      }));
+      // one label every 5 triples
+      assertEquals((size + 4) / 5, measure("stream + filtered Model", () -> {
+        Model m = ModelFactory.createDefaultModel();
+        try (InputStream is = Files.newInputStream(file)) {
+          new JenaRdfParser().applyLiftTo(stream(is), props, m,
+              t -> RDFS.label.asNode().equals(t.getPredicate()));
+        }
+        return m.size();
+      }));
+      assertEquals(size, measure("stream + counter", () -> {
+        Counter counter = new Counter();
+        try (InputStream is = Files.newInputStream(file)) {
+          new JenaRdfParser().applyLiftTo(stream(is), props, counter);
+        }
+        return counter.triples.get();
+      }));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private static long count(KnowledgeCarrier kc, String props) {
+    Counter counter = new Counter();
+    assertTrue(new JenaRdfParser().applyLiftTo(kc, props, counter).isSuccess());
+    return counter.triples.get();
+  }
+
+  private static KnowledgeCarrier stream(InputStream is) {
+    return new KnowledgeCarrier()
+        .withExpression(is)
+        .withLevel(Encoded_Knowledge_Expression)
+        .withRepresentation(rep(OWL_2, Turtle, TXT));
+  }
+
+  private static String read(Path file) {
+    try {
+      return Files.readString(file);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void generate(Path file, int size) throws IOException {
+    try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      for (int j = 0; j < size; j++) {
+        int subj = j / 5;
+        if (j % 5 == 0) {
+          w.write("<" + NS + "s" + subj + "> <" + RDFS.label.getURI() + "> \"S" + subj + "\" .\n");
+        } else {
+          w.write("<" + NS + "s" + subj + "> <" + NS + "p" + (j % 5) + "> <"
+              + NS + "s" + (subj + j % 5) + "> .\n");
+        }
+      }
+    }
+  }
+
+  private static long measure(String label, IOSupplier<Long> task) throws IOException {
+    System.gc();
+    ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+    long start = System.nanoTime();
+    long triples = task.get();
+    long time = System.nanoTime() - start;
+    long peak = ManagementFactory.getMemoryPoolMXBeans().stream()
+        .filter(pool -> pool.getType() == MemoryType.HEAP)
+        .mapToLong(pool -> pool.getPeakUsage().getUsed())
+        .sum();
+    logger.info("{} : {} triples, {} ms, peak heap {} MB",
+        label, triples, time / 1_000_000, peak / (1024 * 1024));
+    return triples;
+  }
+
+  @FunctionalInterface
+  private interface IOSupplier<T> {
+
+    T get() throws IOException;
+  }
+
+  private static class Counter extends StreamRDFBase {
+
+    private final AtomicLong triples = new AtomicLong();
+
+    @Override
+    public void triple(Triple triple) {
+      triples.incrementAndGet();
+    }
+  }
+
+}
@@ -0,0 +1,330 @@
+package edu.mayo.kmdp.knowledgebase;
+
+import edu.mayo.kmdp.knowledgebase.KnowledgeBaseLifecycleConfiguration.KnowledgeBaseLifecycleParams;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+import org.omg.spec.api4kp._20200801.services.CompositeKnowledgeCarrier;
+import org.omg.spec.api4kp._20200801.services.KnowledgeBase;
+import org.omg.spec.api4kp._20200801.services.KnowledgeCarrier;
+
+/**
+ * Tracks the KnowledgeBase versions held by a {@link KnowledgeBaseProvider}, and decides which
+ * ones can be released.
+ * <p>
+ * Root KBs (created by init/seed) are pinned, and only released when explicitly deleted. The
+ * versions derived by the KB operators (weave, bind, select, flatten, ...) are released when
+ * their time-to-live expires, or - least recently used first - when the (estimated) size of the
+ * manifestations held exceeds the memory budget. Versions can be pinned, unpinned, or given a
+ * TTL of their own.
+ * <p>
+ * Sizes are estimates: String and binary expressions are measured, while parsed expressions are
+ * assumed to have a configurable, fixed size.
+ */
+public class KnowledgeBaseLifecycle {
+
+  private final long ttlMillis;
+  private final long maxBytes;
+  private final long expressionBytes;
+  private final LongSupplier clock;
+
+  /**
+   * Access-ordered, so that iteration starts from the least recently used KB
+   */
+  private final Map<VersionKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  private long currentBytes;
+  private long evictions;
+  private long expirations;
+
+  /**
+   * Default lifecycle: derived KB versions expire after an hour, and are evicted when the
+   * manifestations held exceed 256 MB
+   */
+  public KnowledgeBaseLifecycle() {
+    this(new KnowledgeBaseLifecycleConfiguration());
+  }
+
+  public KnowledgeBaseLifecycle(KnowledgeBaseLifecycleConfiguration cfg) {
+    this(cfg, System::currentTimeMillis);
+  }
+
+  KnowledgeBaseLifecycle(KnowledgeBaseLifecycleConfiguration cfg, LongSupplier clock) {
+    int ttl = cfg.getTyped(KnowledgeBaseLifecycleParams.DERIVED_TTL);
+    int maxMB = cfg.getTyped(KnowledgeBaseLifecycleParams.MAX_SIZE);
+    int expressionKB = cfg.getTyped(KnowledgeBaseLifecycleParams.EXPRESSION_SIZE);
+    this.ttlMillis = ttl > 0 ? Duration.ofSeconds(ttl).toMillis() : -1;
+    this.maxBytes = maxMB > 0 ? maxMB * 1024L * 1024L : -1;
+    this.expressionBytes = expressionKB * 1024L;
+    this.clock = clock;
+  }
+
+  /**
+   * Starts (or updates) the tracking of a KB version. Updated versions keep their pinning and
+   * expiration, but are re-measured.
+   *
+   * @param kb      the KB version
+   * @param derived true if the version was derived from another KB version
+   */
+  synchronized void track(KnowledgeBase kb, boolean derived) {
+    var key = VersionKey.of(kb);
+    long bytes = estimateSize(kb.getManifestation());
+    Entry current = entries.get(key);
+    if (current != null) {
+      currentBytes += bytes - current.bytes;
+      current.bytes = bytes;
+    } else {
+      long expiry = derived && ttlMillis > 0 ? clock.getAsLong() + ttlMillis : -1;
+      entries.put(key, new Entry(bytes, !derived, expiry));
+      currentBytes += bytes;
+    }
+  }
+
+  /**
+   * Records an access to a KB version
+   *
+   * @return false if the version has expired, and should be released
+   */
+  synchronized boolean touch(UUID kbaseId, String versionTag) {
+    Entry entry = entries.get(new VersionKey(kbaseId, versionTag));
+    return entry == null || !entry.isExpired(clock.getAsLong());
+  }
+
+  synchronized void untrack(UUID kbaseId, String versionTag) {
+    Entry entry = entries.remove(new VersionKey(kbaseId, versionTag));
+    if (entry != null) {
+      currentBytes -= entry.bytes;
+    }
+  }
+
+  synchronized void untrackSeries(UUID kbaseId) {
+    Iterator<Map.Entry<VersionKey, Entry>> it = entries.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<VersionKey, Entry> e = it.next();
+      if (e.getKey().kbaseId.equals(kbaseId)) {
+        currentBytes -= e.getValue().bytes;
+        it.remove();
+      }
+    }
+  }
+
+  /**
+   * Selects the KB versions to be released: the expired ones, then the least recently used,
+   * unpinned ones, until the memory budget is met. The selected versions are no longer tracked.
+   *
+   * @param retained a KB version that must not be released (e.g. the one just published)
+   * @return the versions to be released, as (UUID, version tag) pairs
+   */
+  synchronized List<VersionKey> collect(KnowledgeBase retained) {
+    var keep = retained != null ? VersionKey.of(retained) : null;
+    long now = clock.getAsLong();
+    List<VersionKey> victims = new ArrayList<>();
+    Iterator<Map.Entry<VersionKey, Entry>> it = entries.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<VersionKey, Entry> e = it.next();
+      Entry entry = e.getValue();
+      if (e.getKey().equals(keep) || entry.pinned) {
+        continue;
+      }
+      if (entry.isExpired(now)) {
+        expirations++;
+      } else if (maxBytes > 0 && currentBytes > maxBytes) {
+        evictions++;
+      } else {
+        continue;
+      }
+      currentBytes -= entry.bytes;
+      victims.add(e.getKey());
+      it.remove();
+    }
+    return victims;
+  }
+
+  /**
+   * Protects a KB version from expiration and eviction
+   */
+  public synchronized void pin(UUID kbaseId, String versionTag) {
+    Entry entry = entries.get(new VersionKey(kbaseId, versionTag));
+    if (entry != null) {
+      entry.pinned = true;
+    }
+  }
+
+  /**
+   * Allows a KB version to be evicted, and to expire if it has a TTL
+   */
+  public synchronized void unpin(UUID kbaseId, String versionTag) {
+    Entry entry = entries.get(new VersionKey(kbaseId, versionTag));
+    if (entry != null) {
+      entry.pinned = false;
+    }
+  }
+
+  /**
+   * Sets the time-to-live of a KB version, from now. Pinned versions do not expire until
+   * unpinned.
+   */
+  public synchronized void expireAfter(UUID kbaseId, String versionTag, Duration ttl) {
+    Entry entry = entries.get(new VersionKey(kbaseId, versionTag));
+    if (entry != null) {
+      entry.expiry = clock.getAsLong() + ttl.toMillis();
+    }
+  }
+
+  public synchronized KnowledgeBaseMetrics getMetrics() {
+    return new KnowledgeBaseMetrics(
+        entries.size(),
+        (int) entries.values().stream().filter(e -> e.pinned).count(),
+        currentBytes,
+        evictions,
+        expirations);
+  }
+
+  /**
+   * @param kc a KB manifestation
+   * @return the estimated size (in bytes) of the manifestation
+   */
+  long estimateSize(KnowledgeCarrier kc) {
+    return estimateSize(kc, Collections.newSetFromMap(new IdentityHashMap<>()));
+  }
+
+  /**
+   * Components shared by more than one composite (or more than once by the same composite) are
+   * only counted the first time they are visited
+   */
+  private long estimateSize(KnowledgeCarrier kc, Set<Object> visited) {
+    if (kc == null || !visited.add(kc)) {
+      return 0;
+    }
+    long size = 0;
+    if (kc instanceof CompositeKnowledgeCarrier) {
+      var ckc = (CompositeKnowledgeCarrier) kc;
+      size += estimateSize(ckc.getStruct(), visited);
+      for (KnowledgeCarrier comp : ckc.getComponent()) {
+        size += estimateSize(comp, visited);
+      }
+    }
+    Object expr = kc.getExpression();
+    if (expr != null && !visited.add(expr)) {
+      return size;
+    }
+    if (expr instanceof String) {
+      size += 2L * ((String) expr).length();
+    } else if (expr instanceof byte[]) {
+      size += ((byte[]) expr).length;
+    } else if (expr != null) {
+      size += expressionBytes;
+    }
+    return size;
+  }
+
+  /***********************************************************************************/
+
+  /**
+   * Snapshot of the KBs held by a {@link KnowledgeBaseProvider}
+   */
+  public static class KnowledgeBaseMetrics {
+
+    private final int liveKnowledgeBases;
+    private final int pinnedKnowledgeBases;
+    private final long estimatedBytes;
+    private final long evictions;
+    private final long expirations;
+
+    KnowledgeBaseMetrics(int liveKnowledgeBases, int pinnedKnowledgeBases, long estimatedBytes,
+        long evictions, long expirations) {
+      this.liveKnowledgeBases = liveKnowledgeBases;
+      this.pinnedKnowledgeBases = pinnedKnowledgeBases;
+      this.estimatedBytes = estimatedBytes;
+      this.evictions = evictions;
+      this.expirations = expirations;
+    }
+
+    public int getLiveKnowledgeBases() {
+      return liveKnowledgeBases;
+    }
+
+    public int getPinnedKnowledgeBases() {
+      return pinnedKnowledgeBases;
+    }
+
+    public long getEstimatedBytes() {
+      return estimatedBytes;
+    }
+
+    public long getEvictions() {
+      return evictions;
+    }
+
+    public long getExpirations() {
+      return expirations;
+    }
+
+    @Override
+    public String toString() {
+      return "KnowledgeBaseMetrics{live=" + liveKnowledgeBases
+          + ", pinned=" + pinnedKnowledgeBases
+          + ", bytes=" + estimatedBytes
+          + ", evictions=" + evictions
+          + ", expirations=" + expirations + "}";
+    }
+  }
+
+  private static final class Entry {
+
+    private long bytes;
+    private boolean pinned;
+    private long expiry;
+
+    Entry(long bytes, boolean pinned, long expiry) {
+      this.bytes = bytes;
+      this.pinned = pinned;
+      this.expiry = expiry;
+    }
+
+    boolean isExpired(long now) {
+      return !pinned && expiry > 0 && now >= expiry;
+    }
+  }
+
+  static final class VersionKey {
+
+    final UUID kbaseId;
+    final String versionTag;
+
+    VersionKey(UUID kbaseId, String versionTag) {
+      this.kbaseId = kbaseId;
+      this.versionTag = versionTag != null ? versionTag : "";
+    }
+
+    static VersionKey of(KnowledgeBase kb) {
+      return new VersionKey(kb.getKbaseId().getUuid(), kb.getKbaseId().getVersionTag());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      VersionKey that = (VersionKey) o;
+      return kbaseId.equals(that.kbaseId) && versionTag.equals(that.versionTag);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(kbaseId, versionTag);
+    }
+  }
+}
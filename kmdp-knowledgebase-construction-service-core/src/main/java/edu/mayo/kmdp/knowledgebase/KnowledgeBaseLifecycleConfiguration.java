@@ -0,0 +1,71 @@
+package edu.mayo.kmdp.knowledgebase;
+
+import edu.mayo.kmdp.ConfigProperties;
+import edu.mayo.kmdp.Opt;
+import edu.mayo.kmdp.Option;
+import edu.mayo.kmdp.knowledgebase.KnowledgeBaseLifecycleConfiguration.KnowledgeBaseLifecycleParams;
+import java.util.Properties;
+
+/**
+ * {@link ConfigProperties} for {@link KnowledgeBaseLifecycle}
+ */
+public class KnowledgeBaseLifecycleConfiguration
+    extends
+    ConfigProperties<KnowledgeBaseLifecycleConfiguration, KnowledgeBaseLifecycleParams> {
+
+  private static final Properties DEFAULTS =
+      defaulted(KnowledgeBaseLifecycleParams.class);
+
+  public KnowledgeBaseLifecycleConfiguration() {
+    super(DEFAULTS);
+  }
+
+  public KnowledgeBaseLifecycleConfiguration(Properties defaults) {
+    super(defaults);
+  }
+
+  public KnowledgeBaseLifecycleConfiguration(String cfg) {
+    super(cfg);
+  }
+
+  @Override
+  public KnowledgeBaseLifecycleParams[] properties() {
+    return KnowledgeBaseLifecycleParams.values();
+  }
+
+  public enum KnowledgeBaseLifecycleParams implements
+      Option<KnowledgeBaseLifecycleParams> {
+
+    DERIVED_TTL(Opt.of(
+        "edu.mayo.kmdp.knowledgebase.derived.ttl",
+        "3600",
+        "Time to live (in seconds) of the KB versions derived by the KB operators, "
+            + "or 0 to keep them until evicted or deleted",
+        Integer.class,
+        false)),
+    MAX_SIZE(Opt.of(
+        "edu.mayo.kmdp.knowledgebase.size",
+        "256",
+        "Max (estimated) size (in MB) of the KB manifestations held in memory, "
+            + "or 0 for no limit",
+        Integer.class,
+        false)),
+    EXPRESSION_SIZE(Opt.of(
+        "edu.mayo.kmdp.knowledgebase.expression.size",
+        "64",
+        "Estimated size (in KB) of a parsed expression, whose actual size cannot be measured",
+        Integer.class,
+        false));
+
+    private final Opt<KnowledgeBaseLifecycleParams> opt;
+
+    KnowledgeBaseLifecycleParams(Opt<KnowledgeBaseLifecycleParams> opt) {
+      this.opt = opt;
+    }
+
+    @Override
+    public Opt<KnowledgeBaseLifecycleParams> getOption() {
+      return opt;
+    }
+  }
+}
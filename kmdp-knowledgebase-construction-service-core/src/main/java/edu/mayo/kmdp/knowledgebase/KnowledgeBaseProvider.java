@@ -1,5 +1,7 @@
 package edu.mayo.kmdp.knowledgebase;
 
+import static edu.mayo.kmdp.knowledgebase.KnowledgeCarriers.deepCopy;
+import static edu.mayo.kmdp.knowledgebase.KnowledgeCarriers.shallowCopy;
 import static org.omg.spec.api4kp._20200801.AbstractCompositeCarrier.ofUniformAggregate;
 import static org.omg.spec.api4kp._20200801.taxonomy.knowledgeoperation.KnowledgeProcessingOperationSeries.Description_Task;
 import static org.omg.spec.api4kp._20200801.taxonomy.knowledgeoperation.KnowledgeProcessingOperationSeries.Knowledge_Resource_Flattening_Task;
@@ -9,14 +11,27 @@ import static org.omg.spec.api4kp._20200801.taxonomy.knowledgeoperation.Knowledg
 
 import edu.mayo.kmdp.util.Util;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 import javax.inject.Named;
 import org.omg.spec.api4kp._20200801.Answer;
@@ -32,7 +47,6 @@ import org.omg.spec.api4kp._20200801.api.knowledgebase.v4.server.TranscreateApiI
 import org.omg.spec.api4kp._20200801.api.repository.asset.v4.server.KnowledgeAssetRepositoryApiInternal;
 import org.omg.spec.api4kp._20200801.datatypes.Bindings;
 import org.omg.spec.api4kp._20200801.id.IdentifierConstants;
-import org.omg.spec.api4kp._20200801.id.KeyIdentifier;
 import org.omg.spec.api4kp._20200801.id.Pointer;
 import org.omg.spec.api4kp._20200801.id.ResourceIdentifier;
 import org.omg.spec.api4kp._20200801.id.SemanticIdentifier;
@@ -44,6 +58,7 @@ import org.omg.spec.api4kp._20200801.services.KPServer;
 import org.omg.spec.api4kp._20200801.services.KnowledgeBase;
 import org.omg.spec.api4kp._20200801.services.KnowledgeCarrier;
 import org.omg.spec.api4kp._20200801.surrogate.KnowledgeArtifact;
+import org.omg.spec.api4kp._20200801.taxonomy.krlanguage.KnowledgeRepresentationLanguage;
 import org.springframework.beans.factory.annotation.Autowired;
 
 @KPServer
@@ -67,7 +82,25 @@ public class KnowledgeBaseProvider
 
   private Map<UUID, _applyNamedTransform> transcreators;
 
-  private Map<KeyIdentifier, KnowledgeBase> knowledgeBaseMap = new ConcurrentHashMap<>();
+  /**
+   * The KnowledgeBase versions, indexed by KB series (UUID) and version tag.
+   * <p>
+   * Each series is an immutable snapshot, and so are the KnowledgeBases it contains: updates
+   * build a new KnowledgeBase, and publish it by atomically replacing the series. Readers never
+   * lock, and never observe a partially updated KnowledgeBase.
+   */
+  private final Map<UUID, SortedMap<String, KnowledgeBase>> knowledgeBaseMap =
+      new ConcurrentHashMap<>();
+
+  private KnowledgeBaseLifecycle lifecycle = new KnowledgeBaseLifecycle();
+
+  private ExecutorService fanOutExecutor;
+
+  /**
+   * The private copy of the KB version a candidate operator is applied to, while the operator
+   * runs as one of the candidates of a fan-out (see {@link #race})
+   */
+  private static final ThreadLocal<KnowledgeBase> CANDIDATE_SOURCE = new ThreadLocal<>();
 
   private KnowledgeAssetRepositoryApiInternal assetRepository;
 
@@ -99,8 +132,13 @@ public class KnowledgeBaseProvider
       @Autowired(required = false) @KPOperation(Description_Task) @KPComponent
           List<_applyNamedIntrospect> inx,
       @Autowired(required = false) @KPOperation(Transcreation_Task) @KPComponent
-          List<_applyNamedTransform> trx) {
+          List<_applyNamedTransform> trx,
+      @Autowired(required = false)
+          KnowledgeBaseLifecycleConfiguration lifecycleCfg) {
     this(assetRepository);
+    if (lifecycleCfg != null) {
+      withLifecycle(new KnowledgeBaseLifecycle(lifecycleCfg));
+    }
     if (wvr != null) {
       wvr.forEach(this::withNamedWeaver);
     }
@@ -184,6 +222,19 @@ public class KnowledgeBaseProvider
     return withNamedTranscreator(transcreator.apply(this));
   }
 
+  /**
+   * Sets the policy that releases the KB versions no longer needed.
+   * Should be configured before any KB is created.
+   */
+  public KnowledgeBaseProvider withLifecycle(KnowledgeBaseLifecycle lifecycle) {
+    this.lifecycle = lifecycle;
+    return this;
+  }
+
+  public KnowledgeBaseLifecycle getLifecycle() {
+    return lifecycle;
+  }
+
   private <T> KnowledgeBaseProvider register(T comp, Map<UUID, T> map) {
     AbstractKnowledgeBaseOperator op = (AbstractKnowledgeBaseOperator) comp;
     UUID key = op.getOperatorId().getUuid();
@@ -196,21 +247,22 @@ public class KnowledgeBaseProvider
 
   @Override
   public Answer<Void> deleteKnowledgeBase(final UUID kbaseId, String params) {
-    knowledgeBaseMap.keySet().stream()
-        .filter(vid -> kbaseId.equals(vid.getUuid()))
-        .forEach(knowledgeBaseMap::remove);
+    knowledgeBaseMap.remove(kbaseId);
+    lifecycle.untrackSeries(kbaseId);
     return Answer.succeed();
   }
 
   private Answer<KnowledgeBase> deleteKnowledgeBaseVersion(KnowledgeBase kb) {
-    knowledgeBaseMap.remove(kb.getKbaseId().asKey());
+    UUID kbaseId = kb.getKbaseId().getUuid();
+    String versionTag = kb.getKbaseId().getVersionTag();
+    lifecycle.untrack(kbaseId, versionTag);
+    remove(kbaseId, versionTag);
     return Answer.notFound();
   }
 
   @Override
   public Answer<KnowledgeBase> getKnowledgeBase(UUID kbaseId, String versionTag, String params) {
-    ResourceIdentifier vid = SemanticIdentifier.newId(kbaseId, versionTag);
-    return Answer.ofNullable(knowledgeBaseMap.get(vid.asKey()));
+    return Answer.ofNullable(lookup(kbaseId, versionTag));
   }
 
   @Override
@@ -222,9 +274,7 @@ public class KnowledgeBaseProvider
   @Override
   public Answer<List<Pointer>> getKnowledgeBaseSeries(UUID kbaseId, String params) {
     return Answer.of(
-        knowledgeBaseMap.keySet().stream()
-            .filter(vid -> kbaseId.equals(vid.getUuid()))
-            .map(vid -> knowledgeBaseMap.get(vid))
+        knowledgeBaseMap.getOrDefault(kbaseId, Collections.emptySortedMap()).values().stream()
             .map(KnowledgeBase::getKbaseId)
             .collect(Collectors.toList()));
   }
@@ -241,7 +291,7 @@ public class KnowledgeBaseProvider
 
   @Override
   public Answer<Void> hasKnowledgeBase(UUID kbaseId, String versionTag, String params) {
-    return knowledgeBaseMap.containsKey(SemanticIdentifier.newId(kbaseId,versionTag).asKey())
+    return lookup(kbaseId, versionTag) != null
         ? Answer.succeed()
         : Answer.notFound();
   }
@@ -256,16 +306,14 @@ public class KnowledgeBaseProvider
   protected Answer<Pointer> initBlankKnowledgeBase() {
     Pointer vid = SemanticIdentifier
         .newIdAsPointer(UUID.randomUUID(), IdentifierConstants.VERSION_ZERO);
-    createEmptyKnowledgeBase(vid);
+    publish(newKnowledgeBase(vid, null), false);
     return Answer.of(vid);
   }
 
   public Answer<Pointer> seedKnowledgeBase(KnowledgeCarrier initialComponent) {
     ResourceIdentifier kbaseId = initialComponent.getAssetId();
 
-    if (!knowledgeBaseMap.containsKey(kbaseId.asKey())) {
-      createEmptyKnowledgeBase(kbaseId);
-    } else {
+    if (!publishIfAbsent(newKnowledgeBase(kbaseId.toInnerPointer(), null))) {
       return Answer.failed(
           new IllegalStateException("The KB with ID " + kbaseId.getTag() + ":"
               + kbaseId.getVersionTag() + " is already initialized"));
@@ -304,11 +352,135 @@ public class KnowledgeBaseProvider
     }
   }
 
-  private KnowledgeBase createEmptyKnowledgeBase(ResourceIdentifier vid) {
-    KnowledgeBase newKBase = new KnowledgeBase()
-        .withKbaseId(vid.toInnerPointer());
-    knowledgeBaseMap.put(vid.asKey(), newKBase);
-    return newKBase;
+  private KnowledgeBase newKnowledgeBase(Pointer vid, KnowledgeCarrier manifestation) {
+    return new KnowledgeBase()
+        .withKbaseId(vid)
+        .withManifestation(manifestation);
+  }
+
+  /**
+   * @return a new snapshot of the given KnowledgeBase, with a different manifestation
+   */
+  private KnowledgeBase newKnowledgeBase(KnowledgeBase kb, KnowledgeCarrier manifestation) {
+    return newKnowledgeBase(kb.getKbaseId(), manifestation);
+  }
+
+  private KnowledgeBase lookup(UUID kbaseId, String versionTag) {
+    KnowledgeBase candidateSource = CANDIDATE_SOURCE.get();
+    if (candidateSource != null) {
+      Pointer sourceId = candidateSource.getKbaseId();
+      if (sourceId.getUuid().equals(kbaseId)
+          && versionKey(sourceId.getVersionTag()).equals(versionKey(versionTag))) {
+        return candidateSource;
+      }
+    }
+    SortedMap<String, KnowledgeBase> series = knowledgeBaseMap.get(kbaseId);
+    KnowledgeBase kb = series != null ? series.get(versionKey(versionTag)) : null;
+    if (kb != null && !lifecycle.touch(kbaseId, versionTag)) {
+      // expired
+      deleteKnowledgeBaseVersion(kb);
+      return null;
+    }
+    return kb;
+  }
+
+  /**
+   * Publishes a KnowledgeBase, replacing the version with the same ID, if any
+   *
+   * @param derived true if the KnowledgeBase is derived from another KB version, as opposed
+   *                to being a root KB
+   * @return the published KnowledgeBase
+   */
+  private KnowledgeBase publish(KnowledgeBase kb, boolean derived) {
+    knowledgeBaseMap.compute(kb.getKbaseId().getUuid(), (k, series) -> with(series, kb));
+    lifecycle.track(kb, derived);
+    releaseUnused(kb);
+    return kb;
+  }
+
+  /**
+   * Publishes a KnowledgeBase, unless a version with the same ID already exists
+   *
+   * @return true if the KnowledgeBase was published
+   */
+  private boolean publishIfAbsent(KnowledgeBase kb) {
+    var published = new AtomicBoolean();
+    String versionKey = versionKey(kb.getKbaseId().getVersionTag());
+    knowledgeBaseMap.compute(kb.getKbaseId().getUuid(), (k, series) -> {
+      if (series != null && series.containsKey(versionKey)) {
+        return series;
+      }
+      published.set(true);
+      return with(series, kb);
+    });
+    if (published.get()) {
+      lifecycle.track(kb, false);
+      releaseUnused(kb);
+    }
+    return published.get();
+  }
+
+  /**
+   * Atomically replaces a KnowledgeBase with the result of an update. Concurrent updates of the
+   * same series are applied one after the other, so that none is lost. Updates that return the
+   * current KnowledgeBase leave the series unchanged.
+   *
+   * @return the updated KnowledgeBase, or null if no such KnowledgeBase exists
+   */
+  private KnowledgeBase update(UUID kbaseId, String versionTag, UnaryOperator<KnowledgeBase> op) {
+    var updated = new AtomicReference<KnowledgeBase>();
+    var changed = new AtomicBoolean();
+    knowledgeBaseMap.computeIfPresent(kbaseId, (k, series) -> {
+      KnowledgeBase current = series.get(versionKey(versionTag));
+      if (current == null) {
+        return series;
+      }
+      KnowledgeBase next = op.apply(current);
+      updated.set(next);
+      changed.set(next != current);
+      return next != current ? with(series, next) : series;
+    });
+    if (changed.get()) {
+      lifecycle.track(updated.get(), false);
+      releaseUnused(updated.get());
+    }
+    return updated.get();
+  }
+
+  private void remove(UUID kbaseId, String versionTag) {
+    String versionKey = versionKey(versionTag);
+    knowledgeBaseMap.computeIfPresent(kbaseId, (k, series) -> {
+      if (!series.containsKey(versionKey)) {
+        return series;
+      }
+      SortedMap<String, KnowledgeBase> next = new TreeMap<>(series);
+      next.remove(versionKey);
+      return next.isEmpty() ? null : Collections.unmodifiableSortedMap(next);
+    });
+  }
+
+  /**
+   * Releases the KB versions that have expired, or have been evicted to stay within the memory
+   * budget
+   *
+   * @param retained the KB version just published, which is never released
+   */
+  private void releaseUnused(KnowledgeBase retained) {
+    lifecycle.collect(retained)
+        .forEach(vk -> remove(vk.kbaseId, vk.versionTag));
+  }
+
+  private static SortedMap<String, KnowledgeBase> with(
+      SortedMap<String, KnowledgeBase> series, KnowledgeBase kb) {
+    SortedMap<String, KnowledgeBase> next = series != null
+        ? new TreeMap<>(series)
+        : new TreeMap<>();
+    next.put(versionKey(kb.getKbaseId().getVersionTag()), kb);
+    return Collections.unmodifiableSortedMap(next);
+  }
+
+  private static String versionKey(String versionTag) {
+    return versionTag != null ? versionTag : "";
   }
 
   @Override
@@ -317,30 +489,37 @@ public class KnowledgeBaseProvider
     Pointer versionedId = SemanticIdentifier.newIdAsPointer(kbaseId, versionTag)
         .withName(sourceArtifact.getLabel());
 
-    KnowledgeBase kBase = knowledgeBaseMap.get(versionedId.asKey());
-    if (kBase == null) {
-      return Answer.notFound();
-    }
-    if (kBase.getManifestation() == null) {
-      initKBContent(kBase,sourceArtifact);
-    } else {
-      addToKBContent(kBase,sourceArtifact);
+    var unsupported = new AtomicBoolean();
+    KnowledgeBase kBase = update(kbaseId, versionTag, current -> {
+      if (current.getManifestation() == null) {
+        return initKBContent(current, sourceArtifact);
+      }
+      if (!canAddTo(current.getManifestation())) {
+        unsupported.set(true);
+        return current;
+      }
+      return addToKBContent(current, sourceArtifact);
+    });
+    if (unsupported.get()) {
+      return Answer.unsupported();
     }
-    return Answer.of(versionedId);
+    return kBase != null
+        ? Answer.of(versionedId)
+        : Answer.notFound();
   }
 
   @Override
   public Answer<Pointer> setKnowledgeBaseStructure(UUID kbaseId, String versionTag,
       KnowledgeCarrier struct, String params) {
-    return getKnowledgeBase(kbaseId,versionTag)
-        .map(kb -> {
-          if (kb.getManifestation() instanceof CompositeKnowledgeCarrier) {
-            ((CompositeKnowledgeCarrier) kb.getManifestation())
+    KnowledgeBase kBase = update(kbaseId, versionTag,
+        current -> current.getManifestation() instanceof CompositeKnowledgeCarrier
+            ? newKnowledgeBase(current,
+            shallowCopy((CompositeKnowledgeCarrier) current.getManifestation())
                 .withStruct(struct)
-                .withStructType(CompositeStructType.GRAPH);
-          }
-          return kb.getKbaseId();
-        });
+                .withStructType(CompositeStructType.GRAPH))
+            : current);
+    return Answer.ofNullable(kBase)
+        .map(KnowledgeBase::getKbaseId);
   }
 
   @Override
@@ -352,44 +531,49 @@ public class KnowledgeBaseProvider
             .collect(Collectors.toList()));
   }
 
-  private void addToKBContent(KnowledgeBase kBase, KnowledgeCarrier sourceArtifact) {
-    //TODO work in progress..
+  /**
+   * Components can be added to a KB that holds a single carrier, or an unstructured composite.
+   * Adding a component to a structured composite would also require to update its struct, which
+   * is not supported.
+   */
+  private boolean canAddTo(KnowledgeCarrier kc) {
+    return !(kc instanceof CompositeKnowledgeCarrier)
+        || ((CompositeKnowledgeCarrier) kc).getStructType() == CompositeStructType.NONE;
+  }
+
+  private KnowledgeBase addToKBContent(KnowledgeBase kBase, KnowledgeCarrier sourceArtifact) {
     KnowledgeCarrier kc = kBase.getManifestation();
     if (kc == null) {
       throw new IllegalStateException("The KB should not be null");
     }
     if (kc instanceof CompositeKnowledgeCarrier) {
-      CompositeKnowledgeCarrier ckc = (CompositeKnowledgeCarrier) kc;
-      if (ckc.getStructType() == CompositeStructType.NONE) {
-        ckc.getComponent().add(sourceArtifact);
-      } else {
-        throw new UnsupportedOperationException();
-      }
+      return newKnowledgeBase(kBase,
+          shallowCopy((CompositeKnowledgeCarrier) kc).withComponent(sourceArtifact));
     } else {
-      kBase.setManifestation(
+      return newKnowledgeBase(kBase,
           ofUniformAggregate(
               Arrays.asList(kc, sourceArtifact)));
     }
   }
 
-  private void initKBContent(KnowledgeBase kBase, KnowledgeCarrier sourceArtifact) {
+  private KnowledgeBase initKBContent(KnowledgeBase kBase, KnowledgeCarrier sourceArtifact) {
     if (isLocal(sourceArtifact)) {
-      configureAsLocalKB(kBase, sourceArtifact);
+      return configureAsLocalKB(kBase, sourceArtifact);
     } else {
-      configureAsRemoteKB(kBase, sourceArtifact.getHref());
+      return configureAsRemoteKB(kBase, sourceArtifact.getHref());
     }
   }
 
   protected KnowledgeBase configureAsRemoteKB(KnowledgeBase kBase, URI endpoint) {
-    return kBase
-        .withManifestation(null)
-        .withKbaseId(kBase.getKbaseId().withHref(endpoint));
+    return newKnowledgeBase(
+        ((Pointer) kBase.getKbaseId().clone()).withHref(endpoint),
+        null);
   }
 
   protected KnowledgeBase configureAsLocalKB(KnowledgeBase kBase, KnowledgeCarrier kc) {
-    return kBase
-        .withManifestation(kc)
-        .withKbaseId(kBase.getKbaseId().withHref(null));
+    return newKnowledgeBase(
+        ((Pointer) kBase.getKbaseId().clone()).withHref(null),
+        kc);
   }
 
 
@@ -413,8 +597,7 @@ public class KnowledgeBaseProvider
     return getKnowledgeBase(kbaseId, baseVersionTag)
         .flatMap(currKB -> {
           Pointer vid = SemanticIdentifier.newIdAsPointer(kbaseId, UUID.randomUUID().toString());
-          return Answer.of(createEmptyKnowledgeBase(vid)
-              .withManifestation(currKB.getManifestation()));
+          return Answer.of(publish(newKnowledgeBase(vid, currKB.getManifestation()), true));
         });
   }
 
@@ -426,46 +609,25 @@ public class KnowledgeBaseProvider
     }
 
     _applyNamedWeave weaver = weavers.get(operatorId);
-    return nextKnowledgeBaseVersion(kbaseId, versionTag, null)
-        .flatMap(kb ->
-            weaver.applyNamedWeave(
-                operatorId,
-                aspects,
-                kb.getKbaseId().getUuid(),
-                kb.getKbaseId().getVersionTag(),
-                xParams)
-                .map(kb::withManifestation)
-                .or(() -> deleteKnowledgeBaseVersion(kb))
-        ).map(KnowledgeBase::getKbaseId);
+    return deriveKnowledgeBase(kbaseId, versionTag,
+        src -> weaver.applyNamedWeave(operatorId, aspects, kbaseId, versionTag, xParams));
   }
 
 
   @Override
   public Answer<Pointer> weave(UUID kbaseId, String versionTag, KnowledgeCarrier aspects, String xParams) {
-    return Answer.anyDo(
-        weavers.values(),
-        weaverComponent ->
-            namedWeave(
-                kbaseId,
-                versionTag,
-                ((KnowledgePlatformOperator<?>) weaverComponent).getOperatorId().getUuid(),
-                aspects,
-                xParams));
+    return deriveKnowledgeBase(kbaseId, versionTag, weavers.values(), aspects,
+        (weaver, src) -> weaver.applyNamedWeave(
+            operatorId(weaver), aspects, kbaseId, versionTag, xParams));
   }
 
 
 
   @Override
   public Answer<Pointer> bind(UUID kbaseId, String versionTag, Bindings bindings, String xParams) {
-    return Answer.anyDo(
-        binders.values(),
-        binderComponent ->
-            namedBind(
-                kbaseId,
-                versionTag,
-                ((KnowledgePlatformOperator<?>) binderComponent).getOperatorId().getUuid(),
-                bindings,
-                xParams));
+    return deriveKnowledgeBase(kbaseId, versionTag, binders.values(), null,
+        (binder, src) -> binder.applyNamedBind(
+            operatorId(binder), bindings, kbaseId, versionTag, xParams));
   }
 
   @Override
@@ -476,31 +638,16 @@ public class KnowledgeBaseProvider
     }
 
     _applyNamedBind binder = binders.get(operatorId);
-    return nextKnowledgeBaseVersion(kbaseId, versionTag, null)
-        .flatMap(kb ->
-            binder.applyNamedBind(
-                operatorId,
-                bindings,
-                kb.getKbaseId().getUuid(),
-                kb.getKbaseId().getVersionTag(),
-                xParams)
-                .map(kb::withManifestation)
-                .or(() -> deleteKnowledgeBaseVersion(kb))
-        ).map(KnowledgeBase::getKbaseId);
+    return deriveKnowledgeBase(kbaseId, versionTag,
+        src -> binder.applyNamedBind(operatorId, bindings, kbaseId, versionTag, xParams));
   }
 
   @Override
   public Answer<Pointer> select(UUID kbaseId, String versionTag,
       KnowledgeCarrier selectDefinition, String xParams) {
-    return Answer.anyDo(
-        selectors.values(),
-        selectorComponent ->
-            namedSelect(
-                kbaseId,
-                versionTag,
-                ((KnowledgePlatformOperator<?>) selectorComponent).getOperatorId().getUuid(),
-                selectDefinition,
-                xParams));
+    return deriveKnowledgeBase(kbaseId, versionTag, selectors.values(), selectDefinition,
+        (selector, src) -> selector.applyNamedSelect(
+            operatorId(selector), selectDefinition, kbaseId, versionTag, xParams));
   }
 
 
@@ -511,37 +658,23 @@ public class KnowledgeBaseProvider
       return Answer.unsupported();
     }
 
-    _applyNamedSelect binder = selectors.get(operatorId);
-    return nextKnowledgeBaseVersion(kbaseId, versionTag, null)
-        .flatMap(kb ->
-            binder.applyNamedSelect(
-                operatorId,
-                selectDefinition,
-                kb.getKbaseId().getUuid(),
-                kb.getKbaseId().getVersionTag(),
-                xParams)
-                .map(kc -> setKnowledgeBaseContent(kb, kc))
-                .or(() -> deleteKnowledgeBaseVersion(kb))
-        ).map(KnowledgeBase::getKbaseId);
+    _applyNamedSelect selector = selectors.get(operatorId);
+    return deriveKnowledgeBase(kbaseId, versionTag,
+        src -> selector.applyNamedSelect(operatorId, selectDefinition, kbaseId, versionTag,
+            xParams));
   }
 
   private KnowledgeBase setKnowledgeBaseContent(KnowledgeBase kb, KnowledgeCarrier kc) {
     if (kb.getKbaseId() != null && kc.getLabel() == null) {
       kc.setLabel(kb.getKbaseId().getName());
     }
-    return kb.withManifestation(kc);
+    return publish(newKnowledgeBase(kb, kc), true);
   }
 
   @Override
   public Answer<Pointer> flatten(UUID kbaseId, String versionTag, String xParams) {
-    Answer<Pointer> ptr = Answer.anyDo(
-        flatteners.values(),
-        flattenerComponent ->
-            namedFlatten(
-                kbaseId,
-                versionTag,
-                ((KnowledgePlatformOperator<?>) flattenerComponent).getOperatorId().getUuid(),
-                xParams));
+    Answer<Pointer> ptr = deriveKnowledgeBase(kbaseId, versionTag, flatteners.values(), null,
+        (flattener, src) -> flattener.flattenArtifact(src.getManifestation(), null, null));
     if (ptr.isSuccess() && ! Util.isEmpty(xParams) && xParams.contains("clear")) {
       getKnowledgeBase(kbaseId,versionTag).ifPresent(this::deleteKnowledgeBaseVersion);
     }
@@ -556,28 +689,16 @@ public class KnowledgeBaseProvider
     }
 
     _flattenArtifact flattener = flatteners.get(operatorId);
-    return nextKnowledgeBaseVersion(kbaseId, versionTag, null)
-        .flatMap(kb ->
-            flattener.flattenArtifact(
-                kb.getManifestation(),
-                null, null)
-                .map(kb::withManifestation)
-                .or(() -> deleteKnowledgeBaseVersion(kb))
-        ).map(KnowledgeBase::getKbaseId);
+    return deriveKnowledgeBase(kbaseId, versionTag,
+        src -> flattener.flattenArtifact(src.getManifestation(), null, null));
   }
 
   @Override
   public Answer<Pointer> extract(UUID kbaseId, String versionTag, UUID rootAssetid,
       String xParams) {
-    return Answer.anyDo(
-        extractors.values(),
-        extractorComponent ->
-            namedExtract(
-                kbaseId,
-                versionTag,
-                rootAssetid,
-                ((KnowledgePlatformOperator<?>) extractorComponent).getOperatorId().getUuid(),
-                xParams));
+    return deriveKnowledgeBase(kbaseId, versionTag, extractors.values(), null,
+        (extractor, src) -> extractor.applyNamedExtract(
+            operatorId(extractor), kbaseId, versionTag, rootAssetid, xParams));
   }
 
   @Override
@@ -588,29 +709,16 @@ public class KnowledgeBaseProvider
     }
 
     _applyNamedExtract extract = extractors.get(operatorId);
-    return nextKnowledgeBaseVersion(kbaseId, versionTag, null)
-        .flatMap(kb ->
-            extract.applyNamedExtract(
-                operatorId,
-                kbaseId,
-                versionTag,
-                rootAssetid,
-                xParams)
-                .map(kb::withManifestation)
-                .or(() -> deleteKnowledgeBaseVersion(kb))
-        ).map(KnowledgeBase::getKbaseId);
+    return deriveKnowledgeBase(kbaseId, versionTag,
+        src -> extract.applyNamedExtract(operatorId, kbaseId, versionTag, rootAssetid, xParams));
   }
 
 
   @Override
   public Answer<Pointer> introspect(UUID kbaseId, String versionTag, String xParams) {
-    return Answer.anyDo(
-        introspectors.values(),
-        introspectorComponent ->
-            introspect(
-                kbaseId,
-                versionTag,
-                xParams));
+    return deriveKnowledgeBase(kbaseId, versionTag, introspectors.values(), null,
+        (introspector, src) -> introspector.applyNamedIntrospect(
+            operatorId(introspector), kbaseId, versionTag, xParams));
   }
 
   @Override
@@ -621,28 +729,16 @@ public class KnowledgeBaseProvider
     }
 
     _applyNamedIntrospect introspect = introspectors.get(operatorId);
-    return nextKnowledgeBaseVersion(kbaseId, versionTag, null)
-        .flatMap(kb ->
-            introspect.applyNamedIntrospect(
-                operatorId,
-                kbaseId,
-                versionTag,
-                xParams)
-                .map(kb::withManifestation)
-                .or(() -> deleteKnowledgeBaseVersion(kb))
-        ).map(KnowledgeBase::getKbaseId);
+    return deriveKnowledgeBase(kbaseId, versionTag,
+        src -> introspect.applyNamedIntrospect(operatorId, kbaseId, versionTag, xParams));
   }
 
 
   @Override
   public Answer<Pointer> transform(UUID kbaseId, String versionTag, String xParams) {
-    return Answer.anyDo(
-        transcreators.values(),
-        transcreatorComponent ->
-            transform(
-                kbaseId,
-                versionTag,
-                xParams));
+    return deriveKnowledgeBase(kbaseId, versionTag, transcreators.values(), null,
+        (transcreator, src) -> transcreator.applyNamedTransform(
+            operatorId(transcreator), kbaseId, versionTag, xParams));
   }
 
   @Override
@@ -652,17 +748,209 @@ public class KnowledgeBaseProvider
       return Answer.unsupported();
     }
 
-    _applyNamedTransform introspect = transcreators.get(operatorId);
-    return nextKnowledgeBaseVersion(kbaseId, versionTag, null)
-        .flatMap(kb ->
-            introspect.applyNamedTransform(
-                operatorId,
-                kbaseId,
-                versionTag,
-                xParams)
-                .map(kb::withManifestation)
-                .or(() -> deleteKnowledgeBaseVersion(kb))
-        ).map(KnowledgeBase::getKbaseId);
+    _applyNamedTransform transcreator = transcreators.get(operatorId);
+    return deriveKnowledgeBase(kbaseId, versionTag,
+        src -> transcreator.applyNamedTransform(operatorId, kbaseId, versionTag, xParams));
+  }
+
+  /***********************************************************************************/
+
+  /**
+   * Applies an operator to a KB version, and publishes the result as a new, derived version of
+   * the KB. No version is created if the operator fails.
+   *
+   * @param kbaseId    the KB series
+   * @param versionTag the KB version
+   * @param op         the operator, applied to the KB version
+   * @return a Pointer to the new KB version
+   */
+  private Answer<Pointer> deriveKnowledgeBase(UUID kbaseId, String versionTag,
+      Function<KnowledgeBase, Answer<KnowledgeCarrier>> op) {
+    return getKnowledgeBase(kbaseId, versionTag)
+        .flatMap(src -> op.apply(src)
+            .map(kc -> publishDerivedVersion(kbaseId, kc))
+            .or(Answer::notFound))
+        .map(KnowledgeBase::getKbaseId);
+  }
+
+  /**
+   * Tries the operators that could apply to a KB version (see {@link #candidates}) concurrently,
+   * and publishes the result of the first one to succeed - in the order of the operators - as a
+   * new, derived version of the KB. The other attempts are cancelled.
+   *
+   * @param kbaseId    the KB series
+   * @param versionTag the KB version
+   * @param operators  the operators
+   * @param input      the (optional) input of the operation, other than the KB
+   * @param op         applies an operator to the KB version
+   * @return a Pointer to the new KB version
+   */
+  private <T> Answer<Pointer> deriveKnowledgeBase(UUID kbaseId, String versionTag,
+      Collection<T> operators, KnowledgeCarrier input,
+      BiFunction<T, KnowledgeBase, Answer<KnowledgeCarrier>> op) {
+    return deriveKnowledgeBase(kbaseId, versionTag,
+        src -> race(candidates(operators, src.getManifestation(), input), src, op));
+  }
+
+  private KnowledgeBase publishDerivedVersion(UUID kbaseId, KnowledgeCarrier kc) {
+    Pointer vid = SemanticIdentifier.newIdAsPointer(kbaseId, UUID.randomUUID().toString());
+    return setKnowledgeBaseContent(newKnowledgeBase(vid, null), kc);
+  }
+
+  /**
+   * Filters the operators that support the language of (at least one of) the given carriers.
+   * Returns all the operators if the language of any carrier is unknown, or if no operator
+   * supports any of the languages.
+   *
+   * @param operators the operators
+   * @param carriers  the carriers the operators would be applied to
+   * @return the operators worth trying
+   */
+  protected <T> List<T> candidates(Collection<T> operators, KnowledgeCarrier... carriers) {
+    List<KnowledgeRepresentationLanguage> languages = new ArrayList<>();
+    for (KnowledgeCarrier kc : carriers) {
+      if (!collectLanguages(kc, languages)) {
+        return new ArrayList<>(operators);
+      }
+    }
+    List<T> supported = operators.stream()
+        .filter(op -> supportsAny((KnowledgePlatformOperator<?>) op, languages))
+        .collect(Collectors.toList());
+    return supported.isEmpty() ? new ArrayList<>(operators) : supported;
+  }
+
+  private boolean supportsAny(KnowledgePlatformOperator<?> op,
+      List<KnowledgeRepresentationLanguage> languages) {
+    KnowledgeRepresentationLanguage supported = op.getSupportedLanguage();
+    return supported == null || languages.stream().anyMatch(supported::sameAs);
+  }
+
+  /**
+   * @return false if the language of the carrier, or of any of its components, is unknown
+   */
+  private boolean collectLanguages(KnowledgeCarrier kc,
+      List<KnowledgeRepresentationLanguage> languages) {
+    if (kc == null) {
+      return true;
+    }
+    boolean known = true;
+    if (kc instanceof CompositeKnowledgeCarrier) {
+      CompositeKnowledgeCarrier ckc = (CompositeKnowledgeCarrier) kc;
+      known = collectLanguages(ckc.getStruct(), languages);
+      for (KnowledgeCarrier comp : ckc.getComponent()) {
+        known &= collectLanguages(comp, languages);
+      }
+    } else if (kc.getRepresentation() == null || kc.getRepresentation().getLanguage() == null) {
+      return false;
+    }
+    if (kc.getRepresentation() != null && kc.getRepresentation().getLanguage() != null) {
+      languages.add(kc.getRepresentation().getLanguage());
+    }
+    return known;
+  }
+
+  /**
+   * Applies the candidates concurrently, returning the result of the first candidate (in the
+   * given order) that succeeds, and cancelling the other attempts. Candidates are tried one after
+   * the other when there is only one, or if already running as part of a fan-out, so that nested
+   * fan-outs cannot exhaust the executor.
+   * <p>
+   * When there is more than one candidate, each one is applied to its own copy of the source KB
+   * version, so that an operator that modifies the manifestation in place cannot interfere with
+   * the others - including the cancelled ones, which may not stop immediately.
+   */
+  private <T> Answer<KnowledgeCarrier> race(List<T> candidates, KnowledgeBase src,
+      BiFunction<T, KnowledgeBase, Answer<KnowledgeCarrier>> op) {
+    if (candidates.size() == 1) {
+      return op.apply(candidates.get(0), src);
+    }
+    if (candidates.isEmpty() || CANDIDATE_SOURCE.get() != null) {
+      Answer<KnowledgeCarrier> ans = Answer.failed();
+      for (T candidate : candidates) {
+        ans = attempt(candidate, src, op);
+        if (ans.isSuccess()) {
+          return ans;
+        }
+      }
+      return ans;
+    }
+
+    List<Future<Answer<KnowledgeCarrier>>> futures = new ArrayList<>(candidates.size());
+    try {
+      for (T candidate : candidates) {
+        futures.add(getFanOutExecutor().submit(() -> attempt(candidate, src, op)));
+      }
+      Answer<KnowledgeCarrier> ans = Answer.failed();
+      for (Future<Answer<KnowledgeCarrier>> attempt : futures) {
+        try {
+          ans = attempt.get();
+          if (ans.isSuccess()) {
+            return ans;
+          }
+        } catch (ExecutionException e) {
+          ans = Answer.failed(e);
+        }
+      }
+      return ans;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return Answer.failed(e);
+    } finally {
+      futures.forEach(f -> f.cancel(true));
+    }
+  }
+
+  /**
+   * Applies a candidate operator to a private copy of the source KB version, which the KB
+   * lookups performed by the operator (on the same thread) resolve to
+   */
+  private <T> Answer<KnowledgeCarrier> attempt(T candidate, KnowledgeBase src,
+      BiFunction<T, KnowledgeBase, Answer<KnowledgeCarrier>> op) {
+    KnowledgeBase outer = CANDIDATE_SOURCE.get();
+    KnowledgeBase copy = newKnowledgeBase(src, deepCopy(src.getManifestation()));
+    CANDIDATE_SOURCE.set(copy);
+    try {
+      return op.apply(candidate, copy);
+    } finally {
+      if (outer != null) {
+        CANDIDATE_SOURCE.set(outer);
+      } else {
+        CANDIDATE_SOURCE.remove();
+      }
+    }
+  }
+
+  private static UUID operatorId(Object operator) {
+    return ((KnowledgePlatformOperator<?>) operator).getOperatorId().getUuid();
+  }
+
+  /**
+   * Sets the (bounded) executor used to try the candidate operators of the unnamed operations
+   * (weave, bind, select, ...) concurrently. Defaults to a pool shared by all the providers,
+   * with one thread per processor.
+   */
+  public KnowledgeBaseProvider withFanOutExecutor(ExecutorService executor) {
+    this.fanOutExecutor = executor;
+    return this;
+  }
+
+  private ExecutorService getFanOutExecutor() {
+    return fanOutExecutor != null ? fanOutExecutor : DefaultFanOutExecutor.INSTANCE;
+  }
+
+  private static final class DefaultFanOutExecutor {
+
+    private static final ExecutorService INSTANCE = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(),
+        r -> {
+          var t = new Thread(r, "kbase-fan-out");
+          t.setDaemon(true);
+          return t;
+        });
+
+    private DefaultFanOutExecutor() {
+      // holder
+    }
   }
 
   public boolean hasNamedComponent(UUID id) {
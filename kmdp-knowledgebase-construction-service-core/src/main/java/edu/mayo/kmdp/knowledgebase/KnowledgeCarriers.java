@@ -0,0 +1,96 @@
+package edu.mayo.kmdp.knowledgebase;
+
+import edu.mayo.kmdp.language.ParseCache;
+import org.omg.spec.api4kp._20200801.services.CompositeKnowledgeCarrier;
+import org.omg.spec.api4kp._20200801.services.KnowledgeCarrier;
+
+/**
+ * Copy-on-write helpers for the manifestations of the KnowledgeBases.
+ * <p>
+ * The manifestation of a published KB version is never modified in place, so a derived version
+ * can share whatever it does not change with its source: a new composite shares the component
+ * and struct carriers, and a new carrier shares the (parsed) expression, unless replaced.
+ * Operators should use these helpers instead of deep-cloning a manifestation, and only copy the
+ * parts of a model they actually modify.
+ */
+public final class KnowledgeCarriers {
+
+  private KnowledgeCarriers() {
+    // static helpers
+  }
+
+  /**
+   * Shallow copy of a composite carrier, which shares the components and the struct, but not
+   * the list that holds the components, with the original. Components can then be added to, or
+   * removed from, the copy without affecting the original.
+   *
+   * @param ckc the composite carrier
+   * @return a shallow copy of the carrier
+   */
+  public static CompositeKnowledgeCarrier shallowCopy(CompositeKnowledgeCarrier ckc) {
+    return new CompositeKnowledgeCarrier()
+        .withAssetId(ckc.getAssetId())
+        .withArtifactId(ckc.getArtifactId())
+        .withLabel(ckc.getLabel())
+        .withHref(ckc.getHref())
+        .withLevel(ckc.getLevel())
+        .withRepresentation(ckc.getRepresentation())
+        .withExpression(ckc.getExpression())
+        .withRootId(ckc.getRootId())
+        .withStruct(ckc.getStruct())
+        .withStructType(ckc.getStructType())
+        .withComponent(ckc.getComponent());
+  }
+
+  /**
+   * Deep copy of a carrier, and of its components and struct, if composite. The expressions are
+   * copied when their type supports it (see {@link ParseCache#copyOf}), and shared otherwise.
+   * <p>
+   * Reserved to the isolation of operators that may run concurrently on the same KB version:
+   * see {@link #shallowCopy} for the derivation of new versions.
+   *
+   * @param kc the carrier
+   * @return a copy of the carrier, which can be modified without affecting the original
+   */
+  public static KnowledgeCarrier deepCopy(KnowledgeCarrier kc) {
+    if (kc == null) {
+      return null;
+    }
+    Object expression = kc.getExpression() != null
+        ? ParseCache.copyOf(kc.getExpression()).orElse(kc.getExpression())
+        : null;
+    if (kc instanceof CompositeKnowledgeCarrier) {
+      CompositeKnowledgeCarrier ckc = (CompositeKnowledgeCarrier) kc;
+      CompositeKnowledgeCarrier copy = shallowCopy(ckc)
+          .withStruct(deepCopy(ckc.getStruct()));
+      copy.getComponent().replaceAll(KnowledgeCarriers::deepCopy);
+      copy.setExpression(expression);
+      return copy;
+    }
+    return withExpression(kc, expression);
+  }
+
+  /**
+   * Shallow copy of a carrier, with a different expression. The metadata (identifiers,
+   * representation, ...) is shared with the original.
+   *
+   * @param kc         the carrier
+   * @param expression the new expression
+   * @return a new carrier, with the given expression
+   */
+  public static KnowledgeCarrier withExpression(KnowledgeCarrier kc, Object expression) {
+    if (kc instanceof CompositeKnowledgeCarrier) {
+      return shallowCopy((CompositeKnowledgeCarrier) kc)
+          .withExpression(expression);
+    }
+    return new KnowledgeCarrier()
+        .withAssetId(kc.getAssetId())
+        .withArtifactId(kc.getArtifactId())
+        .withLabel(kc.getLabel())
+        .withHref(kc.getHref())
+        .withLevel(kc.getLevel())
+        .withRepresentation(kc.getRepresentation())
+        .withExpression(expression);
+  }
+
+}
@@ -1,15 +1,15 @@
 package edu.mayo.kmdp.knowledgebase.extractors.rdf;
 
+import static edu.mayo.kmdp.knowledgebase.KnowledgeCarriers.shallowCopy;
+import static edu.mayo.kmdp.knowledgebase.KnowledgeCarriers.withExpression;
 import static org.omg.spec.api4kp._20200801.taxonomy.knowledgeoperation.KnowledgeProcessingOperationSeries.Extraction_Task;
 import static org.omg.spec.api4kp._20200801.taxonomy.krlanguage.KnowledgeRepresentationLanguageSeries.OWL_2;
 
 import edu.mayo.kmdp.knowledgebase.AbstractKnowledgeBaseOperator;
 import edu.mayo.kmdp.util.JenaUtil;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 import org.apache.jena.query.ParameterizedSparqlString;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
@@ -59,22 +59,25 @@ public class SimplePivotExtractor
     }
     return kbManager.getKnowledgeBaseManifestation(kbaseId,versionTag)
         .map(kc -> {
-          KnowledgeCarrier kcc = (KnowledgeCarrier) kc.clone();
-          if (kcc instanceof CompositeKnowledgeCarrier) {
-            kcc.components()
+          if (kc instanceof CompositeKnowledgeCarrier) {
+            return kc.components()
                 .filter(comp -> rootAssetid.equals(comp.getAssetId().getUuid()))
                 .findFirst()
-                .ifPresent(root -> pivot((CompositeKnowledgeCarrier) kcc, root.getAssetId()));
+                .map(root -> pivot((CompositeKnowledgeCarrier) kc, root.getAssetId()))
+                .orElse(kc);
           }
-          return kcc;
+          return kc;
         });
   }
 
-  private void pivot(CompositeKnowledgeCarrier kcc,
+  /**
+   * Restricts a composite to the closure of the components (transitively) imported by a root.
+   * The source composite is not modified: the pivoted composite shares the retained components
+   * with the source, and only the struct is rebuilt.
+   */
+  private KnowledgeCarrier pivot(CompositeKnowledgeCarrier ckc,
       ResourceIdentifier root) {
-    KnowledgeCarrier clonedStruct = (KnowledgeCarrier) kcc.getStruct().clone();
-
-    Model m = clonedStruct.as(Model.class).orElseThrow();
+    Model m = ckc.getStruct().as(Model.class).orElseThrow();
 
     ParameterizedSparqlString psq = new ParameterizedSparqlString(select);
     psq.setIri("?X", root.getVersionId().toString());
@@ -88,16 +91,11 @@ public class SimplePivotExtractor
         .filterKeep(s -> relatedClosure.contains(s.getSubject()))
         .forEachRemaining(m1::add);
 
-    clonedStruct.setExpression(m1);
-    kcc.setStruct(clonedStruct);
-
-    List<KnowledgeCarrier> filteredComponents = kcc.getComponent().stream()
-        .filter(kc -> relatedClosure
-            .contains(ResourceFactory.createResource(kc.getAssetId().getVersionId().toString())))
-        .collect(Collectors.toList());
-    kcc.getComponent().clear();
-    kcc.getComponent().addAll(filteredComponents);
-
-    kcc.setRootId(root);
+    CompositeKnowledgeCarrier kcc = shallowCopy(ckc)
+        .withStruct(withExpression(ckc.getStruct(), m1))
+        .withRootId(root);
+    kcc.getComponent().removeIf(kc -> !relatedClosure
+        .contains(ResourceFactory.createResource(kc.getAssetId().getVersionId().toString())));
+    return kcc;
   }
 }
@@ -1,10 +1,6 @@
 package edu.mayo.kmdp.knowledgebase.flatteners.dmn.v1_2;
 
-import static edu.mayo.kmdp.language.common.dmn.v1_2.DMN12Utils.findBKM;
-import static edu.mayo.kmdp.language.common.dmn.v1_2.DMN12Utils.findDecision;
-import static edu.mayo.kmdp.language.common.dmn.v1_2.DMN12Utils.findDecisionService;
-import static edu.mayo.kmdp.language.common.dmn.v1_2.DMN12Utils.findInput;
-import static edu.mayo.kmdp.language.common.dmn.v1_2.DMN12Utils.findKnowledgeSource;
+import static edu.mayo.kmdp.language.common.dmn.v1_2.DMN12Utils.asId;
 import static edu.mayo.kmdp.language.common.dmn.v1_2.DMN12Utils.idToLocalRef;
 import static edu.mayo.kmdp.language.common.dmn.v1_2.DMN12Utils.streamBKM;
 import static edu.mayo.kmdp.language.common.dmn.v1_2.DMN12Utils.streamDecisions;
@@ -17,7 +13,10 @@ import edu.mayo.kmdp.util.URIUtil;
 import edu.mayo.ontology.taxonomies.ws.responsecodes.ResponseCodeSeries;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -25,6 +24,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import javax.inject.Named;
+import javax.xml.bind.JAXBElement;
 import org.omg.spec.api4kp._20200801.Answer;
 import org.omg.spec.api4kp._20200801.Explainer;
 import org.omg.spec.api4kp._20200801.ServerSideException;
@@ -39,6 +39,7 @@ import org.omg.spec.api4kp._20200801.taxonomy.krlanguage.KnowledgeRepresentation
 import org.omg.spec.dmn._20180521.model.ObjectFactory;
 import org.omg.spec.dmn._20180521.model.TAuthorityRequirement;
 import org.omg.spec.dmn._20180521.model.TBusinessKnowledgeModel;
+import org.omg.spec.dmn._20180521.model.TDRGElement;
 import org.omg.spec.dmn._20180521.model.TDMNElementReference;
 import org.omg.spec.dmn._20180521.model.TDecision;
 import org.omg.spec.dmn._20180521.model.TDecisionService;
@@ -85,37 +86,61 @@ public class DMN12ModelFlattener
       String params) {
     if (carrier instanceof CompositeKnowledgeCarrier) {
       CompositeKnowledgeCarrier ckc = (CompositeKnowledgeCarrier) carrier;
-      KnowledgeCarrier rootCarrier = ckc.mainComponent();
-
-      TDefinitions flatRoot = (TDefinitions) rootCarrier.as(TDefinitions.class)
-          .orElseThrow(() ->
-              new IllegalStateException(
-                  "FATAL - Expected DMN TDefinitions, found "
-                      + rootCarrier.getExpression().getClass()))
-          .clone();
-
-      Map<String, TDefinitions> comps = ckc.componentsAs(TDefinitions.class)
-          .collect(Collectors.toMap(
-              TDefinitions::getNamespace,
-              dmn -> dmn
-          ));
+      return flatten(ckc.mainComponent(), new ModelIndex(ckc), ckc);
+    } else {
+      return Answer.of(carrier);
+    }
+  }
 
-      try {
-        mergeModels(flatRoot, comps);
-      } catch (AbstractThrowableProblem problem) {
-        return Answer.failed(problem);
+  /**
+   * Flattens each DMN model in a composite, as if it were the root of the composite.
+   * <p>
+   * Unlike flattening the same composite once per root, the models are indexed once, and the
+   * (external) decisions, services, inputs and knowledge sources required by more than one root
+   * are only resolved once: each flat model receives its own copy of the resolved elements.
+   *
+   * @param ckc the composite
+   * @return the flat models, by the asset id of the original models
+   */
+  public Answer<Map<UUID, KnowledgeCarrier>> flattenAll(CompositeKnowledgeCarrier ckc) {
+    ModelIndex index = new ModelIndex(ckc);
+    Map<UUID, KnowledgeCarrier> flatModels = new LinkedHashMap<>();
+    for (KnowledgeCarrier kc : ckc.componentList()) {
+      if (kc.getRepresentation() != null
+          && DMN_1_2.sameAs(kc.getRepresentation().getLanguage())) {
+        Answer<KnowledgeCarrier> flat = flatten(kc, index, ckc);
+        if (flat.isFailure()) {
+          return Answer.failed(flat);
+        }
+        flatModels.put(kc.getAssetId().getUuid(), flat.get());
       }
+    }
+    return Answer.of(flatModels);
+  }
 
-      KnowledgeCarrier flat = ofAst(flatRoot, ckc.getRepresentation())
-          .withAssetId(rootCarrier.getAssetId())
-          .withLabel(rootCarrier.getLabel());
-      return Answer.of(flat);
-    } else {
-      return Answer.of(carrier);
+  private Answer<KnowledgeCarrier> flatten(KnowledgeCarrier rootCarrier, ModelIndex comps,
+      CompositeKnowledgeCarrier ckc) {
+    TDefinitions flatRoot = (TDefinitions) rootCarrier.as(TDefinitions.class)
+        .orElseThrow(() ->
+            new IllegalStateException(
+                "FATAL - Expected DMN TDefinitions, found "
+                    + rootCarrier.getExpression().getClass()))
+        .clone();
+
+    comps.clearMerged();
+    try {
+      mergeModels(flatRoot, comps);
+    } catch (AbstractThrowableProblem problem) {
+      return Answer.failed(problem);
     }
+
+    KnowledgeCarrier flat = ofAst(flatRoot, ckc.getRepresentation())
+        .withAssetId(rootCarrier.getAssetId())
+        .withLabel(rootCarrier.getLabel());
+    return Answer.of(flat);
   }
 
-  private void mergeModels(TDefinitions flatRoot, Map<String, TDefinitions> comps) {
+  private void mergeModels(TDefinitions flatRoot, ModelIndex comps) {
     List<TDecision> rootDecisions = streamDecisions(flatRoot).collect(Collectors.toList());
     // copy in a list to prevent concurrent modification exceptions
     rootDecisions.forEach(decision -> ensureResolved(decision, flatRoot, comps));
@@ -123,7 +148,7 @@ public class DMN12ModelFlattener
 
 
   private void ensureResolved(TDecision decision, TDefinitions flatRoot,
-      Map<String, TDefinitions> comps) {
+      ModelIndex comps) {
     decision.getInformationRequirement().forEach(
         infoReq -> ensureResolved(infoReq, flatRoot, comps));
     decision.getKnowledgeRequirement().forEach(
@@ -133,17 +158,23 @@ public class DMN12ModelFlattener
   }
 
   private void ensureResolved(TKnowledgeRequirement knowReq, TDefinitions flatRoot,
-      Map<String, TDefinitions> comps) {
+      ModelIndex comps) {
     URI ref = URI.create(knowReq.getRequiredKnowledge().getHref());
     if (!isInternal(ref)) {
       URI externalModelId = URIUtil.normalizeURI(ref);
       TDefinitions tgtModel = comps.get(externalModelId.toString());
 
-      Optional<TDecisionService> decisionServiceOpt = resolveDecisionService(tgtModel, ref);
+      if (comps.isMerged(ref)) {
+        // already merged, when required by another element
+        knowReq.getRequiredKnowledge().setHref(idToLocalRef(ref));
+        return;
+      }
+      // only Decision Services are merged here: other (e.g. BKM) references are left as they are
+      Optional<TDecisionService> decisionServiceOpt = comps.decisionService(tgtModel, ref);
       decisionServiceOpt.ifPresent(
           tDecisionService -> resolveDecisionServiceDependencies(
               tDecisionService, tgtModel, knowReq, ref, flatRoot, comps));
-    } else {
+    } else if (comps.resolve(ref)) {
       TBusinessKnowledgeModel tbkm = streamBKM(flatRoot)
           .filter(bkm -> bkm.getId().contains(ref.getFragment()))
           .findFirst()
@@ -153,24 +184,24 @@ public class DMN12ModelFlattener
       tbkm.getKnowledgeRequirement().stream()
           .filter(kreq -> kreq.getRequiredKnowledge() != null)
           .forEach(kreq -> ensureResolved(kreq, flatRoot, comps));
-      tbkm.getKnowledgeRequirement();
     }
   }
 
   private void resolveDecisionServiceDependencies(TDecisionService decisionService,
       TDefinitions tgtModel, TKnowledgeRequirement knowReq,
       URI ref, TDefinitions flatRoot,
-      Map<String, TDefinitions> comps) {
+      ModelIndex comps) {
 
     Set<TKnowledgeRequirement> encapsulatedKRs = new HashSet<>();
     decisionService.getEncapsulatedDecision().forEach(enc -> {
-      TDecision innerDecision = resolveDecision(tgtModel, URI.create(enc.getHref()));
+      TDecision innerDecision = comps.decision(tgtModel, URI.create(enc.getHref()));
       encapsulatedKRs.addAll(innerDecision.getKnowledgeRequirement());
     });
 
     // do not carry over the hidden decisions
     decisionService.getEncapsulatedDecision().clear();
     addToFlat(flatRoot, decisionService);
+    comps.merge(ref, decisionService);
     knowReq.getRequiredKnowledge().setHref(idToLocalRef(ref));
 
     List<String> inputRefs = new ArrayList<>();
@@ -179,9 +210,11 @@ public class DMN12ModelFlattener
         URI inputUriRef = URI.create(inputRef.getHref());
         String inputModelId = URIUtil.normalizeURIString(inputUriRef);
         TDefinitions extTgtModel = comps.get(inputModelId);
-        TInputData input = resolveInput(extTgtModel, inputUriRef);
-
-        addToFlat(flatRoot, input);
+        if (!comps.isMerged(inputUriRef)) {
+          TInputData input = comps.input(extTgtModel, inputUriRef);
+          addToFlat(flatRoot, input);
+          comps.merge(inputUriRef, input);
+        }
         inputRef.setHref(idToLocalRef(inputUriRef));
         inputRefs.add(inputRef.getHref());
       }
@@ -192,9 +225,12 @@ public class DMN12ModelFlattener
         URI inputUriRef = URI.create(inputRef.getHref());
         String inputModelId = URIUtil.normalizeURIString(inputUriRef);
         TDefinitions extTgtModel = comps.get(inputModelId);
-        TDecision input = resolveDecision(extTgtModel, inputUriRef);
-
-        addToFlat(flatRoot, input);
+        if (!comps.isMerged(inputUriRef)) {
+          // merged, but its requirements are only resolved if required by another decision
+          TDecision input = comps.decision(extTgtModel, inputUriRef);
+          addToFlat(flatRoot, input);
+          comps.merge(inputUriRef, input);
+        }
         inputRef.setHref(idToLocalRef(inputUriRef));
         inputDecRefs.add(inputRef.getHref());
       }
@@ -213,15 +249,20 @@ public class DMN12ModelFlattener
       List<String> inputDecRefs,
       Set<TKnowledgeRequirement> encapsulatedKRs,
       TDefinitions flatRoot,
-      Map<String, TDefinitions> comps) {
+      ModelIndex comps) {
     URI outputUriRef = URI.create(outputRef.getHref());
     String outputModelId = URIUtil.normalizeURIString(outputUriRef);
     TDefinitions extTgtModel = comps.get(outputModelId);
 
-    TDecision output = resolveDecision(extTgtModel, outputUriRef);
-
-    addToFlat(flatRoot, output);
     outputRef.setHref(idToLocalRef(outputUriRef));
+    if (comps.isMerged(outputUriRef)) {
+      return;
+    }
+    TDecision output = comps.decision(extTgtModel, outputUriRef);
+    addToFlat(flatRoot, output);
+    comps.merge(outputUriRef, output);
+    // the requirements of the output are resolved (or replaced) below
+    comps.resolve(outputUriRef);
 
     output.getInformationRequirement().clear();
     inputRefs.forEach(in ->
@@ -245,15 +286,17 @@ public class DMN12ModelFlattener
           String extModelId = URIUtil.normalizeURIString(outputSvcRef);
           TDefinitions extModel = comps.get(extModelId);
 
-          Optional<TBusinessKnowledgeModel> otbkm = resolveBKM(extModel, outputSvcRef);
+          Optional<TBusinessKnowledgeModel> otbkm = comps.bkm(extModel, outputSvcRef);
           if (otbkm.isPresent()) {
-            TBusinessKnowledgeModel tbkm = otbkm.get();
-            addToFlat(flatRoot, tbkm);
-
-            tbkm.getKnowledgeRequirement().stream()
-                .filter(kreq -> kreq.getRequiredKnowledge() != null)
-                .forEach(kreq -> ensureResolved(kreq, flatRoot, comps));
-
+            if (!comps.isMerged(outputSvcRef)) {
+              TBusinessKnowledgeModel tbkm = otbkm.get();
+              addToFlat(flatRoot, tbkm);
+              comps.merge(outputSvcRef, tbkm);
+
+              tbkm.getKnowledgeRequirement().stream()
+                  .filter(kreq -> kreq.getRequiredKnowledge() != null)
+                  .forEach(kreq -> ensureResolved(kreq, flatRoot, comps));
+            }
             outKReq.getRequiredKnowledge().setHref(idToLocalRef(outputSvcRef));
           } else {
             // points directly to the KS
@@ -264,7 +307,7 @@ public class DMN12ModelFlattener
   }
 
   private void ensureResolved(TInformationRequirement infoReq, TDefinitions flatRoot,
-      Map<String, TDefinitions> comps) {
+      ModelIndex comps) {
     if (infoReq.getRequiredDecision() != null) {
       URI ref = URI.create(infoReq.getRequiredDecision().getHref());
       if (!isInternal(ref)) {
@@ -278,12 +321,17 @@ public class DMN12ModelFlattener
               "Unable to resolve external DMN fragment reference " + ref,
               URI.create(flatRoot.getNamespace()));
         }
-        TDecision subDecision = resolveDecision(tgtModel, ref);
-
-        addToFlat(flatRoot, subDecision);
         infoReq.getRequiredDecision().setHref(idToLocalRef(ref));
-
-        ensureResolved(subDecision, flatRoot, comps);
+        TDecision subDecision = comps.merged(ref, TDecision.class).orElse(null);
+        if (subDecision == null) {
+          subDecision = comps.decision(tgtModel, ref);
+          addToFlat(flatRoot, subDecision);
+          comps.merge(ref, subDecision);
+        }
+        // the decision may have been merged, but not resolved, as the input of a service
+        if (comps.resolve(ref)) {
+          ensureResolved(subDecision, flatRoot, comps);
+        }
       }
     } else if (infoReq.getRequiredInput() != null) {
       URI ref = URI.create(infoReq.getRequiredInput().getHref());
@@ -291,33 +339,38 @@ public class DMN12ModelFlattener
         URI externalModelId = URIUtil.normalizeURI(ref);
         TDefinitions tgtModel = comps.get(externalModelId.toString());
 
-        TInputData input = resolveInput(tgtModel, ref);
-
-        addToFlat(flatRoot, input);
+        if (!comps.isMerged(ref)) {
+          TInputData input = comps.input(tgtModel, ref);
+          addToFlat(flatRoot, input);
+          comps.merge(ref, input);
+        }
         infoReq.getRequiredInput().setHref(idToLocalRef(ref));
       }
     }
   }
 
   private void ensureResolved(TAuthorityRequirement authReq, TDefinitions flatRoot,
-      Map<String, TDefinitions> comps) {
+      ModelIndex comps) {
     if (authReq.getRequiredAuthority() != null) {
       URI ref = URI.create(authReq.getRequiredAuthority().getHref());
       if (!isInternal(ref)) {
         URI externalModelId = URIUtil.normalizeURI(ref);
         TDefinitions tgtModel = comps.get(externalModelId.toString());
 
-        TKnowledgeSource knowledgeSource = resolveKnowledgeSource(tgtModel, ref);
-
-        addToFlat(flatRoot, knowledgeSource);
+        if (!comps.isMerged(ref)) {
+          TKnowledgeSource knowledgeSource = comps.knowledgeSource(tgtModel, ref);
+          addToFlat(flatRoot, knowledgeSource);
+          comps.merge(ref, knowledgeSource);
+        }
         authReq.getRequiredAuthority().setHref(idToLocalRef(ref));
       }
     }
   }
 
 
-  private TDecision resolveDecision(TDefinitions externalModel, URI ref) {
-    TDecision externalDec = findDecision(ref, externalModel)
+  private TDecision resolveDecision(ModelIndex comps,
+      TDefinitions externalModel, URI ref) {
+    TDecision externalDec = comps.find(externalModel, ref, TDecision.class)
         .orElseThrow(() -> new IllegalStateException(
             String.format("Unable to resolve fragment %s as dmn:Decision in referenced model %s",
                 ref.getFragment(), externalModel.getName())));
@@ -358,9 +411,10 @@ public class DMN12ModelFlattener
   }
 
 
-  private Optional<TDecisionService> resolveDecisionService(TDefinitions externalModel, URI ref) {
+  private Optional<TDecisionService> resolveDecisionService(ModelIndex comps,
+      TDefinitions externalModel, URI ref) {
     Optional<TDecisionService> externalDecService =
-        findDecisionService(ref, externalModel);
+        comps.find(externalModel, ref, TDecisionService.class);
     if (externalDecService.isEmpty()) {
       return Optional.empty();
     }
@@ -391,20 +445,23 @@ public class DMN12ModelFlattener
   }
 
 
-  private TInputData resolveInput(TDefinitions externalModel, URI ref) {
-    TInputData externalInput = findInput(ref, externalModel)
+  private TInputData resolveInput(ModelIndex comps,
+      TDefinitions externalModel, URI ref) {
+    TInputData externalInput = comps.find(externalModel, ref, TInputData.class)
         .orElseThrow(() -> new IllegalStateException(
             String.format("Unable to resolve fragment %s as dmn:Input in referenced model %s",
                 ref.getFragment(), externalModel.getName())));
     return (TInputData) externalInput.clone();
   }
 
-  private Optional<TBusinessKnowledgeModel> resolveBKM(TDefinitions externalModel, URI ref) {
-    return findBKM(ref, externalModel);
+  private Optional<TBusinessKnowledgeModel> resolveBKM(ModelIndex comps,
+      TDefinitions externalModel, URI ref) {
+    return comps.find(externalModel, ref, TBusinessKnowledgeModel.class);
   }
 
-  private TKnowledgeSource resolveKnowledgeSource(TDefinitions externalModel, URI ref) {
-    TKnowledgeSource externalKnowledge = findKnowledgeSource(ref, externalModel)
+  private TKnowledgeSource resolveKnowledgeSource(ModelIndex comps,
+      TDefinitions externalModel, URI ref) {
+    TKnowledgeSource externalKnowledge = comps.find(externalModel, ref, TKnowledgeSource.class)
         .orElseThrow(() -> new IllegalStateException(
             String.format("Unable to resolve fragment %s as dmn:KSource in referenced model %s",
                 ref.getFragment(), externalModel.getName())));
@@ -445,4 +502,128 @@ public class DMN12ModelFlattener
         .add(factory.createBusinessKnowledgeModel(bkm));
   }
 
+  /**
+   * The DMN models of a composite, by namespace, with their elements by id, and the external
+   * elements resolved so far.
+   * <p>
+   * Resolved elements are cached, and copied each time they are added to a flat model, since the
+   * flat models are then modified in place. This includes the BKMs, so that the source models
+   * are not modified either. The index also tracks, for the model being flattened, the external
+   * elements already merged (i.e. added) into it, and the elements whose requirements have been
+   * resolved, so that each element is added, and its requirements resolved, at most once. An
+   * element can be added without being resolved (e.g. the input decisions of a service).
+   */
+  private class ModelIndex {
+
+    private final Map<String, TDefinitions> models;
+    private final Map<TDefinitions, Map<String, TDRGElement>> elements = new IdentityHashMap<>();
+
+    private final Map<String, TDRGElement> merged = new HashMap<>();
+    private final Set<String> resolved = new HashSet<>();
+
+    private final Map<URI, TDecision> decisions = new HashMap<>();
+    private final Map<URI, Optional<TDecisionService>> decisionServices = new HashMap<>();
+    private final Map<URI, TInputData> inputs = new HashMap<>();
+    private final Map<URI, Optional<TBusinessKnowledgeModel>> bkms = new HashMap<>();
+    private final Map<URI, TKnowledgeSource> knowledgeSources = new HashMap<>();
+
+    ModelIndex(CompositeKnowledgeCarrier ckc) {
+      this.models = ckc.componentsAs(TDefinitions.class)
+          .collect(Collectors.toMap(
+              TDefinitions::getNamespace,
+              dmn -> dmn
+          ));
+    }
+
+    TDefinitions get(String namespace) {
+      return models.get(namespace);
+    }
+
+    <T extends TDRGElement> Optional<T> find(TDefinitions model, URI ref, Class<T> type) {
+      return Optional.ofNullable(elements.computeIfAbsent(model, this::indexElements)
+              .get(asId(ref.getFragment())))
+          .filter(type::isInstance)
+          .map(type::cast);
+    }
+
+    private Map<String, TDRGElement> indexElements(TDefinitions model) {
+      Map<String, TDRGElement> index = new HashMap<>();
+      model.getDrgElement().stream()
+          .map(JAXBElement::getValue)
+          .filter(drg -> drg.getId() != null)
+          .forEach(drg -> index.putIfAbsent(asId(drg.getId()), drg));
+      return index;
+    }
+
+    /**
+     * Records that an element has been added to the model being flattened
+     */
+    void merge(URI ref, TDRGElement element) {
+      merged.put(key(ref), element);
+    }
+
+    boolean isMerged(URI ref) {
+      return merged.containsKey(key(ref));
+    }
+
+    /**
+     * @return the element added to the model being flattened, if any
+     */
+    <T extends TDRGElement> Optional<T> merged(URI ref, Class<T> type) {
+      return Optional.ofNullable(merged.get(key(ref)))
+          .filter(type::isInstance)
+          .map(type::cast);
+    }
+
+    /**
+     * Records that the requirements of an element are being resolved
+     *
+     * @return true if the requirements have not been resolved before
+     */
+    boolean resolve(URI ref) {
+      return resolved.add(key(ref));
+    }
+
+    void clearMerged() {
+      merged.clear();
+      resolved.clear();
+    }
+
+    private String key(URI ref) {
+      return isInternal(ref) || ref.getFragment() == null
+          ? ref.toString()
+          : URIUtil.normalizeURIString(ref) + "#" + asId(ref.getFragment());
+    }
+
+    TDecision decision(TDefinitions externalModel, URI ref) {
+      return (TDecision) decisions
+          .computeIfAbsent(ref, r -> resolveDecision(this, externalModel, r))
+          .clone();
+    }
+
+    Optional<TDecisionService> decisionService(TDefinitions externalModel, URI ref) {
+      return decisionServices
+          .computeIfAbsent(ref, r -> resolveDecisionService(this, externalModel, r))
+          .map(ds -> (TDecisionService) ds.clone());
+    }
+
+    TInputData input(TDefinitions externalModel, URI ref) {
+      return (TInputData) inputs
+          .computeIfAbsent(ref, r -> resolveInput(this, externalModel, r))
+          .clone();
+    }
+
+    Optional<TBusinessKnowledgeModel> bkm(TDefinitions externalModel, URI ref) {
+      return bkms
+          .computeIfAbsent(ref, r -> resolveBKM(this, externalModel, r))
+          .map(tbkm -> (TBusinessKnowledgeModel) tbkm.clone());
+    }
+
+    TKnowledgeSource knowledgeSource(TDefinitions externalModel, URI ref) {
+      return (TKnowledgeSource) knowledgeSources
+          .computeIfAbsent(ref, r -> resolveKnowledgeSource(this, externalModel, r))
+          .clone();
+    }
+  }
+
 }
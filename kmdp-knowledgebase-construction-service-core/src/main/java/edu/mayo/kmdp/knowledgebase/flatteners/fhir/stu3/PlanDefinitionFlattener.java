@@ -15,12 +15,15 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.inject.Named;
 import org.hl7.fhir.dstu3.model.ActivityDefinition;
 import org.hl7.fhir.dstu3.model.DomainResource;
@@ -30,6 +33,7 @@ import org.hl7.fhir.dstu3.model.PlanDefinition;
 import org.hl7.fhir.dstu3.model.PlanDefinition.PlanDefinitionActionComponent;
 import org.hl7.fhir.dstu3.model.Reference;
 import org.hl7.fhir.dstu3.model.RelatedArtifact;
+import org.hl7.fhir.dstu3.model.Resource;
 import org.omg.spec.api4kp._20200801.AbstractCarrier;
 import org.omg.spec.api4kp._20200801.Answer;
 import org.omg.spec.api4kp._20200801.api.knowledgebase.v4.server.CompositionalApiInternal;
@@ -83,43 +87,58 @@ public class PlanDefinitionFlattener
     return repackage(kc, masterPlanDefinition, subPlans);
   }
 
+  /**
+   * Flattens the sub plans into the master plan.
+   * <p>
+   * The external action definitions of the master plan, the components, and the actions of the
+   * referenced plans are indexed (once), so that each reference is resolved with a lookup,
+   * rather than a traversal of the actions and components. Likewise, the nested contained
+   * resources are pulled into the master plan with a single traversal.
+   */
   public void innerFlatten(
       PlanDefinition masterPlanDefinition,
       List<PlanDefinition> subPlans,
       List<KnowledgeCarrier> components) {
 
+    Map<String, List<PlanDefinitionActionComponent>> externalDefinitions = new HashMap<>();
+    indexExternalDefinitions(masterPlanDefinition.getAction(), externalDefinitions);
     subPlans.forEach(subPlan -> {
       // TODO FIXME FlattenInfo resolves the references of the Master Plan..
-      flattenInto(subPlan, masterPlanDefinition);
+      flattenInto(subPlan, masterPlanDefinition, externalDefinitions);
     });
 
+    ReferenceIndex index = new ReferenceIndex(masterPlanDefinition, components);
     subPlans.forEach(subPlan ->
         // .. while resolveReferences takes care of the sub-decision refs across models.//
         // There should be one method, not two partially overlapping ones
         resolveReferences(
             masterPlanDefinition,
             subPlan,
-            components)
+            index)
     );
 
     reshapeContained(masterPlanDefinition);
   }
 
   private void reshapeContained(PlanDefinition masterPlanDefinition) {
-    pullContained(masterPlanDefinition)
-        .filter(x -> x != masterPlanDefinition)
-        .forEach(x -> masterPlanDefinition.getContained().add(x));
+    // pre-order, as if each contained resource were moved, one at a time, to the master plan
+    List<DomainResource> pulled = new ArrayList<>();
+    pullContained(masterPlanDefinition, pulled);
+    masterPlanDefinition.getContained().addAll(pulled);
   }
 
-  private Stream<DomainResource> pullContained(DomainResource root) {
-    return Stream.concat(
-        Stream.of(root),
-        new ArrayList<>(root.getContained()).stream()
-            .flatMap(StreamUtil.filterAs(DomainResource.class))
-            .flatMap(x -> {
-              root.getContained().remove(x);
-              return pullContained(x);
-            }));
+  private void pullContained(DomainResource root, List<DomainResource> pulled) {
+    List<DomainResource> nested = root.getContained().stream()
+        .flatMap(StreamUtil.filterAs(DomainResource.class))
+        .collect(Collectors.toList());
+    if (nested.isEmpty()) {
+      return;
+    }
+    root.getContained().removeIf(DomainResource.class::isInstance);
+    for (DomainResource x : nested) {
+      pulled.add(x);
+      pullContained(x, pulled);
+    }
   }
 
 
@@ -185,9 +204,7 @@ public class PlanDefinitionFlattener
 
   protected void resolveReferences(PlanDefinition masterPlan,
       PlanDefinition subPlan, List<KnowledgeCarrier> component) {
-    // copy before iterating, since the collection may change during the processing
-    new ArrayList<>(subPlan.getAction())
-        .forEach(act -> resolveReferences(masterPlan, subPlan, act, component));
+    resolveReferences(masterPlan, subPlan, new ReferenceIndex(masterPlan, component));
   }
 
   protected void resolveReferences(
@@ -195,12 +212,27 @@ public class PlanDefinitionFlattener
       PlanDefinition subPlan,
       PlanDefinitionActionComponent action,
       List<KnowledgeCarrier> component) {
+    resolveReferences(masterPlan, subPlan, action, new ReferenceIndex(masterPlan, component));
+  }
+
+  private void resolveReferences(PlanDefinition masterPlan,
+      PlanDefinition subPlan, ReferenceIndex index) {
+    // copy before iterating, since the collection may change during the processing
+    new ArrayList<>(subPlan.getAction())
+        .forEach(act -> resolveReferences(masterPlan, subPlan, act, index));
+  }
+
+  private void resolveReferences(
+      PlanDefinition masterPlan,
+      PlanDefinition subPlan,
+      PlanDefinitionActionComponent action,
+      ReferenceIndex index) {
 
     if (action.hasDefinition()) {
 
       var referredDefinition =
           Optional.ofNullable((DomainResource) action.getDefinition().getResource())
-          .or(() -> tryResolveInternalReference(action.getDefinition(), component));
+          .or(() -> tryResolveInternalReference(action.getDefinition(), index));
 
       if (referredDefinition.isPresent()) {
         DomainResource target = referredDefinition.get();
@@ -209,22 +241,24 @@ public class PlanDefinitionFlattener
         if (target instanceof PlanDefinition) {
           String fragmentId = action.getDefinition().getIdentifier().getValue();
           Optional<PlanDefinitionActionComponent> referredAction =
-              lookupDefinedAction((PlanDefinition) target, fragmentId);
+              index.lookupDefinedAction((PlanDefinition) target, fragmentId);
 
           logger.info("Resolved {}", referredAction.isPresent());
           if (referredAction.isPresent()) {
             subPlan.getAction().remove(action);
             subPlan.addAction(referredAction.get());
+            index.invalidate(subPlan);
             action.getDefinition()
                 .setResource(target);
 
-            if (!masterPlan.getContained().contains(target)) {
+            if (index.addContained(target)) {
               masterPlan.addContained(target);
             }
           }
         } else if (target instanceof ActivityDefinition) {
           subPlan.getContained().remove(target);
           masterPlan.addContained(target);
+          index.addContained(target);
         }
 
       } else {
@@ -237,46 +271,30 @@ public class PlanDefinitionFlattener
       }
     }
     new ArrayList<>(action.getAction())
-        .forEach(act -> resolveReferences(masterPlan, subPlan, act, component));
+        .forEach(act -> resolveReferences(masterPlan, subPlan, act, index));
   }
 
   private Optional<DomainResource> tryResolveInternalReference(
-      Reference defReference, List<KnowledgeCarrier> component) {
+      Reference defReference, ReferenceIndex index) {
     if (Util.isEmpty(defReference.getReference())) {
       return Optional.empty();
     }
-    URI ref = URI.create(defReference.getReference());
-    String artifactRef = URIUtil.normalizeURIString(ref);
-    logger.info("Found action pure reference {}", ref);
-    return component.stream()
-        .map(kc -> kc.as(DomainResource.class))
-        .flatMap(StreamUtil::trimStream)
-        .filter(pd -> pd.getId().substring(1)  // ignore the leading '#'
-            .equals(artifactRef.substring(artifactRef.lastIndexOf('/') + 1)))
-        .findAny();
+    logger.info("Found action pure reference {}", defReference.getReference());
+    return index.lookupComponent(artifactKey(defReference.getReference()));
   }
 
-  private Optional<PlanDefinitionActionComponent> lookupDefinedAction(PlanDefinition target,
-      String fragmentId) {
-    return target.getAction().stream()
-        .map(subAct -> lookupDefinedAction(subAct, fragmentId))
-        .flatMap(StreamUtil::trimStream)
-        .findAny();
-  }
-
-  private Optional<PlanDefinitionActionComponent> lookupDefinedAction(
-      PlanDefinitionActionComponent target,
-      String fragmentId) {
-    if (("#" + fragmentId).equals(target.getId())) {
-      return Optional.of(target);
-    }
-    return target.getAction().stream()
-        .filter(act -> fragmentId.equals(act.getId()))
-        .findAny();
+  /**
+   * @return the id of the artifact referenced by a (non-local) reference, i.e. the last segment
+   * of its path
+   */
+  private static String artifactKey(String reference) {
+    String artifactRef = URIUtil.normalizeURIString(URI.create(reference));
+    return artifactRef.substring(artifactRef.lastIndexOf('/') + 1);
   }
 
 
-  private void flattenInto(PlanDefinition subPlan, PlanDefinition masterPlan) {
+  private void flattenInto(PlanDefinition subPlan, PlanDefinition masterPlan,
+      Map<String, List<PlanDefinitionActionComponent>> externalDefinitions) {
     logger.info(">>>>>>>>>> Flattening {} into {}", subPlan.getName(), masterPlan.getName());
 
     if (masterPlan.getType().getCodingFirstRep()
@@ -296,11 +314,35 @@ public class PlanDefinitionFlattener
         masterPlan.addContained(subPlan);
       }
 
-      rewriteActionDefinition(masterPlan.getAction(), subPlan);
+      List<PlanDefinitionActionComponent> referring =
+          externalDefinitions.remove(localSubPlanId.substring(1));
+      if (referring != null) {
+        referring.forEach(act -> {
+          act.getDefinition().setReference(subPlan.getId());
+          act.getDefinition().setResource(subPlan);
+        });
+      }
     }
 
   }
 
+  /**
+   * Indexes the actions, at any depth, with a (non-local) reference to an external definition,
+   * by the id of the referenced artifact
+   */
+  private void indexExternalDefinitions(List<PlanDefinitionActionComponent> actions,
+      Map<String, List<PlanDefinitionActionComponent>> externalDefinitions) {
+    for (PlanDefinitionActionComponent act : actions) {
+      String ref = act.getDefinition().getReference();
+      if (ref != null && !ref.startsWith("#")) {
+        externalDefinitions
+            .computeIfAbsent(artifactKey(ref), k -> new ArrayList<>())
+            .add(act);
+      }
+      indexExternalDefinitions(act.getAction(), externalDefinitions);
+    }
+  }
+
   protected void rewriteActionDefinition(List<PlanDefinitionActionComponent> action,
       PlanDefinition mergedPlan) {
     action.stream()
@@ -325,4 +367,74 @@ public class PlanDefinitionFlattener
     return FHIR_STU3;
   }
 
+  /**
+   * Lookup tables for the resolution of the references between the plans being flattened: the
+   * components by id, the actions of the referenced plans by id, and the resources already
+   * contained in the master plan
+   */
+  private static class ReferenceIndex {
+
+    private final Map<String, DomainResource> components = new HashMap<>();
+    private final Map<PlanDefinition, PlanActions> actions = new IdentityHashMap<>();
+    private final Set<Resource> contained = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    ReferenceIndex(PlanDefinition masterPlan, List<KnowledgeCarrier> components) {
+      components.stream()
+          .map(kc -> kc.as(DomainResource.class))
+          .flatMap(StreamUtil::trimStream)
+          .filter(res -> !Util.isEmpty(res.getId()))
+          // ignore the leading '#'
+          .forEach(res -> this.components.putIfAbsent(res.getId().substring(1), res));
+      contained.addAll(masterPlan.getContained());
+    }
+
+    Optional<DomainResource> lookupComponent(String id) {
+      return Optional.ofNullable(components.get(id));
+    }
+
+    /**
+     * Looks up an action of a plan, either a top level action with the id '#fragmentId', or
+     * one of their sub-actions with the id 'fragmentId'
+     */
+    Optional<PlanDefinitionActionComponent> lookupDefinedAction(PlanDefinition target,
+        String fragmentId) {
+      PlanActions index = actions.computeIfAbsent(target, PlanActions::new);
+      return Optional.ofNullable(index.topLevel.get("#" + fragmentId))
+          .or(() -> Optional.ofNullable(index.nested.get(fragmentId)));
+    }
+
+    /**
+     * Discards the index of the actions of a plan, after the actions have been changed
+     */
+    void invalidate(PlanDefinition plan) {
+      actions.remove(plan);
+    }
+
+    /**
+     * @return true if the resource was not already contained in the master plan
+     */
+    boolean addContained(Resource resource) {
+      return contained.add(resource);
+    }
+  }
+
+  private static class PlanActions {
+
+    private final Map<String, PlanDefinitionActionComponent> topLevel = new HashMap<>();
+    private final Map<String, PlanDefinitionActionComponent> nested = new HashMap<>();
+
+    PlanActions(PlanDefinition plan) {
+      for (PlanDefinitionActionComponent act : plan.getAction()) {
+        if (act.getId() != null) {
+          topLevel.putIfAbsent(act.getId(), act);
+        }
+        for (PlanDefinitionActionComponent subAct : act.getAction()) {
+          if (subAct.getId() != null) {
+            nested.putIfAbsent(subAct.getId(), subAct);
+          }
+        }
+      }
+    }
+  }
+
 }
@@ -0,0 +1,200 @@
+package edu.mayo.kmdp.knowledgebase;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.omg.spec.api4kp._20200801.AbstractCarrier.rep;
+import static org.omg.spec.api4kp._20200801.id.SemanticIdentifier.randomId;
+import static org.omg.spec.api4kp._20200801.taxonomy.krlanguage.KnowledgeRepresentationLanguageSeries.DMN_1_2;
+import static org.omg.spec.api4kp._20200801.taxonomy.krlanguage.KnowledgeRepresentationLanguageSeries.FHIR_STU3;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.omg.spec.api4kp._20200801.Answer;
+import org.omg.spec.api4kp._20200801.api.knowledgebase.v4.server.TranscreateApiInternal._applyNamedSelect;
+import org.omg.spec.api4kp._20200801.id.Pointer;
+import org.omg.spec.api4kp._20200801.id.SemanticIdentifier;
+import org.omg.spec.api4kp._20200801.services.KnowledgeCarrier;
+import org.omg.spec.api4kp._20200801.taxonomy.krlanguage.KnowledgeRepresentationLanguage;
+
+class KnowledgeBaseFanOutTest {
+
+  @Test
+  void testFirstSuccessfulOperatorWins() throws InterruptedException {
+    // the slow operator would not complete within the test, unless waited for
+    TestSelector slow = new TestSelector(FHIR_STU3, 600_000, true, "slow");
+    // the fast operator only completes once the slow one is running, so that it gets cancelled
+    TestSelector fast = new TestSelector(FHIR_STU3, 0, true, "fast").after(slow);
+    TestSelector dmn = new TestSelector(DMN_1_2, 0, true);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      KnowledgeBaseProvider kbp = new KnowledgeBaseProvider(null)
+          .withFanOutExecutor(executor)
+          .withNamedSelector(fast)
+          .withNamedSelector(slow)
+          .withNamedSelector(dmn);
+      Pointer ptr = newKB(kbp);
+
+      Pointer selected = kbp.select(ptr.getUuid(), ptr.getVersionTag(), carrier(), null)
+          .orElseGet(Assertions::fail);
+
+      assertEquals(ptr.getUuid(), selected.getUuid());
+      assertEquals("fast", kbp.getKnowledgeBaseManifestation(
+          selected.getUuid(), selected.getVersionTag())
+          .orElseGet(Assertions::fail).getExpression());
+      // the slow operator, which comes later, is not waited for, but cancelled
+      assertTrue(slow.interrupted.await(30, TimeUnit.SECONDS));
+      // the DMN operator does not apply to a FHIR KB
+      assertEquals(0, dmn.invocations.get());
+      // only the winner publishes a new version
+      assertEquals(2,
+          kbp.getKnowledgeBaseSeries(ptr.getUuid()).orElseGet(Assertions::fail).size());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testEarliestSuccessfulOperatorWins() {
+    KnowledgeBaseProvider kbp = new KnowledgeBaseProvider(null)
+        .withNamedSelector(new TestSelector(FHIR_STU3, 50, false))
+        .withNamedSelector(new MarkingSelector((byte) 'a', 200))
+        .withNamedSelector(new MarkingSelector((byte) 'b', 0));
+    Pointer ptr = kbp.initKnowledgeBase().orElseGet(Assertions::fail);
+    kbp.populateKnowledgeBase(ptr.getUuid(), ptr.getVersionTag(), new KnowledgeCarrier()
+        .withAssetId(randomId())
+        .withExpression(new byte[]{'x', 'x', 'x'})
+        .withRepresentation(rep(FHIR_STU3)));
+
+    for (int j = 0; j < 5; j++) {
+      Pointer selected = kbp.select(ptr.getUuid(), ptr.getVersionTag(), carrier(), null)
+          .orElseGet(Assertions::fail);
+      // 'b' is faster, but 'a' comes first; each one only sees its own changes
+      assertEquals("aaa", kbp.getKnowledgeBaseManifestation(
+          selected.getUuid(), selected.getVersionTag())
+          .orElseGet(Assertions::fail).getExpression());
+    }
+    // the source KB version is not modified
+    assertArrayEquals(new byte[]{'x', 'x', 'x'},
+        (byte[]) kbp.getKnowledgeBaseManifestation(ptr.getUuid(), ptr.getVersionTag())
+            .orElseGet(Assertions::fail).getExpression());
+  }
+
+  @Test
+  void testFailedOperatorsLeaveNoVersion() {
+    KnowledgeBaseProvider kbp = new KnowledgeBaseProvider(null)
+        .withNamedSelector(new TestSelector(FHIR_STU3, 0, false))
+        .withNamedSelector(new TestSelector(FHIR_STU3, 10, false));
+    Pointer ptr = newKB(kbp);
+
+    assertTrue(kbp.select(ptr.getUuid(), ptr.getVersionTag(), carrier(), null).isNotFound());
+    assertEquals(1, kbp.getKnowledgeBaseSeries(ptr.getUuid()).orElseGet(Assertions::fail).size());
+  }
+
+  private Pointer newKB(KnowledgeBaseProvider kbp) {
+    Pointer ptr = kbp.initKnowledgeBase().orElseGet(Assertions::fail);
+    kbp.populateKnowledgeBase(ptr.getUuid(), ptr.getVersionTag(), carrier());
+    return ptr;
+  }
+
+  private static KnowledgeCarrier carrier() {
+    return new KnowledgeCarrier()
+        .withAssetId(randomId())
+        .withExpression("x")
+        .withRepresentation(rep(FHIR_STU3));
+  }
+
+  /**
+   * Overwrites the (binary) manifestation of the KB in place, then returns what it reads back
+   */
+  private static class MarkingSelector extends TestSelector {
+
+    private final byte mark;
+
+    MarkingSelector(byte mark, long delay) {
+      super(FHIR_STU3, delay, true);
+      this.mark = mark;
+    }
+
+    @Override
+    public Answer<KnowledgeCarrier> applyNamedSelect(UUID operatorId, KnowledgeCarrier definition,
+        UUID kbaseId, String versionTag, String xParams) {
+      byte[] content = (byte[]) kbManager.getKnowledgeBaseManifestation(kbaseId, versionTag)
+          .orElseGet(Assertions::fail).getExpression();
+      Arrays.fill(content, mark);
+      return super.applyNamedSelect(operatorId, definition, kbaseId, versionTag, xParams)
+          .map(kc -> kc.withExpression(new String(content, StandardCharsets.UTF_8)));
+    }
+  }
+
+  private static class TestSelector
+      extends AbstractKnowledgeBaseOperator
+      implements _applyNamedSelect {
+
+    private final KnowledgeRepresentationLanguage language;
+    private final long delay;
+    private final boolean succeed;
+    private final String result;
+    private final AtomicInteger invocations = new AtomicInteger();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch interrupted = new CountDownLatch(1);
+    private CountDownLatch awaited;
+
+    TestSelector(KnowledgeRepresentationLanguage language, long delay, boolean succeed) {
+      this(language, delay, succeed, "selected");
+    }
+
+    TestSelector(KnowledgeRepresentationLanguage language, long delay, boolean succeed,
+        String result) {
+      super(SemanticIdentifier.newId(UUID.randomUUID(), "1.0.0"));
+      this.language = language;
+      this.delay = delay;
+      this.succeed = succeed;
+      this.result = result;
+    }
+
+    /**
+     * Makes this operator wait for another one to start, before completing
+     */
+    TestSelector after(TestSelector other) {
+      this.awaited = other.started;
+      return this;
+    }
+
+    @Override
+    public KnowledgeRepresentationLanguage getSupportedLanguage() {
+      return language;
+    }
+
+    @Override
+    public Answer<KnowledgeCarrier> applyNamedSelect(UUID operatorId, KnowledgeCarrier definition,
+        UUID kbaseId, String versionTag, String xParams) {
+      invocations.incrementAndGet();
+      started.countDown();
+      try {
+        if (awaited != null) {
+          awaited.await();
+        }
+        Thread.sleep(delay);
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+        Thread.currentThread().interrupt();
+        return Answer.failed(e);
+      }
+      return succeed
+          ? Answer.of(new KnowledgeCarrier()
+              .withAssetId(randomId())
+              .withExpression(result)
+              .withRepresentation(rep(language)))
+          : Answer.failed();
+    }
+  }
+}
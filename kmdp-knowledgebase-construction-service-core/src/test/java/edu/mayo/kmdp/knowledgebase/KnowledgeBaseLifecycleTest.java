@@ -0,0 +1,133 @@
+package edu.mayo.kmdp.knowledgebase;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.omg.spec.api4kp._20200801.id.SemanticIdentifier.randomId;
+
+import edu.mayo.kmdp.knowledgebase.KnowledgeBaseLifecycle.KnowledgeBaseMetrics;
+import edu.mayo.kmdp.knowledgebase.KnowledgeBaseLifecycleConfiguration.KnowledgeBaseLifecycleParams;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.omg.spec.api4kp._20200801.id.Pointer;
+import org.omg.spec.api4kp._20200801.services.CompositeKnowledgeCarrier;
+import org.omg.spec.api4kp._20200801.services.KnowledgeBase;
+import org.omg.spec.api4kp._20200801.services.KnowledgeCarrier;
+
+class KnowledgeBaseLifecycleTest {
+
+  private final AtomicLong now = new AtomicLong(0);
+
+  @Test
+  void testDerivedVersionsExpire() {
+    KnowledgeBaseProvider kbp = new KnowledgeBaseProvider(null)
+        .withLifecycle(new KnowledgeBaseLifecycle(
+            new KnowledgeBaseLifecycleConfiguration()
+                .with(KnowledgeBaseLifecycleParams.DERIVED_TTL, "60"),
+            now::get));
+    Pointer root = newKB(kbp, 10);
+    Pointer derived = derive(kbp, root);
+
+    now.addAndGet(Duration.ofSeconds(30).toMillis());
+    assertTrue(kbp.hasKnowledgeBase(derived.getUuid(), derived.getVersionTag()).isSuccess());
+
+    now.addAndGet(Duration.ofSeconds(31).toMillis());
+    assertTrue(kbp.hasKnowledgeBase(derived.getUuid(), derived.getVersionTag()).isNotFound());
+    // roots are pinned
+    assertTrue(kbp.hasKnowledgeBase(root.getUuid(), root.getVersionTag()).isSuccess());
+
+    KnowledgeBaseMetrics metrics = kbp.getLifecycle().getMetrics();
+    assertEquals(1, metrics.getLiveKnowledgeBases());
+  }
+
+  @Test
+  void testLeastRecentlyUsedEviction() {
+    KnowledgeBaseProvider kbp = new KnowledgeBaseProvider(null)
+        .withLifecycle(new KnowledgeBaseLifecycle(
+            new KnowledgeBaseLifecycleConfiguration()
+                .with(KnowledgeBaseLifecycleParams.MAX_SIZE, "1"),
+            now::get));
+    // 300 KB each (2 bytes per char), so that the budget fits 3
+    Pointer root = newKB(kbp, 150 * 1024);
+    Pointer d1 = derive(kbp, root);
+    Pointer d2 = derive(kbp, root);
+    assertTrue(kbp.hasKnowledgeBase(d1.getUuid(), d1.getVersionTag()).isSuccess());
+
+    // d2 is now the least recently used derived version
+    Pointer d3 = derive(kbp, root);
+    assertTrue(kbp.hasKnowledgeBase(d2.getUuid(), d2.getVersionTag()).isNotFound());
+    assertTrue(kbp.hasKnowledgeBase(d1.getUuid(), d1.getVersionTag()).isSuccess());
+    assertTrue(kbp.hasKnowledgeBase(d3.getUuid(), d3.getVersionTag()).isSuccess());
+    assertTrue(kbp.hasKnowledgeBase(root.getUuid(), root.getVersionTag()).isSuccess());
+
+    KnowledgeBaseMetrics metrics = kbp.getLifecycle().getMetrics();
+    assertEquals(1, metrics.getEvictions());
+    assertEquals(3, metrics.getLiveKnowledgeBases());
+    assertEquals(1, metrics.getPinnedKnowledgeBases());
+  }
+
+  @Test
+  void testPinning() {
+    KnowledgeBaseProvider kbp = new KnowledgeBaseProvider(null)
+        .withLifecycle(new KnowledgeBaseLifecycle(
+            new KnowledgeBaseLifecycleConfiguration()
+                .with(KnowledgeBaseLifecycleParams.DERIVED_TTL, "60"),
+            now::get));
+    Pointer root = newKB(kbp, 10);
+    Pointer derived = derive(kbp, root);
+    kbp.getLifecycle().pin(derived.getUuid(), derived.getVersionTag());
+
+    now.addAndGet(Duration.ofSeconds(120).toMillis());
+    assertTrue(kbp.hasKnowledgeBase(derived.getUuid(), derived.getVersionTag()).isSuccess());
+
+    kbp.getLifecycle().unpin(root.getUuid(), root.getVersionTag());
+    kbp.getLifecycle().expireAfter(root.getUuid(), root.getVersionTag(), Duration.ofSeconds(1));
+    now.addAndGet(Duration.ofSeconds(2).toMillis());
+    assertTrue(kbp.hasKnowledgeBase(root.getUuid(), root.getVersionTag()).isNotFound());
+  }
+
+  @Test
+  void testSharedComponentsCountedOnce() {
+    KnowledgeBaseLifecycle lifecycle = new KnowledgeBaseLifecycle();
+    KnowledgeCarrier shared = new KnowledgeCarrier()
+        .withAssetId(randomId())
+        .withExpression("x".repeat(1000));
+    CompositeKnowledgeCarrier inner = new CompositeKnowledgeCarrier()
+        .withComponent(shared, shared);
+    CompositeKnowledgeCarrier outer = new CompositeKnowledgeCarrier()
+        .withComponent(inner, shared);
+
+    assertEquals(2000, lifecycle.estimateSize(shared));
+    assertEquals(2000, lifecycle.estimateSize(inner));
+    assertEquals(2000, lifecycle.estimateSize(outer));
+  }
+
+  @Test
+  void testConfiguredLifecycle() {
+    KnowledgeBaseProvider kbp = new KnowledgeBaseProvider(
+        null, null, null, null, null, null, null,
+        new KnowledgeBaseLifecycleConfiguration()
+            .with(KnowledgeBaseLifecycleParams.MAX_SIZE, "1"));
+    // 600 KB each: the root is pinned, and only the latest derived version fits the budget
+    Pointer root = newKB(kbp, 300 * 1024);
+    Pointer d1 = derive(kbp, root);
+    derive(kbp, root);
+    assertTrue(kbp.hasKnowledgeBase(d1.getUuid(), d1.getVersionTag()).isNotFound());
+    assertEquals(1, kbp.getLifecycle().getMetrics().getEvictions());
+  }
+
+  private Pointer newKB(KnowledgeBaseProvider kbp, int chars) {
+    Pointer ptr = kbp.initKnowledgeBase().orElseGet(Assertions::fail);
+    kbp.populateKnowledgeBase(ptr.getUuid(), ptr.getVersionTag(), new KnowledgeCarrier()
+        .withAssetId(randomId())
+        .withExpression("x".repeat(chars)));
+    return ptr;
+  }
+
+  private Pointer derive(KnowledgeBaseProvider kbp, Pointer ptr) {
+    return kbp.nextKnowledgeBaseVersion(ptr.getUuid(), ptr.getVersionTag())
+        .map(KnowledgeBase::getKbaseId)
+        .orElseGet(Assertions::fail);
+  }
+}
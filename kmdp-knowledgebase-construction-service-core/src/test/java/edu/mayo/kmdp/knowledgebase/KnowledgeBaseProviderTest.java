@@ -0,0 +1,115 @@
+package edu.mayo.kmdp.knowledgebase;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.omg.spec.api4kp._20200801.id.SemanticIdentifier.randomId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.omg.spec.api4kp._20200801.id.Pointer;
+import org.omg.spec.api4kp._20200801.services.CompositeKnowledgeCarrier;
+import org.omg.spec.api4kp._20200801.services.CompositeStructType;
+import org.omg.spec.api4kp._20200801.services.KnowledgeBase;
+import org.omg.spec.api4kp._20200801.services.KnowledgeCarrier;
+
+class KnowledgeBaseProviderTest {
+
+  @Test
+  void testSeries() {
+    KnowledgeBaseProvider kbp = new KnowledgeBaseProvider(null);
+    Pointer ptr = kbp.initKnowledgeBase().orElseGet(Assertions::fail);
+    kbp.populateKnowledgeBase(ptr.getUuid(), ptr.getVersionTag(), carrier("a"));
+
+    Pointer next = kbp.nextKnowledgeBaseVersion(ptr.getUuid(), ptr.getVersionTag())
+        .map(KnowledgeBase::getKbaseId)
+        .orElseGet(Assertions::fail);
+    assertEquals(ptr.getUuid(), next.getUuid());
+    assertTrue(kbp.hasKnowledgeBase(next.getUuid(), next.getVersionTag()).isSuccess());
+    assertEquals(2, kbp.getKnowledgeBaseSeries(ptr.getUuid()).orElseGet(Assertions::fail).size());
+
+    kbp.deleteKnowledgeBase(ptr.getUuid());
+    assertTrue(kbp.getKnowledgeBaseSeries(ptr.getUuid()).orElseGet(Assertions::fail).isEmpty());
+    assertTrue(kbp.hasKnowledgeBase(ptr.getUuid(), ptr.getVersionTag()).isNotFound());
+  }
+
+  @Test
+  void testSnapshots() {
+    KnowledgeBaseProvider kbp = new KnowledgeBaseProvider(null);
+    Pointer ptr = kbp.initKnowledgeBase().orElseGet(Assertions::fail);
+    kbp.populateKnowledgeBase(ptr.getUuid(), ptr.getVersionTag(), carrier("a"));
+    kbp.populateKnowledgeBase(ptr.getUuid(), ptr.getVersionTag(), carrier("b"));
+
+    KnowledgeCarrier before = kbp.getKnowledgeBaseManifestation(ptr.getUuid(), ptr.getVersionTag())
+        .orElseGet(Assertions::fail);
+    kbp.populateKnowledgeBase(ptr.getUuid(), ptr.getVersionTag(), carrier("c"));
+    KnowledgeCarrier after = kbp.getKnowledgeBaseManifestation(ptr.getUuid(), ptr.getVersionTag())
+        .orElseGet(Assertions::fail);
+
+    // the manifestation read earlier is not affected by later updates
+    assertEquals(2, before.components().count());
+    assertEquals(3, after.components().count());
+  }
+
+  @Test
+  void testPopulateStructuredKB() {
+    KnowledgeBaseProvider kbp = new KnowledgeBaseProvider(null);
+    Pointer ptr = kbp.initKnowledgeBase().orElseGet(Assertions::fail);
+    kbp.populateKnowledgeBase(ptr.getUuid(), ptr.getVersionTag(), carrier("a"));
+    kbp.populateKnowledgeBase(ptr.getUuid(), ptr.getVersionTag(), carrier("b"));
+    assertTrue(kbp.setKnowledgeBaseStructure(ptr.getUuid(), ptr.getVersionTag(), carrier("s"))
+        .isSuccess());
+
+    // the struct would not account for the new component
+    assertFalse(kbp.populateKnowledgeBase(ptr.getUuid(), ptr.getVersionTag(), carrier("c"))
+        .isSuccess());
+    KnowledgeCarrier kc = kbp.getKnowledgeBaseManifestation(ptr.getUuid(), ptr.getVersionTag())
+        .orElseGet(Assertions::fail);
+    assertEquals(2, kc.components().count());
+    assertEquals(CompositeStructType.GRAPH, ((CompositeKnowledgeCarrier) kc).getStructType());
+  }
+
+  @Test
+  void testConcurrentPopulate() throws Exception {
+    int threads = 8;
+    int rounds = 50;
+    KnowledgeBaseProvider kbp = new KnowledgeBaseProvider(null);
+    Pointer ptr = kbp.initKnowledgeBase().orElseGet(Assertions::fail);
+
+    List<Callable<Void>> tasks = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      tasks.add(() -> {
+        for (int j = 0; j < rounds; j++) {
+          kbp.populateKnowledgeBase(ptr.getUuid(), ptr.getVersionTag(), carrier("x" + j));
+          kbp.getKnowledgeBaseComponents(ptr.getUuid(), ptr.getVersionTag());
+        }
+        return null;
+      });
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      for (Future<Void> f : executor.invokeAll(tasks)) {
+        f.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // no update is lost
+    assertEquals(threads * rounds,
+        kbp.getKnowledgeBaseComponents(ptr.getUuid(), ptr.getVersionTag())
+            .orElseGet(Assertions::fail).size());
+  }
+
+  private static KnowledgeCarrier carrier(String content) {
+    return new KnowledgeCarrier()
+        .withAssetId(randomId())
+        .withExpression(content);
+  }
+}
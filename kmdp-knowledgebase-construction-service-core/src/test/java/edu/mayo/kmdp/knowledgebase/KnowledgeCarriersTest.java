@@ -0,0 +1,100 @@
+package edu.mayo.kmdp.knowledgebase;
+
+import static edu.mayo.kmdp.knowledgebase.KnowledgeCarriers.shallowCopy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.omg.spec.api4kp._20200801.id.SemanticIdentifier.randomId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.omg.spec.api4kp._20200801.services.CompositeKnowledgeCarrier;
+import org.omg.spec.api4kp._20200801.services.KnowledgeCarrier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class KnowledgeCarriersTest {
+
+  private static final Logger logger = LoggerFactory.getLogger(KnowledgeCarriersTest.class);
+
+  private static final int COMPONENTS = 200;
+
+  @Test
+  void testShallowCopy() {
+    CompositeKnowledgeCarrier ckc = composite();
+    CompositeKnowledgeCarrier copy = shallowCopy(ckc)
+        .withComponent(component(0));
+
+    assertEquals(COMPONENTS, ckc.getComponent().size());
+    assertEquals(COMPONENTS + 1, copy.getComponent().size());
+    assertSame(ckc.getStruct(), copy.getStruct());
+    for (int j = 0; j < COMPONENTS; j++) {
+      assertSame(ckc.getComponent().get(j), copy.getComponent().get(j));
+    }
+  }
+
+  /**
+   * Reports the heap allocated by a derived version of a 200-component composite, when the
+   * manifestation is deep-cloned vs structurally shared.
+   * <p>
+   * Run on demand, with -Dkmdp.benchmark=true
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "kmdp.benchmark", matches = "true")
+  void benchmarkDerivedVersionFootprint() {
+    CompositeKnowledgeCarrier ckc = composite();
+    int versions = 100;
+
+    long cloned = footprint(versions, ckc,
+        src -> ((CompositeKnowledgeCarrier) src.clone()).withComponent(component(0)));
+    long shared = footprint(versions, ckc,
+        src -> shallowCopy(src).withComponent(component(0)));
+
+    logger.info("Heap per derived version ({} components) : deep clone {} bytes, shared {} bytes",
+        COMPONENTS, cloned / versions, shared / versions);
+
+    assertTrue(shared < cloned);
+  }
+
+  private static long footprint(int versions, CompositeKnowledgeCarrier src,
+      UnaryOperator<CompositeKnowledgeCarrier> derive) {
+    List<CompositeKnowledgeCarrier> retained = new ArrayList<>(versions);
+    long before = usedHeap();
+    for (int j = 0; j < versions; j++) {
+      retained.add(derive.apply(src));
+    }
+    long after = usedHeap();
+    assertEquals(versions, retained.size());
+    return after - before;
+  }
+
+  private static long usedHeap() {
+    Runtime rt = Runtime.getRuntime();
+    for (int j = 0; j < 3; j++) {
+      System.gc();
+    }
+    return rt.totalMemory() - rt.freeMemory();
+  }
+
+  private static CompositeKnowledgeCarrier composite() {
+    CompositeKnowledgeCarrier ckc = new CompositeKnowledgeCarrier()
+        .withAssetId(randomId())
+        .withStruct(new KnowledgeCarrier()
+            .withAssetId(randomId())
+            .withExpression("struct"));
+    for (int j = 0; j < COMPONENTS; j++) {
+      ckc.withComponent(component(j));
+    }
+    return ckc;
+  }
+
+  private static KnowledgeCarrier component(int j) {
+    return new KnowledgeCarrier()
+        .withAssetId(randomId())
+        .withLabel("Component " + j)
+        .withExpression("x".repeat(1024));
+  }
+}
@@ -0,0 +1,86 @@
+package edu.mayo.kmdp.knowledgebase.extractors.rdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.omg.spec.api4kp._20200801.id.SemanticIdentifier.randomId;
+
+import edu.mayo.kmdp.knowledgebase.KnowledgeBaseProvider;
+import java.util.UUID;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.omg.spec.api4kp._20200801.id.Pointer;
+import org.omg.spec.api4kp._20200801.id.ResourceIdentifier;
+import org.omg.spec.api4kp._20200801.id.SemanticIdentifier;
+import org.omg.spec.api4kp._20200801.services.CompositeKnowledgeCarrier;
+import org.omg.spec.api4kp._20200801.services.CompositeStructType;
+import org.omg.spec.api4kp._20200801.services.KnowledgeCarrier;
+import org.omg.spec.api4kp._20200801.taxonomy.dependencyreltype.DependencyTypeSeries;
+
+class SimplePivotExtractorTest {
+
+  @Test
+  void testPivotSharesComponents() {
+    KnowledgeCarrier a = component("a");
+    KnowledgeCarrier b = component("b");
+    KnowledgeCarrier c = component("c");
+
+    Model struct = ModelFactory.createDefaultModel();
+    Property imports = struct.createProperty(
+        DependencyTypeSeries.Imports.getReferentId().toString());
+    struct.add(res(struct, a), imports, res(struct, b));
+    struct.add(res(struct, c), imports, res(struct, b));
+
+    CompositeKnowledgeCarrier ckc = new CompositeKnowledgeCarrier()
+        .withAssetId(randomId())
+        .withComponent(a, b, c)
+        .withStruct(new KnowledgeCarrier()
+            .withAssetId(randomId())
+            .withExpression(struct))
+        .withStructType(CompositeStructType.GRAPH);
+
+    KnowledgeBaseProvider kbp = new KnowledgeBaseProvider(null);
+    kbp.withNamedExtractor(new SimplePivotExtractor(kbp));
+    Pointer ptr = kbp.initKnowledgeBase().orElseGet(Assertions::fail);
+    kbp.populateKnowledgeBase(ptr.getUuid(), ptr.getVersionTag(), ckc);
+
+    Pointer pivoted = kbp.namedExtract(ptr.getUuid(), ptr.getVersionTag(),
+        a.getAssetId().getUuid(), SimplePivotExtractor.id, null)
+        .orElseGet(Assertions::fail);
+    CompositeKnowledgeCarrier out = (CompositeKnowledgeCarrier) kbp
+        .getKnowledgeBaseManifestation(pivoted.getUuid(), pivoted.getVersionTag())
+        .orElseGet(Assertions::fail);
+
+    assertEquals(a.getAssetId(), out.getRootId());
+    assertEquals(2, out.getComponent().size());
+    // the retained components are shared with the source KB
+    assertSame(a, out.getComponent().get(0));
+    assertSame(b, out.getComponent().get(1));
+    Model pivotedStruct = out.getStruct().as(Model.class).orElseGet(Assertions::fail);
+    assertTrue(pivotedStruct.contains(res(pivotedStruct, a), imports, res(pivotedStruct, b)));
+    assertFalse(pivotedStruct.contains(res(pivotedStruct, c), imports, res(pivotedStruct, b)));
+
+    // the source KB is not affected
+    CompositeKnowledgeCarrier src = (CompositeKnowledgeCarrier) kbp
+        .getKnowledgeBaseManifestation(ptr.getUuid(), ptr.getVersionTag())
+        .orElseGet(Assertions::fail);
+    assertEquals(3, src.getComponent().size());
+    assertEquals(2, struct.size());
+  }
+
+  private static KnowledgeCarrier component(String content) {
+    ResourceIdentifier id = SemanticIdentifier.newId(UUID.randomUUID(), "1.0.0");
+    return new KnowledgeCarrier()
+        .withAssetId(id)
+        .withExpression(content);
+  }
+
+  private static Resource res(Model m, KnowledgeCarrier kc) {
+    return m.createResource(kc.getAssetId().getVersionId().toString());
+  }
+}
@@ -18,26 +18,40 @@ import static org.omg.spec.api4kp._20200801.taxonomy.parsinglevel.ParsingLevelSe
 import edu.mayo.kmdp.knowledgebase.KnowledgeBaseProvider;
 import edu.mayo.kmdp.language.parsers.dmn.v1_2.DMN12Parser;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import javax.xml.bind.JAXBElement;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.omg.spec.api4kp._20200801.AbstractCarrier;
 import org.omg.spec.api4kp._20200801.AbstractCarrier.Encodings;
 import org.omg.spec.api4kp._20200801.Answer;
 import org.omg.spec.api4kp._20200801.id.ResourceIdentifier;
+import org.omg.spec.api4kp._20200801.id.SemanticIdentifier;
 import org.omg.spec.api4kp._20200801.services.CompositeKnowledgeCarrier;
 import org.omg.spec.api4kp._20200801.services.KnowledgeCarrier;
+import org.omg.spec.dmn._20180521.model.ObjectFactory;
 import org.omg.spec.dmn._20180521.model.TBusinessKnowledgeModel;
+import org.omg.spec.dmn._20180521.model.TDMNElementReference;
 import org.omg.spec.dmn._20180521.model.TDecision;
 import org.omg.spec.dmn._20180521.model.TDecisionService;
 import org.omg.spec.dmn._20180521.model.TDefinitions;
+import org.omg.spec.dmn._20180521.model.TInformationRequirement;
 import org.omg.spec.dmn._20180521.model.TInputData;
+import org.omg.spec.dmn._20180521.model.TKnowledgeRequirement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 class DMN12FlattenerTest {
 
+  private static final Logger logger = LoggerFactory.getLogger(DMN12FlattenerTest.class);
+
   protected KnowledgeBaseProvider kbManager = new KnowledgeBaseProvider(null)
       .withNamedFlattener(new DMN12ModelFlattener());
 
@@ -185,6 +199,281 @@ class DMN12FlattenerTest {
   }
 
 
+  @Test
+  void testFlattenAll() {
+    String base = "/flatteners/dmn/v1_2/nestedEncapsulated/";
+    List<String> files = Arrays.asList(
+        base + "Client.dmn.xml",
+        base + "Service.dmn.xml",
+        base + "SubService.dmn.xml"
+    );
+    List<KnowledgeCarrier> kcs = readDMNModels(files);
+    List<TDefinitions> snaps = kcs.stream()
+        .map(kc -> kc.as(TDefinitions.class).orElseGet(Assertions::fail))
+        .map(dmn -> (TDefinitions) dmn.clone())
+        .collect(Collectors.toList());
+
+    Map<UUID, KnowledgeCarrier> flatModels = new DMN12ModelFlattener()
+        .flattenAll(ofUniformAnonymousComposite(kcs.get(0).getAssetId(), kcs))
+        .orElseGet(Assertions::fail);
+    assertEquals(3, flatModels.size());
+
+    for (KnowledgeCarrier kc : kcs) {
+      TDefinitions flat = flatModels.get(kc.getAssetId().getUuid())
+          .as(TDefinitions.class)
+          .orElseGet(Assertions::fail);
+      // same as flattening the composite with that model as the root
+      TDefinitions expected = new DMN12ModelFlattener()
+          .flattenArtifact(ofUniformAnonymousComposite(kc.getAssetId(), kcs),
+              kc.getAssetId().getUuid(), null)
+          .flatOpt(x -> x.as(TDefinitions.class))
+          .orElseGet(Assertions::fail);
+      assertEquals(expected.getDrgElement().size(), flat.getDrgElement().size());
+      assertEquals(
+          streamDecisions(expected).map(TDecision::getId).collect(Collectors.toSet()),
+          streamDecisions(flat).map(TDecision::getId).collect(Collectors.toSet()));
+    }
+
+    // the shared, resolved elements are copied into each flat model
+    TDecisionService s1 = streamDecisionServices(
+        flatModels.get(kcs.get(0).getAssetId().getUuid()).as(TDefinitions.class).orElseThrow())
+        .filter(ds -> "SubService".equals(ds.getName().trim()))
+        .findFirst().orElseGet(Assertions::fail);
+    TDecisionService s2 = streamDecisionServices(
+        flatModels.get(kcs.get(1).getAssetId().getUuid()).as(TDefinitions.class).orElseThrow())
+        .filter(ds -> "SubService".equals(ds.getName().trim()))
+        .findFirst().orElseGet(Assertions::fail);
+    assertNotSame(s1, s2);
+
+    // the original models are not impacted
+    for (int j = 0; j < kcs.size(); j++) {
+      assertEquals(snaps.get(j), kcs.get(j).as(TDefinitions.class).orElseGet(Assertions::fail));
+    }
+  }
+
+
+  @Test
+  void testSharedRequirementsMergedOnce() {
+    // each decision requires two decisions of the previous model, so most decisions
+    // are required more than once
+    List<KnowledgeCarrier> kcs = layeredModels(4, 3);
+    KnowledgeCarrier root = kcs.get(kcs.size() - 1);
+
+    TDefinitions flat = new DMN12ModelFlattener()
+        .flattenArtifact(ofUniformAnonymousComposite(root.getAssetId(), kcs),
+            root.getAssetId().getUuid(), null)
+        .flatOpt(kc -> kc.as(TDefinitions.class))
+        .orElseGet(Assertions::fail);
+
+    assertEquals(12, streamDecisions(flat).count());
+    assertEquals(3, streamInputs(flat).count());
+    assertEquals(flat.getDrgElement().size(),
+        flat.getDrgElement().stream()
+            .map(drg -> drg.getValue().getId())
+            .distinct()
+            .count());
+    assertTrue(streamDecisions(flat)
+        .flatMap(d -> d.getInformationRequirement().stream())
+        .allMatch(req -> req.getRequiredDecision() != null
+            ? req.getRequiredDecision().getHref().startsWith("#")
+            : req.getRequiredInput().getHref().startsWith("#")));
+  }
+
+  @Test
+  void testBKMRequiredBeforeService() {
+    // the root decision requires a BKM of the library directly, then a service whose output
+    // requires the same BKM: the BKM is only merged (and referenced locally) through the service
+    ObjectFactory of = new ObjectFactory();
+    String lib = "http://test.foo/dmn/lib";
+    TDefinitions library = new TDefinitions()
+        .withId("lib").withName("Library").withNamespace(lib)
+        .withDrgElement(
+            of.createBusinessKnowledgeModel(new TBusinessKnowledgeModel()
+                .withId("b1").withName("BKM 1")),
+            of.createDecision(new TDecision()
+                .withId("out").withName("Output")
+                .withKnowledgeRequirement(new TKnowledgeRequirement()
+                    .withRequiredKnowledge(new TDMNElementReference().withHref("#b1")))),
+            of.createDecisionService(new TDecisionService()
+                .withId("ds").withName("Service")
+                .withOutputDecision(new TDMNElementReference().withHref("#out"))));
+    TDefinitions client = new TDefinitions()
+        .withId("client").withName("Client").withNamespace("http://test.foo/dmn/client")
+        .withDrgElement(
+            of.createDecision(new TDecision()
+                .withId("d1").withName("Decision 1")
+                .withKnowledgeRequirement(
+                    new TKnowledgeRequirement()
+                        .withRequiredKnowledge(new TDMNElementReference().withHref(lib + "#b1")),
+                    new TKnowledgeRequirement()
+                        .withRequiredKnowledge(new TDMNElementReference().withHref(lib + "#ds")))));
+
+    TDefinitions flat = flattenModels(client, library);
+
+    assertEquals(1, streamBKM(flat).count());
+    assertEquals(1, streamDecisionServices(flat).count());
+    assertLocalReferencesResolve(flat);
+  }
+
+  @Test
+  void testServiceInputDecisionRequiredLater() {
+    // the root requires a service first, which merges one of its input decisions,
+    // then requires that decision directly: the requirements of the decision are still resolved
+    ObjectFactory of = new ObjectFactory();
+    String lib = "http://test.foo/dmn/lib";
+    String other = "http://test.foo/dmn/other";
+    TDefinitions library = new TDefinitions()
+        .withId("lib").withName("Library").withNamespace(lib)
+        .withDrgElement(
+            of.createDecision(new TDecision()
+                .withId("x").withName("Input Decision")
+                .withInformationRequirement(new TInformationRequirement()
+                    .withRequiredDecision(new TDMNElementReference().withHref(other + "#y")))),
+            of.createDecision(new TDecision()
+                .withId("out").withName("Output")),
+            of.createDecisionService(new TDecisionService()
+                .withId("ds").withName("Service")
+                .withInputDecision(new TDMNElementReference().withHref("#x"))
+                .withOutputDecision(new TDMNElementReference().withHref("#out"))));
+    TDefinitions otherModel = new TDefinitions()
+        .withId("other").withName("Other").withNamespace(other)
+        .withDrgElement(
+            of.createDecision(new TDecision()
+                .withId("y").withName("Required Decision")));
+    TDefinitions client = new TDefinitions()
+        .withId("client").withName("Client").withNamespace("http://test.foo/dmn/client")
+        .withDrgElement(
+            of.createDecision(new TDecision()
+                .withId("d1").withName("Decision 1")
+                .withKnowledgeRequirement(new TKnowledgeRequirement()
+                    .withRequiredKnowledge(new TDMNElementReference().withHref(lib + "#ds")))),
+            of.createDecision(new TDecision()
+                .withId("d2").withName("Decision 2")
+                .withInformationRequirement(new TInformationRequirement()
+                    .withRequiredDecision(new TDMNElementReference().withHref(lib + "#x")))));
+
+    TDefinitions flat = flattenModels(client, library, otherModel);
+
+    assertEquals(
+        new HashSet<>(Arrays.asList("d1", "d2", "x", "out", "y")),
+        streamDecisions(flat).map(TDecision::getId).collect(Collectors.toSet()));
+    assertEquals(5, streamDecisions(flat).count());
+    assertLocalReferencesResolve(flat);
+  }
+
+  /**
+   * Measures the time needed to flatten layered decision graphs of 100, 1k and 10k decisions,
+   * where each decision requires two decisions of the previous layer (model).
+   * <p>
+   * Run on demand, with -Dkmdp.benchmark=true
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "kmdp.benchmark", matches = "true")
+  void benchmarkFlattenLayeredGraph() {
+    int layers = 10;
+    for (int size : new int[]{100, 1_000, 10_000}) {
+      List<KnowledgeCarrier> kcs = layeredModels(layers, size / layers);
+      KnowledgeCarrier root = kcs.get(kcs.size() - 1);
+      CompositeKnowledgeCarrier ckc = ofUniformAnonymousComposite(root.getAssetId(), kcs);
+      DMN12ModelFlattener flattener = new DMN12ModelFlattener();
+
+      // warm up
+      flattener.flattenArtifact(ckc, root.getAssetId().getUuid(), null);
+      long start = System.nanoTime();
+      Answer<KnowledgeCarrier> flat =
+          flattener.flattenArtifact(ckc, root.getAssetId().getUuid(), null);
+      long time = System.nanoTime() - start;
+
+      logger.info("DMN flattening ({} decisions) : {} ms, {} us/decision",
+          size, time / 1_000_000, time / 1_000 / size);
+
+      TDefinitions flatModel = flat
+          .flatOpt(kc -> kc.as(TDefinitions.class))
+          .orElseGet(Assertions::fail);
+      assertEquals(size, streamDecisions(flatModel).count());
+      assertEquals(size / layers, streamInputs(flatModel).count());
+    }
+  }
+
+  /**
+   * @return layers of decision models, where each decision requires two decisions of the
+   * previous model, and the decisions of the first model require an input
+   */
+  private List<KnowledgeCarrier> layeredModels(int layers, int width) {
+    ObjectFactory of = new ObjectFactory();
+    List<KnowledgeCarrier> kcs = new ArrayList<>(layers);
+    for (int l = 0; l < layers; l++) {
+      String ns = "http://test.foo/dmn/" + l;
+      TDefinitions dmn = new TDefinitions()
+          .withId("m" + l)
+          .withName("Model " + l)
+          .withNamespace(ns);
+      for (int j = 0; j < width; j++) {
+        TDecision decision = new TDecision()
+            .withId("d" + l + "x" + j)
+            .withName("Decision " + l + "." + j);
+        if (l == 0) {
+          dmn.withDrgElement(of.createInputData(new TInputData()
+              .withId("i" + j)
+              .withName("Input " + j)));
+          decision.withInformationRequirement(new TInformationRequirement()
+              .withRequiredInput(new TDMNElementReference().withHref("#i" + j)));
+        } else {
+          String prev = "http://test.foo/dmn/" + (l - 1) + "#d" + (l - 1) + "x";
+          decision.withInformationRequirement(
+              new TInformationRequirement()
+                  .withRequiredDecision(new TDMNElementReference().withHref(prev + j)),
+              new TInformationRequirement()
+                  .withRequiredDecision(
+                      new TDMNElementReference().withHref(prev + ((j + 1) % width))));
+        }
+        dmn.withDrgElement(of.createDecision(decision));
+      }
+      kcs.add(AbstractCarrier.ofAst(dmn)
+          .withRepresentation(rep(DMN_1_2))
+          .withAssetId(SemanticIdentifier.newId(UUID.randomUUID(), "1.0.0")));
+    }
+    return kcs;
+  }
+
+  private TDefinitions flattenModels(TDefinitions root, TDefinitions... others) {
+    List<KnowledgeCarrier> kcs = new ArrayList<>();
+    kcs.add(AbstractCarrier.ofAst(root)
+        .withRepresentation(rep(DMN_1_2))
+        .withAssetId(SemanticIdentifier.newId(UUID.randomUUID(), "1.0.0")));
+    for (TDefinitions dmn : others) {
+      kcs.add(AbstractCarrier.ofAst(dmn)
+          .withRepresentation(rep(DMN_1_2))
+          .withAssetId(SemanticIdentifier.newId(UUID.randomUUID(), "1.0.0")));
+    }
+    return flatten(kcs.get(0).getAssetId(), kcs);
+  }
+
+  /**
+   * Asserts that each local reference in a flat model points to an element of that model
+   */
+  private void assertLocalReferencesResolve(TDefinitions flat) {
+    List<String> hrefs = new ArrayList<>();
+    streamDecisions(flat).forEach(d -> {
+      d.getInformationRequirement().forEach(req -> hrefs.add(req.getRequiredDecision() != null
+          ? req.getRequiredDecision().getHref()
+          : req.getRequiredInput().getHref()));
+      d.getKnowledgeRequirement().forEach(req -> hrefs.add(req.getRequiredKnowledge().getHref()));
+    });
+    streamBKM(flat).forEach(bkm -> bkm.getKnowledgeRequirement()
+        .forEach(req -> hrefs.add(req.getRequiredKnowledge().getHref())));
+    streamDecisionServices(flat).forEach(ds -> {
+      ds.getInputDecision().forEach(ref -> hrefs.add(ref.getHref()));
+      ds.getInputData().forEach(ref -> hrefs.add(ref.getHref()));
+      ds.getOutputDecision().forEach(ref -> hrefs.add(ref.getHref()));
+    });
+    hrefs.stream()
+        .filter(href -> href.startsWith("#"))
+        .forEach(href -> assertTrue(
+            flat.getDrgElement().stream().anyMatch(drg -> joins(drg.getValue().getId(), href)),
+            "Dangling reference " + href));
+  }
+
   private TDefinitions flatten(ResourceIdentifier assetId, List<KnowledgeCarrier> kcs) {
     CompositeKnowledgeCarrier ckc =
         ofUniformAnonymousComposite(assetId, kcs);
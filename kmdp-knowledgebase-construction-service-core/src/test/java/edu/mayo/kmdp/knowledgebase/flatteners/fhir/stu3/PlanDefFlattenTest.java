@@ -2,23 +2,38 @@ package edu.mayo.kmdp.knowledgebase.flatteners.fhir.stu3;
 
 import static java.util.Collections.emptyList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.omg.spec.api4kp._20200801.AbstractCarrier.rep;
 import static org.omg.spec.api4kp._20200801.taxonomy.krlanguage._20210401.KnowledgeRepresentationLanguage.FHIR_STU3;
 
 import ca.uhn.fhir.context.FhirContext;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
 import org.hl7.fhir.dstu3.model.ActivityDefinition;
+import org.hl7.fhir.dstu3.model.Coding;
+import org.hl7.fhir.dstu3.model.Identifier;
 import org.hl7.fhir.dstu3.model.PlanDefinition;
+import org.hl7.fhir.dstu3.model.PlanDefinition.PlanDefinitionActionComponent;
 import org.hl7.fhir.dstu3.model.Reference;
 import org.hl7.fhir.dstu3.model.Resource;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.omg.spec.api4kp._20200801.AbstractCarrier;
 import org.omg.spec.api4kp._20200801.id.SemanticIdentifier;
+import org.omg.spec.api4kp._20200801.services.KnowledgeCarrier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 class PlanDefFlattenTest {
 
+  private static final Logger logger = LoggerFactory.getLogger(PlanDefFlattenTest.class);
+
+  private static final String BASE = "http://test.foo/artifacts/";
+
   PlanDefinition root;
 
   @BeforeEach
@@ -68,5 +83,120 @@ class PlanDefFlattenTest {
     assertTrue(rec1.equalsDeep(rec2));
   }
 
+  @Test
+  void testResolveReferences() {
+    PlanDefinition master = plan("master", "Master");
+    PlanDefinition sub1 = plan(BASE + "sub1", "Sub");
+    PlanDefinition sub2 = plan(BASE + "sub2", "Sub");
+
+    PlanDefinitionActionComponent toSub1 = master.addAction().addAction();
+    toSub1.setDefinition(new Reference(BASE + "sub1"));
+    PlanDefinitionActionComponent toSub2 = sub1.addAction();
+    toSub2.setDefinition(new Reference(BASE + "sub2#act")
+        .setIdentifier(new Identifier().setValue("act")));
+    PlanDefinitionActionComponent act = sub2.addAction();
+    act.setId("#act");
+
+    new PlanDefinitionFlattener()
+        .innerFlatten(master, List.of(sub1, sub2), components(master, sub1, sub2));
+
+    assertEquals("#sub1", toSub1.getDefinition().getReference());
+    assertSame(sub1, toSub1.getDefinition().getResource());
+    assertSame(sub2, toSub2.getDefinition().getResource());
+    assertEquals(1, sub1.getAction().size());
+    assertSame(act, sub1.getActionFirstRep());
+
+    assertEquals(2, master.getContained().size());
+    assertTrue(master.getContained().contains(sub1));
+    assertTrue(master.getContained().contains(sub2));
+  }
+
+  /**
+   * Measures the time needed to flatten a master plan with N sub plans, where each sub plan has
+   * an action tree of increasing depth and breadth, and refers to an action of the next plan.
+   * <p>
+   * Run on demand, with -Dkmdp.benchmark=true
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "kmdp.benchmark", matches = "true")
+  void benchmarkFlattenPlans() {
+    int[][] shapes = {{2, 4}, {3, 4}, {3, 8}, {4, 6}};
+    for (int plans : new int[]{10, 100, 1000}) {
+      for (int[] shape : shapes) {
+        // warm up
+        flatten(plans, shape[0], shape[1]);
+        int runs = 5;
+        long total = 0;
+        for (int j = 0; j < runs; j++) {
+          total += flatten(plans, shape[0], shape[1]);
+        }
+        logger.info("PlanDef flattening ({} plans, depth {}, breadth {}) : {} us",
+            plans, shape[0], shape[1], total / (runs * 1_000L));
+      }
+    }
+  }
+
+  private static long flatten(int plans, int depth, int breadth) {
+    PlanDefinition master = plan("master", "Master");
+    List<PlanDefinition> subPlans = new ArrayList<>(plans);
+    List<Reference> refs = new ArrayList<>(plans);
+    for (int j = 0; j < plans; j++) {
+      PlanDefinition sub = plan(BASE + "p" + j, "Sub");
+      PlanDefinitionActionComponent top = sub.addAction();
+      top.setId("#a" + j);
+      actions(top, depth, breadth);
+      if (j + 1 < plans) {
+        sub.addAction().setDefinition(new Reference(BASE + "p" + (j + 1) + "#a" + (j + 1))
+            .setIdentifier(new Identifier().setValue("a" + (j + 1))));
+      }
+      Reference ref = new Reference(BASE + "p" + j);
+      actions(master.addAction(), depth, breadth).setDefinition(ref);
+      refs.add(ref);
+      subPlans.add(sub);
+    }
+    List<KnowledgeCarrier> components = new ArrayList<>(subPlans.size() + 1);
+    components.add(AbstractCarrier.ofAst(master));
+    subPlans.forEach(sub -> components.add(AbstractCarrier.ofAst(sub)));
+
+    long start = System.nanoTime();
+    new PlanDefinitionFlattener().innerFlatten(master, subPlans, components);
+    long time = System.nanoTime() - start;
+    assertEquals(plans, master.getContained().size());
+    for (int j = 0; j < plans; j++) {
+      assertEquals("#p" + j, refs.get(j).getReference());
+      assertSame(subPlans.get(j), refs.get(j).getResource());
+    }
+    return time;
+  }
+
+  /**
+   * Adds a tree of actions of the given depth and breadth
+   *
+   * @return the last (leaf) action
+   */
+  private static PlanDefinitionActionComponent actions(PlanDefinitionActionComponent parent,
+      int depth, int breadth) {
+    PlanDefinitionActionComponent last = parent;
+    if (depth > 0) {
+      for (int j = 0; j < breadth; j++) {
+        last = actions(parent.addAction(), depth - 1, breadth);
+      }
+    }
+    return last;
+  }
+
+  private static PlanDefinition plan(String id, String type) {
+    PlanDefinition plan = new PlanDefinition();
+    plan.setId(id);
+    plan.setName(id);
+    plan.getType().addCoding(new Coding().setCode(type).setDisplay(type));
+    return plan;
+  }
+
+  private static List<KnowledgeCarrier> components(PlanDefinition... plans) {
+    return List.of(plans).stream()
+        .map(plan -> AbstractCarrier.ofAst(plan))
+        .collect(Collectors.toList());
+  }
 
 }